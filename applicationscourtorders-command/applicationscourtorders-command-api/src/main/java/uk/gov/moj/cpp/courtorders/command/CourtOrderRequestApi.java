@@ -34,6 +34,18 @@ public class CourtOrderRequestApi {
                 command.payloadAsJsonObject()));
     }
 
+    @Handles("courtorders.bulk-create-court-orders")
+    public void bulkCreateCourtOrdersRequest(final JsonEnvelope command) {
+        this.sender.send(Envelope.envelopeFrom(metadataFrom(command.metadata()).withName("courtorders.command.bulk-create-court-orders").build(),
+                command.payloadAsJsonObject()));
+    }
+
+    @Handles("courtorders.bulk-remove-court-orders")
+    public void bulkRemoveCourtOrdersRequest(final JsonEnvelope command) {
+        this.sender.send(Envelope.envelopeFrom(metadataFrom(command.metadata()).withName("courtorders.command.bulk-remove-court-orders").build(),
+                command.payloadAsJsonObject()));
+    }
+
     @Handles("courtorders.update-court-order-validity")
     public void updateCourtOrderRequest(final JsonEnvelope command) {
         this.sender.send(Envelope.envelopeFrom(metadataFrom(command.metadata()).withName("courtorders.command.update-court-order-validity").build(),
@@ -52,4 +64,16 @@ public class CourtOrderRequestApi {
                 command.payloadAsJsonObject()));
     }
 
+    @Handles("courtorders.resume-patch-job")
+    public void resumePatchJobRequest(final JsonEnvelope command) {
+        this.sender.send(Envelope.envelopeFrom(metadataFrom(command.metadata()).withName("courtorders.command.resume-patch-job").build(),
+                command.payloadAsJsonObject()));
+    }
+
+    @Handles("courtorders.recalculate-expiry-dates")
+    public void recalculateExpiryDatesRequest(final JsonEnvelope command) {
+        this.sender.send(Envelope.envelopeFrom(metadataFrom(command.metadata()).withName("courtorders.command.recalculate-expiry-dates").build(),
+                command.payloadAsJsonObject()));
+    }
+
 }
@@ -103,6 +103,46 @@ public class CourtOrderRequestApiTest {
         assertThat(newCommand.payload(), equalTo(commandEnvelope.payloadAsJsonObject()));
     }
 
+    @Test
+    void shouldBulkCreateCourtOrdersRequest() {
+        final JsonEnvelope commandEnvelope = buildEnvelope("courtorders.bulk-create-court-orders");
+        courtOrderRequestApi.bulkCreateCourtOrdersRequest(commandEnvelope);
+        verify(sender, times(1)).send(envelopeCaptor.capture());
+        final DefaultEnvelope newCommand = envelopeCaptor.getValue();
+        assertThat(newCommand.metadata().name(), is("courtorders.command.bulk-create-court-orders"));
+        assertThat(newCommand.payload(), equalTo(commandEnvelope.payloadAsJsonObject()));
+    }
+
+    @Test
+    void shouldBulkRemoveCourtOrdersRequest() {
+        final JsonEnvelope commandEnvelope = buildEnvelope("courtorders.bulk-remove-court-orders");
+        courtOrderRequestApi.bulkRemoveCourtOrdersRequest(commandEnvelope);
+        verify(sender, times(1)).send(envelopeCaptor.capture());
+        final DefaultEnvelope newCommand = envelopeCaptor.getValue();
+        assertThat(newCommand.metadata().name(), is("courtorders.command.bulk-remove-court-orders"));
+        assertThat(newCommand.payload(), equalTo(commandEnvelope.payloadAsJsonObject()));
+    }
+
+    @Test
+    void shouldResumePatchJobRequest() {
+        final JsonEnvelope commandEnvelope = buildEnvelope("courtorders.resume-patch-job");
+        courtOrderRequestApi.resumePatchJobRequest(commandEnvelope);
+        verify(sender, times(1)).send(envelopeCaptor.capture());
+        final DefaultEnvelope newCommand = envelopeCaptor.getValue();
+        assertThat(newCommand.metadata().name(), is("courtorders.command.resume-patch-job"));
+        assertThat(newCommand.payload(), equalTo(commandEnvelope.payloadAsJsonObject()));
+    }
+
+    @Test
+    void shouldRecalculateExpiryDatesRequest() {
+        final JsonEnvelope commandEnvelope = buildEnvelope("courtorders.recalculate-expiry-dates");
+        courtOrderRequestApi.recalculateExpiryDatesRequest(commandEnvelope);
+        verify(sender, times(1)).send(envelopeCaptor.capture());
+        final DefaultEnvelope newCommand = envelopeCaptor.getValue();
+        assertThat(newCommand.metadata().name(), is("courtorders.command.recalculate-expiry-dates"));
+        assertThat(newCommand.payload(), equalTo(commandEnvelope.payloadAsJsonObject()));
+    }
+
 
     private JsonEnvelope buildEnvelope(String eventName) {
         final JsonObject payload = createObjectBuilder()
@@ -1,20 +1,128 @@
 package uk.gov.moj.cpp.courtorders.handler;
 
+import static java.lang.String.format;
 import static javax.json.JsonValue.NULL;
 import static uk.gov.justice.services.core.enveloper.Enveloper.toEnvelopeWithMetadataFrom;
 import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
+import static uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage.APPEND_EVENTS;
 
+import uk.gov.justice.domain.aggregate.Aggregate;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.OptimisticLockingRetryException;
 import uk.gov.justice.services.eventsourcing.source.core.EventStream;
 import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
 import uk.gov.justice.services.messaging.Envelope;
 import uk.gov.justice.services.messaging.JsonEnvelope;
+import uk.gov.justice.services.messaging.Metadata;
+import uk.gov.moj.cpp.courtorders.handler.contention.AppendRetryPolicy;
+import uk.gov.moj.cpp.courtorders.handler.contention.StreamCatchUp;
+import uk.gov.moj.cpp.courtorders.handler.contention.VersionedAggregate;
+import uk.gov.moj.cpp.courtorders.handler.metrics.CommandLatencyMetrics;
+import uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage;
+import uk.gov.moj.cpp.courtorders.handler.metrics.StreamContention;
+import uk.gov.moj.cpp.courtorders.handler.metrics.StreamContentionMetrics;
+import uk.gov.moj.cpp.courtorders.handler.metrics.TimedCall;
 
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 public abstract class AbstractCommandHandler {
 
-    public void appendEventsToStream(final Envelope<?> envelope, final EventStream eventStream, final Stream<Object> events) throws EventStreamException {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractCommandHandler.class);
+
+    @Inject
+    private CommandLatencyMetrics commandLatencyMetrics;
+
+    @Inject
+    private StreamContentionMetrics streamContentionMetrics;
+
+    @Inject
+    private AppendRetryPolicy appendRetryPolicy;
+
+    @Inject
+    private StreamCatchUp streamCatchUp;
+
+    /**
+     * Builds the aggregate of a stream with the version it was built up to. The version is read
+     * either side of the replay; if the stream moved on in between, the replay may or may not have
+     * seen the newer events, so the aggregate is built again, up to the configured number of
+     * attempts.
+     */
+    protected <A extends Aggregate> VersionedAggregate<A> replay(final EventStream eventStream, final Supplier<A> replay) {
+        for (int attempt = 1; ; attempt++) {
+            final long version = eventStream.getCurrentVersion();
+            final A aggregate = replay.get();
+            final long versionAfterReplay = eventStream.getCurrentVersion();
+            if (versionAfterReplay == version) {
+                return new VersionedAggregate<>(aggregate, version);
+            }
+            LOGGER.debug("Stream {} moved from version {} to {} while its aggregate was built", eventStream.getId(), version, versionAfterReplay);
+            if (attempt >= appendRetryPolicy.maxAttempts()) {
+                throw new OptimisticLockingRetryException(format("Stream %s kept moving while its aggregate was built", eventStream.getId()));
+            }
+        }
+    }
+
+    /**
+     * Decides the events of a command against the aggregate and appends them to the stream after
+     * the version the aggregate was built up to.
+     *
+     * <p>The command is decided against a copy of the aggregate, so the aggregate as it was
+     * before the decision is still at hand if another command appended to the stream first. Only
+     * the events that command appended are then read back and applied to it, and the command is
+     * decided again against another copy of the result after a jittered backoff, up to the
+     * configured number of attempts. Conflicts are counted per command on its StreamContention
+     * MBean.
+     *
+     * @return the events appended and the aggregate they were applied to, at the version they
+     * brought the stream to
+     */
+    public <A extends Aggregate> AppendedEvents<A> appendEventsToStream(final Envelope<?> envelope, final EventStream eventStream, final VersionedAggregate<A> aggregate,
+                                                                        final UnaryOperator<A> copy, final Function<A, Stream<Object>> command) throws EventStreamException {
         final JsonEnvelope jsonEnvelope = envelopeFrom(envelope.metadata(), NULL);
-        eventStream.append(events.map(toEnvelopeWithMetadataFrom(jsonEnvelope)));
+        final A undecidedAggregate = aggregate.aggregate();
+        long knownVersion = aggregate.version();
+        for (int attempt = 1; ; attempt++) {
+            final A decidedAggregate = copy.apply(undecidedAggregate);
+            final List<Object> events = command.apply(decidedAggregate).toList();
+            final long appendAfterVersion = knownVersion;
+            try {
+                timed(envelope.metadata(), APPEND_EVENTS,
+                        () -> eventStream.appendAfter(events.stream().map(toEnvelopeWithMetadataFrom(jsonEnvelope)), appendAfterVersion));
+                return new AppendedEvents<>(new VersionedAggregate<>(decidedAggregate, appendAfterVersion + events.size()), events);
+            } catch (final OptimisticLockingRetryException e) {
+                final StreamContention contention = streamContentionMetrics.contention(envelope.metadata().name());
+                contention.recordConflict();
+                if (attempt >= appendRetryPolicy.maxAttempts() || !appendRetryPolicy.backOff(attempt)) {
+                    contention.recordExhausted();
+                    throw e;
+                }
+                final List<Object> newerEvents = streamCatchUp.eventsAfter(eventStream, knownVersion);
+                LOGGER.debug("Stream {} moved past version {} by {} events, deciding {} again", eventStream.getId(), knownVersion, newerEvents.size(), envelope.metadata().name());
+                newerEvents.forEach(undecidedAggregate::apply);
+                knownVersion += newerEvents.size();
+                contention.recordRetry(newerEvents.size());
+            }
+        }
+    }
+
+    /**
+     * Runs a stage of the command named in the metadata, recording its latency against the command.
+     */
+    protected <T, E extends Exception> T timed(final Metadata metadata, final CommandStage stage, final TimedCall<T, E> call) throws E {
+        return commandLatencyMetrics.time(metadata.name(), stage, call);
+    }
+
+    /**
+     * The events a command appended to its stream and the aggregate they were applied to.
+     */
+    public record AppendedEvents<A extends Aggregate>(VersionedAggregate<A> aggregate, List<Object> events) {
     }
 }
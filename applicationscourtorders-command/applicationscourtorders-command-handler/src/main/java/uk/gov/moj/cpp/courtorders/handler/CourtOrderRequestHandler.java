@@ -1,9 +1,12 @@
 package uk.gov.moj.cpp.courtorders.handler;
 
 import static java.util.Objects.isNull;
+import static uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage.LOAD_STREAM;
+import static uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage.PROGRESSION;
+import static uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage.REFERENCE_DATA;
+import static uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage.REPLAY_AGGREGATE;
 
 import uk.gov.justice.core.courts.JudicialChildResults;
-import uk.gov.justice.services.common.configuration.Value;
 import uk.gov.justice.services.common.converter.JsonObjectToObjectConverter;
 import uk.gov.justice.services.core.aggregate.AggregateService;
 import uk.gov.justice.services.core.annotation.Component;
@@ -15,11 +18,29 @@ import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamEx
 import uk.gov.justice.services.messaging.Envelope;
 import uk.gov.justice.services.messaging.Metadata;
 import uk.gov.moj.cpp.courtorders.aggregate.CourtOrderAggregate;
+import uk.gov.moj.cpp.courtorders.command.BulkCreateCourtOrders;
+import uk.gov.moj.cpp.courtorders.command.BulkRemoveCourtOrders;
 import uk.gov.moj.cpp.courtorders.command.CreateCourtOrder;
 import uk.gov.moj.cpp.courtorders.command.PatchUpdateJudicialChildResults;
 import uk.gov.moj.cpp.courtorders.command.PatchUpdateJudicialChildResultsV2;
+import uk.gov.moj.cpp.courtorders.command.RecalculateExpiryDates;
 import uk.gov.moj.cpp.courtorders.command.RemoveCourtOrder;
+import uk.gov.moj.cpp.courtorders.command.ResumePatchJob;
 import uk.gov.moj.cpp.courtorders.command.UpdateCourtOrderValidity;
+import uk.gov.moj.cpp.courtorders.handler.batch.CourtOrderBatchExecutor;
+import uk.gov.moj.cpp.courtorders.handler.batch.CourtOrderBatchFailedException;
+import uk.gov.moj.cpp.courtorders.handler.batch.CourtOrderBatchResult;
+import uk.gov.moj.cpp.courtorders.handler.batch.CourtOrderTask;
+import uk.gov.moj.cpp.courtorders.handler.cache.CourtOrderAggregateCache;
+import uk.gov.moj.cpp.courtorders.handler.classification.UnpaidWorkClassification;
+import uk.gov.moj.cpp.courtorders.handler.contention.VersionedAggregate;
+import uk.gov.moj.cpp.courtorders.handler.idempotency.CommandIdempotencyStore;
+import uk.gov.moj.cpp.courtorders.handler.job.CourtOrderChunkTask;
+import uk.gov.moj.cpp.courtorders.handler.job.PatchJobService;
+import uk.gov.moj.cpp.courtorders.handler.metrics.CourtOrderWriteMetrics;
+import uk.gov.moj.cpp.courtorders.handler.recalculation.ExpiryRecalculation;
+import uk.gov.moj.cpp.courtorders.handler.service.ConcurrentLookups;
+import uk.gov.moj.cpp.courtorders.handler.service.JudicialChildResultsQuery;
 import uk.gov.moj.cpp.courtorders.handler.service.ProgressionService;
 import uk.gov.moj.cpp.courtorders.handler.service.ReferenceDataService;
 
@@ -28,19 +49,26 @@ import javax.json.JsonObject;
 import javax.json.JsonValue;
 
 import java.time.LocalDate;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 @ServiceComponent(Component.COMMAND_HANDLER)
 public class CourtOrderRequestHandler extends AbstractCommandHandler {
 
     private static final String UNPAID_WORK_EXTENSION_COMMUNITY_ORD_YRO = "unpaidWorkExtensionCommunityOrdYro";
-
-    @Inject
-    @Value(key = "unpaidWorkJudicialTypeIds", defaultValue = "9bec5977-1796-4645-9b9e-687d4f23d37d,5ab456c8-d272-4082-87ed-cd1f44a0603a")
-    private String unpaidWorkJudicialTypeIds;
+    private static final String PATCH_UPDATE_JUDICIAL_CHILD_RESULTS = "courtorders.command.patch-update-judicial-child-results";
+    private static final String PATCH_UPDATE_JUDICIAL_CHILD_RESULTS_V2 = "courtorders.command.patch-update-judicial-child-results-v2";
+    private static final String BULK_CREATE_COURT_ORDERS = "courtorders.command.bulk-create-court-orders";
+    private static final String BULK_REMOVE_COURT_ORDERS = "courtorders.command.bulk-remove-court-orders";
+    private static final String JUDICIAL_CHILD_RESULTS = "judicialChildResults";
 
     @Inject
     private EventSource eventSource;
@@ -57,35 +85,103 @@ public class CourtOrderRequestHandler extends AbstractCommandHandler {
     @Inject
     private JsonObjectToObjectConverter jsonObjectToObjectConverter;
 
+    @Inject
+    private CourtOrderBatchExecutor courtOrderBatchExecutor;
+
+    @Inject
+    private PatchJobService patchJobService;
+
+    @Inject
+    private CourtOrderAggregateCache courtOrderAggregateCache;
+
+    @Inject
+    private CourtOrderWriteMetrics courtOrderWriteMetrics;
+
+    @Inject
+    private CommandIdempotencyStore commandIdempotencyStore;
+
+    @Inject
+    private ConcurrentLookups concurrentLookups;
+
+    @Inject
+    private UnpaidWorkClassification unpaidWorkClassification;
+
+    @Inject
+    private ExpiryRecalculation expiryRecalculation;
+
     @Handles("courtorders.command.create-court-order")
     public void handleAddCourtRegister(final Envelope<CreateCourtOrder> createCourtOrderEnvelope) throws EventStreamException {
         final CreateCourtOrder createCourtOrder = createCourtOrderEnvelope.payload();
-        final EventStream eventStream = eventSource.getStreamById(createCourtOrder.getId());
-        final CourtOrderAggregate courtOrderAggregate = aggregateService.get(eventStream, CourtOrderAggregate.class);
-        final Stream<Object> events = courtOrderAggregate.createCourtOrder(createCourtOrder.getId(), createCourtOrder, isUnpaidWorkCommunityOrd(createCourtOrderEnvelope.metadata(), createCourtOrder), covertToUUIDs(unpaidWorkJudicialTypeIds));
-        appendEventsToStream(createCourtOrderEnvelope, eventStream, events);
+        final EventStream eventStream = loadStream(createCourtOrderEnvelope.metadata(), createCourtOrder.getId());
+        if (commandIdempotencyStore.isDuplicate(createCourtOrderEnvelope, eventStream)) {
+            return;
+        }
+        final long streamVersion = createCourtOrder(createCourtOrderEnvelope, eventStream, createCourtOrder, isUnpaidWorkCommunityOrd(createCourtOrderEnvelope.metadata(), createCourtOrder));
+        commandIdempotencyStore.handled(createCourtOrderEnvelope, streamVersion);
     }
 
+    /**
+     * Creates every court order in the command. The result definition of each distinct judicial
+     * result type is looked up once for the whole command rather than once per order.
+     */
+    @Handles(BULK_CREATE_COURT_ORDERS)
+    public void handleBulkCreateCourtOrders(final Envelope<BulkCreateCourtOrders> bulkCreateCourtOrdersEnvelope) throws EventStreamException {
+        final Map<UUID, CreateCourtOrder> createCourtOrders = new LinkedHashMap<>();
+        bulkCreateCourtOrdersEnvelope.payload().getCourtOrders()
+                .forEach(createCourtOrder -> createCourtOrders.put(createCourtOrder.getId(), createCourtOrder));
+        final Map<UUID, Boolean> unpaidWorkCommunityOrdByResultType = new HashMap<>();
+        createCourtOrders.values().forEach(createCourtOrder -> unpaidWorkCommunityOrdByResultType.computeIfAbsent(createCourtOrder.getJudicialResultTypeId(),
+                judicialResultTypeId -> isUnpaidWorkCommunityOrd(bulkCreateCourtOrdersEnvelope.metadata(), judicialResultTypeId)));
 
+        executeBatch(BULK_CREATE_COURT_ORDERS, List.copyOf(createCourtOrders.keySet()), courtOrderId -> {
+            final CreateCourtOrder createCourtOrder = createCourtOrders.get(courtOrderId);
+            createCourtOrder(bulkCreateCourtOrdersEnvelope, loadStream(bulkCreateCourtOrdersEnvelope.metadata(), courtOrderId), createCourtOrder, unpaidWorkCommunityOrdByResultType.get(createCourtOrder.getJudicialResultTypeId()));
+        });
+    }
 
     @Handles("courtorders.command.remove-court-order")
     public void handleRemoveCourtRegister(final Envelope<RemoveCourtOrder> removeCourtOrderEnvelope) throws EventStreamException {
-        final RemoveCourtOrder removeCourtOrder = removeCourtOrderEnvelope.payload();
-        final EventStream eventStream = eventSource.getStreamById(removeCourtOrder.getCourtOrderId());
-        final CourtOrderAggregate courtOrderAggregate = aggregateService.get(eventStream, CourtOrderAggregate.class);
-        final Stream<Object> events = courtOrderAggregate.removeCourtOrder(removeCourtOrder.getCourtOrderId());
-        appendEventsToStream(removeCourtOrderEnvelope, eventStream, events);
+        removeCourtOrder(removeCourtOrderEnvelope, removeCourtOrderEnvelope.payload().getCourtOrderId());
+    }
+
+    @Handles(BULK_REMOVE_COURT_ORDERS)
+    public void handleBulkRemoveCourtOrders(final Envelope<BulkRemoveCourtOrders> bulkRemoveCourtOrdersEnvelope) throws EventStreamException {
+        executeBatch(BULK_REMOVE_COURT_ORDERS, bulkRemoveCourtOrdersEnvelope.payload().getCourtOrderIds(),
+                courtOrderId -> removeCourtOrder(bulkRemoveCourtOrdersEnvelope, courtOrderId));
+    }
+
+    /**
+     * @return the version of the stream once the court order is created
+     */
+    private long createCourtOrder(final Envelope<?> envelope, final EventStream eventStream, final CreateCourtOrder createCourtOrder,
+                                  final boolean isUnpaidWorkCommunityOrd) throws EventStreamException {
+        final VersionedAggregate<CourtOrderAggregate> courtOrderAggregate = loadAggregate(envelope.metadata(), eventStream);
+        final Set<UUID> unpaidWorkJudicialResultTypeIds = unpaidWorkClassification.judicialResultTypeIds();
+        unpaidWorkClassification.checkCandidate(createCourtOrder.getId(), isUnpaidWorkCommunityOrd, createCourtOrder.getJudicialChildResults());
+        final AppendedEvents<CourtOrderAggregate> appendedEvents = appendCourtOrderEvents(envelope, eventStream, courtOrderAggregate,
+                aggregate -> aggregate.createCourtOrder(createCourtOrder.getId(), createCourtOrder, isUnpaidWorkCommunityOrd, unpaidWorkJudicialResultTypeIds));
+        courtOrderWriteMetrics.recordCreate(appendedEvents.events().isEmpty());
+        return appendedEvents.aggregate().version();
+    }
+
+    private void removeCourtOrder(final Envelope<?> envelope, final UUID courtOrderId) throws EventStreamException {
+        final EventStream eventStream = loadStream(envelope.metadata(), courtOrderId);
+        final VersionedAggregate<CourtOrderAggregate> courtOrderAggregate = loadAggregate(envelope.metadata(), eventStream);
+        appendCourtOrderEvents(envelope, eventStream, courtOrderAggregate, aggregate -> aggregate.removeCourtOrder(courtOrderId));
     }
 
     @Handles("courtorders.command.update-court-order-validity")
     public void handleUpdateCourtRegister(final Envelope<UpdateCourtOrderValidity> updateCourtOrderEnvelope) throws EventStreamException {
         final UpdateCourtOrderValidity updateCourtOrderValidityPayload = updateCourtOrderEnvelope.payload();
         final Boolean resetToOriginalEndDate = updateCourtOrderValidityPayload.getResetToOriginalEndDate();
-        final EventStream eventStream = eventSource.getStreamById(updateCourtOrderValidityPayload.getCourtOrderId());
-        final CourtOrderAggregate courtOrderAggregate = aggregateService.get(eventStream, CourtOrderAggregate.class);
-        final Stream<Object> events = (isNull(resetToOriginalEndDate) || !resetToOriginalEndDate) ? courtOrderAggregate.updateCourtOrder(updateCourtOrderValidityPayload.getCourtOrderId(), updateCourtOrderValidityPayload.getApplicationId(), updateCourtOrderValidityPayload.getNewEndDate())
-                : courtOrderAggregate.resetCourtOrder(updateCourtOrderValidityPayload.getCourtOrderId(), updateCourtOrderValidityPayload.getApplicationId());
-        appendEventsToStream(updateCourtOrderEnvelope, eventStream, events);
+        final EventStream eventStream = loadStream(updateCourtOrderEnvelope.metadata(), updateCourtOrderValidityPayload.getCourtOrderId());
+        if (commandIdempotencyStore.isDuplicate(updateCourtOrderEnvelope, eventStream)) {
+            return;
+        }
+        final VersionedAggregate<CourtOrderAggregate> courtOrderAggregate = loadAggregate(updateCourtOrderEnvelope.metadata(), eventStream);
+        final AppendedEvents<CourtOrderAggregate> appendedEvents = appendCourtOrderEvents(updateCourtOrderEnvelope, eventStream, courtOrderAggregate, aggregate -> (isNull(resetToOriginalEndDate) || !resetToOriginalEndDate) ? aggregate.updateCourtOrder(updateCourtOrderValidityPayload.getCourtOrderId(), updateCourtOrderValidityPayload.getApplicationId(), updateCourtOrderValidityPayload.getNewEndDate())
+                : aggregate.resetCourtOrder(updateCourtOrderValidityPayload.getCourtOrderId(), updateCourtOrderValidityPayload.getApplicationId()));
+        commandIdempotencyStore.handled(updateCourtOrderEnvelope, appendedEvents.aggregate().version());
     }
 
     /**
@@ -93,20 +189,15 @@ public class CourtOrderRequestHandler extends AbstractCommandHandler {
      * @param patchUpdateJudicialChildResultsEnvelope
      * @throws EventStreamException
      */
-    @Handles("courtorders.command.patch-update-judicial-child-results")
+    @Handles(PATCH_UPDATE_JUDICIAL_CHILD_RESULTS)
     public void handlePatchUpdateJudicialChildResults(final Envelope<PatchUpdateJudicialChildResults> patchUpdateJudicialChildResultsEnvelope) throws EventStreamException {
         final PatchUpdateJudicialChildResults payload = patchUpdateJudicialChildResultsEnvelope.payload();
-        final List<UUID> courtOrderIds = payload.getCourtOrderIds();
-        for (final UUID courtOrderId : courtOrderIds) {
-            final EventStream eventStream = eventSource.getStreamById(courtOrderId);
-            final CourtOrderAggregate courtOrderAggregate = aggregateService.get(eventStream, CourtOrderAggregate.class);
-            final List<JudicialChildResults> judicialChildResults = getJudicialChildResults(patchUpdateJudicialChildResultsEnvelope.metadata(), courtOrderAggregate.getActualCourtOrder());
-            if (!judicialChildResults.isEmpty()) {
-                final boolean isUnpaidWorkCommunityOrd = isUnpaidWorkCommunityOrd(patchUpdateJudicialChildResultsEnvelope.metadata(), courtOrderAggregate.getActualCourtOrder());
-                final Stream<Object> events = courtOrderAggregate.updateJudicialChildResult(courtOrderId, judicialChildResults, isUnpaidWorkCommunityOrd, covertToUUIDs(unpaidWorkJudicialTypeIds));
-                appendEventsToStream(patchUpdateJudicialChildResultsEnvelope, eventStream, events);
-            }
+        if (patchJobService.runsAsJob(payload.getCourtOrderIds())) {
+            patchJobService.start(patchUpdateJudicialChildResultsEnvelope, payload.getCourtOrderIds(), patchJobTask(patchUpdateJudicialChildResultsEnvelope, PATCH_UPDATE_JUDICIAL_CHILD_RESULTS));
+            return;
         }
+        executeBatch(patchUpdateJudicialChildResultsEnvelope.metadata().name(), payload.getCourtOrderIds(),
+                courtOrderId -> patchUpdateJudicialChildResults(patchUpdateJudicialChildResultsEnvelope, courtOrderId));
     }
 
     /**
@@ -114,47 +205,252 @@ public class CourtOrderRequestHandler extends AbstractCommandHandler {
      * @param patchUpdateJudicialChildResultsEnvelope
      * @throws EventStreamException
      */
-    @Handles("courtorders.command.patch-update-judicial-child-results-v2")
+    @Handles(PATCH_UPDATE_JUDICIAL_CHILD_RESULTS_V2)
     public void handlePatchUpdateJudicialChildResultsV2(final Envelope<PatchUpdateJudicialChildResultsV2> patchUpdateJudicialChildResultsEnvelope) throws EventStreamException {
         final PatchUpdateJudicialChildResultsV2 payload = patchUpdateJudicialChildResultsEnvelope.payload();
-        final List<UUID> courtOrderIds = payload.getCourtOrderIds();
-        for (final UUID courtOrderId : courtOrderIds) {
-            final EventStream eventStream = eventSource.getStreamById(courtOrderId);
-            final CourtOrderAggregate courtOrderAggregate = aggregateService.get(eventStream, CourtOrderAggregate.class);
-            final CreateCourtOrder actualCourtOrder = courtOrderAggregate.getActualCourtOrder();
-            JsonObject response = progressionService.getJudicialChildResultsV2(patchUpdateJudicialChildResultsEnvelope.metadata(), actualCourtOrder.getOrderingHearingId(), actualCourtOrder.getMasterDefendantId(), actualCourtOrder.getJudicialResultTypeId());
-
-            final List<JudicialChildResults> judicialChildResults = response.getJsonArray("judicialChildResults").stream()
-                    .map(JsonValue::asJsonObject)
-                    .map(judicialChildResult -> jsonObjectToObjectConverter.convert(judicialChildResult, JudicialChildResults.class))
-                    .toList();
-            final LocalDate latestEndDate= LocalDate.parse(response.getString("latestEndDate"));
+        if (patchJobService.runsAsJob(payload.getCourtOrderIds())) {
+            patchJobService.start(patchUpdateJudicialChildResultsEnvelope, payload.getCourtOrderIds(), patchJobTask(patchUpdateJudicialChildResultsEnvelope, PATCH_UPDATE_JUDICIAL_CHILD_RESULTS_V2));
+            return;
+        }
+        if (concurrentLookups.isEnabled() && !courtOrderBatchExecutor.runsConcurrently()) {
+            patchUpdateJudicialChildResultsV2(patchUpdateJudicialChildResultsEnvelope, List.copyOf(new LinkedHashSet<>(payload.getCourtOrderIds())));
+            return;
+        }
+        executeBatch(patchUpdateJudicialChildResultsEnvelope.metadata().name(), payload.getCourtOrderIds(),
+                courtOrderId -> patchUpdateJudicialChildResultsV2(patchUpdateJudicialChildResultsEnvelope, courtOrderId));
+    }
+
+    /**
+     * Resumes a patch job from its last checkpoint, e.g. after a chunk failed or the service was
+     * restarted while the job was running.
+     */
+    @Handles("courtorders.command.resume-patch-job")
+    public void handleResumePatchJob(final Envelope<ResumePatchJob> resumePatchJobEnvelope) {
+        patchJobService.resume(resumePatchJobEnvelope, resumePatchJobEnvelope.payload().getJobId(),
+                commandName -> patchJobTask(resumePatchJobEnvelope, commandName));
+    }
+
+    /**
+     * Recalculates whether each court order is unpaid work, and its expiry date, under the current
+     * rules once the command has committed. The ids of the court orders are read from the query side
+     * a chunk at a time, see {@link ExpiryRecalculation}.
+     */
+    @Handles("courtorders.command.recalculate-expiry-dates")
+    public void handleRecalculateExpiryDates(final Envelope<RecalculateExpiryDates> recalculateExpiryDatesEnvelope) {
+        expiryRecalculation.schedule(recalculateExpiryDatesEnvelope, recalculateExpiryDatesEnvelope.payload().getAfterCourtOrderId(),
+                courtOrderIds -> recalculateExpiryDates(recalculateExpiryDatesEnvelope, courtOrderIds));
+    }
+
+    /**
+     * Applies the task to every court order in the command. When the court orders are processed
+     * concurrently a failing court order does not stop the rest, but the command still fails so
+     * that it is redelivered; the court orders that succeeded are unchanged by running it again.
+     */
+    private void executeBatch(final String commandName, final List<UUID> courtOrderIds, final CourtOrderTask task) throws EventStreamException {
+        final CourtOrderBatchResult result = courtOrderBatchExecutor.execute(commandName, courtOrderIds, task);
+        if (result.hasFailures()) {
+            throw new CourtOrderBatchFailedException(commandName, result);
+        }
+    }
+
+    private CourtOrderChunkTask patchJobTask(final Envelope<?> envelope, final String commandName) {
+        if (PATCH_UPDATE_JUDICIAL_CHILD_RESULTS_V2.equals(commandName)) {
+            return courtOrderIds -> patchUpdateJudicialChildResultsV2(envelope, courtOrderIds);
+        }
+        return courtOrderIds -> patchUpdateJudicialChildResults(envelope, courtOrderIds);
+    }
+
+    private void patchUpdateJudicialChildResults(final Envelope<?> patchUpdateJudicialChildResultsEnvelope, final UUID courtOrderId) throws EventStreamException {
+        final EventStream eventStream = loadStream(patchUpdateJudicialChildResultsEnvelope.metadata(), courtOrderId);
+        final VersionedAggregate<CourtOrderAggregate> courtOrderAggregate = loadAggregate(patchUpdateJudicialChildResultsEnvelope.metadata(), eventStream);
+        final List<JudicialChildResults> judicialChildResults = getJudicialChildResults(patchUpdateJudicialChildResultsEnvelope.metadata(), courtOrderAggregate.aggregate());
+        applyJudicialChildResults(patchUpdateJudicialChildResultsEnvelope, courtOrderId, eventStream, courtOrderAggregate, judicialChildResults);
+    }
+
+    /**
+     * Chunk variant used by patch jobs: the judicial child results for every court order in the
+     * chunk are looked up in one batch before the court orders are updated.
+     */
+    private void patchUpdateJudicialChildResults(final Envelope<?> patchUpdateJudicialChildResultsEnvelope, final List<UUID> courtOrderIds) throws EventStreamException {
+        final Map<UUID, EventStream> eventStreams = new LinkedHashMap<>();
+        final Map<UUID, VersionedAggregate<CourtOrderAggregate>> courtOrderAggregates = loadCourtOrders(patchUpdateJudicialChildResultsEnvelope.metadata(), courtOrderIds, eventStreams);
+        final List<JudicialChildResultsQuery> queries = courtOrderAggregates.values().stream().map(courtOrderAggregate -> toQuery(courtOrderAggregate.aggregate())).toList();
+        final Map<JudicialChildResultsQuery, JsonObject> responses = timed(patchUpdateJudicialChildResultsEnvelope.metadata(), PROGRESSION,
+                () -> progressionService.getJudicialChildResults(patchUpdateJudicialChildResultsEnvelope.metadata(), queries));
+        for (final Map.Entry<UUID, VersionedAggregate<CourtOrderAggregate>> courtOrder : courtOrderAggregates.entrySet()) {
+            final JsonObject response = responses.get(toQuery(courtOrder.getValue().aggregate()));
+            applyJudicialChildResults(patchUpdateJudicialChildResultsEnvelope, courtOrder.getKey(), eventStreams.get(courtOrder.getKey()), courtOrder.getValue(), toJudicialChildResults(response));
+        }
+    }
+
+    private void applyJudicialChildResults(final Envelope<?> patchUpdateJudicialChildResultsEnvelope, final UUID courtOrderId, final EventStream eventStream,
+                                           final VersionedAggregate<CourtOrderAggregate> courtOrderAggregate, final List<JudicialChildResults> judicialChildResults) throws EventStreamException {
+        if (!judicialChildResults.isEmpty()) {
+            final boolean isUnpaidWorkCommunityOrd = isUnpaidWorkCommunityOrd(patchUpdateJudicialChildResultsEnvelope.metadata(), courtOrderAggregate.aggregate().getJudicialResultTypeId());
+            final Set<UUID> unpaidWorkJudicialResultTypeIds = unpaidWorkClassification.judicialResultTypeIds();
+            unpaidWorkClassification.checkCandidate(courtOrderId, isUnpaidWorkCommunityOrd, judicialChildResults);
+            appendCourtOrderEvents(patchUpdateJudicialChildResultsEnvelope, eventStream, courtOrderAggregate,
+                    aggregate -> aggregate.updateJudicialChildResult(courtOrderId, judicialChildResults, isUnpaidWorkCommunityOrd, unpaidWorkJudicialResultTypeIds));
+        }
+    }
+
+    private void patchUpdateJudicialChildResultsV2(final Envelope<?> patchUpdateJudicialChildResultsEnvelope, final UUID courtOrderId) throws EventStreamException {
+        final EventStream eventStream = loadStream(patchUpdateJudicialChildResultsEnvelope.metadata(), courtOrderId);
+        final VersionedAggregate<CourtOrderAggregate> courtOrderAggregate = loadAggregate(patchUpdateJudicialChildResultsEnvelope.metadata(), eventStream);
+        final JsonObject response = timed(patchUpdateJudicialChildResultsEnvelope.metadata(), PROGRESSION,
+                () -> progressionService.getJudicialChildResultsV2(patchUpdateJudicialChildResultsEnvelope.metadata(), courtOrderAggregate.aggregate().getOrderingHearingId(), courtOrderAggregate.aggregate().getMasterDefendantId(), courtOrderAggregate.aggregate().getJudicialResultTypeId()));
+        applyJudicialChildResultsV2(patchUpdateJudicialChildResultsEnvelope, courtOrderId, eventStream, courtOrderAggregate, response,
+                judicialResultTypeId -> isUnpaidWorkCommunityOrd(patchUpdateJudicialChildResultsEnvelope.metadata(), judicialResultTypeId));
+    }
+
+    /**
+     * Chunk variant used by patch jobs, and for every court order in the command when downstream
+     * lookups run concurrently: the judicial child results and result definitions of every court
+     * order are looked up before any court order is updated, then the court orders are updated
+     * one stream at a time.
+     */
+    private void patchUpdateJudicialChildResultsV2(final Envelope<?> patchUpdateJudicialChildResultsEnvelope, final List<UUID> courtOrderIds) throws EventStreamException {
+        final Map<UUID, EventStream> eventStreams = new LinkedHashMap<>();
+        final Map<UUID, VersionedAggregate<CourtOrderAggregate>> courtOrderAggregates = loadCourtOrders(patchUpdateJudicialChildResultsEnvelope.metadata(), courtOrderIds, eventStreams);
+        final List<JudicialChildResultsQuery> queries = courtOrderAggregates.values().stream().map(courtOrderAggregate -> toQuery(courtOrderAggregate.aggregate())).toList();
+        final Map<JudicialChildResultsQuery, JsonObject> responses = timed(patchUpdateJudicialChildResultsEnvelope.metadata(), PROGRESSION,
+                () -> progressionService.getJudicialChildResultsV2(patchUpdateJudicialChildResultsEnvelope.metadata(), queries));
+        final List<UUID> judicialResultTypeIds = courtOrderAggregates.values().stream()
+                .map(VersionedAggregate::aggregate)
+                .filter(courtOrderAggregate -> !responses.get(toQuery(courtOrderAggregate)).getJsonArray(JUDICIAL_CHILD_RESULTS).isEmpty())
+                .map(CourtOrderAggregate::getJudicialResultTypeId)
+                .toList();
+        final Map<UUID, Boolean> unpaidWorkCommunityOrdByResultType = concurrentLookups.getAll(judicialResultTypeIds,
+                judicialResultTypeId -> isUnpaidWorkCommunityOrd(patchUpdateJudicialChildResultsEnvelope.metadata(), judicialResultTypeId));
+        for (final Map.Entry<UUID, VersionedAggregate<CourtOrderAggregate>> courtOrder : courtOrderAggregates.entrySet()) {
+            final JsonObject response = responses.get(toQuery(courtOrder.getValue().aggregate()));
+            applyJudicialChildResultsV2(patchUpdateJudicialChildResultsEnvelope, courtOrder.getKey(), eventStreams.get(courtOrder.getKey()), courtOrder.getValue(), response,
+                    unpaidWorkCommunityOrdByResultType::get);
+        }
+    }
+
+    private void applyJudicialChildResultsV2(final Envelope<?> patchUpdateJudicialChildResultsEnvelope, final UUID courtOrderId, final EventStream eventStream,
+                                             final VersionedAggregate<CourtOrderAggregate> courtOrderAggregate, final JsonObject response,
+                                             final Function<UUID, Boolean> unpaidWorkCommunityOrd) throws EventStreamException {
+        final List<JudicialChildResults> judicialChildResults = toJudicialChildResults(response);
+        final LocalDate latestEndDate= LocalDate.parse(response.getString("latestEndDate"));
+        if (!judicialChildResults.isEmpty()) {
+            final boolean isUnpaidWorkCommunityOrd = unpaidWorkCommunityOrd.apply(courtOrderAggregate.aggregate().getJudicialResultTypeId());
+            final Set<UUID> unpaidWorkJudicialResultTypeIds = unpaidWorkClassification.judicialResultTypeIds();
+            unpaidWorkClassification.checkCandidate(courtOrderId, isUnpaidWorkCommunityOrd, judicialChildResults);
+            appendCourtOrderEvents(patchUpdateJudicialChildResultsEnvelope, eventStream, courtOrderAggregate,
+                    aggregate -> aggregate.updateJudicialChildResultV2(courtOrderId, judicialChildResults, isUnpaidWorkCommunityOrd, unpaidWorkJudicialResultTypeIds, latestEndDate));
+        }
+    }
+
+    /**
+     * Recalculates a chunk of court orders from the judicial child results progression holds for
+     * them, looked up in one batch as for patch jobs. The result definition of each distinct
+     * judicial result type is looked up once for the chunk. Court orders without a judicial result
+     * type, or that progression returns no judicial child results for, are left as they are, as
+     * the patch jobs leave them.
+     *
+     * @return the number of court orders amended
+     */
+    private int recalculateExpiryDates(final Envelope<?> envelope, final List<UUID> courtOrderIds) throws EventStreamException {
+        final Map<UUID, EventStream> eventStreams = new LinkedHashMap<>();
+        final Map<UUID, VersionedAggregate<CourtOrderAggregate>> courtOrderAggregates = loadCourtOrders(envelope.metadata(), List.copyOf(new LinkedHashSet<>(courtOrderIds)), eventStreams);
+        final List<JudicialChildResultsQuery> queries = courtOrderAggregates.values().stream()
+                .map(VersionedAggregate::aggregate)
+                .filter(courtOrderAggregate -> Objects.nonNull(courtOrderAggregate.getJudicialResultTypeId()))
+                .map(this::toQuery)
+                .toList();
+        final Map<JudicialChildResultsQuery, JsonObject> responses = timed(envelope.metadata(), PROGRESSION,
+                () -> progressionService.getJudicialChildResults(envelope.metadata(), queries));
+        final Map<UUID, List<JudicialChildResults>> judicialChildResultsByCourtOrder = new LinkedHashMap<>();
+        courtOrderAggregates.forEach((courtOrderId, courtOrderAggregate) -> {
+            final List<JudicialChildResults> judicialChildResults = isNull(courtOrderAggregate.aggregate().getJudicialResultTypeId())
+                    ? List.of()
+                    : toJudicialChildResultsIfAny(responses.get(toQuery(courtOrderAggregate.aggregate())));
             if (!judicialChildResults.isEmpty()) {
-                final boolean isUnpaidWorkCommunityOrd = isUnpaidWorkCommunityOrd(patchUpdateJudicialChildResultsEnvelope.metadata(), courtOrderAggregate.getActualCourtOrder());
-                final Stream<Object> events = courtOrderAggregate.updateJudicialChildResultV2(courtOrderId, judicialChildResults, isUnpaidWorkCommunityOrd, covertToUUIDs(unpaidWorkJudicialTypeIds), latestEndDate);
-                appendEventsToStream(patchUpdateJudicialChildResultsEnvelope, eventStream, events);
+                judicialChildResultsByCourtOrder.put(courtOrderId, judicialChildResults);
+            }
+        });
+        final List<UUID> judicialResultTypeIds = judicialChildResultsByCourtOrder.keySet().stream()
+                .map(courtOrderId -> courtOrderAggregates.get(courtOrderId).aggregate().getJudicialResultTypeId())
+                .toList();
+        final Map<UUID, Boolean> unpaidWorkCommunityOrdByResultType = concurrentLookups.getAll(judicialResultTypeIds,
+                judicialResultTypeId -> isUnpaidWorkCommunityOrd(envelope.metadata(), judicialResultTypeId));
+        final Set<UUID> unpaidWorkJudicialResultTypeIds = unpaidWorkClassification.judicialResultTypeIds();
+        int amended = 0;
+        for (final Map.Entry<UUID, List<JudicialChildResults>> courtOrder : judicialChildResultsByCourtOrder.entrySet()) {
+            final UUID courtOrderId = courtOrder.getKey();
+            final VersionedAggregate<CourtOrderAggregate> courtOrderAggregate = courtOrderAggregates.get(courtOrderId);
+            final List<JudicialChildResults> judicialChildResults = courtOrder.getValue();
+            final boolean isUnpaidWorkCommunityOrd = Boolean.TRUE.equals(unpaidWorkCommunityOrdByResultType.get(courtOrderAggregate.aggregate().getJudicialResultTypeId()));
+            final List<Object> events = appendCourtOrderEvents(envelope, eventStreams.get(courtOrderId), courtOrderAggregate,
+                    aggregate -> aggregate.recalculateExpiryDate(courtOrderId, judicialChildResults, isUnpaidWorkCommunityOrd, unpaidWorkJudicialResultTypeIds)).events();
+            if (!events.isEmpty()) {
+                amended++;
             }
         }
+        return amended;
     }
 
     private boolean isUnpaidWorkCommunityOrd(final Metadata metadata, final CreateCourtOrder createCourtOrder) {
-        final JsonObject resultDefinition = referenceDataService.getResultDefinition(metadata, createCourtOrder.getJudicialResultTypeId());
+        return isUnpaidWorkCommunityOrd(metadata, createCourtOrder.getJudicialResultTypeId());
+    }
+
+    private boolean isUnpaidWorkCommunityOrd(final Metadata metadata, final UUID judicialResultTypeId) {
+        final JsonObject resultDefinition = timed(metadata, REFERENCE_DATA, () -> referenceDataService.getResultDefinition(metadata, judicialResultTypeId));
         return resultDefinition.containsKey(UNPAID_WORK_EXTENSION_COMMUNITY_ORD_YRO) && resultDefinition.getBoolean(UNPAID_WORK_EXTENSION_COMMUNITY_ORD_YRO);
     }
 
-    private List<JudicialChildResults> getJudicialChildResults(final Metadata metadata, final CreateCourtOrder actualCourtOrder) {
-        JsonObject response = progressionService.getJudicialChildResults(metadata, actualCourtOrder.getOrderingHearingId(), actualCourtOrder.getMasterDefendantId(), actualCourtOrder.getJudicialResultTypeId());
-        return response.getJsonArray("judicialChildResults").stream()
+    private List<JudicialChildResults> getJudicialChildResults(final Metadata metadata, final CourtOrderAggregate courtOrderAggregate) {
+        final JsonObject response = timed(metadata, PROGRESSION,
+                () -> progressionService.getJudicialChildResults(metadata, courtOrderAggregate.getOrderingHearingId(), courtOrderAggregate.getMasterDefendantId(), courtOrderAggregate.getJudicialResultTypeId()));
+        return toJudicialChildResults(response);
+    }
+
+    private Map<UUID, VersionedAggregate<CourtOrderAggregate>> loadCourtOrders(final Metadata metadata, final List<UUID> courtOrderIds, final Map<UUID, EventStream> eventStreams) {
+        final Map<UUID, VersionedAggregate<CourtOrderAggregate>> courtOrderAggregates = new LinkedHashMap<>();
+        for (final UUID courtOrderId : courtOrderIds) {
+            final EventStream eventStream = loadStream(metadata, courtOrderId);
+            eventStreams.put(courtOrderId, eventStream);
+            courtOrderAggregates.put(courtOrderId, loadAggregate(metadata, eventStream));
+        }
+        return courtOrderAggregates;
+    }
+
+    private EventStream loadStream(final Metadata metadata, final UUID streamId) {
+        return timed(metadata, LOAD_STREAM, () -> eventSource.getStreamById(streamId));
+    }
+
+    private VersionedAggregate<CourtOrderAggregate> loadAggregate(final Metadata metadata, final EventStream eventStream) {
+        return timed(metadata, REPLAY_AGGREGATE, () -> courtOrderAggregateCache.get(eventStream,
+                () -> replay(eventStream, () -> aggregateService.get(eventStream, CourtOrderAggregate.class))));
+    }
+
+    private AppendedEvents<CourtOrderAggregate> appendCourtOrderEvents(final Envelope<?> envelope, final EventStream eventStream, final VersionedAggregate<CourtOrderAggregate> courtOrderAggregate,
+                                                                       final Function<CourtOrderAggregate, Stream<Object>> command) throws EventStreamException {
+        final AppendedEvents<CourtOrderAggregate> appendedEvents = appendEventsToStream(envelope, eventStream, courtOrderAggregate, CourtOrderAggregate::copy, command);
+        courtOrderAggregateCache.put(eventStream, appendedEvents.aggregate());
+        return appendedEvents;
+    }
+
+    private JudicialChildResultsQuery toQuery(final CourtOrderAggregate courtOrderAggregate) {
+        return new JudicialChildResultsQuery(courtOrderAggregate.getOrderingHearingId(), courtOrderAggregate.getMasterDefendantId(), courtOrderAggregate.getJudicialResultTypeId());
+    }
+
+    private List<JudicialChildResults> toJudicialChildResults(final JsonObject response) {
+        return response.getJsonArray(JUDICIAL_CHILD_RESULTS).stream()
                 .map(JsonValue::asJsonObject)
                 .map(judicialChildResult -> jsonObjectToObjectConverter.convert(judicialChildResult, JudicialChildResults.class))
                 .toList();
     }
 
-    private List<UUID> covertToUUIDs(final String unpaidWorkJudicialTypeIds) {
-        return Arrays.stream(unpaidWorkJudicialTypeIds.split(","))
-                .map(UUID::fromString)
-                .toList();
+    /**
+     * @return the judicial child results of the response, or none if there is no response or it
+     * holds none
+     */
+    private List<JudicialChildResults> toJudicialChildResultsIfAny(final JsonObject response) {
+        return isNull(response) || !response.containsKey(JUDICIAL_CHILD_RESULTS) || response.isNull(JUDICIAL_CHILD_RESULTS)
+                ? List.of()
+                : toJudicialChildResults(response);
     }
-
-
 }
@@ -0,0 +1,72 @@
+package uk.gov.moj.cpp.courtorders.handler.batch;
+
+import static java.lang.Math.min;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Works through a collection of items on a number of workers, each taking the next pending item
+ * until none are left.
+ */
+public final class ConcurrentWorkers {
+
+    private ConcurrentWorkers() {
+    }
+
+    /**
+     * Applies the action to every item on up to {@code maxConcurrency} workers submitted to the
+     * executor and waits for all of them to finish. A worker whose action fails takes no further
+     * items; the other workers carry on with the rest.
+     *
+     * @throws RuntimeException the failure of the first worker that failed, once every worker has
+     * finished
+     */
+    public static <T> void forEach(final ExecutorService executorService, final Collection<T> items, final int maxConcurrency, final Consumer<T> action) {
+        final Queue<T> pendingItems = new ConcurrentLinkedQueue<>(items);
+        final List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < min(maxConcurrency, items.size()); i++) {
+            workers.add(executorService.submit(() -> drain(pendingItems, action)));
+        }
+        RuntimeException failure = null;
+        for (final Future<?> worker : workers) {
+            try {
+                awaitCompletion(worker);
+            } catch (final RuntimeException e) {
+                failure = nonNull(failure) ? failure : e;
+            }
+        }
+        if (nonNull(failure)) {
+            throw failure;
+        }
+    }
+
+    private static <T> void drain(final Queue<T> pendingItems, final Consumer<T> action) {
+        T item;
+        while (nonNull(item = pendingItems.poll())) {
+            action.accept(item);
+        }
+    }
+
+    private static void awaitCompletion(final Future<?> worker) {
+        try {
+            worker.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for workers to finish", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Worker failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package uk.gov.moj.cpp.courtorders.handler.batch;
+
+import static java.lang.Integer.parseInt;
+import static uk.gov.moj.cpp.courtorders.handler.batch.ConcurrentWorkers.forEach;
+
+import uk.gov.justice.services.common.configuration.Value;
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies a task to every court order in a batch. With the default concurrency of 1 the orders are
+ * processed one at a time on the calling thread, inside the handler transaction. With a higher
+ * concurrency at most that many streams are processed at once, each in its own transaction, and a
+ * failing order is reported in the result instead of aborting the rest of the batch.
+ */
+@ApplicationScoped
+public class CourtOrderBatchExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CourtOrderBatchExecutor.class);
+
+    @Inject
+    @Value(key = "courtOrderBatchConcurrency", defaultValue = "1")
+    private String concurrency;
+
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    @Inject
+    private TransactionalCourtOrderTaskRunner transactionalCourtOrderTaskRunner;
+
+    /**
+     * @return true if the court orders in a batch are processed concurrently, each in its own
+     * transaction
+     */
+    public boolean runsConcurrently() {
+        return parseInt(concurrency) > 1;
+    }
+
+    public CourtOrderBatchResult execute(final String commandName, final List<UUID> courtOrderIds, final CourtOrderTask task) throws EventStreamException {
+        final List<UUID> distinctCourtOrderIds = new ArrayList<>(new LinkedHashSet<>(courtOrderIds));
+        final int maxConcurrency = parseInt(concurrency);
+        if (maxConcurrency <= 1 || distinctCourtOrderIds.size() <= 1) {
+            for (final UUID courtOrderId : distinctCourtOrderIds) {
+                task.execute(courtOrderId);
+            }
+            return new CourtOrderBatchResult(distinctCourtOrderIds.size(), Map.of());
+        }
+        return executeConcurrently(commandName, distinctCourtOrderIds, task, maxConcurrency);
+    }
+
+    private CourtOrderBatchResult executeConcurrently(final String commandName, final List<UUID> courtOrderIds, final CourtOrderTask task, final int maxConcurrency) {
+        final Map<UUID, String> failures = new ConcurrentHashMap<>();
+        final AtomicInteger succeededCount = new AtomicInteger();
+
+        forEach(managedExecutorService, courtOrderIds, maxConcurrency, courtOrderId -> {
+            try {
+                transactionalCourtOrderTaskRunner.run(courtOrderId, task);
+                succeededCount.incrementAndGet();
+            } catch (final Exception e) {
+                LOGGER.error("{} failed for court order {}", commandName, courtOrderId, e);
+                failures.put(courtOrderId, String.valueOf(e.getMessage()));
+            }
+        });
+
+        if (!failures.isEmpty()) {
+            LOGGER.warn("{} completed for {} court orders with {} failures", commandName, succeededCount.get(), failures.size());
+        }
+        return new CourtOrderBatchResult(succeededCount.get(), failures);
+    }
+}
@@ -0,0 +1,15 @@
+package uk.gov.moj.cpp.courtorders.handler.batch;
+
+/**
+ * Thrown when a batch processed concurrently failed for some of its court orders. The court orders
+ * that succeeded were committed in their own transactions and are not rolled back.
+ */
+public class CourtOrderBatchFailedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CourtOrderBatchFailedException(final String commandName, final CourtOrderBatchResult result) {
+        super(commandName + " failed for " + result.getFailures().size() + " court orders, " + result.getSucceededCount()
+                + " succeeded, failed court orders: " + result.getFailures());
+    }
+}
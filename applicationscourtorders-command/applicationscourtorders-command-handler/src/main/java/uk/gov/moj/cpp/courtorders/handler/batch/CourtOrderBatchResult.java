@@ -0,0 +1,29 @@
+package uk.gov.moj.cpp.courtorders.handler.batch;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.Map;
+import java.util.UUID;
+
+public class CourtOrderBatchResult {
+
+    private final int succeededCount;
+    private final Map<UUID, String> failures;
+
+    public CourtOrderBatchResult(final int succeededCount, final Map<UUID, String> failures) {
+        this.succeededCount = succeededCount;
+        this.failures = unmodifiableMap(failures);
+    }
+
+    public int getSucceededCount() {
+        return succeededCount;
+    }
+
+    public Map<UUID, String> getFailures() {
+        return failures;
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
@@ -0,0 +1,14 @@
+package uk.gov.moj.cpp.courtorders.handler.batch;
+
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+
+import java.util.UUID;
+
+/**
+ * Unit of work applied to a single court order stream as part of a batch.
+ */
+@FunctionalInterface
+public interface CourtOrderTask {
+
+    void execute(final UUID courtOrderId) throws EventStreamException;
+}
@@ -0,0 +1,23 @@
+package uk.gov.moj.cpp.courtorders.handler.batch;
+
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.transaction.Transactional;
+
+/**
+ * Runs a court order task in its own transaction so that a failure on one stream does not roll
+ * back the work already appended to other streams in the same batch.
+ */
+@ApplicationScoped
+public class TransactionalCourtOrderTaskRunner {
+
+    @Transactional(value = REQUIRES_NEW, rollbackOn = Exception.class)
+    public void run(final UUID courtOrderId, final CourtOrderTask task) throws EventStreamException {
+        task.execute(courtOrderId);
+    }
+}
@@ -0,0 +1,104 @@
+package uk.gov.moj.cpp.courtorders.handler.cache;
+
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.Integer.parseInt;
+import static java.util.Objects.isNull;
+import static javax.transaction.Status.STATUS_COMMITTED;
+
+import uk.gov.justice.services.common.configuration.Value;
+import uk.gov.justice.services.eventsourcing.source.core.EventStream;
+import uk.gov.moj.cpp.courtorders.aggregate.CourtOrderAggregate;
+import uk.gov.moj.cpp.courtorders.common.cache.StripedLruMap;
+import uk.gov.moj.cpp.courtorders.handler.contention.VersionedAggregate;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Optional, size bounded cache of court order aggregates keyed by stream id and the stream version
+ * they were built up to. Entries are spread over lock striped segments, each evicting its least
+ * recently used aggregate once full.
+ *
+ * <p>A cached aggregate is only reused when the stream is still at the cached version, and it is
+ * taken out of the cache while a command works on it, so it is never shared between commands. It
+ * goes back in once the command's transaction has committed; a rolled back command leaves the
+ * stream to be loaded from the event store next time.
+ */
+@ApplicationScoped
+public class CourtOrderAggregateCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CourtOrderAggregateCache.class);
+    private static final int SEGMENT_COUNT = 16;
+
+    @Inject
+    @Value(key = "courtOrderAggregateCacheEnabled", defaultValue = "false")
+    private String enabled;
+
+    @Inject
+    @Value(key = "courtOrderAggregateCacheSize", defaultValue = "1000")
+    private String size;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private StripedLruMap<UUID, VersionedAggregate<CourtOrderAggregate>> aggregates;
+
+    @PostConstruct
+    public void initialise() {
+        aggregates = new StripedLruMap<>(SEGMENT_COUNT, parseInt(size));
+    }
+
+    /**
+     * @return the cached aggregate if the stream is still at the version it was cached at,
+     * otherwise the aggregate returned by the loader
+     */
+    public VersionedAggregate<CourtOrderAggregate> get(final EventStream eventStream, final Supplier<VersionedAggregate<CourtOrderAggregate>> loader) {
+        if (!parseBoolean(enabled)) {
+            return loader.get();
+        }
+        final VersionedAggregate<CourtOrderAggregate> cached = aggregates.remove(eventStream.getId());
+        if (isNull(cached)) {
+            return loader.get();
+        }
+        final long currentVersion = eventStream.getCurrentVersion();
+        if (cached.version() != currentVersion) {
+            LOGGER.debug("Cached court order {} is at version {} but stream is at {}, loading from event store", eventStream.getId(), cached.version(), currentVersion);
+            return loader.get();
+        }
+        return cached;
+    }
+
+    /**
+     * Caches the aggregate at the version it was built up to once the active transaction has
+     * committed. Call after the events raised by the aggregate have been appended to the stream.
+     */
+    public void put(final EventStream eventStream, final VersionedAggregate<CourtOrderAggregate> aggregate) {
+        if (!parseBoolean(enabled) || isNull(transactionSynchronizationRegistry.getTransactionKey())) {
+            return;
+        }
+        final UUID streamId = eventStream.getId();
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // cache only once the outcome of the transaction is known
+            }
+
+            @Override
+            public void afterCompletion(final int status) {
+                if (status == STATUS_COMMITTED) {
+                    aggregates.merge(streamId, aggregate, (existing, committed) -> existing.version() < committed.version() ? committed : existing);
+                }
+            }
+        });
+    }
+}
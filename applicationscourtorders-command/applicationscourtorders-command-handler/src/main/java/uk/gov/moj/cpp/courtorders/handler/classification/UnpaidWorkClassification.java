@@ -0,0 +1,201 @@
+package uk.gov.moj.cpp.courtorders.handler.classification;
+
+import static java.lang.Long.parseLong;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toCollection;
+
+import uk.gov.justice.core.courts.JudicialChildResults;
+import uk.gov.justice.services.common.configuration.Value;
+import uk.gov.moj.cpp.courtorders.common.jmx.MBeanRegistrations;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The judicial result types that make a community order an unpaid work order.
+ *
+ * <p>{@code unpaidWorkJudicialTypeIds} is compiled once into an immutable hash set, so commands
+ * neither parse the configuration nor scan a list to classify a court order. The configuration is
+ * read again at most every {@code unpaidWorkJudicialTypeIdsReloadMillis} and compiled again only
+ * when its value has changed, so every instance of the service picks up a change to it.
+ *
+ * <p>A change to the rules can be tried out first through the MBean registered as
+ * {@code uk.gov.moj.cpp.courtorders:type=UnpaidWorkClassification}. While candidate rules are set,
+ * every command that classifies a court order also classifies it under the candidate rules, and
+ * the court orders that would be reclassified are reported, up to the first
+ * {@value #MAX_REPORTED_COURT_ORDERS} of them. The candidate is applied by changing the
+ * configuration to it, and is discarded once the configuration has been reloaded with it.
+ */
+@ApplicationScoped
+public class UnpaidWorkClassification implements UnpaidWorkClassificationMBean {
+
+    static final String OBJECT_NAME = "uk.gov.moj.cpp.courtorders:type=UnpaidWorkClassification";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnpaidWorkClassification.class);
+    private static final int MAX_REPORTED_COURT_ORDERS = 1000;
+
+    @Inject
+    @Value(key = "unpaidWorkJudicialTypeIds", defaultValue = "9bec5977-1796-4645-9b9e-687d4f23d37d,5ab456c8-d272-4082-87ed-cd1f44a0603a")
+    private Instance<String> unpaidWorkJudicialTypeIds;
+
+    @Inject
+    @Value(key = "unpaidWorkJudicialTypeIdsReloadMillis", defaultValue = "60000")
+    private String reloadMillis;
+
+    private final Set<UUID> reclassifiedCourtOrderIds = new LinkedHashSet<>();
+    private final LongAdder reclassifiedCourtOrderCount = new LongAdder();
+    private final MBeanRegistrations mBeanRegistrations = new MBeanRegistrations();
+
+    private long reloadNanos;
+
+    private volatile Rules rules;
+    private volatile long rulesLoadedAt;
+    private volatile Rules candidateRules;
+
+    @PostConstruct
+    public void initialise() {
+        reloadNanos = MILLISECONDS.toNanos(parseLong(reloadMillis));
+        judicialResultTypeIds();
+        mBeanRegistrations.register(OBJECT_NAME, this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        mBeanRegistrations.unregisterAll();
+    }
+
+    /**
+     * @return the judicial result types that make a community order an unpaid work order
+     */
+    public Set<UUID> judicialResultTypeIds() {
+        return currentRules().judicialResultTypeIds();
+    }
+
+    /**
+     * Classifies the court order under the candidate rules, if any are set, and reports it when
+     * they would classify it differently from the current rules.
+     */
+    public void checkCandidate(final UUID courtOrderId, final boolean isUnpaidWorkCommunityOrd, final List<JudicialChildResults> judicialChildResults) {
+        final Rules candidate = candidateRules;
+        if (isNull(candidate) || !isUnpaidWorkCommunityOrd) {
+            return;
+        }
+        final boolean isUnpaidWorkUnderCandidate = candidate.matches(judicialChildResults);
+        if (currentRules().matches(judicialChildResults) != isUnpaidWorkUnderCandidate) {
+            report(courtOrderId, isUnpaidWorkUnderCandidate);
+        }
+    }
+
+    @Override
+    public String getUnpaidWorkJudicialTypeIds() {
+        return currentRules().source();
+    }
+
+    @Override
+    public String getCandidateUnpaidWorkJudicialTypeIds() {
+        final Rules candidate = candidateRules;
+        return nonNull(candidate) ? candidate.source() : null;
+    }
+
+    /**
+     * @throws IllegalArgumentException if any of the ids is not a UUID
+     */
+    @Override
+    public void setCandidateUnpaidWorkJudicialTypeIds(final String candidateUnpaidWorkJudicialTypeIds) {
+        final Rules candidate = Rules.compile(candidateUnpaidWorkJudicialTypeIds);
+        synchronized (reclassifiedCourtOrderIds) {
+            reclassifiedCourtOrderIds.clear();
+            reclassifiedCourtOrderCount.reset();
+            candidateRules = candidate;
+        }
+        LOGGER.info("Checking unpaid work judicial result types {} against {}", candidate.source(), getUnpaidWorkJudicialTypeIds());
+    }
+
+    @Override
+    public long getReclassifiedCourtOrderCount() {
+        return reclassifiedCourtOrderCount.sum();
+    }
+
+    @Override
+    public String[] getReclassifiedCourtOrderIds() {
+        synchronized (reclassifiedCourtOrderIds) {
+            return reclassifiedCourtOrderIds.stream().map(UUID::toString).toArray(String[]::new);
+        }
+    }
+
+    @Override
+    public void discardCandidate() {
+        candidateRules = null;
+    }
+
+    private Rules currentRules() {
+        final Rules current = rules;
+        final long now = System.nanoTime();
+        if (nonNull(current) && now - rulesLoadedAt < reloadNanos) {
+            return current;
+        }
+        final String configured = unpaidWorkJudicialTypeIds.get();
+        rulesLoadedAt = now;
+        if (nonNull(current) && current.source().equals(configured)) {
+            return current;
+        }
+        final Rules compiled = Rules.compile(configured);
+        if (nonNull(current)) {
+            LOGGER.info("Unpaid work judicial result types changed from {} to {}", current.source(), compiled.source());
+        }
+        rules = compiled;
+        final Rules candidate = candidateRules;
+        if (nonNull(candidate) && candidate.source().equals(configured)) {
+            LOGGER.info("Candidate unpaid work judicial result types applied, {} court orders seen were reclassified", getReclassifiedCourtOrderCount());
+            candidateRules = null;
+        }
+        return compiled;
+    }
+
+    private void report(final UUID courtOrderId, final boolean isUnpaidWorkUnderCandidate) {
+        synchronized (reclassifiedCourtOrderIds) {
+            if (reclassifiedCourtOrderIds.contains(courtOrderId)) {
+                return;
+            }
+            reclassifiedCourtOrderCount.increment();
+            if (reclassifiedCourtOrderIds.size() < MAX_REPORTED_COURT_ORDERS) {
+                reclassifiedCourtOrderIds.add(courtOrderId);
+            }
+        }
+        LOGGER.info("Court order {} would {}be an unpaid work order under the candidate rules", courtOrderId, isUnpaidWorkUnderCandidate ? "" : "no longer ");
+    }
+
+    private record Rules(String source, Set<UUID> judicialResultTypeIds) {
+
+        private static Rules compile(final String unpaidWorkJudicialTypeIds) {
+            final Set<UUID> judicialResultTypeIds = Arrays.stream(unpaidWorkJudicialTypeIds.split(","))
+                    .map(String::trim)
+                    .filter(id -> !id.isEmpty())
+                    .map(UUID::fromString)
+                    .collect(toCollection(HashSet::new));
+            return new Rules(unpaidWorkJudicialTypeIds, unmodifiableSet(judicialResultTypeIds));
+        }
+
+        private boolean matches(final List<JudicialChildResults> judicialChildResults) {
+            return nonNull(judicialChildResults) && judicialChildResults.stream()
+                    .anyMatch(judicialChildResult -> judicialResultTypeIds.contains(judicialChildResult.getJudicialResultTypeId()));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package uk.gov.moj.cpp.courtorders.handler.classification;
+
+public interface UnpaidWorkClassificationMBean {
+
+    String getUnpaidWorkJudicialTypeIds();
+
+    String getCandidateUnpaidWorkJudicialTypeIds();
+
+    void setCandidateUnpaidWorkJudicialTypeIds(String candidateUnpaidWorkJudicialTypeIds);
+
+    long getReclassifiedCourtOrderCount();
+
+    String[] getReclassifiedCourtOrderIds();
+
+    void discardCandidate();
+}
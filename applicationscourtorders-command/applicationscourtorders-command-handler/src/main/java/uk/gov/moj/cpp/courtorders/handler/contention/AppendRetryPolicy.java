@@ -0,0 +1,72 @@
+package uk.gov.moj.cpp.courtorders.handler.contention;
+
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import uk.gov.justice.services.common.configuration.Value;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * How often, and after how long, a command whose append to its stream lost an optimistic lock
+ * conflict is decided again. Backoff uses full jitter: the wait before retry {@code n} is picked
+ * at random up to {@code appendRetryBackoffMillis * 2^(n-1)}, capped at
+ * {@code appendRetryMaxBackoffMillis}, so commands colliding on a hot stream spread out rather
+ * than colliding again.
+ */
+@ApplicationScoped
+public class AppendRetryPolicy {
+
+    @Inject
+    @Value(key = "appendRetryMaxAttempts", defaultValue = "5")
+    private String maxAttempts;
+
+    @Inject
+    @Value(key = "appendRetryBackoffMillis", defaultValue = "10")
+    private String backoffMillis;
+
+    @Inject
+    @Value(key = "appendRetryMaxBackoffMillis", defaultValue = "200")
+    private String maxBackoffMillis;
+
+    /**
+     * @return the number of times a command may try to append to its stream, at least one
+     */
+    public int maxAttempts() {
+        return max(1, parseInt(maxAttempts));
+    }
+
+    /**
+     * @param attempt the attempt that just conflicted, starting at one
+     * @return the number of milliseconds to wait before the next attempt
+     */
+    public long backoffMillis(final int attempt) {
+        final long ceiling = min(parseLong(maxBackoffMillis), parseLong(backoffMillis) << min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Waits before the attempt after the given one.
+     *
+     * @return false if the thread was interrupted while waiting, in which case there should be no
+     * further attempt
+     */
+    public boolean backOff(final int attempt) {
+        final long millis = backoffMillis(attempt);
+        if (millis == 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package uk.gov.moj.cpp.courtorders.handler.contention;
+
+import static java.lang.String.format;
+
+import uk.gov.justice.services.common.converter.JsonObjectToObjectConverter;
+import uk.gov.justice.services.core.extension.EventFoundEvent;
+import uk.gov.justice.services.eventsourcing.source.core.EventStream;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+/**
+ * Reads the events appended to a stream after a given version, converted to the event classes
+ * aggregates apply, so that an aggregate built up to that version can be brought up to date
+ * without replaying the whole stream. Event classes are registered as the framework finds them,
+ * the same way the aggregate service learns them.
+ */
+@ApplicationScoped
+public class StreamCatchUp {
+
+    private final Map<String, Class<?>> eventClasses = new ConcurrentHashMap<>();
+
+    @Inject
+    private JsonObjectToObjectConverter jsonObjectToObjectConverter;
+
+    public void register(@Observes final EventFoundEvent eventFoundEvent) {
+        eventClasses.put(eventFoundEvent.getEventName(), eventFoundEvent.getClazz());
+    }
+
+    /**
+     * @return the events in the stream after the given version, in stream order
+     */
+    public List<Object> eventsAfter(final EventStream eventStream, final long version) {
+        try (final Stream<JsonEnvelope> events = eventStream.readFrom(version + 1)) {
+            return events.map(this::toEvent).toList();
+        }
+    }
+
+    private Object toEvent(final JsonEnvelope event) {
+        final String name = event.metadata().name();
+        final Class<?> eventClass = eventClasses.get(name);
+        if (eventClass == null) {
+            throw new IllegalStateException(format("No event class registered for events of type %s", name));
+        }
+        return jsonObjectToObjectConverter.convert(event.payloadAsJsonObject(), eventClass);
+    }
+}
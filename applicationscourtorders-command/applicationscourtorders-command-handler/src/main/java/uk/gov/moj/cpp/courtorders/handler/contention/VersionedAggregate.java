@@ -0,0 +1,10 @@
+package uk.gov.moj.cpp.courtorders.handler.contention;
+
+import uk.gov.justice.domain.aggregate.Aggregate;
+
+/**
+ * An aggregate and the version of its stream it was built up to, which is the version the events
+ * it decides next are appended after.
+ */
+public record VersionedAggregate<A extends Aggregate>(A aggregate, long version) {
+}
@@ -0,0 +1,171 @@
+package uk.gov.moj.cpp.courtorders.handler.idempotency;
+
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.Integer.parseInt;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static javax.transaction.Status.STATUS_COMMITTED;
+
+import uk.gov.justice.services.common.configuration.Value;
+import uk.gov.justice.services.eventsourcing.source.core.EventStream;
+import uk.gov.justice.services.messaging.Envelope;
+import uk.gov.moj.cpp.courtorders.common.cache.StripedLruMap;
+import uk.gov.moj.cpp.courtorders.common.digest.Sha256;
+import uk.gov.moj.cpp.courtorders.common.jmx.MBeanRegistrations;
+
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.json.JsonValue;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Size bounded store of the commands already handled, keyed by their name and a SHA-256 hash of
+ * their payload, so that a command resent unchanged by a retrying client can be ignored before its
+ * aggregate is replayed. The id in the metadata is not part of the key: a client resending a command
+ * sends it in a new envelope with a new id.
+ *
+ * <p>Each command is remembered with the version it left its stream at, and is only a duplicate
+ * while the stream is still at that version. A command sent again after other commands changed the
+ * court order, e.g. an end date reset back to an earlier value, is handled again. Entries are spread
+ * over lock striped segments, each evicting its least recently seen command once full.
+ *
+ * <p>A command is only remembered once its transaction has committed, so a command that failed is
+ * handled again when it is retried. The number of commands checked and the duplicates found are
+ * registered with the platform MBean server as
+ * {@code uk.gov.moj.cpp.courtorders:type=CommandIdempotency}.
+ */
+@ApplicationScoped
+public class CommandIdempotencyStore implements CommandIdempotencyStoreMBean {
+
+    static final String OBJECT_NAME = "uk.gov.moj.cpp.courtorders:type=CommandIdempotency";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommandIdempotencyStore.class);
+    private static final int SEGMENT_COUNT = 16;
+
+    @Inject
+    @Value(key = "commandIdempotencyEnabled", defaultValue = "true")
+    private String enabled;
+
+    @Inject
+    @Value(key = "commandIdempotencyStoreSize", defaultValue = "10000")
+    private String size;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private StripedLruMap<CommandKey, Long> handledCommands;
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final MBeanRegistrations mBeanRegistrations = new MBeanRegistrations();
+
+    @PostConstruct
+    public void initialise() {
+        handledCommands = new StripedLruMap<>(SEGMENT_COUNT, parseInt(size));
+        register();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        mBeanRegistrations.unregisterAll();
+    }
+
+    /**
+     * @return true if a command with the same name and payload has already been handled and
+     * committed, and nothing has been appended to its stream since
+     */
+    public boolean isDuplicate(final Envelope<?> envelope, final EventStream eventStream) {
+        if (!parseBoolean(enabled)) {
+            return false;
+        }
+        commands.increment();
+        final Long handledAtVersion = handledCommands.get(commandKey(envelope));
+        if (isNull(handledAtVersion) || handledAtVersion != eventStream.getCurrentVersion()) {
+            return false;
+        }
+        duplicates.increment();
+        LOGGER.info("Ignoring duplicate {} command {}", envelope.metadata().name(), envelope.metadata().id());
+        return true;
+    }
+
+    /**
+     * Remembers the command with the version it left its stream at once the active transaction
+     * commits. Call after the events raised by the command have been appended to the stream.
+     */
+    public void handled(final Envelope<?> envelope, final long streamVersion) {
+        if (!parseBoolean(enabled) || isNull(transactionSynchronizationRegistry.getTransactionKey())) {
+            return;
+        }
+        final CommandKey commandKey = commandKey(envelope);
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // remember the command only once the outcome of the transaction is known
+            }
+
+            @Override
+            public void afterCompletion(final int status) {
+                if (status == STATUS_COMMITTED) {
+                    handledCommands.put(commandKey, streamVersion);
+                }
+            }
+        });
+    }
+
+    @Override
+    public long getCommands() {
+        return commands.sum();
+    }
+
+    @Override
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    @Override
+    public double getDuplicateRate() {
+        final long checked = commands.sum();
+        return checked == 0 ? 0 : (double) duplicates.sum() / checked;
+    }
+
+    @Override
+    public int getSize() {
+        return handledCommands.size();
+    }
+
+    @Override
+    public void reset() {
+        commands.reset();
+        duplicates.reset();
+    }
+
+    private void register() {
+        mBeanRegistrations.register(OBJECT_NAME, this);
+    }
+
+    private static CommandKey commandKey(final Envelope<?> envelope) {
+        return new CommandKey(envelope.metadata().name(), hash(envelope.payload()));
+    }
+
+    private static String hash(final Object payload) {
+        if (payload instanceof JsonValue) {
+            final MessageDigest messageDigest = Sha256.messageDigest();
+            messageDigest.update(payload.toString().getBytes(UTF_8));
+            return HexFormat.of().formatHex(messageDigest.digest());
+        }
+        return HexFormat.of().formatHex(Sha256.ofSerialized(payload));
+    }
+
+    private record CommandKey(String commandName, String payloadHash) {
+    }
+}
@@ -0,0 +1,14 @@
+package uk.gov.moj.cpp.courtorders.handler.idempotency;
+
+public interface CommandIdempotencyStoreMBean {
+
+    long getCommands();
+
+    long getDuplicates();
+
+    double getDuplicateRate();
+
+    int getSize();
+
+    void reset();
+}
@@ -0,0 +1,12 @@
+package uk.gov.moj.cpp.courtorders.handler.job;
+
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+
+import java.util.List;
+import java.util.UUID;
+
+@FunctionalInterface
+public interface CourtOrderChunkTask {
+
+    void execute(final List<UUID> courtOrderIds) throws EventStreamException;
+}
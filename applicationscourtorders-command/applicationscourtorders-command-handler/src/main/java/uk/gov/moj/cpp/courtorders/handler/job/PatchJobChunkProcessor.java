@@ -0,0 +1,56 @@
+package uk.gov.moj.cpp.courtorders.handler.job;
+
+import static javax.json.JsonValue.NULL;
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+import static uk.gov.justice.services.core.enveloper.Enveloper.toEnvelopeWithMetadataFrom;
+import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.core.aggregate.AggregateService;
+import uk.gov.justice.services.eventsourcing.source.core.EventSource;
+import uk.gov.justice.services.eventsourcing.source.core.EventStream;
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+import uk.gov.justice.services.messaging.Envelope;
+import uk.gov.moj.cpp.courtorders.aggregate.PatchJobAggregate;
+import uk.gov.moj.cpp.courtorders.aggregate.PatchJobChunk;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+
+/**
+ * Processes the next chunk of a patch job and records the checkpoint in the same transaction, so
+ * a chunk is either applied and checkpointed or neither.
+ */
+@ApplicationScoped
+public class PatchJobChunkProcessor {
+
+    @Inject
+    private EventSource eventSource;
+
+    @Inject
+    private AggregateService aggregateService;
+
+    @Inject
+    private UtcClock utcClock;
+
+    /**
+     * @return true if the job has further chunks to process
+     */
+    @Transactional(value = REQUIRES_NEW, rollbackOn = Exception.class)
+    public boolean processNextChunk(final Envelope<?> envelope, final UUID jobId, final CourtOrderChunkTask task) throws EventStreamException {
+        final EventStream eventStream = eventSource.getStreamById(jobId);
+        final PatchJobAggregate patchJobAggregate = aggregateService.get(eventStream, PatchJobAggregate.class);
+        final Optional<PatchJobChunk> chunk = patchJobAggregate.nextChunk();
+        if (chunk.isEmpty()) {
+            return false;
+        }
+        task.execute(chunk.get().courtOrderIds());
+        eventStream.append(patchJobAggregate.completeChunk(chunk.get(), utcClock.now())
+                .map(toEnvelopeWithMetadataFrom(envelopeFrom(envelope.metadata(), NULL))));
+        return !patchJobAggregate.isCompleted();
+    }
+}
@@ -0,0 +1,128 @@
+package uk.gov.moj.cpp.courtorders.handler.job;
+
+import static javax.enterprise.event.TransactionPhase.AFTER_SUCCESS;
+
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+import uk.gov.moj.cpp.courtorders.handler.lane.BulkLane;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs scheduled patch jobs on the managed executor, one chunk per transaction, until the job is
+ * completed or a chunk fails. A failed job keeps its last checkpoint and carries on from there
+ * when it is resumed. Jobs run in the {@link BulkLane}: once it has as many jobs running as it
+ * allows, further jobs wait in the order they were scheduled, and chunks are paced to the lane.
+ */
+@ApplicationScoped
+public class PatchJobRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PatchJobRunner.class);
+
+    private final Set<UUID> runningJobIds = ConcurrentHashMap.newKeySet();
+    private final Queue<PatchJobScheduled> waitingJobs = new ArrayDeque<>();
+    private int activeJobs;
+
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    @Inject
+    private PatchJobChunkProcessor patchJobChunkProcessor;
+
+    @Inject
+    private PatchJobService patchJobService;
+
+    @Inject
+    private BulkLane bulkLane;
+
+    public void onPatchJobScheduled(@Observes(during = AFTER_SUCCESS) final PatchJobScheduled patchJobScheduled) {
+        final UUID jobId = patchJobScheduled.jobId();
+        if (!runningJobIds.add(jobId)) {
+            LOGGER.info("Patch job {} is already running", jobId);
+            return;
+        }
+        if (!admit(patchJobScheduled)) {
+            LOGGER.info("Patch job {} waiting for the bulk lane", jobId);
+            return;
+        }
+        try {
+            submit(patchJobScheduled);
+        } catch (final RuntimeException e) {
+            finish(jobId);
+            throw e;
+        }
+    }
+
+    private void run(final PatchJobScheduled patchJobScheduled) {
+        final UUID jobId = patchJobScheduled.jobId();
+        try {
+            do {
+                bulkLane.pace(patchJobService.chunkSize());
+            } while (processNextChunk(patchJobScheduled));
+            LOGGER.info("Patch job {} completed", jobId);
+        } catch (final Exception e) {
+            LOGGER.error("Patch job {} stopped at its last checkpoint, resume it to carry on", jobId, e);
+        } finally {
+            finish(jobId);
+        }
+    }
+
+    private boolean processNextChunk(final PatchJobScheduled patchJobScheduled) throws EventStreamException {
+        final boolean hasFurtherChunks = patchJobChunkProcessor.processNextChunk(patchJobScheduled.envelope(), patchJobScheduled.jobId(), patchJobScheduled.task());
+        if (hasFurtherChunks) {
+            LOGGER.debug("Patch job {} checkpointed", patchJobScheduled.jobId());
+        }
+        return hasFurtherChunks;
+    }
+
+    private void submit(final PatchJobScheduled patchJobScheduled) {
+        managedExecutorService.submit(() -> run(patchJobScheduled));
+    }
+
+    private synchronized boolean admit(final PatchJobScheduled patchJobScheduled) {
+        if (activeJobs < bulkLane.getMaxConcurrentJobs()) {
+            activeJobs++;
+            return true;
+        }
+        waitingJobs.add(patchJobScheduled);
+        return false;
+    }
+
+    /**
+     * Releases the job's place in the lane, handing it straight to the job that has waited longest
+     * if there is one.
+     */
+    private void finish(final UUID jobId) {
+        runningJobIds.remove(jobId);
+        PatchJobScheduled next;
+        while ((next = handOver()) != null) {
+            try {
+                submit(next);
+                return;
+            } catch (final RuntimeException e) {
+                LOGGER.error("Patch job {} could not be started, resume it to carry on", next.jobId(), e);
+                runningJobIds.remove(next.jobId());
+            }
+        }
+    }
+
+    private synchronized PatchJobScheduled handOver() {
+        final PatchJobScheduled next = waitingJobs.poll();
+        if (next == null) {
+            activeJobs--;
+        }
+        return next;
+    }
+}
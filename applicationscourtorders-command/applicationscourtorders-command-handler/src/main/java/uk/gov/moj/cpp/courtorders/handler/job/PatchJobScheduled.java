@@ -0,0 +1,12 @@
+package uk.gov.moj.cpp.courtorders.handler.job;
+
+import uk.gov.justice.services.messaging.Envelope;
+
+import java.util.UUID;
+
+/**
+ * Fired when a patch job has been started or resumed. The job is only picked up once the command
+ * that scheduled it has committed.
+ */
+public record PatchJobScheduled(Envelope<?> envelope, UUID jobId, CourtOrderChunkTask task) {
+}
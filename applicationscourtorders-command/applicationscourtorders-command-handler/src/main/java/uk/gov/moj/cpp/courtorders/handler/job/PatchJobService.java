@@ -0,0 +1,97 @@
+package uk.gov.moj.cpp.courtorders.handler.job;
+
+import static java.lang.Integer.parseInt;
+import static javax.json.JsonValue.NULL;
+import static uk.gov.justice.services.core.enveloper.Enveloper.toEnvelopeWithMetadataFrom;
+import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
+
+import uk.gov.justice.services.common.configuration.Value;
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.core.aggregate.AggregateService;
+import uk.gov.justice.services.eventsourcing.source.core.EventSource;
+import uk.gov.justice.services.eventsourcing.source.core.EventStream;
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+import uk.gov.justice.services.messaging.Envelope;
+import uk.gov.moj.cpp.courtorders.aggregate.PatchJobAggregate;
+import uk.gov.moj.cpp.courtorders.handler.lane.BulkLane;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts and resumes patch commands that are too large to process in a single transaction. The job
+ * is stored as its own event stream, keyed by the id of the command that started it, and is
+ * processed in the background once the command has committed.
+ */
+@ApplicationScoped
+public class PatchJobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PatchJobService.class);
+
+    @Inject
+    @Value(key = "courtOrderPatchJobThreshold", defaultValue = "1000")
+    private String threshold;
+
+    @Inject
+    @Value(key = "courtOrderPatchJobChunkSize", defaultValue = "100")
+    private String chunkSize;
+
+    @Inject
+    private EventSource eventSource;
+
+    @Inject
+    private AggregateService aggregateService;
+
+    @Inject
+    private UtcClock utcClock;
+
+    @Inject
+    private Event<PatchJobScheduled> patchJobScheduledEvent;
+
+    @Inject
+    private BulkLane bulkLane;
+
+    /**
+     * @return true if the patch should run as a job: when it is over the threshold, or at any size
+     * when command lanes are enabled so that patches run in the {@link BulkLane}
+     */
+    public boolean runsAsJob(final List<UUID> courtOrderIds) {
+        return courtOrderIds.size() > parseInt(threshold) || (bulkLane.isEnabled() && !courtOrderIds.isEmpty());
+    }
+
+    public int chunkSize() {
+        return parseInt(chunkSize);
+    }
+
+    public void start(final Envelope<?> envelope, final List<UUID> courtOrderIds, final CourtOrderChunkTask task) throws EventStreamException {
+        final UUID jobId = envelope.metadata().id();
+        final EventStream eventStream = eventSource.getStreamById(jobId);
+        final PatchJobAggregate patchJobAggregate = aggregateService.get(eventStream, PatchJobAggregate.class);
+        final Stream<Object> events = patchJobAggregate.startJob(jobId, envelope.metadata().name(), courtOrderIds, chunkSize(), utcClock.now());
+        eventStream.append(events.map(toEnvelopeWithMetadataFrom(envelopeFrom(envelope.metadata(), NULL))));
+        LOGGER.info("{} for {} court orders scheduled as patch job {}", envelope.metadata().name(), courtOrderIds.size(), jobId);
+        patchJobScheduledEvent.fire(new PatchJobScheduled(envelope, jobId, task));
+    }
+
+    /**
+     * Schedules the remaining chunks of an unfinished job, using the task the given function
+     * returns for the name of the command that started the job.
+     */
+    public void resume(final Envelope<?> envelope, final UUID jobId, final Function<String, CourtOrderChunkTask> taskForCommand) {
+        final PatchJobAggregate patchJobAggregate = aggregateService.get(eventSource.getStreamById(jobId), PatchJobAggregate.class);
+        if (!patchJobAggregate.isStarted() || patchJobAggregate.isCompleted()) {
+            LOGGER.warn("Patch job {} not resumed as it is {}", jobId, patchJobAggregate.isStarted() ? "already completed" : "unknown");
+            return;
+        }
+        patchJobScheduledEvent.fire(new PatchJobScheduled(envelope, jobId, taskForCommand.apply(patchJobAggregate.getCommandName())));
+    }
+}
@@ -0,0 +1,152 @@
+package uk.gov.moj.cpp.courtorders.handler.lane;
+
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.Double.parseDouble;
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import uk.gov.justice.services.common.configuration.Value;
+import uk.gov.moj.cpp.courtorders.common.jmx.MBeanRegistrations;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The lane bulk maintenance commands run in, apart from the interactive commands sent from
+ * courtrooms.
+ *
+ * <p>When {@code commandLanesEnabled} is set, patch commands of any size run as patch jobs, so the
+ * listener threads that take commands off the handler queue are left to interactive commands and
+ * the container's listener pool is the interactive lane's concurrency limit. At most
+ * {@code bulkLaneMaxConcurrentJobs} patch jobs run at once, and the rest wait their turn. The jobs
+ * are paced to {@code bulkLaneCourtOrdersPerSecond}, where 0 means unpaced. The pace is read again
+ * from the configuration at most every {@code bulkLaneCourtOrdersPerSecondReloadMillis}, so a
+ * change to it, for example to slow a backfill down during court hours, reaches every instance of
+ * the service without a restart. The lane is reported through the MBean registered as
+ * {@code uk.gov.moj.cpp.courtorders:type=CommandLane,name=bulk}.
+ */
+@ApplicationScoped
+public class BulkLane implements BulkLaneMBean {
+
+    static final String OBJECT_NAME = "uk.gov.moj.cpp.courtorders:type=CommandLane,name=bulk";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkLane.class);
+
+    @Inject
+    @Value(key = "commandLanesEnabled", defaultValue = "false")
+    private String enabled;
+
+    @Inject
+    @Value(key = "bulkLaneMaxConcurrentJobs", defaultValue = "1")
+    private String maxConcurrentJobs;
+
+    @Inject
+    @Value(key = "bulkLaneCourtOrdersPerSecond", defaultValue = "0")
+    private Instance<String> courtOrdersPerSecond;
+
+    @Inject
+    @Value(key = "bulkLaneCourtOrdersPerSecondReloadMillis", defaultValue = "60000")
+    private String reloadMillis;
+
+    private final LongAdder throttledNanos = new LongAdder();
+    private final MBeanRegistrations mBeanRegistrations = new MBeanRegistrations();
+
+    private long reloadNanos;
+
+    private volatile double pace;
+    private volatile long paceLoadedAt;
+
+    private long nextFreeAt = System.nanoTime();
+
+    @PostConstruct
+    public void initialise() {
+        reloadNanos = MILLISECONDS.toNanos(parseLong(reloadMillis));
+        loadPace(System.nanoTime());
+        mBeanRegistrations.register(OBJECT_NAME, this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        mBeanRegistrations.unregisterAll();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return parseBoolean(enabled);
+    }
+
+    /**
+     * @return the number of patch jobs that may run at once, unbounded when lanes are disabled
+     */
+    @Override
+    public int getMaxConcurrentJobs() {
+        return isEnabled() ? max(1, parseInt(maxConcurrentJobs)) : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public double getCourtOrdersPerSecond() {
+        return currentPace();
+    }
+
+    @Override
+    public long getThrottledMillis() {
+        return NANOSECONDS.toMillis(throttledNanos.sum());
+    }
+
+    /**
+     * Waits until the given number of court orders may be processed without the lane going over
+     * its pace. Call outside of any transaction, before processing them.
+     */
+    public void pace(final int courtOrders) {
+        final double currentPace = currentPace();
+        if (!isEnabled() || currentPace <= 0 || courtOrders <= 0) {
+            return;
+        }
+        final long waitNanos = reserve((long) (courtOrders * SECONDS.toNanos(1) / currentPace));
+        if (waitNanos <= 0) {
+            return;
+        }
+        throttledNanos.add(waitNanos);
+        try {
+            NANOSECONDS.sleep(waitNanos);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double currentPace() {
+        final long now = System.nanoTime();
+        if (now - paceLoadedAt >= reloadNanos) {
+            loadPace(now);
+        }
+        return pace;
+    }
+
+    private void loadPace(final long now) {
+        final double configured = parseDouble(courtOrdersPerSecond.get());
+        paceLoadedAt = now;
+        if (configured != pace) {
+            LOGGER.info("Bulk lane paced to {} court orders per second", configured);
+            pace = configured;
+        }
+    }
+
+    private synchronized long reserve(final long nanos) {
+        final long now = System.nanoTime();
+        final long startAt = max(now, nextFreeAt);
+        nextFreeAt = startAt + nanos;
+        return startAt - now;
+    }
+}
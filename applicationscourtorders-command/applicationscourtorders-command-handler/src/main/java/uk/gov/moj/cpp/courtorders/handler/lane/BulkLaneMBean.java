@@ -0,0 +1,12 @@
+package uk.gov.moj.cpp.courtorders.handler.lane;
+
+public interface BulkLaneMBean {
+
+    boolean isEnabled();
+
+    int getMaxConcurrentJobs();
+
+    double getCourtOrdersPerSecond();
+
+    long getThrottledMillis();
+}
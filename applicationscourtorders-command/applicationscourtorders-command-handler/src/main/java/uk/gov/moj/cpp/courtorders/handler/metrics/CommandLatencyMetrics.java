@@ -0,0 +1,56 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import uk.gov.moj.cpp.courtorders.common.jmx.MBeanRegistrations;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Records how long each stage of a command handler takes, per command name. Every command and stage
+ * pair gets its own {@link LatencyHistogram}, registered with the platform MBean server as
+ * {@code uk.gov.moj.cpp.courtorders:type=CommandLatency,command="<command>",stage=<stage>} the first
+ * time it is recorded.
+ */
+@ApplicationScoped
+public class CommandLatencyMetrics {
+
+    private static final String OBJECT_NAME = "uk.gov.moj.cpp.courtorders:type=CommandLatency,command=%s,stage=%s";
+
+    private final Map<String, Map<CommandStage, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+    private final MBeanRegistrations mBeanRegistrations = new MBeanRegistrations();
+
+    @PreDestroy
+    public void destroy() {
+        mBeanRegistrations.unregisterAll();
+    }
+
+    public <T, E extends Exception> T time(final String commandName, final CommandStage stage, final TimedCall<T, E> call) throws E {
+        final long start = System.nanoTime();
+        try {
+            return call.call();
+        } finally {
+            histogram(commandName, stage).record(NANOSECONDS.toMicros(System.nanoTime() - start));
+        }
+    }
+
+    public LatencyHistogram histogram(final String commandName, final CommandStage stage) {
+        return histograms.computeIfAbsent(commandName, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(stage, newStage -> mBeanRegistrations.register(name(commandName, newStage), new LatencyHistogram()));
+    }
+
+    static ObjectName objectName(final String commandName, final CommandStage stage) throws JMException {
+        return new ObjectName(name(commandName, stage));
+    }
+
+    private static String name(final String commandName, final CommandStage stage) {
+        return format(OBJECT_NAME, ObjectName.quote(commandName), stage);
+    }
+}
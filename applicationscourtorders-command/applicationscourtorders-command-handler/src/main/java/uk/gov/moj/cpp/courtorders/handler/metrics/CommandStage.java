@@ -0,0 +1,13 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+/**
+ * The stages of a command handler whose latency is recorded separately.
+ */
+public enum CommandStage {
+
+    LOAD_STREAM,
+    REPLAY_AGGREGATE,
+    REFERENCE_DATA,
+    PROGRESSION,
+    APPEND_EVENTS
+}
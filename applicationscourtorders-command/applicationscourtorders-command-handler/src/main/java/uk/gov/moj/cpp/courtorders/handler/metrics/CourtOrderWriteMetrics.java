@@ -0,0 +1,65 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+import uk.gov.moj.cpp.courtorders.common.jmx.MBeanRegistrations;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Counts create court order requests and how many of them were for a court order identical to the
+ * one already requested, so wrote nothing. Each suppressed request would otherwise have written a
+ * CourtOrderRemoved and a CourtOrderRequested event. Registered with the platform MBean server as
+ * {@code uk.gov.moj.cpp.courtorders:type=CourtOrderWrites}.
+ */
+@ApplicationScoped
+public class CourtOrderWriteMetrics implements CourtOrderWriteMetricsMBean {
+
+    static final String OBJECT_NAME = "uk.gov.moj.cpp.courtorders:type=CourtOrderWrites";
+
+    private static final int EVENTS_PER_REPLACED_COURT_ORDER = 2;
+
+    private final LongAdder createRequests = new LongAdder();
+    private final LongAdder suppressedCreateRequests = new LongAdder();
+    private final MBeanRegistrations mBeanRegistrations = new MBeanRegistrations();
+
+    @PostConstruct
+    public void register() {
+        mBeanRegistrations.register(OBJECT_NAME, this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        mBeanRegistrations.unregisterAll();
+    }
+
+    public void recordCreate(final boolean suppressed) {
+        createRequests.increment();
+        if (suppressed) {
+            suppressedCreateRequests.increment();
+        }
+    }
+
+    @Override
+    public long getCreateRequests() {
+        return createRequests.sum();
+    }
+
+    @Override
+    public long getSuppressedCreateRequests() {
+        return suppressedCreateRequests.sum();
+    }
+
+    @Override
+    public long getSuppressedEventWrites() {
+        return suppressedCreateRequests.sum() * EVENTS_PER_REPLACED_COURT_ORDER;
+    }
+
+    @Override
+    public void reset() {
+        createRequests.reset();
+        suppressedCreateRequests.reset();
+    }
+}
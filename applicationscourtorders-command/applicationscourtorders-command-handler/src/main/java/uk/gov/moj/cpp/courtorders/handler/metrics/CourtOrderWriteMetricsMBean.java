@@ -0,0 +1,12 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+public interface CourtOrderWriteMetricsMBean {
+
+    long getCreateRequests();
+
+    long getSuppressedCreateRequests();
+
+    long getSuppressedEventWrites();
+
+    void reset();
+}
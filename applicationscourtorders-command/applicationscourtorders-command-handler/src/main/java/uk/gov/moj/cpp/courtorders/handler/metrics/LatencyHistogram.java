@@ -0,0 +1,123 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+import static java.lang.Long.numberOfLeadingZeros;
+import static java.lang.Math.ceil;
+import static java.lang.Math.min;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram in microseconds. Every power of two is split into four buckets, so a
+ * reported percentile is at most a quarter above the recorded value it stands for. Values above
+ * roughly 19 hours are counted in the last bucket.
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(final long micros) {
+        final long value = Math.max(micros, 0);
+        buckets[bucketIndex(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getMeanMicros() {
+        final long recorded = count.sum();
+        return recorded == 0 ? 0 : sum.sum() / recorded;
+    }
+
+    @Override
+    public long getP50Micros() {
+        return percentile(0.5);
+    }
+
+    @Override
+    public long getP95Micros() {
+        return percentile(0.95);
+    }
+
+    @Override
+    public long getP99Micros() {
+        return percentile(0.99);
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return max.get();
+    }
+
+    @Override
+    public void reset() {
+        for (final LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    long percentile(final double percentile) {
+        final long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets[i].sum();
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = (long) ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return i == BUCKET_COUNT - 1 ? max.get() : min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int bucketIndex(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(final int bucketIndex) {
+        if (bucketIndex < SUB_BUCKETS) {
+            return bucketIndex;
+        }
+        final int exponent = (bucketIndex - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        final int subBucket = (bucketIndex - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
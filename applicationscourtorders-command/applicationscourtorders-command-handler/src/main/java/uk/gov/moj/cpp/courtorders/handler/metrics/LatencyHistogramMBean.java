@@ -0,0 +1,18 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+public interface LatencyHistogramMBean {
+
+    long getCount();
+
+    long getMeanMicros();
+
+    long getP50Micros();
+
+    long getP95Micros();
+
+    long getP99Micros();
+
+    long getMaxMicros();
+
+    void reset();
+}
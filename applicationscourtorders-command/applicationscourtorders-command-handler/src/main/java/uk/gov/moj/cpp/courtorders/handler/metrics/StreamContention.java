@@ -0,0 +1,57 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optimistic lock conflicts met by one command while appending to its stream: how many appends
+ * conflicted, how many were decided again and retried, how many gave up once out of attempts and
+ * how many events were read to catch up with the stream before retrying.
+ */
+public class StreamContention implements StreamContentionMBean {
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder caughtUpEvents = new LongAdder();
+
+    public void recordConflict() {
+        conflicts.increment();
+    }
+
+    public void recordRetry(final int caughtUpEventCount) {
+        retries.increment();
+        caughtUpEvents.add(caughtUpEventCount);
+    }
+
+    public void recordExhausted() {
+        exhausted.increment();
+    }
+
+    @Override
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @Override
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    @Override
+    public long getCaughtUpEvents() {
+        return caughtUpEvents.sum();
+    }
+
+    @Override
+    public void reset() {
+        conflicts.reset();
+        retries.reset();
+        exhausted.reset();
+        caughtUpEvents.reset();
+    }
+}
@@ -0,0 +1,14 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+public interface StreamContentionMBean {
+
+    long getConflicts();
+
+    long getRetries();
+
+    long getExhausted();
+
+    long getCaughtUpEvents();
+
+    void reset();
+}
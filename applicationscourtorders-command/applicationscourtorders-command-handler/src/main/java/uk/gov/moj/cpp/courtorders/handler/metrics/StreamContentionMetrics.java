@@ -0,0 +1,45 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+import static java.lang.String.format;
+
+import uk.gov.moj.cpp.courtorders.common.jmx.MBeanRegistrations;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts the optimistic lock conflicts each command meets when appending to its stream. Every
+ * command gets its own {@link StreamContention}, registered with the platform MBean server as
+ * {@code uk.gov.moj.cpp.courtorders:type=StreamContention,command="<command>"} the first time it
+ * is recorded.
+ */
+@ApplicationScoped
+public class StreamContentionMetrics {
+
+    private static final String OBJECT_NAME = "uk.gov.moj.cpp.courtorders:type=StreamContention,command=%s";
+
+    private final Map<String, StreamContention> contentions = new ConcurrentHashMap<>();
+    private final MBeanRegistrations mBeanRegistrations = new MBeanRegistrations();
+
+    @PreDestroy
+    public void destroy() {
+        mBeanRegistrations.unregisterAll();
+    }
+
+    public StreamContention contention(final String commandName) {
+        return contentions.computeIfAbsent(commandName, newCommandName -> mBeanRegistrations.register(name(newCommandName), new StreamContention()));
+    }
+
+    static ObjectName objectName(final String commandName) throws JMException {
+        return new ObjectName(name(commandName));
+    }
+
+    private static String name(final String commandName) {
+        return format(OBJECT_NAME, ObjectName.quote(commandName));
+    }
+}
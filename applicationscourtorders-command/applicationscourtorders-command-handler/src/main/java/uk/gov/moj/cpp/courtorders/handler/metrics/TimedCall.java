@@ -0,0 +1,10 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+/**
+ * A call made by a command handler stage whose latency is recorded.
+ */
+@FunctionalInterface
+public interface TimedCall<T, E extends Exception> {
+
+    T call() throws E;
+}
@@ -0,0 +1,170 @@
+package uk.gov.moj.cpp.courtorders.handler.recalculation;
+
+import static java.lang.Integer.parseInt;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static javax.enterprise.event.TransactionPhase.AFTER_SUCCESS;
+
+import uk.gov.justice.services.common.configuration.Value;
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+import uk.gov.justice.services.messaging.Envelope;
+import uk.gov.justice.services.messaging.Metadata;
+import uk.gov.moj.cpp.courtorders.common.jmx.MBeanRegistrations;
+import uk.gov.moj.cpp.courtorders.handler.lane.BulkLane;
+import uk.gov.moj.cpp.courtorders.handler.service.CourtOrderQueryService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Recalculates whether court orders are unpaid work, and their expiry dates, after the rules or
+ * the calculation have changed.
+ *
+ * <p>The ids of the court orders that are not removed are read from the query side in court order
+ * id order, {@code expiryRecalculationChunkSize} at a time, and each chunk is recalculated in a
+ * transaction of its own, paced to the {@link BulkLane}. Only one recalculation runs at a time. Progress is reported on the MBean
+ * registered as {@code uk.gov.moj.cpp.courtorders:type=ExpiryRecalculation}; a recalculation that
+ * stopped is carried on by requesting another after the last court order id it reported.
+ */
+@ApplicationScoped
+public class ExpiryRecalculation implements ExpiryRecalculationMBean {
+
+    static final String OBJECT_NAME = "uk.gov.moj.cpp.courtorders:type=ExpiryRecalculation";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpiryRecalculation.class);
+    private static final UUID BEFORE_FIRST_COURT_ORDER_ID = new UUID(0L, 0L);
+
+    @Inject
+    @Value(key = "expiryRecalculationChunkSize", defaultValue = "100")
+    private String chunkSize;
+
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    @Inject
+    private CourtOrderQueryService courtOrderQueryService;
+
+    @Inject
+    private ExpiryRecalculationChunkProcessor expiryRecalculationChunkProcessor;
+
+    @Inject
+    private BulkLane bulkLane;
+
+    @Inject
+    private Event<ExpiryRecalculationScheduled> expiryRecalculationScheduledEvent;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder recalculatedCourtOrders = new LongAdder();
+    private final LongAdder amendedCourtOrders = new LongAdder();
+    private final MBeanRegistrations mBeanRegistrations = new MBeanRegistrations();
+
+    private volatile UUID lastCourtOrderId;
+
+    @PostConstruct
+    public void initialise() {
+        mBeanRegistrations.register(OBJECT_NAME, this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        mBeanRegistrations.unregisterAll();
+    }
+
+    /**
+     * Schedules a recalculation of the court orders after the given court order id, or of all of
+     * them when it is null, to start once the current transaction has committed.
+     */
+    public void schedule(final Envelope<?> envelope, final UUID afterCourtOrderId, final ExpiryRecalculationTask task) {
+        expiryRecalculationScheduledEvent.fire(new ExpiryRecalculationScheduled(envelope, afterCourtOrderId, task));
+    }
+
+    public void onExpiryRecalculationScheduled(@Observes(during = AFTER_SUCCESS) final ExpiryRecalculationScheduled expiryRecalculationScheduled) {
+        if (!running.compareAndSet(false, true)) {
+            LOGGER.warn("Expiry recalculation requested by {} ignored as one is already running", expiryRecalculationScheduled.envelope().metadata().id());
+            return;
+        }
+        recalculatedCourtOrders.reset();
+        amendedCourtOrders.reset();
+        lastCourtOrderId = expiryRecalculationScheduled.afterCourtOrderId();
+        try {
+            managedExecutorService.submit(() -> run(expiryRecalculationScheduled));
+        } catch (final RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public long getRecalculatedCourtOrders() {
+        return recalculatedCourtOrders.sum();
+    }
+
+    @Override
+    public long getAmendedCourtOrders() {
+        return amendedCourtOrders.sum();
+    }
+
+    @Override
+    public String getLastCourtOrderId() {
+        final UUID courtOrderId = lastCourtOrderId;
+        return nonNull(courtOrderId) ? courtOrderId.toString() : null;
+    }
+
+    private void run(final ExpiryRecalculationScheduled expiryRecalculationScheduled) {
+        final int courtOrdersPerChunk = parseInt(chunkSize);
+        UUID afterCourtOrderId = isNull(expiryRecalculationScheduled.afterCourtOrderId()) ? BEFORE_FIRST_COURT_ORDER_ID : expiryRecalculationScheduled.afterCourtOrderId();
+        try {
+            Optional<RecalculatedChunk> chunk;
+            do {
+                bulkLane.pace(courtOrdersPerChunk);
+                chunk = recalculateNextChunk(expiryRecalculationScheduled.envelope().metadata(), afterCourtOrderId, courtOrdersPerChunk, expiryRecalculationScheduled.task());
+                if (chunk.isPresent()) {
+                    afterCourtOrderId = chunk.get().lastCourtOrderId();
+                }
+            } while (chunk.isPresent());
+            LOGGER.info("Expiry recalculation completed, {} court orders recalculated and {} amended", getRecalculatedCourtOrders(), getAmendedCourtOrders());
+        } catch (final Exception e) {
+            LOGGER.error("Expiry recalculation stopped after court order {}, request it again after that court order to carry on", getLastCourtOrderId(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * @return the chunk recalculated, or empty when there are no court orders after the given one
+     */
+    private Optional<RecalculatedChunk> recalculateNextChunk(final Metadata metadata, final UUID afterCourtOrderId, final int courtOrdersPerChunk,
+                                                             final ExpiryRecalculationTask task) throws EventStreamException {
+        final List<UUID> courtOrderIds = courtOrderQueryService.getCourtOrderIdsAfter(metadata, afterCourtOrderId, courtOrdersPerChunk);
+        if (courtOrderIds.isEmpty()) {
+            return Optional.empty();
+        }
+        final RecalculatedChunk chunk = expiryRecalculationChunkProcessor.recalculate(courtOrderIds, task);
+        recalculatedCourtOrders.add(chunk.courtOrders());
+        amendedCourtOrders.add(chunk.amended());
+        lastCourtOrderId = chunk.lastCourtOrderId();
+        LOGGER.debug("Expiry recalculation checkpointed at court order {}, {} court orders recalculated and {} amended",
+                lastCourtOrderId, getRecalculatedCourtOrders(), getAmendedCourtOrders());
+        return Optional.of(chunk);
+    }
+}
@@ -0,0 +1,29 @@
+package uk.gov.moj.cpp.courtorders.handler.recalculation;
+
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.transaction.Transactional;
+
+/**
+ * Recalculates a chunk of court orders in a transaction of its own, so a failure loses at most the
+ * chunk in flight. The transaction only spans the event store; the ids of the chunk are read from
+ * the query side before it starts.
+ */
+@ApplicationScoped
+public class ExpiryRecalculationChunkProcessor {
+
+    /**
+     * @return the chunk recalculated
+     */
+    @Transactional(value = REQUIRES_NEW, rollbackOn = Exception.class)
+    public RecalculatedChunk recalculate(final List<UUID> courtOrderIds, final ExpiryRecalculationTask task) throws EventStreamException {
+        final int amended = task.recalculate(courtOrderIds);
+        return new RecalculatedChunk(courtOrderIds.size(), amended, courtOrderIds.get(courtOrderIds.size() - 1));
+    }
+}
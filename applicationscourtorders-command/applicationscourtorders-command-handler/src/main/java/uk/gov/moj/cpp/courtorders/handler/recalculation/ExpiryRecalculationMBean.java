@@ -0,0 +1,12 @@
+package uk.gov.moj.cpp.courtorders.handler.recalculation;
+
+public interface ExpiryRecalculationMBean {
+
+    boolean isRunning();
+
+    long getRecalculatedCourtOrders();
+
+    long getAmendedCourtOrders();
+
+    String getLastCourtOrderId();
+}
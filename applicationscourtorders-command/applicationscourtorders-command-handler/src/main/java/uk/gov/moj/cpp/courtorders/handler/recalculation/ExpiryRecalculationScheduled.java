@@ -0,0 +1,12 @@
+package uk.gov.moj.cpp.courtorders.handler.recalculation;
+
+import uk.gov.justice.services.messaging.Envelope;
+
+import java.util.UUID;
+
+/**
+ * Fired when an expiry recalculation has been requested. It is only started once the command that
+ * requested it has committed.
+ */
+public record ExpiryRecalculationScheduled(Envelope<?> envelope, UUID afterCourtOrderId, ExpiryRecalculationTask task) {
+}
@@ -0,0 +1,15 @@
+package uk.gov.moj.cpp.courtorders.handler.recalculation;
+
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+
+import java.util.List;
+import java.util.UUID;
+
+@FunctionalInterface
+public interface ExpiryRecalculationTask {
+
+    /**
+     * @return the number of court orders amended
+     */
+    int recalculate(final List<UUID> courtOrderIds) throws EventStreamException;
+}
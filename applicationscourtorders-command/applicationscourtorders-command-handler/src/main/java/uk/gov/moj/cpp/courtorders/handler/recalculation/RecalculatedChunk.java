@@ -0,0 +1,10 @@
+package uk.gov.moj.cpp.courtorders.handler.recalculation;
+
+import java.util.UUID;
+
+/**
+ * A chunk of court orders recalculated in one transaction, and the last court order in it to
+ * carry on after.
+ */
+public record RecalculatedChunk(int courtOrders, int amended, UUID lastCourtOrderId) {
+}
@@ -0,0 +1,8 @@
+package uk.gov.moj.cpp.courtorders.handler.resilience;
+
+public enum CircuitBreakerState {
+
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
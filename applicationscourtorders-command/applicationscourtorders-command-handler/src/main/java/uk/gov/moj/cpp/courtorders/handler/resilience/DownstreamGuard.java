@@ -0,0 +1,174 @@
+package uk.gov.moj.cpp.courtorders.handler.resilience;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static uk.gov.moj.cpp.courtorders.handler.resilience.CircuitBreakerState.CLOSED;
+import static uk.gov.moj.cpp.courtorders.handler.resilience.CircuitBreakerState.HALF_OPEN;
+import static uk.gov.moj.cpp.courtorders.handler.resilience.CircuitBreakerState.OPEN;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulkhead, timeout and circuit breaker around the requests made to one downstream context.
+ *
+ * <p>At most {@code maxConcurrentRequests} requests are in flight at once and any further request
+ * is rejected straight away rather than queued. A request that takes longer than
+ * {@code timeoutMillis} is abandoned. After {@code failureThreshold} consecutive failures or
+ * timeouts the breaker opens and every request is rejected for {@code openMillis}, after which a
+ * single trial request decides whether it closes again.
+ */
+public class DownstreamGuard implements DownstreamGuardMBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DownstreamGuard.class);
+
+    private final String name;
+    private final int maxConcurrentRequests;
+    private final long timeoutMillis;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final ExecutorService executorService;
+
+    private final Semaphore bulkhead;
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+
+    private CircuitBreakerState state = CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public DownstreamGuard(final String name, final int maxConcurrentRequests, final long timeoutMillis, final int failureThreshold,
+                           final long openMillis, final ExecutorService executorService) {
+        this.name = name;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.timeoutMillis = timeoutMillis;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = MILLISECONDS.toNanos(openMillis);
+        this.executorService = executorService;
+        this.bulkhead = new Semaphore(maxConcurrentRequests);
+    }
+
+    public <T> T call(final Supplier<T> request) {
+        if (!bulkhead.tryAcquire()) {
+            rejectedCount.increment();
+            throw new DownstreamUnavailableException(format("%s already has %d requests in flight", name, maxConcurrentRequests));
+        }
+        try {
+            if (!allowRequest()) {
+                rejectedCount.increment();
+                throw new DownstreamUnavailableException(format("%s circuit breaker is open", name));
+            }
+            try {
+                final T response = execute(request);
+                onSuccess();
+                return response;
+            } catch (final RuntimeException e) {
+                onFailure();
+                throw e;
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public synchronized String getState() {
+        return state.name();
+    }
+
+    @Override
+    public int getActiveRequests() {
+        return maxConcurrentRequests - bulkhead.availablePermits();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    private <T> T execute(final Supplier<T> request) {
+        if (timeoutMillis <= 0) {
+            return request.get();
+        }
+        final Future<T> response = executorService.submit(request::get);
+        try {
+            return response.get(timeoutMillis, MILLISECONDS);
+        } catch (final TimeoutException e) {
+            response.cancel(true);
+            timeoutCount.increment();
+            throw new DownstreamUnavailableException(format("%s did not respond within %d ms", name, timeoutMillis), e);
+        } catch (final InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new DownstreamUnavailableException(format("Interrupted while waiting for %s", name), e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new DownstreamUnavailableException(format("%s request failed", name), e.getCause());
+        }
+    }
+
+    private synchronized boolean allowRequest() {
+        if (state == OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = HALF_OPEN;
+        }
+        if (state == HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    private synchronized void onSuccess() {
+        if (state != CLOSED) {
+            LOGGER.info("{} circuit breaker closed", name);
+        }
+        state = CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    private synchronized void onFailure() {
+        failureCount.increment();
+        consecutiveFailures++;
+        if (state == HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != OPEN) {
+                LOGGER.warn("{} circuit breaker opened after {} consecutive failures", name, consecutiveFailures);
+            }
+            state = OPEN;
+            openedAt = System.nanoTime();
+            trialInFlight = false;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package uk.gov.moj.cpp.courtorders.handler.resilience;
+
+public interface DownstreamGuardMBean {
+
+    String getName();
+
+    String getState();
+
+    int getActiveRequests();
+
+    long getRejectedCount();
+
+    long getTimeoutCount();
+
+    long getFailureCount();
+}
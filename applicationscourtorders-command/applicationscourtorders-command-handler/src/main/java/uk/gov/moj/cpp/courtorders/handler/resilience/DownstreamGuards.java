@@ -0,0 +1,110 @@
+package uk.gov.moj.cpp.courtorders.handler.resilience;
+
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import uk.gov.justice.services.common.configuration.Value;
+import uk.gov.moj.cpp.courtorders.common.jmx.MBeanRegistrations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * The {@link DownstreamGuard} for each context the command handler queries. Each guard is
+ * registered with the platform MBean server as
+ * {@code uk.gov.moj.cpp.courtorders:type=DownstreamGuard,name=<context>}, which is what the
+ * downstream circuit breaker healthcheck reads.
+ *
+ * <p>Each guard waits for its requests on threads of its own, one per request it lets through, so
+ * a request made from a managed executor thread, e.g. by {@code ConcurrentLookups}, does not take a
+ * second thread from the same pool.
+ */
+@ApplicationScoped
+public class DownstreamGuards {
+
+    public static final String REFERENCE_DATA = "referencedata";
+    public static final String PROGRESSION = "progression";
+
+    private static final String OBJECT_NAME = "uk.gov.moj.cpp.courtorders:type=DownstreamGuard,name=";
+    private static final long IDLE_THREAD_SECONDS = 60;
+
+    @Inject
+    @Value(key = "referenceDataMaxConcurrentRequests", defaultValue = "20")
+    private String referenceDataMaxConcurrentRequests;
+
+    @Inject
+    @Value(key = "referenceDataTimeoutMillis", defaultValue = "10000")
+    private String referenceDataTimeoutMillis;
+
+    @Inject
+    @Value(key = "progressionMaxConcurrentRequests", defaultValue = "20")
+    private String progressionMaxConcurrentRequests;
+
+    @Inject
+    @Value(key = "progressionTimeoutMillis", defaultValue = "30000")
+    private String progressionTimeoutMillis;
+
+    @Inject
+    @Value(key = "downstreamCircuitBreakerFailureThreshold", defaultValue = "5")
+    private String failureThreshold;
+
+    @Inject
+    @Value(key = "downstreamCircuitBreakerOpenMillis", defaultValue = "30000")
+    private String openMillis;
+
+    @Resource
+    private ManagedThreadFactory managedThreadFactory;
+
+    private DownstreamGuard referenceData;
+
+    private DownstreamGuard progression;
+
+    private final MBeanRegistrations mBeanRegistrations = new MBeanRegistrations();
+
+    private final List<ExecutorService> requestExecutors = new ArrayList<>();
+
+    @PostConstruct
+    public void initialise() {
+        referenceData = register(new DownstreamGuard(REFERENCE_DATA, parseInt(referenceDataMaxConcurrentRequests), parseLong(referenceDataTimeoutMillis),
+                parseInt(failureThreshold), parseLong(openMillis), requestExecutor(parseInt(referenceDataMaxConcurrentRequests))));
+        progression = register(new DownstreamGuard(PROGRESSION, parseInt(progressionMaxConcurrentRequests), parseLong(progressionTimeoutMillis),
+                parseInt(failureThreshold), parseLong(openMillis), requestExecutor(parseInt(progressionMaxConcurrentRequests))));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        mBeanRegistrations.unregisterAll();
+        requestExecutors.forEach(ExecutorService::shutdownNow);
+    }
+
+    public DownstreamGuard referenceData() {
+        return referenceData;
+    }
+
+    public DownstreamGuard progression() {
+        return progression;
+    }
+
+    private ExecutorService requestExecutor(final int maxConcurrentRequests) {
+        final ThreadPoolExecutor requestExecutor = new ThreadPoolExecutor(maxConcurrentRequests, maxConcurrentRequests, IDLE_THREAD_SECONDS, SECONDS,
+                new LinkedBlockingQueue<>(), managedThreadFactory);
+        requestExecutor.allowCoreThreadTimeOut(true);
+        requestExecutors.add(requestExecutor);
+        return requestExecutor;
+    }
+
+    private DownstreamGuard register(final DownstreamGuard downstreamGuard) {
+        return mBeanRegistrations.register(OBJECT_NAME + downstreamGuard.getName(), downstreamGuard);
+    }
+}
@@ -0,0 +1,18 @@
+package uk.gov.moj.cpp.courtorders.handler.resilience;
+
+/**
+ * Thrown instead of calling a downstream context when its circuit breaker is open, its concurrency
+ * limit is reached or it does not respond in time.
+ */
+public class DownstreamUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DownstreamUnavailableException(final String message) {
+        super(message);
+    }
+
+    public DownstreamUnavailableException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
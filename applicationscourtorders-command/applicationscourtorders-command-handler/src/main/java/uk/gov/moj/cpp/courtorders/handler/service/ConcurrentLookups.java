@@ -0,0 +1,70 @@
+package uk.gov.moj.cpp.courtorders.handler.service;
+
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.Integer.parseInt;
+import static java.util.Collections.synchronizedMap;
+import static uk.gov.moj.cpp.courtorders.handler.batch.ConcurrentWorkers.forEach;
+
+import uk.gov.justice.services.common.configuration.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Runs blocking downstream lookups for a batch of court orders and joins their results, so that
+ * the events of every court order can then be appended one stream at a time.
+ *
+ * <p>By default the lookups run one after another on the calling thread. When
+ * {@code concurrentDownstreamLookupsEnabled} is set, up to {@code concurrentDownstreamLookups} of
+ * them are in flight at once on the managed executor. They still go through the downstream guards,
+ * so their bulkheads bound what each context receives; a guard that times requests out waits for
+ * them on its own threads, so a lookup holds a single managed thread.
+ */
+@ApplicationScoped
+public class ConcurrentLookups {
+
+    @Inject
+    @Value(key = "concurrentDownstreamLookupsEnabled", defaultValue = "false")
+    private String enabled;
+
+    @Inject
+    @Value(key = "concurrentDownstreamLookups", defaultValue = "8")
+    private String concurrency;
+
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    public boolean isEnabled() {
+        return parseBoolean(enabled);
+    }
+
+    /**
+     * Looks up every distinct key once.
+     *
+     * @return the result of the lookup for each key
+     * @throws RuntimeException the failure of the first lookup that failed, once all lookups have
+     * finished
+     */
+    public <K, V> Map<K, V> getAll(final Collection<K> keys, final Function<K, V> lookup) {
+        final List<K> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        final Map<K, V> results = synchronizedMap(new HashMap<>());
+        final int maxConcurrency = isEnabled() ? parseInt(concurrency) : 1;
+        if (maxConcurrency <= 1 || distinctKeys.size() <= 1) {
+            distinctKeys.forEach(key -> results.put(key, lookup.apply(key)));
+            return results;
+        }
+
+        forEach(managedExecutorService, distinctKeys, maxConcurrency, key -> results.put(key, lookup.apply(key)));
+        return results;
+    }
+}
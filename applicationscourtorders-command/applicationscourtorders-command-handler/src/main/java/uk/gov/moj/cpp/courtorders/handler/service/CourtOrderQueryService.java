@@ -0,0 +1,48 @@
+package uk.gov.moj.cpp.courtorders.handler.service;
+
+import static uk.gov.justice.services.core.annotation.Component.COMMAND_HANDLER;
+import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
+import static uk.gov.justice.services.messaging.JsonEnvelope.metadataFrom;
+import static uk.gov.justice.services.messaging.JsonObjects.createObjectBuilder;
+
+import uk.gov.justice.services.core.annotation.ServiceComponent;
+import uk.gov.justice.services.core.requester.Requester;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+import uk.gov.justice.services.messaging.Metadata;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.json.JsonString;
+
+/**
+ * Reads court order ids from the courtorders query side, so the command handler needs no access
+ * to the viewstore.
+ */
+public class CourtOrderQueryService {
+
+    private static final String APPLICATIONSCOURTORDERS_QUERY_COURT_ORDER_IDS = "applicationscourtorders.query.court-order-ids";
+    private static final String AFTER_COURT_ORDER_ID = "afterCourtOrderId";
+    private static final String LIMIT = "limit";
+    private static final String COURT_ORDER_IDS = "courtOrderIds";
+
+    @Inject
+    @ServiceComponent(COMMAND_HANDLER)
+    private Requester requester;
+
+    /**
+     * @return the ids of up to {@code limit} court orders that are not removed, after the given
+     * court order id in court order id order
+     */
+    public List<UUID> getCourtOrderIdsAfter(final Metadata metadata, final UUID afterCourtOrderId, final int limit) {
+        final JsonEnvelope query = envelopeFrom(metadataFrom(metadata).withName(APPLICATIONSCOURTORDERS_QUERY_COURT_ORDER_IDS), createObjectBuilder()
+                .add(AFTER_COURT_ORDER_ID, afterCourtOrderId.toString())
+                .add(LIMIT, limit)
+                .build());
+
+        return requester.request(query).payloadAsJsonObject().getJsonArray(COURT_ORDER_IDS).getValuesAs(JsonString.class).stream()
+                .map(courtOrderId -> UUID.fromString(courtOrderId.getString()))
+                .toList();
+    }
+}
@@ -0,0 +1,10 @@
+package uk.gov.moj.cpp.courtorders.handler.service;
+
+import java.util.UUID;
+
+/**
+ * The (hearingId, masterDefendantId, judicialResultTypeId) tuple that identifies a progression
+ * judicial child results lookup.
+ */
+public record JudicialChildResultsQuery(UUID hearingId, UUID masterDefendantId, UUID judicialResultTypeId) {
+}
@@ -1,29 +1,71 @@
 package uk.gov.moj.cpp.courtorders.handler.service;
 
 
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.Integer.parseInt;
+import static java.lang.Math.min;
+import static java.util.Objects.nonNull;
 import static uk.gov.justice.services.core.annotation.Component.COMMAND_HANDLER;
 import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
 import static uk.gov.justice.services.messaging.JsonEnvelope.metadataFrom;
+import static uk.gov.justice.services.messaging.JsonObjects.createArrayBuilder;
 import static uk.gov.justice.services.messaging.JsonObjects.createObjectBuilder;
 
+import uk.gov.justice.services.common.configuration.Value;
 import uk.gov.justice.services.core.annotation.ServiceComponent;
 import uk.gov.justice.services.core.requester.Requester;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 import uk.gov.justice.services.messaging.Metadata;
+import uk.gov.moj.cpp.courtorders.handler.resilience.DownstreamGuards;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.inject.Inject;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class ProgressionService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProgressionService.class);
+
     private static final String PROGRESSION_QUERY_JUDICIAL_CHILD_RESULTS = "progression.query.judicial-child-results";
     private static final String PROGRESSION_QUERY_JUDICIAL_CHILD_RESULTS_V2 = "progression.query.judicial-child-results-v2";
+    private static final String PROGRESSION_QUERY_JUDICIAL_CHILD_RESULTS_BATCH = "progression.query.judicial-child-results-batch";
+    private static final String PROGRESSION_QUERY_JUDICIAL_CHILD_RESULTS_V2_BATCH = "progression.query.judicial-child-results-v2-batch";
+    private static final String HEARING_ID = "hearingId";
+    private static final String MASTER_DEFENDANT_ID = "masterDefendantId";
+    private static final String JUDICIAL_RESULT_TYPE_ID = "judicialResultTypeId";
+    private static final String QUERIES = "queries";
+    private static final String RESULTS = "results";
+
     @Inject
     @ServiceComponent(COMMAND_HANDLER)
     private Requester requester;
 
+    @Inject
+    private DownstreamGuards downstreamGuards;
+
+    @Inject
+    private ConcurrentLookups concurrentLookups;
+
+    @Inject
+    @Value(key = "progressionJudicialChildResultsBatchEnabled", defaultValue = "false")
+    private String batchEnabled;
+
+    @Inject
+    @Value(key = "progressionJudicialChildResultsBatchSize", defaultValue = "100")
+    private String batchSize;
+
     public JsonObject getJudicialChildResults(final Metadata metadata, final UUID hearingId, final UUID masterDefendantId, final UUID judicialResultTypeId ) {
         final JsonObject payload = createObjectBuilder()
                 .add("hearingId", hearingId.toString())
@@ -31,7 +73,7 @@ public class ProgressionService {
                 .add("judicialResultTypeId", judicialResultTypeId.toString())
                 .build();
 
-        final JsonEnvelope jsonEnvelope = requester.request(envelopeFrom(metadataFrom(metadata).withName(PROGRESSION_QUERY_JUDICIAL_CHILD_RESULTS), payload));
+        final JsonEnvelope jsonEnvelope = guardedRequest(envelopeFrom(metadataFrom(metadata).withName(PROGRESSION_QUERY_JUDICIAL_CHILD_RESULTS), payload));
 
         return jsonEnvelope.payloadAsJsonObject();
     }
@@ -43,9 +85,87 @@ public class ProgressionService {
                 .add("judicialResultTypeId", judicialResultTypeId.toString())
                 .build();
 
-        final JsonEnvelope jsonEnvelope = requester.request(envelopeFrom(metadataFrom(metadata).withName(PROGRESSION_QUERY_JUDICIAL_CHILD_RESULTS_V2), payload));
+        final JsonEnvelope jsonEnvelope = guardedRequest(envelopeFrom(metadataFrom(metadata).withName(PROGRESSION_QUERY_JUDICIAL_CHILD_RESULTS_V2), payload));
+
+        return jsonEnvelope.payloadAsJsonObject();
+    }
+
+    /**
+     * Resolves judicial child results for many lookups at once. Duplicate lookups are only
+     * requested once. When batching is enabled the lookups are sent to progression in batches of
+     * the configured size, and any batch or lookup that progression cannot answer is resolved with
+     * a single lookup request instead. Single lookups run through {@link ConcurrentLookups}.
+     *
+     * @return the progression response for each lookup, in the same format as {@link #getJudicialChildResults}
+     */
+    public Map<JudicialChildResultsQuery, JsonObject> getJudicialChildResults(final Metadata metadata, final Collection<JudicialChildResultsQuery> queries) {
+        return getInBatches(metadata, queries, PROGRESSION_QUERY_JUDICIAL_CHILD_RESULTS_BATCH, PROGRESSION_QUERY_JUDICIAL_CHILD_RESULTS);
+    }
+
+    /**
+     * Batch variant of {@link #getJudicialChildResultsV2}, see {@link #getJudicialChildResults(Metadata, Collection)}.
+     */
+    public Map<JudicialChildResultsQuery, JsonObject> getJudicialChildResultsV2(final Metadata metadata, final Collection<JudicialChildResultsQuery> queries) {
+        return getInBatches(metadata, queries, PROGRESSION_QUERY_JUDICIAL_CHILD_RESULTS_V2_BATCH, PROGRESSION_QUERY_JUDICIAL_CHILD_RESULTS_V2);
+    }
+
+    private Map<JudicialChildResultsQuery, JsonObject> getInBatches(final Metadata metadata, final Collection<JudicialChildResultsQuery> queries,
+                                                                   final String batchQueryName, final String queryName) {
+        final List<JudicialChildResultsQuery> distinctQueries = new ArrayList<>(new LinkedHashSet<>(queries));
+        final Map<JudicialChildResultsQuery, JsonObject> results = new HashMap<>();
+        if (parseBoolean(batchEnabled)) {
+            final int size = parseInt(batchSize);
+            for (int from = 0; from < distinctQueries.size(); from += size) {
+                results.putAll(requestBatch(metadata, distinctQueries.subList(from, min(from + size, distinctQueries.size())), batchQueryName));
+            }
+        }
+        final List<JudicialChildResultsQuery> unansweredQueries = distinctQueries.stream()
+                .filter(query -> !results.containsKey(query))
+                .toList();
+        results.putAll(concurrentLookups.getAll(unansweredQueries, query -> request(metadata, query, queryName)));
+        return results;
+    }
+
+    private Map<JudicialChildResultsQuery, JsonObject> requestBatch(final Metadata metadata, final List<JudicialChildResultsQuery> queries, final String batchQueryName) {
+        final JsonArrayBuilder queriesBuilder = createArrayBuilder();
+        queries.forEach(query -> queriesBuilder.add(toJson(query)));
+        final Map<JudicialChildResultsQuery, JsonObject> results = new HashMap<>();
+        try {
+            final JsonEnvelope jsonEnvelope = guardedRequest(envelopeFrom(metadataFrom(metadata).withName(batchQueryName),
+                    createObjectBuilder().add(QUERIES, queriesBuilder).build()));
+            final JsonObject response = jsonEnvelope.payloadAsJsonObject();
+            if (nonNull(response) && response.containsKey(RESULTS)) {
+                response.getJsonArray(RESULTS).stream()
+                        .map(JsonValue::asJsonObject)
+                        .forEach(result -> results.put(fromJson(result), result));
+            }
+        } catch (final RuntimeException e) {
+            LOGGER.warn("{} failed for {} lookups, falling back to single lookups", batchQueryName, queries.size(), e);
+        }
+        return results;
+    }
 
+    private JsonObject request(final Metadata metadata, final JudicialChildResultsQuery query, final String queryName) {
+        final JsonEnvelope jsonEnvelope = guardedRequest(envelopeFrom(metadataFrom(metadata).withName(queryName), toJson(query)));
         return jsonEnvelope.payloadAsJsonObject();
     }
 
+    private JsonEnvelope guardedRequest(final JsonEnvelope query) {
+        return downstreamGuards.progression().call(() -> requester.request(query));
+    }
+
+    private static JsonObject toJson(final JudicialChildResultsQuery query) {
+        return createObjectBuilder()
+                .add(HEARING_ID, query.hearingId().toString())
+                .add(MASTER_DEFENDANT_ID, query.masterDefendantId().toString())
+                .add(JUDICIAL_RESULT_TYPE_ID, query.judicialResultTypeId().toString())
+                .build();
+    }
+
+    private static JudicialChildResultsQuery fromJson(final JsonObject result) {
+        return new JudicialChildResultsQuery(
+                UUID.fromString(result.getString(HEARING_ID)),
+                UUID.fromString(result.getString(MASTER_DEFENDANT_ID)),
+                UUID.fromString(result.getString(JUDICIAL_RESULT_TYPE_ID)));
+    }
 }
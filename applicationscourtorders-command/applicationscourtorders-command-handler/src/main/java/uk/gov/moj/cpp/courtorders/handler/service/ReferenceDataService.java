@@ -9,6 +9,7 @@ import uk.gov.justice.services.core.annotation.ServiceComponent;
 import uk.gov.justice.services.core.requester.Requester;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 import uk.gov.justice.services.messaging.Metadata;
+import uk.gov.moj.cpp.courtorders.handler.resilience.DownstreamGuards;
 
 import java.util.UUID;
 
@@ -25,10 +26,21 @@ public class ReferenceDataService {
     @ServiceComponent(COMMAND_HANDLER)
     private Requester requester;
 
+    @Inject
+    private ResultDefinitionCache resultDefinitionCache;
+
+    @Inject
+    private DownstreamGuards downstreamGuards;
+
     public JsonObject getResultDefinition(final Metadata metadata, final UUID resultDefinitionId) {
+        return resultDefinitionCache.get(resultDefinitionId, id -> requestResultDefinition(metadata, id));
+    }
+
+    private JsonObject requestResultDefinition(final Metadata metadata, final UUID resultDefinitionId) {
         final JsonObject payload = createObjectBuilder().add(RESULT_DEFINITION_ID, resultDefinitionId.toString()).build();
 
-        final JsonEnvelope jsonEnvelope = requester.request(envelopeFrom(metadataFrom(metadata).withName(REFERENCEDATA_GET_RESULT_DEFINITION), payload));
+        final JsonEnvelope query = envelopeFrom(metadataFrom(metadata).withName(REFERENCEDATA_GET_RESULT_DEFINITION), payload);
+        final JsonEnvelope jsonEnvelope = downstreamGuards.referenceData().call(() -> requester.request(query));
 
         return jsonEnvelope.payloadAsJsonObject();
     }
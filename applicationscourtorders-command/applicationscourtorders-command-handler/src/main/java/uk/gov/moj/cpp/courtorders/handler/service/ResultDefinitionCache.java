@@ -0,0 +1,197 @@
+package uk.gov.moj.cpp.courtorders.handler.service;
+
+import static java.lang.Long.parseLong;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import uk.gov.justice.services.common.configuration.Value;
+import uk.gov.moj.cpp.courtorders.common.jmx.MBeanRegistrations;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.json.JsonObject;
+
+/**
+ * Bounded, TTL based cache of reference data result definitions keyed by judicialResultTypeId.
+ * Concurrent misses for the same key share a single downstream load.
+ *
+ * <p>Its statistics are exposed through the MBean registered as
+ * {@code uk.gov.moj.cpp.courtorders:type=ResultDefinitionCache}, which can also evict a result
+ * definition changed in reference data before its entry expires. Each node holds its own cache,
+ * so evict it on every node.
+ */
+@ApplicationScoped
+public class ResultDefinitionCache implements ResultDefinitionCacheMBean {
+
+    static final String OBJECT_NAME = "uk.gov.moj.cpp.courtorders:type=ResultDefinitionCache";
+
+    @Inject
+    @Value(key = "resultDefinitionCacheTtlInSeconds", defaultValue = "3600")
+    private String ttlInSeconds;
+
+    @Inject
+    @Value(key = "resultDefinitionCacheMaxSize", defaultValue = "500")
+    private String maxSize;
+
+    private final Map<UUID, CacheEntry> entries = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<JsonObject>> inFlightLoads = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTimeInNanos = new LongAdder();
+    private final MBeanRegistrations mBeanRegistrations = new MBeanRegistrations();
+
+    @PostConstruct
+    public void initialise() {
+        mBeanRegistrations.register(OBJECT_NAME, this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        mBeanRegistrations.unregisterAll();
+    }
+
+    public JsonObject get(final UUID resultDefinitionId, final Function<UUID, JsonObject> loader) {
+        final CacheEntry cacheEntry = entries.get(resultDefinitionId);
+        if (nonNull(cacheEntry) && !cacheEntry.isExpired(System.nanoTime())) {
+            hitCount.increment();
+            return cacheEntry.value;
+        }
+
+        missCount.increment();
+        final CompletableFuture<JsonObject> load = new CompletableFuture<>();
+        final CompletableFuture<JsonObject> inFlightLoad = inFlightLoads.putIfAbsent(resultDefinitionId, load);
+        if (nonNull(inFlightLoad)) {
+            return awaitLoad(inFlightLoad);
+        }
+
+        try {
+            final CacheEntry loadedEntry = entries.get(resultDefinitionId);
+            final JsonObject resultDefinition = nonNull(loadedEntry) && !loadedEntry.isExpired(System.nanoTime())
+                    ? loadedEntry.value
+                    : load(resultDefinitionId, loader);
+            load.complete(resultDefinition);
+            return resultDefinition;
+        } catch (final RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(resultDefinitionId, load);
+        }
+    }
+
+    public void invalidate(final UUID resultDefinitionId) {
+        entries.remove(resultDefinitionId);
+    }
+
+    @Override
+    public void invalidate(final String resultDefinitionId) {
+        invalidate(UUID.fromString(resultDefinitionId));
+    }
+
+    @Override
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    @Override
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    @Override
+    public long getTotalLoadTimeInNanos() {
+        return totalLoadTimeInNanos.sum();
+    }
+
+    private JsonObject load(final UUID resultDefinitionId, final Function<UUID, JsonObject> loader) {
+        final long start = System.nanoTime();
+        try {
+            final JsonObject resultDefinition = loader.apply(resultDefinitionId);
+            loadCount.increment();
+            put(resultDefinitionId, resultDefinition);
+            return resultDefinition;
+        } catch (final RuntimeException e) {
+            loadFailureCount.increment();
+            throw e;
+        } finally {
+            totalLoadTimeInNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private void put(final UUID resultDefinitionId, final JsonObject resultDefinition) {
+        final long now = System.nanoTime();
+        if (!entries.containsKey(resultDefinitionId) && entries.size() >= parseLong(maxSize)) {
+            evict(now);
+        }
+        entries.put(resultDefinitionId, new CacheEntry(resultDefinition, now + SECONDS.toNanos(parseLong(ttlInSeconds))));
+    }
+
+    private void evict(final long now) {
+        entries.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+        if (entries.size() >= parseLong(maxSize)) {
+            entries.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().expiresAt))
+                    .ifPresent(oldest -> entries.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    private JsonObject awaitLoad(final CompletableFuture<JsonObject> inFlightLoad) {
+        try {
+            return inFlightLoad.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private static class CacheEntry {
+
+        private final JsonObject value;
+        private final long expiresAt;
+
+        private CacheEntry(final JsonObject value, final long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(final long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
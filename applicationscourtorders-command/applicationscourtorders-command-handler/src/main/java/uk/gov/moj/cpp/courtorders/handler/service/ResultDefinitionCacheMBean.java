@@ -0,0 +1,20 @@
+package uk.gov.moj.cpp.courtorders.handler.service;
+
+public interface ResultDefinitionCacheMBean {
+
+    int getSize();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    long getLoadCount();
+
+    long getLoadFailureCount();
+
+    long getTotalLoadTimeInNanos();
+
+    void invalidate(String resultDefinitionId);
+
+    void invalidateAll();
+}
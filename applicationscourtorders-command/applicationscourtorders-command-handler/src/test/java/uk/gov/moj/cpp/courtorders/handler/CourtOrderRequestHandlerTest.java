@@ -5,9 +5,18 @@ import static java.util.Collections.singletonList;
 import static java.util.UUID.randomUUID;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -16,7 +25,6 @@ import static uk.gov.justice.services.messaging.Envelope.envelopeFrom;
 import static uk.gov.justice.services.messaging.Envelope.metadataFrom;
 import static uk.gov.justice.services.messaging.JsonObjects.createArrayBuilder;
 import static uk.gov.justice.services.messaging.JsonObjects.createObjectBuilder;
-import static uk.gov.justice.services.test.utils.core.helper.EventStreamMockHelper.verifyAppendAndGetArgumentFrom;
 import static uk.gov.justice.services.test.utils.core.matchers.HandlerMatcher.isHandler;
 import static uk.gov.justice.services.test.utils.core.matchers.HandlerMethodMatcher.method;
 import static uk.gov.justice.services.test.utils.core.matchers.JsonEnvelopeMatcher.jsonEnvelope;
@@ -25,16 +33,22 @@ import static uk.gov.justice.services.test.utils.core.matchers.JsonEnvelopeStrea
 import static uk.gov.justice.services.test.utils.core.messaging.MetadataBuilderFactory.metadataWithRandomUUID;
 import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 import static uk.gov.moj.cpp.courtorders.command.CreateCourtOrder.createCourtOrder;
+import static uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage.APPEND_EVENTS;
+import static uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage.LOAD_STREAM;
+import static uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage.PROGRESSION;
+import static uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage.REFERENCE_DATA;
+import static uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage.REPLAY_AGGREGATE;
 
+import uk.gov.justice.core.courts.CourtOrderAmended;
 import uk.gov.justice.core.courts.CourtOrderRemoved;
 import uk.gov.justice.core.courts.CourtOrderRequested;
 import uk.gov.justice.core.courts.CourtOrderValidityUpdated;
 import uk.gov.justice.core.courts.JudicialChildResults;
-import uk.gov.justice.core.courts.JudicialChildResultsUpdated;
 import uk.gov.justice.services.common.converter.JsonObjectToObjectConverter;
 import uk.gov.justice.services.common.converter.jackson.ObjectMapperProducer;
 import uk.gov.justice.services.core.aggregate.AggregateService;
 import uk.gov.justice.services.core.enveloper.Enveloper;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.OptimisticLockingRetryException;
 import uk.gov.justice.services.eventsourcing.source.core.EventSource;
 import uk.gov.justice.services.eventsourcing.source.core.EventStream;
 import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
@@ -45,11 +59,33 @@ import uk.gov.justice.services.test.utils.core.enveloper.EnveloperFactory;
 import uk.gov.justice.services.test.utils.core.matchers.JsonEnvelopePayloadMatcher;
 import uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil;
 import uk.gov.moj.cpp.courtorders.aggregate.CourtOrderAggregate;
+import uk.gov.moj.cpp.courtorders.command.BulkCreateCourtOrders;
+import uk.gov.moj.cpp.courtorders.command.BulkRemoveCourtOrders;
 import uk.gov.moj.cpp.courtorders.command.CreateCourtOrder;
 import uk.gov.moj.cpp.courtorders.command.PatchUpdateJudicialChildResults;
 import uk.gov.moj.cpp.courtorders.command.PatchUpdateJudicialChildResultsV2;
+import uk.gov.moj.cpp.courtorders.command.RecalculateExpiryDates;
 import uk.gov.moj.cpp.courtorders.command.RemoveCourtOrder;
+import uk.gov.moj.cpp.courtorders.command.ResumePatchJob;
 import uk.gov.moj.cpp.courtorders.command.UpdateCourtOrderValidity;
+import uk.gov.moj.cpp.courtorders.handler.batch.CourtOrderBatchExecutor;
+import uk.gov.moj.cpp.courtorders.handler.batch.CourtOrderBatchFailedException;
+import uk.gov.moj.cpp.courtorders.handler.batch.CourtOrderBatchResult;
+import uk.gov.moj.cpp.courtorders.handler.cache.CourtOrderAggregateCache;
+import uk.gov.moj.cpp.courtorders.handler.classification.UnpaidWorkClassification;
+import uk.gov.moj.cpp.courtorders.handler.contention.AppendRetryPolicy;
+import uk.gov.moj.cpp.courtorders.handler.contention.StreamCatchUp;
+import uk.gov.moj.cpp.courtorders.handler.idempotency.CommandIdempotencyStore;
+import uk.gov.moj.cpp.courtorders.handler.job.CourtOrderChunkTask;
+import uk.gov.moj.cpp.courtorders.handler.job.PatchJobService;
+import uk.gov.moj.cpp.courtorders.handler.metrics.CommandLatencyMetrics;
+import uk.gov.moj.cpp.courtorders.handler.metrics.CourtOrderWriteMetrics;
+import uk.gov.moj.cpp.courtorders.handler.metrics.StreamContention;
+import uk.gov.moj.cpp.courtorders.handler.metrics.StreamContentionMetrics;
+import uk.gov.moj.cpp.courtorders.handler.recalculation.ExpiryRecalculation;
+import uk.gov.moj.cpp.courtorders.handler.recalculation.ExpiryRecalculationTask;
+import uk.gov.moj.cpp.courtorders.handler.service.ConcurrentLookups;
+import uk.gov.moj.cpp.courtorders.handler.service.JudicialChildResultsQuery;
 import uk.gov.moj.cpp.courtorders.handler.service.ProgressionService;
 import uk.gov.moj.cpp.courtorders.handler.service.ReferenceDataService;
 
@@ -59,11 +95,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
+import javax.enterprise.inject.Instance;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -99,6 +139,42 @@ public class CourtOrderRequestHandlerTest {
     @Mock
     private ProgressionService progressionService;
 
+    @Spy
+    private CourtOrderBatchExecutor courtOrderBatchExecutor;
+
+    @Mock
+    private PatchJobService patchJobService;
+
+    @Spy
+    private CommandLatencyMetrics commandLatencyMetrics;
+
+    @Spy
+    private CourtOrderAggregateCache courtOrderAggregateCache;
+
+    @Spy
+    private CourtOrderWriteMetrics courtOrderWriteMetrics;
+
+    @Mock
+    private CommandIdempotencyStore commandIdempotencyStore;
+
+    @Spy
+    private StreamContentionMetrics streamContentionMetrics;
+
+    @Spy
+    private AppendRetryPolicy appendRetryPolicy;
+
+    @Mock
+    private StreamCatchUp streamCatchUp;
+
+    @Spy
+    private ConcurrentLookups concurrentLookups;
+
+    @Spy
+    private UnpaidWorkClassification unpaidWorkClassification;
+
+    @Mock
+    private ExpiryRecalculation expiryRecalculation;
+
     @InjectMocks
     private CourtOrderRequestHandler courtOrderRequestHandler;
 
@@ -106,7 +182,7 @@ public class CourtOrderRequestHandlerTest {
     private final JsonObjectToObjectConverter jsonToObjectConverter = new JsonObjectToObjectConverter();
 
     @Spy
-    private Enveloper enveloper = EnveloperFactory.createEnveloperWithEvents(CourtOrderRequested.class, CourtOrderRemoved.class, CourtOrderValidityUpdated.class, JudicialChildResultsUpdated.class);
+    private Enveloper enveloper = EnveloperFactory.createEnveloperWithEvents(CourtOrderRequested.class, CourtOrderRemoved.class, CourtOrderValidityUpdated.class, CourtOrderAmended.class);
 
     private final UUID courtOrderId = JUDICIAL_RESULT_TYPE_ID;
     private final UUID applicationId = JUDICIAL_RESULT_TYPE_ID;
@@ -115,6 +191,11 @@ public class CourtOrderRequestHandlerTest {
     @BeforeEach
     public void setup() {
         ReflectionUtil.setField(this.jsonToObjectConverter, "objectMapper", new ObjectMapperProducer().objectMapper());
+        ReflectionUtil.setField(this.courtOrderBatchExecutor, "concurrency", "1");
+        ReflectionUtil.setField(this.courtOrderAggregateCache, "enabled", "false");
+        ReflectionUtil.setField(this.appendRetryPolicy, "maxAttempts", "3");
+        ReflectionUtil.setField(this.appendRetryPolicy, "backoffMillis", "0");
+        ReflectionUtil.setField(this.appendRetryPolicy, "maxBackoffMillis", "0");
     }
 
     @Test
@@ -141,9 +222,9 @@ public class CourtOrderRequestHandlerTest {
         when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(aggregate);
         when(referenceDataService.getResultDefinition(any(), any()))
                 .thenReturn(createObjectBuilder().build());
-        setField(courtOrderRequestHandler, "unpaidWorkJudicialTypeIds", UNPAID_WORK_RESULT_IDS);
+        configureUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_IDS);
         courtOrderRequestHandler.handleAddCourtRegister(buildEnvelope());
-        final Stream<JsonEnvelope> envelopeStream = verifyAppendAndGetArgumentFrom(eventStream);
+        final Stream<JsonEnvelope> envelopeStream = appendedTo(eventStream);
         assertThat(envelopeStream, streamContaining(
                 jsonEnvelope(
                         metadata()
@@ -160,14 +241,14 @@ public class CourtOrderRequestHandlerTest {
     @Test
     void shouldRaiseCourtOrderRequestedWhenHasUnpaidWork() throws Exception {
         final CourtOrderAggregate aggregate =  new CourtOrderAggregate();
-        setField(courtOrderRequestHandler, "unpaidWorkJudicialTypeIds", UNPAID_WORK_RESULT_IDS);
+        configureUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_IDS);
         when(eventSource.getStreamById(any())).thenReturn(eventStream);
         when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(aggregate);
         when(referenceDataService.getResultDefinition(any(), eq(JUDICIAL_RESULT_TYPE_ID)))
                 .thenReturn(createObjectBuilder().add("unpaidWorkExtensionCommunityOrdYro", true).build());
 
         courtOrderRequestHandler.handleAddCourtRegister(buildUnpaidWorkEnvelope());
-        final Stream<JsonEnvelope> envelopeStream = verifyAppendAndGetArgumentFrom(eventStream);
+        final Stream<JsonEnvelope> envelopeStream = appendedTo(eventStream);
         assertThat(envelopeStream, streamContaining(
                         jsonEnvelope(
                                 metadata()
@@ -183,6 +264,163 @@ public class CourtOrderRequestHandlerTest {
         );
     }
 
+    @Test
+    void shouldReportCourtOrderThatCandidateUnpaidWorkRulesWouldReclassify() throws Exception {
+        final CourtOrderAggregate aggregate = new CourtOrderAggregate();
+        configureUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_IDS);
+        unpaidWorkClassification.setCandidateUnpaidWorkJudicialTypeIds(randomUUID().toString());
+        when(eventSource.getStreamById(any())).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(aggregate);
+        when(referenceDataService.getResultDefinition(any(), eq(JUDICIAL_RESULT_TYPE_ID)))
+                .thenReturn(createObjectBuilder().add("unpaidWorkExtensionCommunityOrdYro", true).build());
+
+        courtOrderRequestHandler.handleAddCourtRegister(buildUnpaidWorkEnvelope());
+
+        assertThat(unpaidWorkClassification.getReclassifiedCourtOrderIds(), is(new String[]{courtOrderId.toString()}));
+        assertThat(appendedTo(eventStream), streamContaining(
+                jsonEnvelope(
+                        metadata().withName("applicationscourtorders.event.court-order-requested"),
+                        JsonEnvelopePayloadMatcher.payload().isJson(withJsonPath("$.courtOrder.expiryDate", is(END_DATE.plusYears(1).toString()))))));
+    }
+
+    @Test
+    void shouldRecordSuppressedWritesWhenUnchangedCourtOrderIsCreatedAgain() throws Exception {
+        final CourtOrderAggregate aggregate = new CourtOrderAggregate();
+        when(eventSource.getStreamById(any())).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(aggregate);
+        when(referenceDataService.getResultDefinition(any(), any()))
+                .thenReturn(createObjectBuilder().build());
+        configureUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_IDS);
+        final long createRequests = courtOrderWriteMetrics.getCreateRequests();
+        final long suppressedCreateRequests = courtOrderWriteMetrics.getSuppressedCreateRequests();
+
+        courtOrderRequestHandler.handleAddCourtRegister(buildEnvelope());
+        courtOrderRequestHandler.handleAddCourtRegister(buildEnvelope());
+
+        assertThat(courtOrderWriteMetrics.getCreateRequests() - createRequests, is(2L));
+        assertThat(courtOrderWriteMetrics.getSuppressedCreateRequests() - suppressedCreateRequests, is(1L));
+    }
+
+    @Test
+    void shouldIgnoreDuplicateCreateCourtOrderBeforeReplayingAggregate() throws Exception {
+        final Envelope<CreateCourtOrder> createCourtOrderEnvelope = buildEnvelope();
+        when(eventSource.getStreamById(any())).thenReturn(eventStream);
+        when(commandIdempotencyStore.isDuplicate(createCourtOrderEnvelope, eventStream)).thenReturn(true);
+
+        courtOrderRequestHandler.handleAddCourtRegister(createCourtOrderEnvelope);
+
+        verify(aggregateService, never()).get(any(), any());
+        verify(referenceDataService, never()).getResultDefinition(any(), any());
+        verify(eventStream, never()).appendAfter(any(), anyLong());
+    }
+
+    @Test
+    void shouldIgnoreDuplicateUpdateCourtOrderValidityBeforeReplayingAggregate() throws Exception {
+        final Envelope<UpdateCourtOrderValidity> updateCourtOrderEnvelope = buildUpdateCourtRegisterEnvelope();
+        when(eventSource.getStreamById(any())).thenReturn(eventStream);
+        when(commandIdempotencyStore.isDuplicate(updateCourtOrderEnvelope, eventStream)).thenReturn(true);
+
+        courtOrderRequestHandler.handleUpdateCourtRegister(updateCourtOrderEnvelope);
+
+        verify(aggregateService, never()).get(any(), any());
+        verify(eventStream, never()).appendAfter(any(), anyLong());
+    }
+
+    @Test
+    void shouldRememberCreatedCourtOrderWithVersionItLeftStreamAt() throws Exception {
+        final Envelope<CreateCourtOrder> createCourtOrderEnvelope = buildEnvelope();
+        when(eventSource.getStreamById(any())).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(new CourtOrderAggregate());
+        when(referenceDataService.getResultDefinition(any(), any()))
+                .thenReturn(createObjectBuilder().build());
+
+        courtOrderRequestHandler.handleAddCourtRegister(createCourtOrderEnvelope);
+
+        verify(commandIdempotencyStore).handled(createCourtOrderEnvelope, 1L);
+    }
+
+    @Test
+    void shouldRecordStageLatenciesAgainstCommand() throws Exception {
+        final String commandName = "courtorders.command.create-court-order";
+        when(eventSource.getStreamById(any())).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(new CourtOrderAggregate());
+        when(referenceDataService.getResultDefinition(any(), any()))
+                .thenReturn(createObjectBuilder().build());
+        configureUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_IDS);
+
+        courtOrderRequestHandler.handleAddCourtRegister(buildEnvelope());
+
+        assertThat(commandLatencyMetrics.histogram(commandName, LOAD_STREAM).getCount(), is(1L));
+        assertThat(commandLatencyMetrics.histogram(commandName, REPLAY_AGGREGATE).getCount(), is(1L));
+        assertThat(commandLatencyMetrics.histogram(commandName, REFERENCE_DATA).getCount(), is(1L));
+        assertThat(commandLatencyMetrics.histogram(commandName, APPEND_EVENTS).getCount(), is(1L));
+        assertThat(commandLatencyMetrics.histogram(commandName, PROGRESSION).getCount(), is(0L));
+    }
+
+    @Test
+    void shouldCreateEveryCourtOrderInBulkLookingUpEachResultDefinitionOnce() throws Exception {
+        final UUID courtOrderId1 = randomUUID();
+        final UUID courtOrderId2 = randomUUID();
+        configureUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_IDS);
+        when(eventSource.getStreamById(courtOrderId1)).thenReturn(eventStream);
+        when(eventSource.getStreamById(courtOrderId2)).thenReturn(eventStream2);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(new CourtOrderAggregate());
+        when(aggregateService.get(eventStream2, CourtOrderAggregate.class)).thenReturn(new CourtOrderAggregate());
+        when(referenceDataService.getResultDefinition(any(), eq(JUDICIAL_RESULT_TYPE_ID)))
+                .thenReturn(createObjectBuilder().build());
+
+        courtOrderRequestHandler.handleBulkCreateCourtOrders(envelope("courtorders.command.bulk-create-court-orders", BulkCreateCourtOrders.bulkCreateCourtOrders()
+                .withCourtOrders(List.of(bulkCourtOrder(courtOrderId1), bulkCourtOrder(courtOrderId2)))
+                .build()));
+
+        verify(referenceDataService, times(1)).getResultDefinition(any(), eq(JUDICIAL_RESULT_TYPE_ID));
+        assertThat(appendedTo(eventStream), streamContaining(
+                jsonEnvelope(
+                        metadata().withName("applicationscourtorders.event.court-order-requested"),
+                        JsonEnvelopePayloadMatcher.payload().isJson(withJsonPath("$.courtOrder.id", is(courtOrderId1.toString()))))));
+        assertThat(appendedTo(eventStream2), streamContaining(
+                jsonEnvelope(
+                        metadata().withName("applicationscourtorders.event.court-order-requested"),
+                        JsonEnvelopePayloadMatcher.payload().isJson(withJsonPath("$.courtOrder.id", is(courtOrderId2.toString()))))));
+    }
+
+    @Test
+    void shouldRemoveEveryCourtOrderInBulk() throws Exception {
+        final UUID courtOrderId1 = randomUUID();
+        final UUID courtOrderId2 = randomUUID();
+        when(eventSource.getStreamById(courtOrderId1)).thenReturn(eventStream);
+        when(eventSource.getStreamById(courtOrderId2)).thenReturn(eventStream2);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(new CourtOrderAggregate());
+        when(aggregateService.get(eventStream2, CourtOrderAggregate.class)).thenReturn(new CourtOrderAggregate());
+
+        courtOrderRequestHandler.handleBulkRemoveCourtOrders(envelope("courtorders.command.bulk-remove-court-orders", BulkRemoveCourtOrders.bulkRemoveCourtOrders()
+                .withCourtOrderIds(List.of(courtOrderId1, courtOrderId2))
+                .build()));
+
+        assertThat(appendedTo(eventStream), streamContaining(
+                jsonEnvelope(
+                        metadata().withName("applicationscourtorders.event.court-order-removed"),
+                        JsonEnvelopePayloadMatcher.payload().isJson(withJsonPath("$.courtOrderId", is(courtOrderId1.toString()))))));
+        assertThat(appendedTo(eventStream2), streamContaining(
+                jsonEnvelope(
+                        metadata().withName("applicationscourtorders.event.court-order-removed"),
+                        JsonEnvelopePayloadMatcher.payload().isJson(withJsonPath("$.courtOrderId", is(courtOrderId2.toString()))))));
+    }
+
+    @Test
+    void shouldFailBulkCommandWhenSomeCourtOrdersFailed() throws Exception {
+        final UUID courtOrderId1 = randomUUID();
+        final UUID courtOrderId2 = randomUUID();
+        doReturn(new CourtOrderBatchResult(1, Map.of(courtOrderId2, "append failed")))
+                .when(courtOrderBatchExecutor).execute(eq("courtorders.command.bulk-remove-court-orders"), eq(List.of(courtOrderId1, courtOrderId2)), any());
+
+        final CourtOrderBatchFailedException exception = assertThrows(CourtOrderBatchFailedException.class,
+                () -> courtOrderRequestHandler.handleBulkRemoveCourtOrders(envelope("courtorders.command.bulk-remove-court-orders", BulkRemoveCourtOrders.bulkRemoveCourtOrders()
+                        .withCourtOrderIds(List.of(courtOrderId1, courtOrderId2))
+                        .build())));
+
+        assertThat(exception.getMessage(), containsString(courtOrderId2.toString()));
+    }
 
     @Test
     public void raiseRemoveCourtRegisterRequested() throws Exception {
@@ -191,7 +429,7 @@ public class CourtOrderRequestHandlerTest {
         when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(aggregate);
 
         courtOrderRequestHandler.handleRemoveCourtRegister(buildRemoveCourtRegisterEnvelope());
-        final Stream<JsonEnvelope> envelopeStream = verifyAppendAndGetArgumentFrom(eventStream);
+        final Stream<JsonEnvelope> envelopeStream = appendedTo(eventStream);
         assertThat(envelopeStream, streamContaining(
                 jsonEnvelope(
                         metadata()
@@ -209,10 +447,10 @@ public class CourtOrderRequestHandlerTest {
         final CourtOrderAggregate aggregate = new CourtOrderAggregate();
         when(eventSource.getStreamById(any())).thenReturn(eventStream);
         when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(aggregate);
+        applyCourtOrderRequested(aggregate, createCourtOrder().withIsUnpaidWork(false).build());
         setField(aggregate, "orderEndDate", END_DATE);
-        setField(aggregate, "actualCourtOrder", createCourtOrder().withIsUnpaidWork(false).build());
         courtOrderRequestHandler.handleUpdateCourtRegister(buildUpdateCourtRegisterEnvelope());
-        final Stream<JsonEnvelope> envelopeStream = verifyAppendAndGetArgumentFrom(eventStream);
+        final Stream<JsonEnvelope> envelopeStream = appendedTo(eventStream);
         assertThat(envelopeStream, streamContaining(
                         jsonEnvelope(
                                 metadata()
@@ -237,7 +475,7 @@ public class CourtOrderRequestHandlerTest {
         setField(aggregate, "mapApplicationIdOriginalEndDate", mapApplicationIdOriginalEndDate);
         setField(aggregate, "orderEndDate", LocalDate.now().minusDays(10));
         courtOrderRequestHandler.handleUpdateCourtRegister(buildResetCourtRegisterEnvelope());
-        final Stream<JsonEnvelope> envelopeStream = verifyAppendAndGetArgumentFrom(eventStream);
+        final Stream<JsonEnvelope> envelopeStream = appendedTo(eventStream);
         assertThat(envelopeStream, streamContaining(
                         jsonEnvelope(
                                 metadata()
@@ -254,7 +492,7 @@ public class CourtOrderRequestHandlerTest {
 
     @Test
     void shouldHandlePatchUpdateJudicialChildResults() throws EventStreamException {
-        setField(courtOrderRequestHandler, "unpaidWorkJudicialTypeIds", UNPAID_WORK_RESULT_IDS);
+        configureUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_IDS);
         final UUID courtOrderId1 = UUID.randomUUID();
         final UUID courtOrderId2 = UUID.randomUUID();
         final UUID courtOrderId3 = UUID.randomUUID();
@@ -267,9 +505,9 @@ public class CourtOrderRequestHandlerTest {
         final CourtOrderAggregate aggregate1 = new CourtOrderAggregate();
         final CourtOrderAggregate aggregate2 = new CourtOrderAggregate();
         final CourtOrderAggregate aggregate3 = new CourtOrderAggregate();
-        setField(aggregate1, "actualCourtOrder", createCourtOrder().withMasterDefendantId(masterDefendantId1).withOrderingHearingId(hearingId1).withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
-        setField(aggregate2, "actualCourtOrder", createCourtOrder().withMasterDefendantId(masterDefendantId2).withOrderingHearingId(hearingId2).withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
-        setField(aggregate3, "actualCourtOrder", createCourtOrder().withMasterDefendantId(masterDefendantId3).withOrderingHearingId(hearingId3).withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
+        applyCourtOrderRequested(aggregate1, createCourtOrder().withMasterDefendantId(masterDefendantId1).withOrderingHearingId(hearingId1).withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
+        applyCourtOrderRequested(aggregate2, createCourtOrder().withMasterDefendantId(masterDefendantId2).withOrderingHearingId(hearingId2).withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
+        applyCourtOrderRequested(aggregate3, createCourtOrder().withMasterDefendantId(masterDefendantId3).withOrderingHearingId(hearingId3).withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
         when(progressionService.getJudicialChildResults(any(), eq(hearingId1), eq(masterDefendantId1), eq(JUDICIAL_RESULT_TYPE_ID)))
                 .thenReturn(createObjectBuilder().add("judicialChildResults",
                         createArrayBuilder().add(createObjectBuilder().add("judicialResultId", randomUUID().toString()).add("judicialResultTypeId", UNPAID_WORK_RESULT_ID).add("label", "some").build())).build());
@@ -294,13 +532,13 @@ public class CourtOrderRequestHandlerTest {
                 .withCourtOrderIds(Arrays.asList(courtOrderId1, courtOrderId2, courtOrderId3))
                 .build()
         ));
-        final Stream<JsonEnvelope> envelopeStream = verifyAppendAndGetArgumentFrom(eventStream);
-        verify(eventStream2, times(0)).append(any());
-        verify(eventStream3, times(1)).append(any());
+        final Stream<JsonEnvelope> envelopeStream = appendedTo(eventStream);
+        verify(eventStream2, times(0)).appendAfter(any(), anyLong());
+        verify(eventStream3, times(1)).appendAfter(any(), anyLong());
         assertThat(envelopeStream, streamContaining(
                         jsonEnvelope(
                                 metadata()
-                                        .withName("applicationscourtorders.event.judicial-child-results-updated"),
+                                        .withName("applicationscourtorders.event.court-order-amended"),
                                 JsonEnvelopePayloadMatcher.payload().isJson(allOf(
                                                 withJsonPath("$.courtOrderId", is(courtOrderId1.toString())),
                                                 withJsonPath("$.judicialChildResults[0].judicialResultTypeId", is(UNPAID_WORK_RESULT_ID)),
@@ -314,13 +552,13 @@ public class CourtOrderRequestHandlerTest {
 
     @Test
     void shouldHandlePatchUpdateJudicialChildResultsV2() throws EventStreamException {
-        setField(courtOrderRequestHandler, "unpaidWorkJudicialTypeIds", UNPAID_WORK_RESULT_IDS);
+        configureUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_IDS);
         final UUID courtOrderId1 = UUID.randomUUID();
         final UUID hearingId1 = UUID.randomUUID();
         final UUID masterDefendantId1 = UUID.randomUUID();
         final LocalDate latestEndDate= LocalDate.now().plusDays(1);
         final CourtOrderAggregate aggregate1 = new CourtOrderAggregate();
-        setField(aggregate1, "actualCourtOrder", createCourtOrder().withMasterDefendantId(masterDefendantId1).withOrderingHearingId(hearingId1).withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
+        applyCourtOrderRequested(aggregate1, createCourtOrder().withMasterDefendantId(masterDefendantId1).withOrderingHearingId(hearingId1).withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
          when(progressionService.getJudicialChildResultsV2(any(), eq(hearingId1), eq(masterDefendantId1), eq(JUDICIAL_RESULT_TYPE_ID)))
                 .thenReturn(createObjectBuilder()
                         .add("latestEndDate",latestEndDate.toString())
@@ -337,11 +575,11 @@ public class CourtOrderRequestHandlerTest {
                 .withCourtOrderIds(List.of(courtOrderId1))
                 .build()
         ));
-        final Stream<JsonEnvelope> envelopeStream = verifyAppendAndGetArgumentFrom(eventStream);
+        final Stream<JsonEnvelope> envelopeStream = appendedTo(eventStream);
         assertThat(envelopeStream, streamContaining(
                         jsonEnvelope(
                                 metadata()
-                                        .withName("applicationscourtorders.event.judicial-child-results-updated"),
+                                        .withName("applicationscourtorders.event.court-order-amended"),
                                 JsonEnvelopePayloadMatcher.payload().isJson(allOf(
                                                 withJsonPath("$.courtOrderId", is(courtOrderId1.toString())),
                                                 withJsonPath("$.judicialChildResults[0].judicialResultTypeId", is(UNPAID_WORK_RESULT_ID)),
@@ -353,6 +591,292 @@ public class CourtOrderRequestHandlerTest {
         );
     }
 
+    @Test
+    void shouldLookUpJudicialChildResultsV2ForEveryCourtOrderBeforeAppendingWhenLookupsRunConcurrently() throws EventStreamException {
+        configureUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_IDS);
+        setField(concurrentLookups, "enabled", "true");
+        setField(concurrentLookups, "concurrency", "1");
+        final UUID courtOrderId1 = UUID.randomUUID();
+        final UUID courtOrderId2 = UUID.randomUUID();
+        final UUID hearingId = UUID.randomUUID();
+        final UUID masterDefendantId1 = UUID.randomUUID();
+        final UUID masterDefendantId2 = UUID.randomUUID();
+        final LocalDate latestEndDate = LocalDate.now().plusDays(1);
+        final CourtOrderAggregate aggregate1 = new CourtOrderAggregate();
+        final CourtOrderAggregate aggregate2 = new CourtOrderAggregate();
+        applyCourtOrderRequested(aggregate1, createCourtOrder().withMasterDefendantId(masterDefendantId1).withOrderingHearingId(hearingId).withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
+        applyCourtOrderRequested(aggregate2, createCourtOrder().withMasterDefendantId(masterDefendantId2).withOrderingHearingId(hearingId).withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
+        final JudicialChildResultsQuery query1 = new JudicialChildResultsQuery(hearingId, masterDefendantId1, JUDICIAL_RESULT_TYPE_ID);
+        final JudicialChildResultsQuery query2 = new JudicialChildResultsQuery(hearingId, masterDefendantId2, JUDICIAL_RESULT_TYPE_ID);
+        when(eventSource.getStreamById(courtOrderId1)).thenReturn(eventStream);
+        when(eventSource.getStreamById(courtOrderId2)).thenReturn(eventStream2);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(aggregate1);
+        when(aggregateService.get(eventStream2, CourtOrderAggregate.class)).thenReturn(aggregate2);
+        when(progressionService.getJudicialChildResultsV2(any(), eq(List.of(query1, query2)))).thenReturn(Map.of(
+                query1, createObjectBuilder().add("latestEndDate", latestEndDate.toString()).add("judicialChildResults",
+                        createArrayBuilder().add(createObjectBuilder().add("judicialResultId", randomUUID().toString()).add("judicialResultTypeId", UNPAID_WORK_RESULT_ID).add("label", "some").build())).build(),
+                query2, createObjectBuilder().add("latestEndDate", latestEndDate.toString()).add("judicialChildResults", createArrayBuilder().build()).build()));
+        when(referenceDataService.getResultDefinition(any(), eq(JUDICIAL_RESULT_TYPE_ID)))
+                .thenReturn(createObjectBuilder().add("unpaidWorkExtensionCommunityOrdYro", true).build());
+
+        courtOrderRequestHandler.handlePatchUpdateJudicialChildResultsV2(envelope("courtorders.command.patch-update-judicial-child-results-v2", PatchUpdateJudicialChildResultsV2.patchUpdateJudicialChildResultsV2()
+                .withCourtOrderIds(List.of(courtOrderId1, courtOrderId2, courtOrderId1))
+                .build()));
+
+        verify(progressionService, never()).getJudicialChildResultsV2(any(), any(), any(), any());
+        verify(referenceDataService, times(1)).getResultDefinition(any(), eq(JUDICIAL_RESULT_TYPE_ID));
+        verify(eventStream2, never()).appendAfter(any(), anyLong());
+        assertThat(appendedTo(eventStream), streamContaining(
+                jsonEnvelope(
+                        metadata().withName("applicationscourtorders.event.court-order-amended"),
+                        JsonEnvelopePayloadMatcher.payload().isJson(allOf(
+                                withJsonPath("$.courtOrderId", is(courtOrderId1.toString())),
+                                withJsonPath("$.expiryDate", is(latestEndDate.plusYears(1).toString()))
+                        ))
+                )
+        ));
+    }
+
+    @Test
+    void shouldStartPatchJobAndLookUpJudicialChildResultsPerChunk() throws EventStreamException {
+        configureUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_IDS);
+        final UUID courtOrderId1 = UUID.randomUUID();
+        final UUID courtOrderId2 = UUID.randomUUID();
+        final UUID hearingId = UUID.randomUUID();
+        final UUID masterDefendantId1 = UUID.randomUUID();
+        final UUID masterDefendantId2 = UUID.randomUUID();
+        final CourtOrderAggregate aggregate1 = new CourtOrderAggregate();
+        final CourtOrderAggregate aggregate2 = new CourtOrderAggregate();
+        applyCourtOrderRequested(aggregate1, createCourtOrder().withMasterDefendantId(masterDefendantId1).withOrderingHearingId(hearingId).withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
+        applyCourtOrderRequested(aggregate2, createCourtOrder().withMasterDefendantId(masterDefendantId2).withOrderingHearingId(hearingId).withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
+        final JudicialChildResultsQuery query1 = new JudicialChildResultsQuery(hearingId, masterDefendantId1, JUDICIAL_RESULT_TYPE_ID);
+        final JudicialChildResultsQuery query2 = new JudicialChildResultsQuery(hearingId, masterDefendantId2, JUDICIAL_RESULT_TYPE_ID);
+        final List<UUID> courtOrderIds = List.of(courtOrderId1, courtOrderId2);
+        final Envelope<PatchUpdateJudicialChildResults> patchEnvelope = envelope("courtorders.command.patch-update-judicial-child-results", PatchUpdateJudicialChildResults.patchUpdateJudicialChildResults()
+                .withCourtOrderIds(courtOrderIds)
+                .build());
+        when(patchJobService.runsAsJob(courtOrderIds)).thenReturn(true);
+
+        courtOrderRequestHandler.handlePatchUpdateJudicialChildResults(patchEnvelope);
+
+        final ArgumentCaptor<CourtOrderChunkTask> taskCaptor = ArgumentCaptor.forClass(CourtOrderChunkTask.class);
+        verify(patchJobService).start(eq(patchEnvelope), eq(courtOrderIds), taskCaptor.capture());
+        verify(eventSource, never()).getStreamById(any());
+
+        when(eventSource.getStreamById(courtOrderId1)).thenReturn(eventStream);
+        when(eventSource.getStreamById(courtOrderId2)).thenReturn(eventStream2);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(aggregate1);
+        when(aggregateService.get(eventStream2, CourtOrderAggregate.class)).thenReturn(aggregate2);
+        when(progressionService.getJudicialChildResults(any(), eq(List.of(query1, query2)))).thenReturn(Map.of(
+                query1, createObjectBuilder().add("judicialChildResults",
+                        createArrayBuilder().add(createObjectBuilder().add("judicialResultId", randomUUID().toString()).add("judicialResultTypeId", UNPAID_WORK_RESULT_ID).add("label", "some").build())).build(),
+                query2, createObjectBuilder().add("judicialChildResults", createArrayBuilder().build()).build()));
+        when(referenceDataService.getResultDefinition(any(), eq(JUDICIAL_RESULT_TYPE_ID)))
+                .thenReturn(createObjectBuilder().add("unpaidWorkExtensionCommunityOrdYro", true).build());
+
+        taskCaptor.getValue().execute(courtOrderIds);
+
+        final Stream<JsonEnvelope> envelopeStream = appendedTo(eventStream);
+        verify(eventStream2, never()).appendAfter(any(), anyLong());
+        verify(progressionService, never()).getJudicialChildResults(any(), any(), any(), any());
+        assertThat(envelopeStream, streamContaining(
+                        jsonEnvelope(
+                                metadata()
+                                        .withName("applicationscourtorders.event.court-order-amended"),
+                                JsonEnvelopePayloadMatcher.payload().isJson(allOf(
+                                                withJsonPath("$.courtOrderId", is(courtOrderId1.toString())),
+                                                withJsonPath("$.isUnpaidWork", is(true))
+                                        )
+                                ))
+                )
+        );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldDecideValidityUpdateAgainAfterCatchingUpWithConflictingAppend() throws Exception {
+        final String commandName = "courtorders.command.update-court-order-validity";
+        final CourtOrderAggregate aggregate = new CourtOrderAggregate();
+        applyCourtOrderRequested(aggregate, createCourtOrder().withId(courtOrderId).withOrderDate(LocalDate.now()).withEndDate(END_DATE).build());
+        when(eventSource.getStreamById(any())).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(aggregate);
+        when(eventStream.getCurrentVersion()).thenReturn(1L);
+        when(eventStream.appendAfter(any(), anyLong())).thenThrow(new OptimisticLockingRetryException("stream moved on")).thenReturn(2L);
+        when(streamCatchUp.eventsAfter(eventStream, 1L)).thenReturn(List.of(CourtOrderRemoved.courtOrderRemoved().withCourtOrderId(courtOrderId).build()));
+        final StreamContention contention = streamContentionMetrics.contention(commandName);
+        final long conflicts = contention.getConflicts();
+        final long retries = contention.getRetries();
+
+        courtOrderRequestHandler.handleUpdateCourtRegister(buildUpdateCourtRegisterEnvelope());
+
+        final ArgumentCaptor<Stream<JsonEnvelope>> eventsCaptor = ArgumentCaptor.forClass(Stream.class);
+        verify(eventStream).appendAfter(any(), eq(1L));
+        verify(eventStream).appendAfter(eventsCaptor.capture(), eq(2L));
+        assertThat(eventsCaptor.getValue().toList(), is(empty()));
+        verify(aggregateService, times(1)).get(eventStream, CourtOrderAggregate.class);
+        assertThat(contention.getConflicts() - conflicts, is(1L));
+        assertThat(contention.getRetries() - retries, is(1L));
+    }
+
+    @Test
+    void shouldDecideCommandWithoutWritingOutAggregateWhenAppendDoesNotConflict() throws Exception {
+        final CourtOrderAggregate aggregate = spy(new CourtOrderAggregate());
+        applyCourtOrderRequested(aggregate, createCourtOrder().withId(courtOrderId).withOrderDate(LocalDate.now()).withEndDate(END_DATE).build());
+        when(eventSource.getStreamById(any())).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(aggregate);
+        when(eventStream.getCurrentVersion()).thenReturn(1L);
+
+        courtOrderRequestHandler.handleRemoveCourtRegister(buildRemoveCourtRegisterEnvelope());
+
+        verify(eventStream).appendAfter(any(), eq(1L));
+        verify(aggregate, never()).writeExternal(any());
+        verify(streamCatchUp, never()).eventsAfter(any(), anyLong());
+    }
+
+    @Test
+    void shouldAppendAfterVersionAggregateWasBuiltToWhenStreamMovesBeforeAppend() throws Exception {
+        when(eventSource.getStreamById(any())).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(new CourtOrderAggregate());
+        when(eventStream.getCurrentVersion()).thenReturn(1L, 1L, 2L);
+        when(eventStream.appendAfter(any(), anyLong())).thenThrow(new OptimisticLockingRetryException("stream moved on")).thenReturn(2L);
+        when(streamCatchUp.eventsAfter(eventStream, 1L)).thenReturn(List.of(CourtOrderRemoved.courtOrderRemoved().withCourtOrderId(courtOrderId).build()));
+
+        courtOrderRequestHandler.handleRemoveCourtRegister(buildRemoveCourtRegisterEnvelope());
+
+        verify(eventStream).appendAfter(any(), eq(1L));
+        verify(streamCatchUp).eventsAfter(eventStream, 1L);
+        verify(eventStream).appendAfter(any(), eq(2L));
+    }
+
+    @Test
+    void shouldBuildAggregateAgainWhenStreamMovesDuringReplay() throws Exception {
+        when(eventSource.getStreamById(any())).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(new CourtOrderAggregate());
+        when(eventStream.getCurrentVersion()).thenReturn(1L, 2L, 2L, 2L);
+
+        courtOrderRequestHandler.handleRemoveCourtRegister(buildRemoveCourtRegisterEnvelope());
+
+        verify(aggregateService, times(2)).get(eventStream, CourtOrderAggregate.class);
+        verify(eventStream).appendAfter(any(), eq(2L));
+        verify(streamCatchUp, never()).eventsAfter(any(), anyLong());
+    }
+
+    @Test
+    void shouldGiveUpAppendingOnceOutOfAttempts() throws Exception {
+        final String commandName = "courtorders.command.remove-court-order";
+        when(eventSource.getStreamById(any())).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(new CourtOrderAggregate());
+        when(eventStream.appendAfter(any(), anyLong())).thenThrow(new OptimisticLockingRetryException("stream moved on"));
+        when(streamCatchUp.eventsAfter(eventStream, 0L)).thenReturn(List.of());
+        final StreamContention contention = streamContentionMetrics.contention(commandName);
+        final long conflicts = contention.getConflicts();
+        final long exhausted = contention.getExhausted();
+
+        assertThrows(OptimisticLockingRetryException.class, () -> courtOrderRequestHandler.handleRemoveCourtRegister(buildRemoveCourtRegisterEnvelope()));
+
+        verify(eventStream, times(3)).appendAfter(any(), eq(0L));
+        assertThat(contention.getConflicts() - conflicts, is(3L));
+        assertThat(contention.getExhausted() - exhausted, is(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldResumePatchJobWithTaskForCommandThatStartedIt() throws EventStreamException {
+        final UUID jobId = randomUUID();
+        final Envelope<ResumePatchJob> resumeEnvelope = envelope("courtorders.command.resume-patch-job", ResumePatchJob.resumePatchJob().withJobId(jobId).build());
+
+        courtOrderRequestHandler.handleResumePatchJob(resumeEnvelope);
+
+        final ArgumentCaptor<Function<String, CourtOrderChunkTask>> taskForCommandCaptor = ArgumentCaptor.forClass(Function.class);
+        verify(patchJobService).resume(eq(resumeEnvelope), eq(jobId), taskForCommandCaptor.capture());
+        taskForCommandCaptor.getValue().apply("courtorders.command.patch-update-judicial-child-results-v2").execute(List.of());
+        verify(progressionService).getJudicialChildResultsV2(any(), eq(List.of()));
+    }
+
+    @Test
+    void shouldScheduleExpiryRecalculationThatAmendsCourtOrdersWhoseExpiryDateChanged() throws EventStreamException {
+        configureUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_IDS);
+        final UUID courtOrderId1 = randomUUID();
+        final UUID courtOrderId2 = randomUUID();
+        final UUID afterCourtOrderId = randomUUID();
+        final UUID hearingId = randomUUID();
+        final UUID masterDefendantId = randomUUID();
+        final CourtOrderAggregate aggregate1 = new CourtOrderAggregate();
+        final CourtOrderAggregate aggregate2 = new CourtOrderAggregate();
+        applyCourtOrderRequested(aggregate1, createCourtOrder().withId(courtOrderId1).withOrderingHearingId(hearingId).withMasterDefendantId(masterDefendantId)
+                .withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID).build());
+        final JudicialChildResultsQuery query1 = new JudicialChildResultsQuery(hearingId, masterDefendantId, JUDICIAL_RESULT_TYPE_ID);
+        aggregate2.apply(CourtOrderRemoved.courtOrderRemoved().withCourtOrderId(courtOrderId2).build());
+        final Envelope<RecalculateExpiryDates> recalculateEnvelope = envelope("courtorders.command.recalculate-expiry-dates", RecalculateExpiryDates.recalculateExpiryDates()
+                .withAfterCourtOrderId(afterCourtOrderId)
+                .build());
+
+        courtOrderRequestHandler.handleRecalculateExpiryDates(recalculateEnvelope);
+
+        final ArgumentCaptor<ExpiryRecalculationTask> taskCaptor = ArgumentCaptor.forClass(ExpiryRecalculationTask.class);
+        verify(expiryRecalculation).schedule(eq(recalculateEnvelope), eq(afterCourtOrderId), taskCaptor.capture());
+        verify(eventSource, never()).getStreamById(any());
+
+        when(eventSource.getStreamById(courtOrderId1)).thenReturn(eventStream);
+        when(eventSource.getStreamById(courtOrderId2)).thenReturn(eventStream2);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(aggregate1);
+        when(aggregateService.get(eventStream2, CourtOrderAggregate.class)).thenReturn(aggregate2);
+        when(progressionService.getJudicialChildResults(any(), eq(List.of(query1)))).thenReturn(Map.of(
+                query1, createObjectBuilder().add("judicialChildResults",
+                        createArrayBuilder().add(createObjectBuilder().add("judicialResultId", randomUUID().toString()).add("judicialResultTypeId", UNPAID_WORK_RESULT_ID).add("label", "some").build())).build()));
+        when(referenceDataService.getResultDefinition(any(), eq(JUDICIAL_RESULT_TYPE_ID)))
+                .thenReturn(createObjectBuilder().add("unpaidWorkExtensionCommunityOrdYro", true).build());
+
+        final int amended = taskCaptor.getValue().recalculate(List.of(courtOrderId1, courtOrderId2));
+
+        assertThat(amended, is(1));
+        verify(eventStream2, never()).appendAfter(any(), anyLong());
+        assertThat(appendedTo(eventStream), streamContaining(
+                jsonEnvelope(
+                        metadata().withName("applicationscourtorders.event.court-order-amended"),
+                        JsonEnvelopePayloadMatcher.payload().isJson(allOf(
+                                withJsonPath("$.courtOrderId", is(courtOrderId1.toString())),
+                                withJsonPath("$.isUnpaidWork", is(true)),
+                                withJsonPath("$.expiryDate", is(END_DATE.plusYears(1).toString()))
+                        ))
+                )
+        ));
+    }
+
+    @Test
+    void shouldLeaveCourtOrderAsItIsWhenProgressionReturnsNoJudicialChildResultsToRecalculateFrom() throws EventStreamException {
+        configureUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_IDS);
+        final UUID courtOrderId1 = randomUUID();
+        final UUID afterCourtOrderId = randomUUID();
+        final UUID hearingId = randomUUID();
+        final UUID masterDefendantId = randomUUID();
+        final CourtOrderAggregate aggregate1 = new CourtOrderAggregate();
+        applyCourtOrderRequested(aggregate1, createCourtOrder().withId(courtOrderId1).withOrderingHearingId(hearingId).withMasterDefendantId(masterDefendantId)
+                .withEndDate(END_DATE).withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID)
+                .withJudicialChildResults(singletonList(JudicialChildResults.judicialChildResults()
+                        .withJudicialResultId(randomUUID())
+                        .withJudicialResultTypeId(UUID.fromString(UNPAID_WORK_RESULT_ID))
+                        .build()))
+                .build());
+        final JudicialChildResultsQuery query1 = new JudicialChildResultsQuery(hearingId, masterDefendantId, JUDICIAL_RESULT_TYPE_ID);
+        final Envelope<RecalculateExpiryDates> recalculateEnvelope = envelope("courtorders.command.recalculate-expiry-dates", RecalculateExpiryDates.recalculateExpiryDates()
+                .withAfterCourtOrderId(afterCourtOrderId)
+                .build());
+        courtOrderRequestHandler.handleRecalculateExpiryDates(recalculateEnvelope);
+        final ArgumentCaptor<ExpiryRecalculationTask> taskCaptor = ArgumentCaptor.forClass(ExpiryRecalculationTask.class);
+        verify(expiryRecalculation).schedule(eq(recalculateEnvelope), eq(afterCourtOrderId), taskCaptor.capture());
+        when(eventSource.getStreamById(courtOrderId1)).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, CourtOrderAggregate.class)).thenReturn(aggregate1);
+        when(progressionService.getJudicialChildResults(any(), eq(List.of(query1)))).thenReturn(Map.of(
+                query1, createObjectBuilder().add("judicialChildResults", createArrayBuilder()).build()));
+
+        final int amended = taskCaptor.getValue().recalculate(List.of(courtOrderId1));
+
+        assertThat(amended, is(0));
+        verify(eventStream, never()).appendAfter(any(), anyLong());
+        verify(referenceDataService, never()).getResultDefinition(any(), any());
+    }
+
     private Envelope<CreateCourtOrder> buildEnvelope() {
 
         final CreateCourtOrder createCourtOrder = createCourtOrder()
@@ -409,6 +933,36 @@ public class CourtOrderRequestHandlerTest {
         return envelope("courtorders.command.update-court-order-validity", updateCourtOrder);
     }
 
+    private CreateCourtOrder bulkCourtOrder(final UUID courtOrderId) {
+        return createCourtOrder()
+                .withId(courtOrderId)
+                .withJudicialResultTypeId(JUDICIAL_RESULT_TYPE_ID)
+                .withOrderDate(LocalDate.now())
+                .build();
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private void configureUnpaidWorkJudicialTypeIds(final String unpaidWorkJudicialTypeIds) {
+        final Instance<String> configured = mock(Instance.class);
+        lenient().when(configured.get()).thenReturn(unpaidWorkJudicialTypeIds);
+        setField(unpaidWorkClassification, "unpaidWorkJudicialTypeIds", configured);
+    }
+
+    private void applyCourtOrderRequested(final CourtOrderAggregate aggregate, final CreateCourtOrder createCourtOrder) {
+        aggregate.apply(CourtOrderRequested.courtOrderRequested()
+                .withCourtOrderId(createCourtOrder.getId())
+                .withCourtOrder(createCourtOrder)
+                .build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Stream<JsonEnvelope> appendedTo(final EventStream eventStream) throws EventStreamException {
+        final ArgumentCaptor<Stream<JsonEnvelope>> eventsCaptor = ArgumentCaptor.forClass(Stream.class);
+        verify(eventStream).appendAfter(eventsCaptor.capture(), anyLong());
+        return eventsCaptor.getValue();
+    }
+
     private <T> Envelope<T> envelope(final String name, final T t) {
         final MetadataBuilder metadataBuilder = metadataFrom(metadataWithRandomUUID(name).withUserId(JUDICIAL_RESULT_TYPE_ID.toString()).build());
         return envelopeFrom(metadataBuilder, t);
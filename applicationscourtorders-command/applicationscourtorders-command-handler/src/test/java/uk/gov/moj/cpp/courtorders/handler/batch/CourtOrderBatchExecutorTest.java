@@ -0,0 +1,108 @@
+package uk.gov.moj.cpp.courtorders.handler.batch;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CourtOrderBatchExecutorTest {
+
+    private static final String COMMAND_NAME = "courtorders.command.patch-update-judicial-child-results";
+
+    @Mock
+    private ManagedExecutorService managedExecutorService;
+
+    @Spy
+    private TransactionalCourtOrderTaskRunner transactionalCourtOrderTaskRunner;
+
+    @InjectMocks
+    private CourtOrderBatchExecutor courtOrderBatchExecutor;
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+    @BeforeEach
+    void setUp() {
+        setField(courtOrderBatchExecutor, "concurrency", "1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void shouldProcessCourtOrdersSequentiallyOnCallingThreadByDefault() throws EventStreamException {
+        final UUID courtOrderId1 = randomUUID();
+        final UUID courtOrderId2 = randomUUID();
+        final List<UUID> processed = new ArrayList<>();
+
+        final CourtOrderBatchResult result = courtOrderBatchExecutor.execute(COMMAND_NAME, List.of(courtOrderId1, courtOrderId2, courtOrderId1), processed::add);
+
+        assertThat(processed, contains(courtOrderId1, courtOrderId2));
+        assertThat(result.getSucceededCount(), is(2));
+        assertThat(result.hasFailures(), is(false));
+        verify(managedExecutorService, never()).submit(any(Runnable.class));
+    }
+
+    @Test
+    void shouldAbortSequentialBatchOnFirstFailure() {
+        final List<UUID> processed = new ArrayList<>();
+
+        assertThrows(EventStreamException.class, () -> courtOrderBatchExecutor.execute(COMMAND_NAME, List.of(randomUUID(), randomUUID()), courtOrderId -> {
+            processed.add(courtOrderId);
+            throw new EventStreamException("append failed");
+        }));
+        assertThat(processed.size(), is(1));
+    }
+
+    @Test
+    void shouldProcessEveryCourtOrderConcurrentlyAndReportFailuresPerOrder() throws EventStreamException {
+        setField(courtOrderBatchExecutor, "concurrency", "3");
+        doAnswer(invocation -> executorService.submit((Runnable) invocation.getArgument(0)))
+                .when(managedExecutorService).submit(any(Runnable.class));
+        final UUID failingCourtOrderId = randomUUID();
+        final List<UUID> courtOrderIds = List.of(randomUUID(), randomUUID(), failingCourtOrderId, randomUUID(), randomUUID());
+        final List<UUID> processed = Collections.synchronizedList(new ArrayList<>());
+
+        final CourtOrderBatchResult result = courtOrderBatchExecutor.execute(COMMAND_NAME, courtOrderIds, courtOrderId -> {
+            if (courtOrderId.equals(failingCourtOrderId)) {
+                throw new EventStreamException("append failed");
+            }
+            processed.add(courtOrderId);
+        });
+
+        assertThat(result.getSucceededCount(), is(4));
+        assertThat(result.getFailures().keySet(), contains(failingCourtOrderId));
+        assertThat(processed, containsInAnyOrder(courtOrderIds.stream().filter(id -> !id.equals(failingCourtOrderId)).toArray()));
+        verify(managedExecutorService, times(3)).submit(any(Runnable.class));
+    }
+}
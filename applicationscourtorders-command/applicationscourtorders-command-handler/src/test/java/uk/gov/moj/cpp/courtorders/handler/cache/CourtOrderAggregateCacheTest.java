@@ -0,0 +1,152 @@
+package uk.gov.moj.cpp.courtorders.handler.cache;
+
+import static java.util.UUID.randomUUID;
+import static javax.transaction.Status.STATUS_COMMITTED;
+import static javax.transaction.Status.STATUS_ROLLEDBACK;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.services.eventsourcing.source.core.EventStream;
+import uk.gov.moj.cpp.courtorders.aggregate.CourtOrderAggregate;
+import uk.gov.moj.cpp.courtorders.handler.contention.VersionedAggregate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CourtOrderAggregateCacheTest {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @InjectMocks
+    private CourtOrderAggregateCache courtOrderAggregateCache;
+
+    private final UUID streamId = randomUUID();
+    private final VersionedAggregate<CourtOrderAggregate> cachedAggregate = new VersionedAggregate<>(new CourtOrderAggregate(), 3L);
+    private final VersionedAggregate<CourtOrderAggregate> loadedAggregate = new VersionedAggregate<>(new CourtOrderAggregate(), 4L);
+    private final List<Synchronization> synchronizations = new ArrayList<>();
+
+    private EventStream eventStream;
+
+    @BeforeEach
+    void setUp() {
+        setField(courtOrderAggregateCache, "enabled", "true");
+        setField(courtOrderAggregateCache, "size", String.valueOf(SEGMENT_COUNT));
+        courtOrderAggregateCache.initialise();
+        eventStream = eventStream(streamId, 3L);
+        lenient().when(transactionSynchronizationRegistry.getTransactionKey()).thenReturn(new Object());
+        lenient().doAnswer(invocation -> synchronizations.add(invocation.getArgument(0)))
+                .when(transactionSynchronizationRegistry).registerInterposedSynchronization(any());
+    }
+
+    @Test
+    void shouldReuseCommittedAggregateWhileStreamIsAtCachedVersion() {
+        putAndComplete(eventStream, cachedAggregate, STATUS_COMMITTED);
+
+        assertThat(courtOrderAggregateCache.get(eventStream, () -> loadedAggregate), sameInstance(cachedAggregate));
+    }
+
+    @Test
+    void shouldLoadAggregateWhenStreamHasMovedOnFromCachedVersion() {
+        putAndComplete(eventStream, cachedAggregate, STATUS_COMMITTED);
+        when(eventStream.getCurrentVersion()).thenReturn(4L);
+
+        assertThat(courtOrderAggregateCache.get(eventStream, () -> loadedAggregate), sameInstance(loadedAggregate));
+    }
+
+    @Test
+    void shouldNotCacheAggregateOfRolledBackCommand() {
+        putAndComplete(eventStream, cachedAggregate, STATUS_ROLLEDBACK);
+
+        assertThat(courtOrderAggregateCache.get(eventStream, () -> loadedAggregate), sameInstance(loadedAggregate));
+    }
+
+    @Test
+    void shouldNotHandOutSameAggregateToTwoCommands() {
+        putAndComplete(eventStream, cachedAggregate, STATUS_COMMITTED);
+
+        courtOrderAggregateCache.get(eventStream, () -> loadedAggregate);
+
+        assertThat(courtOrderAggregateCache.get(eventStream, () -> loadedAggregate), sameInstance(loadedAggregate));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedAggregateOnceSegmentIsFull() {
+        putAndComplete(eventStream, cachedAggregate, STATUS_COMMITTED);
+
+        putAndComplete(eventStream(streamIdInSameSegment(), 1L), new VersionedAggregate<>(new CourtOrderAggregate(), 1L), STATUS_COMMITTED);
+
+        assertThat(courtOrderAggregateCache.get(eventStream, () -> loadedAggregate), sameInstance(loadedAggregate));
+    }
+
+    @Test
+    void shouldKeepNewestVersionWhenCommandsCommitOutOfOrder() {
+        putAndComplete(eventStream, cachedAggregate, STATUS_COMMITTED);
+
+        putAndComplete(eventStream, new VersionedAggregate<>(new CourtOrderAggregate(), 2L), STATUS_COMMITTED);
+
+        assertThat(courtOrderAggregateCache.get(eventStream, () -> loadedAggregate), sameInstance(cachedAggregate));
+    }
+
+    @Test
+    void shouldNotCacheOutsideTransaction() {
+        when(transactionSynchronizationRegistry.getTransactionKey()).thenReturn(null);
+
+        courtOrderAggregateCache.put(eventStream, cachedAggregate);
+
+        verify(transactionSynchronizationRegistry, never()).registerInterposedSynchronization(any());
+    }
+
+    @Test
+    void shouldAlwaysLoadWhenDisabled() {
+        setField(courtOrderAggregateCache, "enabled", "false");
+
+        assertThat(courtOrderAggregateCache.get(eventStream, () -> loadedAggregate), sameInstance(loadedAggregate));
+    }
+
+    private void putAndComplete(final EventStream stream, final VersionedAggregate<CourtOrderAggregate> aggregate, final int status) {
+        courtOrderAggregateCache.put(stream, aggregate);
+        synchronizations.remove(synchronizations.size() - 1).afterCompletion(status);
+    }
+
+    private EventStream eventStream(final UUID id, final long version) {
+        final EventStream stream = mock(EventStream.class);
+        lenient().when(stream.getId()).thenReturn(id);
+        lenient().when(stream.getCurrentVersion()).thenReturn(version);
+        return stream;
+    }
+
+    private UUID streamIdInSameSegment() {
+        UUID otherStreamId = randomUUID();
+        while (segment(otherStreamId) != segment(streamId)) {
+            otherStreamId = randomUUID();
+        }
+        return otherStreamId;
+    }
+
+    private int segment(final UUID id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % SEGMENT_COUNT;
+    }
+}
@@ -0,0 +1,133 @@
+package uk.gov.moj.cpp.courtorders.handler.classification;
+
+import static java.util.UUID.fromString;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.core.courts.JudicialChildResults;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.enterprise.inject.Instance;
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UnpaidWorkClassificationTest {
+
+    private static final UUID UNPAID_WORK_RESULT_ID = fromString("9bec5977-1796-4645-9b9e-687d4f23d37d");
+    private static final UUID OTHER_UNPAID_WORK_RESULT_ID = fromString("5ab456c8-d272-4082-87ed-cd1f44a0603a");
+
+    private final UnpaidWorkClassification unpaidWorkClassification = new UnpaidWorkClassification();
+    private final AtomicReference<String> configuredJudicialTypeIds = new AtomicReference<>(UNPAID_WORK_RESULT_ID + ", " + OTHER_UNPAID_WORK_RESULT_ID);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        final Instance<String> unpaidWorkJudicialTypeIds = mock(Instance.class);
+        when(unpaidWorkJudicialTypeIds.get()).thenAnswer(invocation -> configuredJudicialTypeIds.get());
+        setField(unpaidWorkClassification, "unpaidWorkJudicialTypeIds", unpaidWorkJudicialTypeIds);
+        setField(unpaidWorkClassification, "reloadMillis", "0");
+        unpaidWorkClassification.initialise();
+    }
+
+    @Test
+    void shouldCompileConfiguredJudicialResultTypesOnce() {
+        final Set<UUID> judicialResultTypeIds = unpaidWorkClassification.judicialResultTypeIds();
+
+        assertThat(judicialResultTypeIds, containsInAnyOrder(UNPAID_WORK_RESULT_ID, OTHER_UNPAID_WORK_RESULT_ID));
+        assertThat(unpaidWorkClassification.judicialResultTypeIds(), is(sameInstance(judicialResultTypeIds)));
+        assertThat(judicialResultTypeIds.contains(null), is(false));
+    }
+
+    @Test
+    void shouldCompileJudicialResultTypesAgainWhenConfigurationChanges() {
+        configuredJudicialTypeIds.set(OTHER_UNPAID_WORK_RESULT_ID.toString());
+
+        assertThat(unpaidWorkClassification.judicialResultTypeIds(), containsInAnyOrder(OTHER_UNPAID_WORK_RESULT_ID));
+    }
+
+    @Test
+    void shouldNotReadConfigurationAgainUntilReloadIntervalHasPassed() {
+        setField(unpaidWorkClassification, "reloadMillis", "60000");
+        unpaidWorkClassification.initialise();
+
+        configuredJudicialTypeIds.set(OTHER_UNPAID_WORK_RESULT_ID.toString());
+
+        assertThat(unpaidWorkClassification.judicialResultTypeIds(), containsInAnyOrder(UNPAID_WORK_RESULT_ID, OTHER_UNPAID_WORK_RESULT_ID));
+    }
+
+    @Test
+    void shouldReportCourtOrdersCandidateRulesWouldReclassify() {
+        final UUID courtOrderId = randomUUID();
+        final UUID unchangedCourtOrderId = randomUUID();
+        unpaidWorkClassification.setCandidateUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_ID.toString());
+
+        unpaidWorkClassification.checkCandidate(courtOrderId, true, judicialChildResults(OTHER_UNPAID_WORK_RESULT_ID));
+        unpaidWorkClassification.checkCandidate(courtOrderId, true, judicialChildResults(OTHER_UNPAID_WORK_RESULT_ID));
+        unpaidWorkClassification.checkCandidate(unchangedCourtOrderId, true, judicialChildResults(UNPAID_WORK_RESULT_ID));
+        unpaidWorkClassification.checkCandidate(randomUUID(), false, judicialChildResults(OTHER_UNPAID_WORK_RESULT_ID));
+
+        assertThat(unpaidWorkClassification.getReclassifiedCourtOrderIds(), arrayContaining(courtOrderId.toString()));
+        assertThat(unpaidWorkClassification.getReclassifiedCourtOrderCount(), is(1L));
+        assertThat(unpaidWorkClassification.judicialResultTypeIds(), containsInAnyOrder(UNPAID_WORK_RESULT_ID, OTHER_UNPAID_WORK_RESULT_ID));
+    }
+
+    @Test
+    void shouldNotReportAnythingWithoutCandidateRules() {
+        unpaidWorkClassification.checkCandidate(randomUUID(), true, judicialChildResults(OTHER_UNPAID_WORK_RESULT_ID));
+
+        assertThat(unpaidWorkClassification.getReclassifiedCourtOrderIds(), is(emptyArray()));
+    }
+
+    @Test
+    void shouldDiscardCandidateRulesOnceConfigurationIsChangedToThem() {
+        unpaidWorkClassification.setCandidateUnpaidWorkJudicialTypeIds(UNPAID_WORK_RESULT_ID.toString());
+
+        configuredJudicialTypeIds.set(UNPAID_WORK_RESULT_ID.toString());
+
+        assertThat(unpaidWorkClassification.judicialResultTypeIds(), containsInAnyOrder(UNPAID_WORK_RESULT_ID));
+        assertThat(unpaidWorkClassification.getUnpaidWorkJudicialTypeIds(), is(UNPAID_WORK_RESULT_ID.toString()));
+        assertThat(unpaidWorkClassification.getCandidateUnpaidWorkJudicialTypeIds(), is(nullValue()));
+    }
+
+    @Test
+    void shouldRejectCandidateRulesThatAreNotJudicialResultTypeIds() {
+        assertThrows(IllegalArgumentException.class, () -> unpaidWorkClassification.setCandidateUnpaidWorkJudicialTypeIds("unpaid-work"));
+
+        assertThat(unpaidWorkClassification.getCandidateUnpaidWorkJudicialTypeIds(), is(nullValue()));
+    }
+
+    @Test
+    void shouldSetCandidateRulesOverJmx() throws Exception {
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        mBeanServer.setAttribute(new ObjectName(UnpaidWorkClassification.OBJECT_NAME),
+                new Attribute("CandidateUnpaidWorkJudicialTypeIds", OTHER_UNPAID_WORK_RESULT_ID.toString()));
+
+        assertThat(unpaidWorkClassification.getCandidateUnpaidWorkJudicialTypeIds(), is(OTHER_UNPAID_WORK_RESULT_ID.toString()));
+    }
+
+    private static List<JudicialChildResults> judicialChildResults(final UUID judicialResultTypeId) {
+        return List.of(JudicialChildResults.judicialChildResults()
+                .withJudicialResultTypeId(judicialResultTypeId)
+                .build());
+    }
+}
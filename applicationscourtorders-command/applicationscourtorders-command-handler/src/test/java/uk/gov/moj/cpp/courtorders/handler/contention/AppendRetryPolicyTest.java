@@ -0,0 +1,64 @@
+package uk.gov.moj.cpp.courtorders.handler.contention;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AppendRetryPolicyTest {
+
+    private final AppendRetryPolicy appendRetryPolicy = new AppendRetryPolicy();
+
+    @BeforeEach
+    void setUp() {
+        setField(appendRetryPolicy, "maxAttempts", "5");
+        setField(appendRetryPolicy, "backoffMillis", "10");
+        setField(appendRetryPolicy, "maxBackoffMillis", "50");
+    }
+
+    @Test
+    void shouldKeepBackoffWithinDoublingCeiling() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(appendRetryPolicy.backoffMillis(1), allOf(greaterThanOrEqualTo(0L), lessThanOrEqualTo(10L)));
+            assertThat(appendRetryPolicy.backoffMillis(2), allOf(greaterThanOrEqualTo(0L), lessThanOrEqualTo(20L)));
+        }
+    }
+
+    @Test
+    void shouldCapBackoff() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(appendRetryPolicy.backoffMillis(40), lessThanOrEqualTo(50L));
+        }
+    }
+
+    @Test
+    void shouldNotWaitWhenBackoffIsDisabled() {
+        setField(appendRetryPolicy, "backoffMillis", "0");
+
+        assertThat(appendRetryPolicy.backoffMillis(3), is(0L));
+        assertThat(appendRetryPolicy.backOff(3), is(true));
+    }
+
+    @Test
+    void shouldAlwaysAllowOneAttempt() {
+        setField(appendRetryPolicy, "maxAttempts", "0");
+
+        assertThat(appendRetryPolicy.maxAttempts(), is(1));
+    }
+
+    @Test
+    void shouldStopRetryingWhenInterrupted() {
+        Thread.currentThread().interrupt();
+        try {
+            assertThat(appendRetryPolicy.backOff(5), is(false));
+            assertThat(Thread.currentThread().isInterrupted(), is(true));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
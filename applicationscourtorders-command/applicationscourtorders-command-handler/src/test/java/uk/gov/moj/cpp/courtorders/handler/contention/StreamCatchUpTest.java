@@ -0,0 +1,81 @@
+package uk.gov.moj.cpp.courtorders.handler.contention;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
+import static uk.gov.justice.services.messaging.JsonObjects.createObjectBuilder;
+import static uk.gov.justice.services.test.utils.core.messaging.MetadataBuilderFactory.metadataWithRandomUUID;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.core.courts.CourtOrderRemoved;
+import uk.gov.justice.services.common.converter.JsonObjectToObjectConverter;
+import uk.gov.justice.services.common.converter.jackson.ObjectMapperProducer;
+import uk.gov.justice.services.core.extension.EventFoundEvent;
+import uk.gov.justice.services.eventsourcing.source.core.EventStream;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class StreamCatchUpTest {
+
+    private static final String COURT_ORDER_REMOVED = "applicationscourtorders.event.court-order-removed";
+
+    @Mock
+    private EventStream eventStream;
+
+    @Spy
+    private final JsonObjectToObjectConverter jsonObjectToObjectConverter = new JsonObjectToObjectConverter();
+
+    @InjectMocks
+    private StreamCatchUp streamCatchUp;
+
+    @BeforeEach
+    void setUp() {
+        setField(jsonObjectToObjectConverter, "objectMapper", new ObjectMapperProducer().objectMapper());
+    }
+
+    @Test
+    void shouldReadEventsAfterVersionAsEventClasses() {
+        final UUID courtOrderId = randomUUID();
+        streamCatchUp.register(eventFound(COURT_ORDER_REMOVED, CourtOrderRemoved.class));
+        when(eventStream.readFrom(4L)).thenReturn(Stream.of(envelopeFrom(metadataWithRandomUUID(COURT_ORDER_REMOVED),
+                createObjectBuilder().add("courtOrderId", courtOrderId.toString()).build())));
+
+        final List<Object> events = streamCatchUp.eventsAfter(eventStream, 3L);
+
+        assertThat(events, contains(instanceOf(CourtOrderRemoved.class)));
+        assertThat(((CourtOrderRemoved) events.get(0)).getCourtOrderId(), is(courtOrderId));
+    }
+
+    @Test
+    void shouldFailForEventWithoutRegisteredClass() {
+        when(eventStream.readFrom(1L)).thenReturn(Stream.of(envelopeFrom(metadataWithRandomUUID(COURT_ORDER_REMOVED),
+                createObjectBuilder().build())));
+
+        assertThrows(IllegalStateException.class, () -> streamCatchUp.eventsAfter(eventStream, 0L));
+    }
+
+    private static EventFoundEvent eventFound(final String eventName, final Class<?> eventClass) {
+        final EventFoundEvent eventFoundEvent = mock(EventFoundEvent.class);
+        when(eventFoundEvent.getEventName()).thenReturn(eventName);
+        doReturn(eventClass).when(eventFoundEvent).getClazz();
+        return eventFoundEvent;
+    }
+}
@@ -0,0 +1,182 @@
+package uk.gov.moj.cpp.courtorders.handler.idempotency;
+
+import static java.util.UUID.randomUUID;
+import static javax.json.Json.createObjectBuilder;
+import static javax.transaction.Status.STATUS_COMMITTED;
+import static javax.transaction.Status.STATUS_ROLLEDBACK;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static uk.gov.justice.services.messaging.Envelope.envelopeFrom;
+import static uk.gov.justice.services.test.utils.core.messaging.MetadataBuilderFactory.metadataWithRandomUUID;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.services.eventsourcing.source.core.EventStream;
+import uk.gov.justice.services.messaging.Envelope;
+import uk.gov.justice.services.messaging.Metadata;
+import uk.gov.moj.cpp.courtorders.command.RemoveCourtOrder;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CommandIdempotencyStoreTest {
+
+    private static final String COMMAND_NAME = "courtorders.command.update-court-order-validity";
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @Mock
+    private EventStream eventStream;
+
+    @InjectMocks
+    private CommandIdempotencyStore commandIdempotencyStore;
+
+    private final List<Synchronization> synchronizations = new ArrayList<>();
+    private final AtomicLong streamVersion = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        setField(commandIdempotencyStore, "enabled", "true");
+        setField(commandIdempotencyStore, "size", "16");
+        commandIdempotencyStore.initialise();
+        lenient().when(transactionSynchronizationRegistry.getTransactionKey()).thenReturn(new Object());
+        lenient().doAnswer(invocation -> synchronizations.add(invocation.getArgument(0)))
+                .when(transactionSynchronizationRegistry).registerInterposedSynchronization(any());
+        lenient().when(eventStream.getCurrentVersion()).thenAnswer(invocation -> streamVersion.get());
+    }
+
+    @Test
+    void shouldRecogniseCommittedCommandResentWithSameIdAndPayload() {
+        final Envelope<RemoveCourtOrder> command = removeCourtOrder(metadataWithRandomUUID(COMMAND_NAME).build(), randomUUID());
+
+        assertThat(handle(command, STATUS_COMMITTED), is(false));
+        assertThat(commandIdempotencyStore.isDuplicate(envelopeFrom(command.metadata(), command.payload()), eventStream), is(true));
+    }
+
+    @Test
+    void shouldRecogniseCommittedCommandResentInNewEnvelope() {
+        final Envelope<RemoveCourtOrder> command = removeCourtOrder(metadataWithRandomUUID(COMMAND_NAME).build(), randomUUID());
+        handle(command, STATUS_COMMITTED);
+
+        assertThat(commandIdempotencyStore.isDuplicate(envelopeFrom(metadataWithRandomUUID(COMMAND_NAME).build(), command.payload()), eventStream), is(true));
+    }
+
+    @Test
+    void shouldHandleCommandAgainOnceAnotherCommandChangedItsStream() {
+        final UUID courtOrderId = randomUUID();
+        final Envelope<RemoveCourtOrder> command = removeCourtOrder(metadataWithRandomUUID(COMMAND_NAME).build(), courtOrderId);
+        handle(command, STATUS_COMMITTED);
+        handle(removeCourtOrder(metadataWithRandomUUID(COMMAND_NAME).build(), randomUUID()), STATUS_COMMITTED);
+
+        assertThat(handle(removeCourtOrder(metadataWithRandomUUID(COMMAND_NAME).build(), courtOrderId), STATUS_COMMITTED), is(false));
+        assertThat(commandIdempotencyStore.isDuplicate(command, eventStream), is(true));
+    }
+
+    @Test
+    void shouldHandleCommandAgainWhenItsTransactionRolledBack() {
+        final Envelope<RemoveCourtOrder> command = removeCourtOrder(metadataWithRandomUUID(COMMAND_NAME).build(), randomUUID());
+
+        handle(command, STATUS_ROLLEDBACK);
+
+        assertThat(commandIdempotencyStore.isDuplicate(command, eventStream), is(false));
+    }
+
+    @Test
+    void shouldHandleCommandWithSameIdButDifferentPayload() {
+        final Metadata metadata = metadataWithRandomUUID(COMMAND_NAME).build();
+        handle(removeCourtOrder(metadata, randomUUID()), STATUS_COMMITTED);
+
+        assertThat(commandIdempotencyStore.isDuplicate(removeCourtOrder(metadata, randomUUID()), eventStream), is(false));
+    }
+
+    @Test
+    void shouldHandleCommandWithSamePayloadButDifferentName() {
+        final Envelope<RemoveCourtOrder> command = removeCourtOrder(metadataWithRandomUUID(COMMAND_NAME).build(), randomUUID());
+        handle(command, STATUS_COMMITTED);
+
+        assertThat(commandIdempotencyStore.isDuplicate(envelopeFrom(metadataWithRandomUUID("courtorders.command.remove-court-order").build(), command.payload()), eventStream), is(false));
+    }
+
+    @Test
+    void shouldRecogniseJsonPayloadsByTheirContent() {
+        final String courtOrderId = randomUUID().toString();
+        handle(envelopeFrom(metadataWithRandomUUID(COMMAND_NAME).build(), createObjectBuilder().add("courtOrderId", courtOrderId).build()), STATUS_COMMITTED);
+
+        assertThat(commandIdempotencyStore.isDuplicate(envelopeFrom(metadataWithRandomUUID(COMMAND_NAME).build(), createObjectBuilder().add("courtOrderId", courtOrderId).build()), eventStream), is(true));
+    }
+
+    @Test
+    void shouldForgetLeastRecentlySeenCommandsOnceFull() {
+        final Envelope<RemoveCourtOrder> first = removeCourtOrder(metadataWithRandomUUID(COMMAND_NAME).build(), randomUUID());
+        handle(first, STATUS_COMMITTED);
+        final long firstVersion = streamVersion.get();
+        for (int i = 0; i < 1000; i++) {
+            handle(removeCourtOrder(metadataWithRandomUUID(COMMAND_NAME).build(), randomUUID()), STATUS_COMMITTED);
+        }
+        streamVersion.set(firstVersion);
+
+        assertThat(commandIdempotencyStore.getSize(), lessThanOrEqualTo(16));
+        assertThat(commandIdempotencyStore.isDuplicate(first, eventStream), is(false));
+    }
+
+    @Test
+    void shouldNotRecogniseDuplicatesWhenDisabled() {
+        setField(commandIdempotencyStore, "enabled", "false");
+        final Envelope<RemoveCourtOrder> command = removeCourtOrder(metadataWithRandomUUID(COMMAND_NAME).build(), randomUUID());
+        handle(command, STATUS_COMMITTED);
+
+        assertThat(commandIdempotencyStore.isDuplicate(command, eventStream), is(false));
+        assertThat(commandIdempotencyStore.getCommands(), is(0L));
+    }
+
+    @Test
+    void shouldExposeDuplicateRateOverJmx() throws Exception {
+        final Envelope<RemoveCourtOrder> command = removeCourtOrder(metadataWithRandomUUID(COMMAND_NAME).build(), randomUUID());
+        handle(command, STATUS_COMMITTED);
+        commandIdempotencyStore.isDuplicate(command, eventStream);
+
+        assertThat(commandIdempotencyStore.getCommands(), is(2L));
+        assertThat(commandIdempotencyStore.getDuplicates(), is(1L));
+        assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(CommandIdempotencyStore.OBJECT_NAME), "DuplicateRate"), is(0.5));
+    }
+
+    /**
+     * Handles the command unless it is a duplicate, appending one event to the stream, and
+     * completes its transaction with the status.
+     */
+    private boolean handle(final Envelope<?> command, final int status) {
+        final boolean duplicate = commandIdempotencyStore.isDuplicate(command, eventStream);
+        if (!duplicate) {
+            commandIdempotencyStore.handled(command, streamVersion.get() + 1);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        synchronizations.clear();
+        if (!duplicate && status == STATUS_COMMITTED) {
+            streamVersion.incrementAndGet();
+        }
+        return duplicate;
+    }
+
+    private static Envelope<RemoveCourtOrder> removeCourtOrder(final Metadata metadata, final UUID courtOrderId) {
+        return envelopeFrom(metadata, RemoveCourtOrder.removeCourtOrder().withCourtOrderId(courtOrderId).build());
+    }
+}
@@ -0,0 +1,116 @@
+package uk.gov.moj.cpp.courtorders.handler.job;
+
+import static java.time.ZoneOffset.UTC;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.Envelope.envelopeFrom;
+import static uk.gov.justice.services.test.utils.core.messaging.MetadataBuilderFactory.metadataWithRandomUUID;
+
+import uk.gov.justice.core.courts.PatchJobChunkCompleted;
+import uk.gov.justice.core.courts.PatchJobStarted;
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.core.aggregate.AggregateService;
+import uk.gov.justice.services.eventsourcing.source.core.EventSource;
+import uk.gov.justice.services.eventsourcing.source.core.EventStream;
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+import uk.gov.justice.services.messaging.Envelope;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+import uk.gov.moj.cpp.courtorders.aggregate.PatchJobAggregate;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PatchJobChunkProcessorTest {
+
+    @Mock
+    private EventSource eventSource;
+
+    @Mock
+    private EventStream eventStream;
+
+    @Mock
+    private AggregateService aggregateService;
+
+    @Mock
+    private UtcClock utcClock;
+
+    @InjectMocks
+    private PatchJobChunkProcessor patchJobChunkProcessor;
+
+    private final UUID jobId = randomUUID();
+    private final UUID courtOrderId1 = randomUUID();
+    private final UUID courtOrderId2 = randomUUID();
+    private final UUID courtOrderId3 = randomUUID();
+    private final Envelope<UUID> envelope = envelopeFrom(metadataWithRandomUUID("courtorders.command.resume-patch-job"), jobId);
+    private final PatchJobAggregate patchJobAggregate = new PatchJobAggregate();
+
+    @BeforeEach
+    void setUp() {
+        patchJobAggregate.apply(PatchJobStarted.patchJobStarted()
+                .withJobId(jobId)
+                .withCommandName("courtorders.command.patch-update-judicial-child-results")
+                .withCourtOrderIds(List.of(courtOrderId1, courtOrderId2, courtOrderId3))
+                .withChunkSize(2)
+                .withStartedAt(ZonedDateTime.now(UTC))
+                .build());
+        when(eventSource.getStreamById(jobId)).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, PatchJobAggregate.class)).thenReturn(patchJobAggregate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldProcessNextChunkAndCheckpointIt() throws EventStreamException {
+        final List<UUID> processed = new ArrayList<>();
+        when(utcClock.now()).thenReturn(ZonedDateTime.now(UTC));
+
+        final boolean hasMoreChunks = patchJobChunkProcessor.processNextChunk(envelope, jobId, processed::addAll);
+
+        assertThat(hasMoreChunks, is(true));
+        assertThat(processed, contains(courtOrderId1, courtOrderId2));
+        final ArgumentCaptor<Stream<JsonEnvelope>> eventsCaptor = ArgumentCaptor.forClass(Stream.class);
+        verify(eventStream).append(eventsCaptor.capture());
+        final List<JsonEnvelope> events = eventsCaptor.getValue().toList();
+        assertThat(events.size(), is(1));
+        assertThat(events.get(0).metadata().name(), is("applicationscourtorders.event.patch-job-chunk-completed"));
+        assertThat(events.get(0).payloadAsJsonObject().getInt("chunkIndex"), is(0));
+    }
+
+    @Test
+    void shouldReportNoMoreChunksOnceJobIsCompleted() throws EventStreamException {
+        patchJobAggregate.apply(PatchJobChunkCompleted.patchJobChunkCompleted().withJobId(jobId).withChunkIndex(0).withProcessedCount(2).withCompletedAt(ZonedDateTime.now(UTC)).build());
+        when(utcClock.now()).thenReturn(ZonedDateTime.now(UTC));
+
+        assertThat(patchJobChunkProcessor.processNextChunk(envelope, jobId, courtOrderIds -> {
+        }), is(false));
+        assertThat(patchJobChunkProcessor.processNextChunk(envelope, jobId, courtOrderIds -> {
+        }), is(false));
+    }
+
+    @Test
+    void shouldNotCheckpointChunkThatFailed() {
+        assertThrows(EventStreamException.class, () -> patchJobChunkProcessor.processNextChunk(envelope, jobId, courtOrderIds -> {
+            throw new EventStreamException("append failed");
+        }));
+
+        verify(eventStream, never()).append(any());
+    }
+}
@@ -0,0 +1,150 @@
+package uk.gov.moj.cpp.courtorders.handler.job;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.Envelope.envelopeFrom;
+import static uk.gov.justice.services.test.utils.core.messaging.MetadataBuilderFactory.metadataWithRandomUUID;
+
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+import uk.gov.justice.services.messaging.Envelope;
+import uk.gov.moj.cpp.courtorders.handler.lane.BulkLane;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PatchJobRunnerTest {
+
+    @Mock
+    private ManagedExecutorService managedExecutorService;
+
+    @Mock
+    private PatchJobChunkProcessor patchJobChunkProcessor;
+
+    @Mock
+    private PatchJobService patchJobService;
+
+    @Mock
+    private BulkLane bulkLane;
+
+    @InjectMocks
+    private PatchJobRunner patchJobRunner;
+
+    private final CourtOrderChunkTask task = courtOrderIds -> {
+    };
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(bulkLane.getMaxConcurrentJobs()).thenReturn(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void shouldProcessChunksUntilJobIsCompleted() throws EventStreamException {
+        final PatchJobScheduled patchJobScheduled = patchJobScheduled();
+        runSubmittedTasksOnCallingThread();
+        when(patchJobChunkProcessor.processNextChunk(patchJobScheduled.envelope(), patchJobScheduled.jobId(), task)).thenReturn(true, true, false);
+
+        patchJobRunner.onPatchJobScheduled(patchJobScheduled);
+
+        verify(patchJobChunkProcessor, times(3)).processNextChunk(patchJobScheduled.envelope(), patchJobScheduled.jobId(), task);
+    }
+
+    @Test
+    void shouldPaceEveryChunkToBulkLane() throws EventStreamException {
+        final PatchJobScheduled patchJobScheduled = patchJobScheduled();
+        runSubmittedTasksOnCallingThread();
+        when(patchJobService.chunkSize()).thenReturn(100);
+        when(patchJobChunkProcessor.processNextChunk(patchJobScheduled.envelope(), patchJobScheduled.jobId(), task)).thenReturn(true, false);
+
+        patchJobRunner.onPatchJobScheduled(patchJobScheduled);
+
+        verify(bulkLane, times(2)).pace(100);
+    }
+
+    @Test
+    void shouldStartWaitingJobOnceBulkLaneHasRoom() throws EventStreamException {
+        when(bulkLane.getMaxConcurrentJobs()).thenReturn(1);
+        final List<Runnable> submitted = new ArrayList<>();
+        doAnswer(invocation -> submitted.add(invocation.getArgument(0))).when(managedExecutorService).submit(any(Runnable.class));
+        final PatchJobScheduled firstJob = patchJobScheduled();
+        final PatchJobScheduled secondJob = patchJobScheduled();
+
+        patchJobRunner.onPatchJobScheduled(firstJob);
+        patchJobRunner.onPatchJobScheduled(secondJob);
+
+        assertThat(submitted.size(), is(1));
+        submitted.get(0).run();
+        assertThat(submitted.size(), is(2));
+        submitted.get(1).run();
+        verify(patchJobChunkProcessor).processNextChunk(firstJob.envelope(), firstJob.jobId(), task);
+        verify(patchJobChunkProcessor).processNextChunk(secondJob.envelope(), secondJob.jobId(), task);
+    }
+
+    @Test
+    void shouldStopAtFailedChunkAndAllowJobToBeResumed() throws EventStreamException {
+        final PatchJobScheduled patchJobScheduled = patchJobScheduled();
+        runSubmittedTasksOnCallingThread();
+        when(patchJobChunkProcessor.processNextChunk(patchJobScheduled.envelope(), patchJobScheduled.jobId(), task))
+                .thenReturn(true)
+                .thenThrow(new EventStreamException("append failed"))
+                .thenReturn(false);
+
+        patchJobRunner.onPatchJobScheduled(patchJobScheduled);
+        patchJobRunner.onPatchJobScheduled(patchJobScheduled);
+
+        verify(patchJobChunkProcessor, times(3)).processNextChunk(patchJobScheduled.envelope(), patchJobScheduled.jobId(), task);
+    }
+
+    @Test
+    void shouldNotRunSameJobTwiceAtOnce() {
+        final PatchJobScheduled patchJobScheduled = patchJobScheduled();
+
+        patchJobRunner.onPatchJobScheduled(patchJobScheduled);
+        patchJobRunner.onPatchJobScheduled(patchJobScheduled);
+
+        verify(managedExecutorService, times(1)).submit(any(Runnable.class));
+    }
+
+    @Test
+    void shouldReleaseJobWhenItCannotBeSubmitted() throws EventStreamException {
+        final PatchJobScheduled patchJobScheduled = patchJobScheduled();
+        when(managedExecutorService.submit(any(Runnable.class))).thenThrow(new IllegalStateException("executor shut down"));
+
+        assertThrows(IllegalStateException.class, () -> patchJobRunner.onPatchJobScheduled(patchJobScheduled));
+        runSubmittedTasksOnCallingThread();
+        patchJobRunner.onPatchJobScheduled(patchJobScheduled);
+
+        verify(patchJobChunkProcessor).processNextChunk(patchJobScheduled.envelope(), patchJobScheduled.jobId(), task);
+    }
+
+    private void runSubmittedTasksOnCallingThread() {
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(managedExecutorService).submit(any(Runnable.class));
+    }
+
+    private PatchJobScheduled patchJobScheduled() {
+        final UUID jobId = randomUUID();
+        final Envelope<UUID> envelope = envelopeFrom(metadataWithRandomUUID("courtorders.command.patch-update-judicial-child-results"), jobId);
+        return new PatchJobScheduled(envelope, jobId, task);
+    }
+}
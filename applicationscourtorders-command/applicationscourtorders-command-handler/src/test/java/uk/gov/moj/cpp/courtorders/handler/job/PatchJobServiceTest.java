@@ -0,0 +1,148 @@
+package uk.gov.moj.cpp.courtorders.handler.job;
+
+import static java.time.ZoneOffset.UTC;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.Envelope.envelopeFrom;
+import static uk.gov.justice.services.test.utils.core.messaging.MetadataBuilderFactory.metadataWithRandomUUID;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.core.courts.PatchJobStarted;
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.core.aggregate.AggregateService;
+import uk.gov.justice.services.eventsourcing.source.core.EventSource;
+import uk.gov.justice.services.eventsourcing.source.core.EventStream;
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+import uk.gov.justice.services.messaging.Envelope;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+import uk.gov.moj.cpp.courtorders.aggregate.PatchJobAggregate;
+import uk.gov.moj.cpp.courtorders.command.PatchUpdateJudicialChildResults;
+import uk.gov.moj.cpp.courtorders.handler.lane.BulkLane;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.enterprise.event.Event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PatchJobServiceTest {
+
+    private static final String COMMAND_NAME = "courtorders.command.patch-update-judicial-child-results";
+
+    @Mock
+    private EventSource eventSource;
+
+    @Mock
+    private EventStream eventStream;
+
+    @Mock
+    private AggregateService aggregateService;
+
+    @Mock
+    private UtcClock utcClock;
+
+    @Mock
+    private Event<PatchJobScheduled> patchJobScheduledEvent;
+
+    @Mock
+    private BulkLane bulkLane;
+
+    @InjectMocks
+    private PatchJobService patchJobService;
+
+    private final CourtOrderChunkTask task = courtOrderIds -> {
+    };
+
+    @BeforeEach
+    void setUp() {
+        setField(patchJobService, "threshold", "2");
+        setField(patchJobService, "chunkSize", "10");
+    }
+
+    @Test
+    void shouldOnlyRunAsJobAboveThreshold() {
+        assertThat(patchJobService.runsAsJob(List.of(randomUUID(), randomUUID())), is(false));
+        assertThat(patchJobService.runsAsJob(List.of(randomUUID(), randomUUID(), randomUUID())), is(true));
+    }
+
+    @Test
+    void shouldRunAnyPatchAsJobWhenCommandLanesAreEnabled() {
+        when(bulkLane.isEnabled()).thenReturn(true);
+
+        assertThat(patchJobService.runsAsJob(List.of(randomUUID())), is(true));
+        assertThat(patchJobService.runsAsJob(List.of()), is(false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRecordJobStartAndScheduleIt() throws EventStreamException {
+        final Envelope<PatchUpdateJudicialChildResults> envelope = envelopeFrom(metadataWithRandomUUID(COMMAND_NAME), PatchUpdateJudicialChildResults.patchUpdateJudicialChildResults().build());
+        final UUID jobId = envelope.metadata().id();
+        final List<UUID> courtOrderIds = List.of(randomUUID(), randomUUID(), randomUUID());
+        when(eventSource.getStreamById(jobId)).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, PatchJobAggregate.class)).thenReturn(new PatchJobAggregate());
+        when(utcClock.now()).thenReturn(ZonedDateTime.now(UTC));
+
+        patchJobService.start(envelope, courtOrderIds, task);
+
+        final ArgumentCaptor<Stream<JsonEnvelope>> eventsCaptor = ArgumentCaptor.forClass(Stream.class);
+        verify(eventStream).append(eventsCaptor.capture());
+        final List<JsonEnvelope> events = eventsCaptor.getValue().toList();
+        assertThat(events.size(), is(1));
+        assertThat(events.get(0).metadata().name(), is("applicationscourtorders.event.patch-job-started"));
+        assertThat(events.get(0).payloadAsJsonObject().getInt("chunkSize"), is(10));
+
+        final ArgumentCaptor<PatchJobScheduled> scheduledCaptor = ArgumentCaptor.forClass(PatchJobScheduled.class);
+        verify(patchJobScheduledEvent).fire(scheduledCaptor.capture());
+        assertThat(scheduledCaptor.getValue().jobId(), is(jobId));
+        assertThat(scheduledCaptor.getValue().task(), is(task));
+    }
+
+    @Test
+    void shouldScheduleUnfinishedJobWithTaskForItsCommand() {
+        final UUID jobId = randomUUID();
+        final PatchJobAggregate patchJobAggregate = new PatchJobAggregate();
+        patchJobAggregate.apply(PatchJobStarted.patchJobStarted()
+                .withJobId(jobId)
+                .withCommandName(COMMAND_NAME)
+                .withCourtOrderIds(List.of(randomUUID()))
+                .withChunkSize(10)
+                .withStartedAt(ZonedDateTime.now(UTC))
+                .build());
+        when(eventSource.getStreamById(jobId)).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, PatchJobAggregate.class)).thenReturn(patchJobAggregate);
+
+        patchJobService.resume(envelopeFrom(metadataWithRandomUUID("courtorders.command.resume-patch-job"), jobId), jobId,
+                commandName -> COMMAND_NAME.equals(commandName) ? task : null);
+
+        final ArgumentCaptor<PatchJobScheduled> scheduledCaptor = ArgumentCaptor.forClass(PatchJobScheduled.class);
+        verify(patchJobScheduledEvent).fire(scheduledCaptor.capture());
+        assertThat(scheduledCaptor.getValue().task(), is(task));
+    }
+
+    @Test
+    void shouldNotScheduleUnknownJob() {
+        final UUID jobId = randomUUID();
+        when(eventSource.getStreamById(jobId)).thenReturn(eventStream);
+        when(aggregateService.get(eventStream, PatchJobAggregate.class)).thenReturn(new PatchJobAggregate());
+
+        patchJobService.resume(envelopeFrom(metadataWithRandomUUID("courtorders.command.resume-patch-job"), jobId), jobId, commandName -> task);
+
+        verify(patchJobScheduledEvent, never()).fire(any());
+    }
+}
@@ -0,0 +1,87 @@
+package uk.gov.moj.cpp.courtorders.handler.lane;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.enterprise.inject.Instance;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BulkLaneTest {
+
+    private final BulkLane bulkLane = new BulkLane();
+    private final AtomicReference<String> configuredCourtOrdersPerSecond = new AtomicReference<>("0");
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        final Instance<String> courtOrdersPerSecond = mock(Instance.class);
+        when(courtOrdersPerSecond.get()).thenAnswer(invocation -> configuredCourtOrdersPerSecond.get());
+        setField(bulkLane, "enabled", "true");
+        setField(bulkLane, "maxConcurrentJobs", "2");
+        setField(bulkLane, "courtOrdersPerSecond", courtOrdersPerSecond);
+        setField(bulkLane, "reloadMillis", "0");
+        bulkLane.initialise();
+    }
+
+    @Test
+    void shouldNotLimitJobsWhenLanesAreDisabled() {
+        setField(bulkLane, "enabled", "false");
+
+        assertThat(bulkLane.getMaxConcurrentJobs(), is(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void shouldLimitJobsWhenLanesAreEnabled() {
+        assertThat(bulkLane.getMaxConcurrentJobs(), is(2));
+    }
+
+    @Test
+    void shouldNotWaitWhenUnpaced() {
+        bulkLane.pace(1000);
+        bulkLane.pace(1000);
+
+        assertThat(bulkLane.getThrottledMillis(), is(0L));
+    }
+
+    @Test
+    void shouldWaitForCourtOrdersAlreadyProcessedBeforeTheNext() {
+        configuredCourtOrdersPerSecond.set("1000");
+
+        final long start = System.nanoTime();
+        bulkLane.pace(100);
+        bulkLane.pace(100);
+
+        assertThat((System.nanoTime() - start) / 1_000_000, greaterThanOrEqualTo(90L));
+        assertThat(bulkLane.getThrottledMillis(), greaterThanOrEqualTo(90L));
+    }
+
+    @Test
+    void shouldReadPaceChangedInConfigurationOnceReloaded() throws Exception {
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        configuredCourtOrdersPerSecond.set("25");
+
+        assertThat(mBeanServer.getAttribute(new ObjectName(BulkLane.OBJECT_NAME), "CourtOrdersPerSecond"), is(25.0));
+    }
+
+    @Test
+    void shouldKeepPaceUntilReloaded() {
+        setField(bulkLane, "reloadMillis", "60000");
+        bulkLane.initialise();
+
+        configuredCourtOrdersPerSecond.set("25");
+
+        assertThat(bulkLane.getCourtOrdersPerSecond(), is(0.0));
+    }
+}
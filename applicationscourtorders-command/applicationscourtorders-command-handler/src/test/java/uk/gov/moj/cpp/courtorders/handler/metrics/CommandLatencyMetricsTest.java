@@ -0,0 +1,47 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage.APPEND_EVENTS;
+import static uk.gov.moj.cpp.courtorders.handler.metrics.CommandStage.LOAD_STREAM;
+
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+
+import org.junit.jupiter.api.Test;
+
+class CommandLatencyMetricsTest {
+
+    private static final String COMMAND_NAME = "courtorders.command.create-court-order";
+
+    private final CommandLatencyMetrics commandLatencyMetrics = new CommandLatencyMetrics();
+
+    @Test
+    void shouldRecordLatencyOfStageAndReturnItsResult() {
+        final String result = commandLatencyMetrics.time(COMMAND_NAME, LOAD_STREAM, () -> "stream");
+
+        assertThat(result, is("stream"));
+        assertThat(commandLatencyMetrics.histogram(COMMAND_NAME, LOAD_STREAM).getCount(), is(1L));
+    }
+
+    @Test
+    void shouldRecordLatencyOfFailedStage() {
+        assertThrows(EventStreamException.class, () -> commandLatencyMetrics.time(COMMAND_NAME, APPEND_EVENTS, () -> {
+            throw new EventStreamException("append failed");
+        }));
+
+        assertThat(commandLatencyMetrics.histogram(COMMAND_NAME, APPEND_EVENTS).getCount(), is(1L));
+    }
+
+    @Test
+    void shouldExposeHistogramOverJmx() throws Exception {
+        commandLatencyMetrics.time(COMMAND_NAME, LOAD_STREAM, () -> "stream");
+
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        assertThat(mBeanServer.getAttribute(CommandLatencyMetrics.objectName(COMMAND_NAME, LOAD_STREAM), "Count"), is(1L));
+    }
+}
@@ -0,0 +1,46 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+class CourtOrderWriteMetricsTest {
+
+    private final CourtOrderWriteMetrics courtOrderWriteMetrics = new CourtOrderWriteMetrics();
+
+    @Test
+    void shouldCountSuppressedCreateRequestsAndTheEventWritesTheySaved() {
+        courtOrderWriteMetrics.recordCreate(false);
+        courtOrderWriteMetrics.recordCreate(true);
+        courtOrderWriteMetrics.recordCreate(true);
+
+        assertThat(courtOrderWriteMetrics.getCreateRequests(), is(3L));
+        assertThat(courtOrderWriteMetrics.getSuppressedCreateRequests(), is(2L));
+        assertThat(courtOrderWriteMetrics.getSuppressedEventWrites(), is(4L));
+    }
+
+    @Test
+    void shouldResetCounts() {
+        courtOrderWriteMetrics.recordCreate(true);
+
+        courtOrderWriteMetrics.reset();
+
+        assertThat(courtOrderWriteMetrics.getCreateRequests(), is(0L));
+        assertThat(courtOrderWriteMetrics.getSuppressedCreateRequests(), is(0L));
+    }
+
+    @Test
+    void shouldExposeCountsOverJmx() throws Exception {
+        courtOrderWriteMetrics.register();
+        courtOrderWriteMetrics.recordCreate(true);
+
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        assertThat(mBeanServer.getAttribute(new ObjectName(CourtOrderWriteMetrics.OBJECT_NAME), "SuppressedEventWrites"), is(2L));
+    }
+}
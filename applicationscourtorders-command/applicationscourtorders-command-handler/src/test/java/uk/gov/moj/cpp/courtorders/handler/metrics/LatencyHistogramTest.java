@@ -0,0 +1,71 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldReportPercentilesWithinAQuarterOfRecordedValues() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros);
+        }
+
+        assertThat(histogram.getCount(), is(1000L));
+        assertThat(histogram.getMeanMicros(), is(500L));
+        assertThat(histogram.getMaxMicros(), is(1000L));
+        assertThat(histogram.getP50Micros(), allOf(greaterThanOrEqualTo(500L), lessThanOrEqualTo(625L)));
+        assertThat(histogram.getP95Micros(), allOf(greaterThanOrEqualTo(950L), lessThanOrEqualTo(1000L)));
+        assertThat(histogram.getP99Micros(), allOf(greaterThanOrEqualTo(990L), lessThanOrEqualTo(1000L)));
+    }
+
+    @Test
+    void shouldReportTailLatencyOfSlowMinority() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(100);
+        }
+        histogram.record(250_000);
+        histogram.record(250_000);
+
+        assertThat(histogram.getP50Micros(), allOf(greaterThanOrEqualTo(100L), lessThanOrEqualTo(125L)));
+        assertThat(histogram.getP99Micros(), is(250_000L));
+    }
+
+    @Test
+    void shouldPlaceEveryValueInABucketWhoseUpperBoundCoversIt() {
+        for (long value = 0; value < 100_000; value++) {
+            final int bucketIndex = LatencyHistogram.bucketIndex(value);
+            assertThat(LatencyHistogram.upperBound(bucketIndex), greaterThanOrEqualTo(value));
+            if (bucketIndex > 0) {
+                assertThat(LatencyHistogram.upperBound(bucketIndex - 1), lessThanOrEqualTo(value - 1));
+            }
+        }
+    }
+
+    @Test
+    void shouldCountValuesBeyondRangeInLastBucket() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+
+        assertThat(histogram.getP99Micros(), is(Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldResetAllCounts() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+
+        histogram.reset();
+
+        assertThat(histogram.getCount(), is(0L));
+        assertThat(histogram.getMaxMicros(), is(0L));
+        assertThat(histogram.getP99Micros(), is(0L));
+    }
+}
@@ -0,0 +1,49 @@
+package uk.gov.moj.cpp.courtorders.handler.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+
+import org.junit.jupiter.api.Test;
+
+class StreamContentionMetricsTest {
+
+    private static final String COMMAND_NAME = "courtorders.command.update-court-order-validity";
+
+    private final StreamContentionMetrics streamContentionMetrics = new StreamContentionMetrics();
+
+    @Test
+    void shouldKeepOneContentionPerCommand() {
+        assertThat(streamContentionMetrics.contention(COMMAND_NAME), sameInstance(streamContentionMetrics.contention(COMMAND_NAME)));
+    }
+
+    @Test
+    void shouldCountConflictsRetriesAndCaughtUpEvents() {
+        final StreamContention contention = streamContentionMetrics.contention(COMMAND_NAME);
+        contention.reset();
+
+        contention.recordConflict();
+        contention.recordRetry(2);
+        contention.recordConflict();
+        contention.recordExhausted();
+
+        assertThat(contention.getConflicts(), is(2L));
+        assertThat(contention.getRetries(), is(1L));
+        assertThat(contention.getCaughtUpEvents(), is(2L));
+        assertThat(contention.getExhausted(), is(1L));
+    }
+
+    @Test
+    void shouldExposeContentionOverJmx() throws Exception {
+        final StreamContention contention = streamContentionMetrics.contention(COMMAND_NAME);
+        contention.reset();
+        contention.recordConflict();
+
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        assertThat(mBeanServer.getAttribute(StreamContentionMetrics.objectName(COMMAND_NAME), "Conflicts"), is(1L));
+    }
+}
@@ -0,0 +1,42 @@
+package uk.gov.moj.cpp.courtorders.handler.recalculation;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class ExpiryRecalculationChunkProcessorTest {
+
+    private final ExpiryRecalculationChunkProcessor expiryRecalculationChunkProcessor = new ExpiryRecalculationChunkProcessor();
+
+    @Test
+    void shouldRecalculateChunkOfCourtOrdersAndReportLastOne() throws EventStreamException {
+        final UUID courtOrderId1 = randomUUID();
+        final UUID courtOrderId2 = randomUUID();
+        final List<UUID> recalculated = new ArrayList<>();
+
+        final RecalculatedChunk chunk = expiryRecalculationChunkProcessor.recalculate(List.of(courtOrderId1, courtOrderId2), courtOrderIds -> {
+            recalculated.addAll(courtOrderIds);
+            return 1;
+        });
+
+        assertThat(recalculated, contains(courtOrderId1, courtOrderId2));
+        assertThat(chunk, is(new RecalculatedChunk(2, 1, courtOrderId2)));
+    }
+
+    @Test
+    void shouldFailChunkWhoseRecalculationFailed() {
+        assertThrows(EventStreamException.class, () -> expiryRecalculationChunkProcessor.recalculate(List.of(randomUUID()), courtOrderIds -> {
+            throw new EventStreamException("append failed");
+        }));
+    }
+}
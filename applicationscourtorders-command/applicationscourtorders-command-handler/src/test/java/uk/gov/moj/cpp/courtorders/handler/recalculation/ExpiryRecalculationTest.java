@@ -0,0 +1,138 @@
+package uk.gov.moj.cpp.courtorders.handler.recalculation;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.Envelope.envelopeFrom;
+import static uk.gov.justice.services.test.utils.core.messaging.MetadataBuilderFactory.metadataWithRandomUUID;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+import uk.gov.justice.services.messaging.Envelope;
+import uk.gov.moj.cpp.courtorders.handler.lane.BulkLane;
+import uk.gov.moj.cpp.courtorders.handler.service.CourtOrderQueryService;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiryRecalculationTest {
+
+    private static final UUID BEFORE_FIRST_COURT_ORDER_ID = new UUID(0L, 0L);
+
+    @Mock
+    private ManagedExecutorService managedExecutorService;
+
+    @Mock
+    private CourtOrderQueryService courtOrderQueryService;
+
+    @Mock
+    private ExpiryRecalculationChunkProcessor expiryRecalculationChunkProcessor;
+
+    @Mock
+    private BulkLane bulkLane;
+
+    @InjectMocks
+    private ExpiryRecalculation expiryRecalculation;
+
+    private final ExpiryRecalculationTask task = courtOrderIds -> 0;
+
+    @BeforeEach
+    void setUp() {
+        setField(expiryRecalculation, "chunkSize", "2");
+    }
+
+    @Test
+    void shouldRecalculateChunksFromFirstCourtOrderUntilNoneAreLeft() throws EventStreamException {
+        final List<UUID> courtOrderIds1 = List.of(randomUUID(), randomUUID());
+        final List<UUID> courtOrderIds2 = List.of(randomUUID());
+        final UUID lastCourtOrderId1 = courtOrderIds1.get(1);
+        final UUID lastCourtOrderId2 = courtOrderIds2.get(0);
+        runSubmittedTasksOnCallingThread();
+        when(courtOrderQueryService.getCourtOrderIdsAfter(any(), eq(BEFORE_FIRST_COURT_ORDER_ID), eq(2))).thenReturn(courtOrderIds1);
+        when(courtOrderQueryService.getCourtOrderIdsAfter(any(), eq(lastCourtOrderId1), eq(2))).thenReturn(courtOrderIds2);
+        when(courtOrderQueryService.getCourtOrderIdsAfter(any(), eq(lastCourtOrderId2), eq(2))).thenReturn(List.of());
+        when(expiryRecalculationChunkProcessor.recalculate(courtOrderIds1, task)).thenReturn(new RecalculatedChunk(2, 1, lastCourtOrderId1));
+        when(expiryRecalculationChunkProcessor.recalculate(courtOrderIds2, task)).thenReturn(new RecalculatedChunk(1, 1, lastCourtOrderId2));
+
+        expiryRecalculation.onExpiryRecalculationScheduled(expiryRecalculationScheduled(null));
+
+        verify(bulkLane, times(3)).pace(2);
+        assertThat(expiryRecalculation.isRunning(), is(false));
+        assertThat(expiryRecalculation.getRecalculatedCourtOrders(), is(3L));
+        assertThat(expiryRecalculation.getAmendedCourtOrders(), is(2L));
+        assertThat(expiryRecalculation.getLastCourtOrderId(), is(lastCourtOrderId2.toString()));
+    }
+
+    @Test
+    void shouldStopAtFailedChunkAndCarryOnAfterLastCourtOrderRecalculated() throws EventStreamException {
+        final List<UUID> courtOrderIds1 = List.of(randomUUID(), randomUUID());
+        final List<UUID> courtOrderIds2 = List.of(randomUUID());
+        final UUID lastCourtOrderId = courtOrderIds1.get(1);
+        runSubmittedTasksOnCallingThread();
+        when(courtOrderQueryService.getCourtOrderIdsAfter(any(), eq(BEFORE_FIRST_COURT_ORDER_ID), eq(2))).thenReturn(courtOrderIds1);
+        when(courtOrderQueryService.getCourtOrderIdsAfter(any(), eq(lastCourtOrderId), eq(2)))
+                .thenReturn(courtOrderIds2)
+                .thenReturn(List.of());
+        when(expiryRecalculationChunkProcessor.recalculate(courtOrderIds1, task)).thenReturn(new RecalculatedChunk(2, 0, lastCourtOrderId));
+        when(expiryRecalculationChunkProcessor.recalculate(courtOrderIds2, task)).thenThrow(new EventStreamException("append failed"));
+
+        expiryRecalculation.onExpiryRecalculationScheduled(expiryRecalculationScheduled(null));
+
+        assertThat(expiryRecalculation.isRunning(), is(false));
+        assertThat(expiryRecalculation.getLastCourtOrderId(), is(lastCourtOrderId.toString()));
+
+        expiryRecalculation.onExpiryRecalculationScheduled(expiryRecalculationScheduled(lastCourtOrderId));
+
+        verify(courtOrderQueryService, times(2)).getCourtOrderIdsAfter(any(), eq(lastCourtOrderId), eq(2));
+        assertThat(expiryRecalculation.getRecalculatedCourtOrders(), is(0L));
+    }
+
+    @Test
+    void shouldNotStartTransactionWhenNoCourtOrdersAreLeft() throws EventStreamException {
+        runSubmittedTasksOnCallingThread();
+        when(courtOrderQueryService.getCourtOrderIdsAfter(any(), eq(BEFORE_FIRST_COURT_ORDER_ID), eq(2))).thenReturn(List.of());
+
+        expiryRecalculation.onExpiryRecalculationScheduled(expiryRecalculationScheduled(null));
+
+        verify(expiryRecalculationChunkProcessor, never()).recalculate(any(), any());
+        assertThat(expiryRecalculation.isRunning(), is(false));
+    }
+
+    @Test
+    void shouldNotRunTwoRecalculationsAtOnce() {
+        expiryRecalculation.onExpiryRecalculationScheduled(expiryRecalculationScheduled(null));
+        expiryRecalculation.onExpiryRecalculationScheduled(expiryRecalculationScheduled(null));
+
+        verify(managedExecutorService, times(1)).submit(any(Runnable.class));
+        assertThat(expiryRecalculation.isRunning(), is(true));
+    }
+
+    private void runSubmittedTasksOnCallingThread() {
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(managedExecutorService).submit(any(Runnable.class));
+    }
+
+    private ExpiryRecalculationScheduled expiryRecalculationScheduled(final UUID afterCourtOrderId) {
+        final Envelope<UUID> envelope = envelopeFrom(metadataWithRandomUUID("courtorders.command.recalculate-expiry-dates"), randomUUID());
+        return new ExpiryRecalculationScheduled(envelope, afterCourtOrderId, task);
+    }
+}
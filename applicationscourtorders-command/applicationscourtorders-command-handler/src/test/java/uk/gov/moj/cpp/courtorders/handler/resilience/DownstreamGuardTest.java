@@ -0,0 +1,140 @@
+package uk.gov.moj.cpp.courtorders.handler.resilience;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DownstreamGuardTest {
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void shouldReturnResponseAndStayClosed() {
+        final DownstreamGuard downstreamGuard = new DownstreamGuard("progression", 1, 0, 2, 30000, null);
+
+        assertThat(downstreamGuard.call(() -> "response"), is("response"));
+        assertThat(downstreamGuard.getState(), is("CLOSED"));
+        assertThat(downstreamGuard.getActiveRequests(), is(0));
+    }
+
+    @Test
+    void shouldRejectRequestWhenBulkheadIsFull() throws Exception {
+        final DownstreamGuard downstreamGuard = new DownstreamGuard("progression", 1, 0, 2, 30000, null);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<String> inFlight = executorService.submit(() -> downstreamGuard.call(() -> {
+            started.countDown();
+            await(release);
+            return "response";
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        assertThrows(DownstreamUnavailableException.class, () -> downstreamGuard.call(() -> "rejected"));
+        assertThat(downstreamGuard.getActiveRequests(), is(1));
+        assertThat(downstreamGuard.getRejectedCount(), is(1L));
+
+        release.countDown();
+        assertThat(inFlight.get(5, TimeUnit.SECONDS), is("response"));
+        assertThat(downstreamGuard.getActiveRequests(), is(0));
+    }
+
+    @Test
+    void shouldOpenAfterConsecutiveFailuresAndRejectWithoutCallingDownstream() {
+        final DownstreamGuard downstreamGuard = new DownstreamGuard("progression", 1, 0, 2, 30000, null);
+
+        assertThrows(IllegalStateException.class, () -> downstreamGuard.call(DownstreamGuardTest::fail));
+        assertThat(downstreamGuard.getState(), is("CLOSED"));
+        assertThrows(IllegalStateException.class, () -> downstreamGuard.call(DownstreamGuardTest::fail));
+        assertThat(downstreamGuard.getState(), is("OPEN"));
+
+        assertThrows(DownstreamUnavailableException.class, () -> downstreamGuard.call(DownstreamGuardTest::fail));
+        assertThat(downstreamGuard.getFailureCount(), is(2L));
+        assertThat(downstreamGuard.getRejectedCount(), is(1L));
+    }
+
+    @Test
+    void shouldResetConsecutiveFailuresOnSuccess() {
+        final DownstreamGuard downstreamGuard = new DownstreamGuard("progression", 1, 0, 2, 30000, null);
+
+        assertThrows(IllegalStateException.class, () -> downstreamGuard.call(DownstreamGuardTest::fail));
+        downstreamGuard.call(() -> "response");
+        assertThrows(IllegalStateException.class, () -> downstreamGuard.call(DownstreamGuardTest::fail));
+
+        assertThat(downstreamGuard.getState(), is("CLOSED"));
+    }
+
+    @Test
+    void shouldCloseWhenTrialRequestSucceedsAfterOpenPeriod() {
+        final DownstreamGuard downstreamGuard = new DownstreamGuard("progression", 1, 0, 1, 0, null);
+        assertThrows(IllegalStateException.class, () -> downstreamGuard.call(DownstreamGuardTest::fail));
+        assertThat(downstreamGuard.getState(), is("OPEN"));
+
+        assertThat(downstreamGuard.call(() -> "response"), is("response"));
+
+        assertThat(downstreamGuard.getState(), is("CLOSED"));
+    }
+
+    @Test
+    void shouldReopenWhenTrialRequestFails() {
+        final DownstreamGuard downstreamGuard = new DownstreamGuard("progression", 1, 0, 3, 0, null);
+        assertThrows(IllegalStateException.class, () -> downstreamGuard.call(DownstreamGuardTest::fail));
+        assertThrows(IllegalStateException.class, () -> downstreamGuard.call(DownstreamGuardTest::fail));
+        assertThrows(IllegalStateException.class, () -> downstreamGuard.call(DownstreamGuardTest::fail));
+        assertThat(downstreamGuard.getState(), is("OPEN"));
+
+        assertThrows(IllegalStateException.class, () -> downstreamGuard.call(DownstreamGuardTest::fail));
+
+        assertThat(downstreamGuard.getState(), is("OPEN"));
+        assertThat(downstreamGuard.getFailureCount(), is(4L));
+    }
+
+    @Test
+    void shouldAbandonRequestThatTimesOut() {
+        final DownstreamGuard downstreamGuard = new DownstreamGuard("referencedata", 1, 50, 1, 30000, executorService);
+        final CountDownLatch never = new CountDownLatch(1);
+
+        assertThrows(DownstreamUnavailableException.class, () -> downstreamGuard.call(() -> {
+            await(never);
+            return "response";
+        }));
+
+        assertThat(downstreamGuard.getTimeoutCount(), is(1L));
+        assertThat(downstreamGuard.getState(), is("OPEN"));
+        assertThat(downstreamGuard.getActiveRequests(), is(0));
+    }
+
+    @Test
+    void shouldRethrowFailureFromRequestRunOnExecutor() {
+        final DownstreamGuard downstreamGuard = new DownstreamGuard("referencedata", 1, 5000, 5, 30000, executorService);
+
+        assertThrows(IllegalStateException.class, () -> downstreamGuard.call(DownstreamGuardTest::fail));
+        assertThat(downstreamGuard.getFailureCount(), is(1L));
+        assertThat(downstreamGuard.getTimeoutCount(), is(0L));
+    }
+
+    private static String fail() {
+        throw new IllegalStateException("downstream failed");
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
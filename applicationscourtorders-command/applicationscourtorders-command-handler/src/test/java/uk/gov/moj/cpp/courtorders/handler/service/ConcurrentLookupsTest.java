@@ -0,0 +1,109 @@
+package uk.gov.moj.cpp.courtorders.handler.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrentLookupsTest {
+
+    @Mock
+    private ManagedExecutorService managedExecutorService;
+
+    @InjectMocks
+    private ConcurrentLookups concurrentLookups;
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(3);
+
+    @BeforeEach
+    void setUp() {
+        setField(concurrentLookups, "enabled", "false");
+        setField(concurrentLookups, "concurrency", "3");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void shouldLookUpEachDistinctKeyInTurnOnCallingThreadByDefault() {
+        final List<String> lookedUp = new ArrayList<>();
+
+        final Map<String, Integer> results = concurrentLookups.getAll(List.of("a", "bb", "a"), key -> {
+            lookedUp.add(key);
+            return key.length();
+        });
+
+        assertThat(lookedUp, contains("a", "bb"));
+        assertThat(results, is(Map.of("a", 1, "bb", 2)));
+        verify(managedExecutorService, never()).submit(any(Runnable.class));
+    }
+
+    @Test
+    void shouldHaveLookupsInFlightTogetherWhenEnabled() {
+        setField(concurrentLookups, "enabled", "true");
+        doAnswer(invocation -> executorService.submit((Runnable) invocation.getArgument(0)))
+                .when(managedExecutorService).submit(any(Runnable.class));
+        final CountDownLatch allInFlight = new CountDownLatch(3);
+
+        final Map<String, Integer> results = concurrentLookups.getAll(List.of("a", "bb", "ccc"), key -> {
+            allInFlight.countDown();
+            try {
+                assertThat(allInFlight.await(5, TimeUnit.SECONDS), is(true));
+            } catch (final InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return key.length();
+        });
+
+        assertThat(results, is(Map.of("a", 1, "bb", 2, "ccc", 3)));
+        verify(managedExecutorService, times(3)).submit(any(Runnable.class));
+    }
+
+    @Test
+    void shouldRethrowFailedLookupOnceEveryLookupHasFinished() {
+        setField(concurrentLookups, "enabled", "true");
+        doAnswer(invocation -> executorService.submit((Runnable) invocation.getArgument(0)))
+                .when(managedExecutorService).submit(any(Runnable.class));
+        final List<String> lookedUp = new ArrayList<>();
+
+        final IllegalArgumentException failure = assertThrows(IllegalArgumentException.class, () -> concurrentLookups.getAll(List.of("a", "bb", "ccc", "dddd"), key -> {
+            synchronized (lookedUp) {
+                lookedUp.add(key);
+            }
+            if (key.equals("bb")) {
+                throw new IllegalArgumentException("lookup failed");
+            }
+            return key.length();
+        }));
+
+        assertThat(failure.getMessage(), is("lookup failed"));
+        assertThat(lookedUp.size(), is(4));
+    }
+}
@@ -0,0 +1,61 @@
+package uk.gov.moj.cpp.courtorders.handler.service;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.Envelope.metadataBuilder;
+import static uk.gov.justice.services.messaging.JsonObjects.createArrayBuilder;
+import static uk.gov.justice.services.messaging.JsonObjects.createObjectBuilder;
+
+import uk.gov.justice.services.core.requester.Requester;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+import uk.gov.justice.services.messaging.Metadata;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CourtOrderQueryServiceTest {
+
+    @InjectMocks
+    private CourtOrderQueryService courtOrderQueryService;
+
+    @Mock
+    private Requester requester;
+
+    @Mock
+    private JsonEnvelope jsonEnvelope;
+
+    @Test
+    void shouldGetCourtOrderIdsAfterCourtOrderId() {
+        final Metadata metadata = metadataBuilder().withId(randomUUID()).withName("courtorders.command.recalculate-expiry-dates").build();
+        final UUID afterCourtOrderId = randomUUID();
+        final UUID courtOrderId1 = randomUUID();
+        final UUID courtOrderId2 = randomUUID();
+        final ArgumentCaptor<JsonEnvelope> queryCaptor = ArgumentCaptor.forClass(JsonEnvelope.class);
+        when(requester.request(any())).thenReturn(jsonEnvelope);
+        when(jsonEnvelope.payloadAsJsonObject()).thenReturn(createObjectBuilder()
+                .add("courtOrderIds", createArrayBuilder().add(courtOrderId1.toString()).add(courtOrderId2.toString()))
+                .build());
+
+        final List<UUID> courtOrderIds = courtOrderQueryService.getCourtOrderIdsAfter(metadata, afterCourtOrderId, 2);
+
+        assertThat(courtOrderIds, contains(courtOrderId1, courtOrderId2));
+        verify(requester).request(queryCaptor.capture());
+        assertThat(queryCaptor.getValue().metadata().id(), is(metadata.id()));
+        assertThat(queryCaptor.getValue().metadata().name(), is("applicationscourtorders.query.court-order-ids"));
+        assertThat(queryCaptor.getValue().payloadAsJsonObject().getString("afterCourtOrderId"), is(afterCourtOrderId.toString()));
+        assertThat(queryCaptor.getValue().payloadAsJsonObject().getInt("limit"), is(2));
+    }
+}
@@ -5,24 +5,38 @@ import static java.util.UUID.randomUUID;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static uk.gov.justice.services.messaging.Envelope.metadataBuilder;
+import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
+import static uk.gov.justice.services.messaging.JsonObjects.createArrayBuilder;
 import static uk.gov.justice.services.messaging.JsonObjects.createObjectBuilder;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 
 import uk.gov.justice.services.core.requester.Requester;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 import uk.gov.justice.services.messaging.Metadata;
+import uk.gov.moj.cpp.courtorders.handler.resilience.DownstreamGuard;
+import uk.gov.moj.cpp.courtorders.handler.resilience.DownstreamGuards;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,9 +48,22 @@ class ProgressionServiceTest {
     @Mock
     private Requester requester;
 
+    @Mock
+    private DownstreamGuards downstreamGuards;
+
     @Mock
     private JsonEnvelope jsonEnvelope;
 
+    @Spy
+    private ConcurrentLookups concurrentLookups;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(downstreamGuards.progression()).thenReturn(new DownstreamGuard(DownstreamGuards.PROGRESSION, 10, 0, 5, 30000, null));
+        setField(progressionService, "batchEnabled", "false");
+        setField(progressionService, "batchSize", "2");
+    }
+
     @Test
     void shouldGetJudicialChildResults() {
         final JsonObject jsonObject = createObjectBuilder().add("id", randomUUID().toString()).build();
@@ -84,4 +111,106 @@ class ProgressionServiceTest {
         assertThat(argumentCaptorValue.payloadAsJsonObject().getString("judicialResultTypeId"), is(judicialResultTypeId.toString()));
     }
 
+    @Test
+    void shouldRequestEachDistinctLookupOnceWhenBatchingIsDisabled() {
+        final Metadata metadata = metadataBuilder().withId(randomUUID()).withName("ids").build();
+        final JudicialChildResultsQuery query1 = query();
+        final JudicialChildResultsQuery query2 = query();
+        when(requester.request(any())).thenAnswer(invocation -> respondTo(invocation.getArgument(0)));
+
+        final Map<JudicialChildResultsQuery, JsonObject> results = progressionService.getJudicialChildResults(metadata, List.of(query1, query2, query1));
+
+        assertThat(results.size(), is(2));
+        assertThat(results.get(query1).getString("hearingId"), is(query1.hearingId().toString()));
+        assertThat(results.get(query2).getString("hearingId"), is(query2.hearingId().toString()));
+        verify(requester, times(2)).request(argThat(envelope -> envelope.metadata().name().equals("progression.query.judicial-child-results")));
+    }
+
+    @Test
+    void shouldResolveLookupsInBatchesWhenBatchingIsEnabled() {
+        setField(progressionService, "batchEnabled", "true");
+        final Metadata metadata = metadataBuilder().withId(randomUUID()).withName("ids").build();
+        final List<JudicialChildResultsQuery> queries = List.of(query(), query(), query());
+        when(requester.request(any())).thenAnswer(invocation -> respondTo(invocation.getArgument(0)));
+
+        final Map<JudicialChildResultsQuery, JsonObject> results = progressionService.getJudicialChildResultsV2(metadata, queries);
+
+        assertThat(results.keySet().containsAll(queries), is(true));
+        verify(requester, times(2)).request(argThat(envelope -> envelope.metadata().name().equals("progression.query.judicial-child-results-v2-batch")));
+        verify(requester, never()).request(argThat(envelope -> envelope.metadata().name().equals("progression.query.judicial-child-results-v2")));
+    }
+
+    @Test
+    void shouldFallBackToSingleLookupsWhenBatchQueryFails() {
+        setField(progressionService, "batchEnabled", "true");
+        final Metadata metadata = metadataBuilder().withId(randomUUID()).withName("ids").build();
+        final List<JudicialChildResultsQuery> queries = List.of(query(), query());
+        when(requester.request(any())).thenAnswer(invocation -> {
+            final JsonEnvelope request = invocation.getArgument(0);
+            if (request.metadata().name().endsWith("-batch")) {
+                throw new IllegalStateException("No handler registered for progression.query.judicial-child-results-batch");
+            }
+            return respondTo(request);
+        });
+
+        final Map<JudicialChildResultsQuery, JsonObject> results = progressionService.getJudicialChildResults(metadata, queries);
+
+        assertThat(results.keySet().containsAll(queries), is(true));
+        verify(requester, times(2)).request(argThat(envelope -> envelope.metadata().name().equals("progression.query.judicial-child-results")));
+    }
+
+    @Test
+    void shouldFallBackToSingleLookupForLookupsMissingFromBatchResponse() {
+        setField(progressionService, "batchEnabled", "true");
+        final Metadata metadata = metadataBuilder().withId(randomUUID()).withName("ids").build();
+        final JudicialChildResultsQuery answered = query();
+        final JudicialChildResultsQuery missing = query();
+        when(requester.request(any())).thenAnswer(invocation -> {
+            final JsonEnvelope request = invocation.getArgument(0);
+            if (request.metadata().name().endsWith("-batch")) {
+                return envelopeFrom(request.metadata(), createObjectBuilder()
+                        .add("results", createArrayBuilder().add(judicialChildResults(toJson(answered))))
+                        .build());
+            }
+            return respondTo(request);
+        });
+
+        final Map<JudicialChildResultsQuery, JsonObject> results = progressionService.getJudicialChildResults(metadata, List.of(answered, missing));
+
+        assertThat(results.keySet().containsAll(List.of(answered, missing)), is(true));
+        verify(requester).request(argThat(envelope -> envelope.metadata().name().equals("progression.query.judicial-child-results")
+                && envelope.payloadAsJsonObject().getString("hearingId").equals(missing.hearingId().toString())));
+    }
+
+    private static JudicialChildResultsQuery query() {
+        return new JudicialChildResultsQuery(randomUUID(), randomUUID(), randomUUID());
+    }
+
+    private static JsonEnvelope respondTo(final JsonEnvelope request) {
+        final JsonObject payload = request.payloadAsJsonObject();
+        if (!payload.containsKey("queries")) {
+            return envelopeFrom(request.metadata(), judicialChildResults(payload));
+        }
+        final JsonArrayBuilder results = createArrayBuilder();
+        payload.getJsonArray("queries").getValuesAs(JsonObject.class).forEach(query -> results.add(judicialChildResults(query)));
+        return envelopeFrom(request.metadata(), createObjectBuilder().add("results", results).build());
+    }
+
+    private static JsonObject judicialChildResults(final JsonObject query) {
+        return createObjectBuilder()
+                .add("hearingId", query.getString("hearingId"))
+                .add("masterDefendantId", query.getString("masterDefendantId"))
+                .add("judicialResultTypeId", query.getString("judicialResultTypeId"))
+                .add("judicialChildResults", createArrayBuilder())
+                .build();
+    }
+
+    private static JsonObject toJson(final JudicialChildResultsQuery query) {
+        return createObjectBuilder()
+                .add("hearingId", query.hearingId().toString())
+                .add("masterDefendantId", query.masterDefendantId().toString())
+                .add("judicialResultTypeId", query.judicialResultTypeId().toString())
+                .build();
+    }
+
 }
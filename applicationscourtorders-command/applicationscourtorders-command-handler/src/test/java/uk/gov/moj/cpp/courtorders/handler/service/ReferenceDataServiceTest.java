@@ -4,24 +4,31 @@ import static java.util.UUID.randomUUID;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static uk.gov.justice.services.messaging.Envelope.metadataBuilder;
 import static uk.gov.justice.services.messaging.JsonObjects.createObjectBuilder;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 
 import uk.gov.justice.services.core.requester.Requester;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 import uk.gov.justice.services.messaging.Metadata;
+import uk.gov.moj.cpp.courtorders.handler.resilience.DownstreamGuard;
+import uk.gov.moj.cpp.courtorders.handler.resilience.DownstreamGuards;
 
 import java.util.UUID;
 
 import javax.json.JsonObject;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,9 +40,21 @@ class ReferenceDataServiceTest {
     @Mock
     private Requester requester;
 
+    @Mock
+    private DownstreamGuards downstreamGuards;
+
     @Mock
     private JsonEnvelope jsonEnvelope;
 
+    @Spy
+    private ResultDefinitionCache resultDefinitionCache;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(downstreamGuards.referenceData()).thenReturn(new DownstreamGuard(DownstreamGuards.REFERENCE_DATA, 10, 0, 5, 30000, null));
+        setField(resultDefinitionCache, "ttlInSeconds", "3600");
+        setField(resultDefinitionCache, "maxSize", "10");
+    }
 
     @Test
     void shouldGetResultDefinition() {
@@ -56,4 +75,21 @@ class ReferenceDataServiceTest {
         assertThat(argumentCaptorValue.payloadAsJsonObject().getString("resultDefinitionId"), is(resultDefinitionId.toString()));
     }
 
+    @Test
+    void shouldServeRepeatedResultDefinitionLookupsFromCache() {
+        final JsonObject jsonObject = createObjectBuilder().add("id", randomUUID().toString()).build();
+        final UUID resultDefinitionId = randomUUID();
+        final Metadata metadata = metadataBuilder().withId(randomUUID()).withName("ids").build();
+        when(requester.request(any())).thenReturn(jsonEnvelope);
+        when(jsonEnvelope.payloadAsJsonObject()).thenReturn(jsonObject);
+
+        referenceDataService.getResultDefinition(metadata, resultDefinitionId);
+        final JsonObject result = referenceDataService.getResultDefinition(metadata, resultDefinitionId);
+
+        assertThat(result, is(jsonObject));
+        verify(requester, times(1)).request(any());
+        assertThat(resultDefinitionCache.getHitCount(), is(1L));
+        assertThat(resultDefinitionCache.getMissCount(), is(1L));
+    }
+
 }
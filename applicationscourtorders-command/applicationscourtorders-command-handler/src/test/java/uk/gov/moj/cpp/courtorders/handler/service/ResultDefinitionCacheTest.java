@@ -0,0 +1,164 @@
+package uk.gov.moj.cpp.courtorders.handler.service;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.justice.services.messaging.JsonObjects.createObjectBuilder;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.json.JsonObject;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ResultDefinitionCacheTest {
+
+    private ResultDefinitionCache resultDefinitionCache;
+
+    @BeforeEach
+    void setUp() {
+        resultDefinitionCache = new ResultDefinitionCache();
+        setField(resultDefinitionCache, "ttlInSeconds", "3600");
+        setField(resultDefinitionCache, "maxSize", "2");
+    }
+
+    @Test
+    void shouldLoadOnceAndServeSubsequentLookupsFromCache() {
+        final UUID resultDefinitionId = randomUUID();
+        final AtomicInteger loads = new AtomicInteger();
+
+        resultDefinitionCache.get(resultDefinitionId, id -> resultDefinition(id, loads));
+        final JsonObject result = resultDefinitionCache.get(resultDefinitionId, id -> resultDefinition(id, loads));
+
+        assertThat(result.getString("id"), is(resultDefinitionId.toString()));
+        assertThat(loads.get(), is(1));
+        assertThat(resultDefinitionCache.getHitCount(), is(1L));
+        assertThat(resultDefinitionCache.getMissCount(), is(1L));
+        assertThat(resultDefinitionCache.getLoadCount(), is(1L));
+    }
+
+    @Test
+    void shouldReloadWhenEntryHasExpired() {
+        setField(resultDefinitionCache, "ttlInSeconds", "0");
+        final UUID resultDefinitionId = randomUUID();
+        final AtomicInteger loads = new AtomicInteger();
+
+        resultDefinitionCache.get(resultDefinitionId, id -> resultDefinition(id, loads));
+        resultDefinitionCache.get(resultDefinitionId, id -> resultDefinition(id, loads));
+
+        assertThat(loads.get(), is(2));
+        assertThat(resultDefinitionCache.getHitCount(), is(0L));
+    }
+
+    @Test
+    void shouldReloadAfterInvalidation() {
+        final UUID resultDefinitionId = randomUUID();
+        final AtomicInteger loads = new AtomicInteger();
+
+        resultDefinitionCache.get(resultDefinitionId, id -> resultDefinition(id, loads));
+        resultDefinitionCache.invalidate(resultDefinitionId);
+        resultDefinitionCache.get(resultDefinitionId, id -> resultDefinition(id, loads));
+
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    void shouldNotGrowBeyondMaxSize() {
+        final AtomicInteger loads = new AtomicInteger();
+
+        resultDefinitionCache.get(randomUUID(), id -> resultDefinition(id, loads));
+        resultDefinitionCache.get(randomUUID(), id -> resultDefinition(id, loads));
+        resultDefinitionCache.get(randomUUID(), id -> resultDefinition(id, loads));
+
+        assertThat(resultDefinitionCache.getSize(), is(2));
+    }
+
+    @Test
+    void shouldNotCacheFailedLoads() {
+        final UUID resultDefinitionId = randomUUID();
+        final AtomicInteger loads = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> resultDefinitionCache.get(resultDefinitionId, id -> {
+            throw new IllegalStateException("referencedata unavailable");
+        }));
+        resultDefinitionCache.get(resultDefinitionId, id -> resultDefinition(id, loads));
+
+        assertThat(loads.get(), is(1));
+        assertThat(resultDefinitionCache.getLoadFailureCount(), is(1L));
+    }
+
+    @Test
+    void shouldShareSingleLoadBetweenConcurrentMisses() throws Exception {
+        final UUID resultDefinitionId = randomUUID();
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            final Future<JsonObject> first = executorService.submit(() -> resultDefinitionCache.get(resultDefinitionId, id -> {
+                loadStarted.countDown();
+                await(releaseLoad);
+                return resultDefinition(id, loads);
+            }));
+            await(loadStarted);
+            final Future<JsonObject> second = executorService.submit(() -> resultDefinitionCache.get(resultDefinitionId, id -> resultDefinition(id, loads)));
+            releaseLoad.countDown();
+
+            assertThat(first.get(), is(second.get()));
+            assertThat(loads.get(), is(1));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldExposeStatisticsAndEvictResultDefinitionOverJmx() throws Exception {
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = new ObjectName(ResultDefinitionCache.OBJECT_NAME);
+        final UUID resultDefinitionId = randomUUID();
+        final AtomicInteger loads = new AtomicInteger();
+        resultDefinitionCache.initialise();
+        try {
+            resultDefinitionCache.get(resultDefinitionId, id -> resultDefinition(id, loads));
+            resultDefinitionCache.get(resultDefinitionId, id -> resultDefinition(id, loads));
+
+            assertThat(mBeanServer.getAttribute(objectName, "HitCount"), is(1L));
+            assertThat(mBeanServer.getAttribute(objectName, "Size"), is(1));
+
+            mBeanServer.invoke(objectName, "invalidate", new Object[]{resultDefinitionId.toString()}, new String[]{String.class.getName()});
+            resultDefinitionCache.get(resultDefinitionId, id -> resultDefinition(id, loads));
+
+            assertThat(loads.get(), is(2));
+        } finally {
+            resultDefinitionCache.destroy();
+        }
+
+        assertThat(mBeanServer.isRegistered(objectName), is(false));
+    }
+
+    private static JsonObject resultDefinition(final UUID id, final AtomicInteger loads) {
+        loads.incrementAndGet();
+        return createObjectBuilder().add("id", id.toString()).build();
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,10 +2,19 @@ package uk.gov.moj.cpp.courtorders.aggregate;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static uk.gov.moj.cpp.courtorders.aggregate.SnapshotFields.readBoolean;
+import static uk.gov.moj.cpp.courtorders.aggregate.SnapshotFields.readBytes;
+import static uk.gov.moj.cpp.courtorders.aggregate.SnapshotFields.readDate;
+import static uk.gov.moj.cpp.courtorders.aggregate.SnapshotFields.readUuid;
+import static uk.gov.moj.cpp.courtorders.aggregate.SnapshotFields.writeBoolean;
+import static uk.gov.moj.cpp.courtorders.aggregate.SnapshotFields.writeBytes;
+import static uk.gov.moj.cpp.courtorders.aggregate.SnapshotFields.writeDate;
+import static uk.gov.moj.cpp.courtorders.aggregate.SnapshotFields.writeUuid;
 import static uk.gov.justice.domain.aggregate.matcher.EventSwitcher.match;
 import static uk.gov.justice.domain.aggregate.matcher.EventSwitcher.otherwiseDoNothing;
 import static uk.gov.justice.domain.aggregate.matcher.EventSwitcher.when;
 
+import uk.gov.justice.core.courts.CourtOrderAmended;
 import uk.gov.justice.core.courts.CourtOrderRemoved;
 import uk.gov.justice.core.courts.CourtOrderRequested;
 import uk.gov.justice.core.courts.CourtOrderValidityUpdated;
@@ -13,18 +22,63 @@ import uk.gov.justice.core.courts.JudicialChildResults;
 import uk.gov.justice.core.courts.JudicialChildResultsUpdated;
 import uk.gov.justice.domain.aggregate.Aggregate;
 import uk.gov.moj.cpp.courtorders.command.CreateCourtOrder;
+import uk.gov.moj.cpp.courtorders.domain.event.CourtOrderEventUpcaster;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Stream;
 
-public class CourtOrderAggregate implements Aggregate {
-    private static final long serialVersionUID = -7950876778016335077L;
+/**
+ * Snapshots of this aggregate are written in a compact binary format rather than with default
+ * serialisation, see {@link #writeExternal(ObjectOutput)}.
+ */
+public class CourtOrderAggregate implements Aggregate, Externalizable {
 
-    private CreateCourtOrder actualCourtOrder;
+    /**
+     * Snapshots of this aggregate are stored serialised. Change this value whenever the state held
+     * by the aggregate changes so that snapshots written by an older version are discarded and the
+     * aggregate is rebuilt from its events.
+     */
+    private static final long serialVersionUID = -2207139414620519512L;
+
+    /**
+     * Version 2 added the digest of the court order last requested. Version 3 split it into the
+     * digests of the fields that can be amended and of the rest of the court order.
+     */
+    static final int SNAPSHOT_FORMAT_VERSION = 3;
+
+    /*
+     * Copy any field added here in copy() as well as in the snapshot format.
+     *
+     * Only what the command methods read is kept from the requested court order. The offences,
+     * cases and judicial child results it carries are passed straight through to the events.
+     */
+    private boolean isRequested;
+    private UUID orderingHearingId;
+    private UUID masterDefendantId;
+    private UUID judicialResultTypeId;
+    private Boolean isUnpaidWorkOrder;
+    private byte[] courtOrderDigest;
+    private byte[] amendableFieldsDigest;
+
+    /*
+     * Digesting a court order is only needed when it is requested again or a snapshot is written,
+     * so replaying events keeps the court order and amendable fields last applied and leaves
+     * digesting them to courtOrderDigest() and amendableFieldsDigest().
+     */
+    private CreateCourtOrder undigestedCourtOrder;
+    private CreateCourtOrder undigestedAmendableFields;
 
     private boolean isRemoved;
     private LocalDate orderEndDate;
@@ -36,9 +90,18 @@ public class CourtOrderAggregate implements Aggregate {
     public Object apply(final Object event) {
         return match(event).with(
                 when(CourtOrderRequested.class).apply(e -> {
-                            actualCourtOrder = e.getCourtOrder();
+                            final CreateCourtOrder courtOrder = e.getCourtOrder();
+                            isRequested = true;
+                            orderingHearingId = courtOrder.getOrderingHearingId();
+                            masterDefendantId = courtOrder.getMasterDefendantId();
+                            judicialResultTypeId = courtOrder.getJudicialResultTypeId();
+                            isUnpaidWorkOrder = courtOrder.getIsUnpaidWork();
+                            courtOrderDigest = null;
+                            undigestedCourtOrder = courtOrder;
+                            amendableFieldsDigest = null;
+                            undigestedAmendableFields = amendableFields(courtOrder.getJudicialChildResults(), courtOrder.getIsUnpaidWork(), courtOrder.getExpiryDate());
                             isRemoved = false;
-                            orderEndDate = actualCourtOrder.getEndDate();
+                            orderEndDate = courtOrder.getEndDate();
                         }
                 ),
                 when(CourtOrderRemoved.class)
@@ -46,52 +109,62 @@ public class CourtOrderAggregate implements Aggregate {
                 when(CourtOrderValidityUpdated.class)
                         .apply(e -> {
                             mapApplicationIdOriginalEndDate.putIfAbsent(e.getApplicationId(), e.getOriginalEndDate());
+                            courtOrderDigest = null;
+                            undigestedCourtOrder = null;
                             newEndDate = e.getNewEndDate();
                             isReset = newEndDate.isEqual(orderEndDate);
                         }),
-                when(JudicialChildResultsUpdated.class).apply(e ->
-                        actualCourtOrder = CreateCourtOrder.createCourtOrder()
-                                .withValuesFrom(actualCourtOrder)
-                                .withJudicialChildResults(e.getJudicialChildResults())
-                                .withExpiryDate(e.getExpiryDate())
-                                .withIsUnpaidWork(e.getIsUnpaidWork())
-                                .build()
-                ),
+                when(CourtOrderAmended.class).apply(this::applyAmendment),
+                when(JudicialChildResultsUpdated.class).apply(e -> applyAmendment(CourtOrderEventUpcaster.upcast(e))),
                 otherwiseDoNothing()
         );
     }
 
-    public Stream<Object> createCourtOrder(final UUID id, final CreateCourtOrder courtOrder, final boolean isUnpaidWorkCommunityOrd, final List<UUID> unpaidWorkJudicialTypeIds) {
+    /**
+     * Requests the court order, replacing the current one if there is one. When a hearing is
+     * re-resulted the court order is often requested again as it was:
+     * <ul>
+     *     <li>if nothing has changed since it was last requested, nothing is emitted</li>
+     *     <li>if only its judicial child results, and with them whether it is unpaid work and its
+     *     expiry date, have changed, a CourtOrderAmended carrying just those is emitted</li>
+     *     <li>otherwise it is removed and requested again in full</li>
+     * </ul>
+     */
+    public Stream<Object> createCourtOrder(final UUID id, final CreateCourtOrder courtOrder, final boolean isUnpaidWorkCommunityOrd, final Collection<UUID> unpaidWorkJudicialTypeIds) {
+        final boolean isUnpaidWork = isUnpaidWorkCommunityOrd && hasUnpaidWorkJudicialResultType(courtOrder.getJudicialChildResults(), unpaidWorkJudicialTypeIds);
+        final LocalDate endDate = nonNull(newEndDate) && !courtOrder.getEndDate().isEqual(newEndDate) ? newEndDate : courtOrder.getEndDate();
+        final CreateCourtOrder requestedCourtOrder = CreateCourtOrder.createCourtOrder()
+                .withValuesFrom(courtOrder)
+                .withEndDate(endDate)
+                .withIsUnpaidWork(isUnpaidWork)
+                .withExpiryDate(calculateExpiryDate(endDate, isUnpaidWork))
+                .build();
+
         final Stream.Builder<Object> builder = Stream.builder();
-        if (nonNull(actualCourtOrder) && !isRemoved) {
+        if (isRequested && !isRemoved) {
+            if (nonNull(courtOrderDigest()) && Arrays.equals(courtOrderDigest(), CourtOrderDigest.of(withoutAmendableFields(requestedCourtOrder)))) {
+                if (nonNull(amendableFieldsDigest()) && Arrays.equals(amendableFieldsDigest(), CourtOrderDigest.of(amendableFields(
+                        requestedCourtOrder.getJudicialChildResults(), requestedCourtOrder.getIsUnpaidWork(), requestedCourtOrder.getExpiryDate())))) {
+                    return Stream.empty();
+                }
+                if (nonNull(requestedCourtOrder.getJudicialChildResults()) && nonNull(requestedCourtOrder.getExpiryDate())) {
+                    return apply(Stream.of(CourtOrderAmended.courtOrderAmended()
+                            .withCourtOrderId(id)
+                            .withJudicialChildResults(requestedCourtOrder.getJudicialChildResults())
+                            .withIsUnpaidWork(Objects.equals(isUnpaidWorkOrder, isUnpaidWork) ? null : isUnpaidWork)
+                            .withExpiryDate(requestedCourtOrder.getExpiryDate())
+                            .build()));
+                }
+            }
             final CourtOrderRemoved courtOrderRemoved = CourtOrderRemoved.courtOrderRemoved()
                     .withCourtOrderId(id)
                     .build();
             builder.add(courtOrderRemoved);
         }
-
-        final boolean isUnpaidWork = isUnpaidWorkCommunityOrd && hasUnpaidWorkJudicialResultType(courtOrder.getJudicialChildResults(), unpaidWorkJudicialTypeIds);
-        if (nonNull(newEndDate) && !courtOrder.getEndDate().isEqual(newEndDate)) {
-            builder.add(CourtOrderRequested.courtOrderRequested()
-                    .withCourtOrderId(id)
-                    .withCourtOrder(CreateCourtOrder.createCourtOrder()
-                            .withValuesFrom(courtOrder)
-                            .withEndDate(newEndDate)
-                            .withIsUnpaidWork(isUnpaidWork)
-                            .withExpiryDate(calculateExpiryDate(newEndDate, isUnpaidWork))
-                            .build())
-
-                    .build());
-        } else {
-            final CourtOrderRequested courtOrderRequested = CourtOrderRequested.courtOrderRequested()
-                    .withCourtOrderId(id)
-                    .withCourtOrder(CreateCourtOrder.createCourtOrder()
-                            .withValuesFrom(courtOrder)
-                            .withIsUnpaidWork(isUnpaidWork)
-                            .withExpiryDate(calculateExpiryDate(courtOrder.getEndDate(), isUnpaidWork))
-                            .build()).build();
-            builder.add(courtOrderRequested);
-        }
+        builder.add(CourtOrderRequested.courtOrderRequested()
+                .withCourtOrderId(id)
+                .withCourtOrder(requestedCourtOrder)
+                .build());
         return apply(builder.build());
     }
 
@@ -120,7 +193,7 @@ public class CourtOrderAggregate implements Aggregate {
                     .withApplicationId(applicationId)
                     .withNewEndDate(newEndDate)
                     .withOriginalEndDate(orderEndDate)
-                    .withExpiryDate(calculateExpiryDate(orderEndDate, actualCourtOrder.getIsUnpaidWork()))
+                    .withExpiryDate(calculateExpiryDate(orderEndDate, isUnpaidWorkOrder))
                     .build();
             builder.add(courtOrderValidityUpdated);
         }
@@ -147,19 +220,19 @@ public class CourtOrderAggregate implements Aggregate {
         return apply(builder.build());
     }
 
-    public Stream<Object> updateJudicialChildResult(final UUID courtOrderId, final List<JudicialChildResults> judicialChildResults, final boolean isUnpaidWorkCommunityOrd, final List<UUID> unpaidWorkJudicialTypeIds) {
+    public Stream<Object> updateJudicialChildResult(final UUID courtOrderId, final List<JudicialChildResults> judicialChildResults, final boolean isUnpaidWorkCommunityOrd, final Collection<UUID> unpaidWorkJudicialTypeIds) {
         final boolean isUnpaidWork = isUnpaidWorkCommunityOrd && hasUnpaidWorkJudicialResultType(judicialChildResults, unpaidWorkJudicialTypeIds);
-        return apply(Stream.of(JudicialChildResultsUpdated.judicialChildResultsUpdated()
+        return apply(Stream.of(CourtOrderAmended.courtOrderAmended()
                 .withCourtOrderId(courtOrderId)
                 .withJudicialChildResults(judicialChildResults)
                 .withIsUnpaidWork(isUnpaidWork)
-                .withExpiryDate(calculateExpiryDate(nonNull(this.newEndDate) ? this.newEndDate : actualCourtOrder.getEndDate(), isUnpaidWork))
+                .withExpiryDate(calculateExpiryDate(nonNull(this.newEndDate) ? this.newEndDate : orderEndDate, isUnpaidWork))
                 .build()));
     }
 
-    public Stream<Object> updateJudicialChildResultV2(final UUID courtOrderId, final List<JudicialChildResults> judicialChildResults, final boolean isUnpaidWorkCommunityOrd, final List<UUID> unpaidWorkJudicialTypeIds, final LocalDate latestEndDate) {
+    public Stream<Object> updateJudicialChildResultV2(final UUID courtOrderId, final List<JudicialChildResults> judicialChildResults, final boolean isUnpaidWorkCommunityOrd, final Collection<UUID> unpaidWorkJudicialTypeIds, final LocalDate latestEndDate) {
         final boolean isUnpaidWork = isUnpaidWorkCommunityOrd && hasUnpaidWorkJudicialResultType(judicialChildResults, unpaidWorkJudicialTypeIds);
-        return apply(Stream.of(JudicialChildResultsUpdated.judicialChildResultsUpdated()
+        return apply(Stream.of(CourtOrderAmended.courtOrderAmended()
                 .withCourtOrderId(courtOrderId)
                 .withJudicialChildResults(judicialChildResults)
                 .withIsUnpaidWork(isUnpaidWork)
@@ -167,10 +240,162 @@ public class CourtOrderAggregate implements Aggregate {
                 .build()));
     }
 
-    public CreateCourtOrder getActualCourtOrder() {
-        return this.actualCourtOrder;
+    /**
+     * Recalculates whether the court order is unpaid work, and with it its expiry date, from its
+     * judicial child results under the current rules. A CourtOrderAmended is emitted only when
+     * either has changed, carrying whether it is unpaid work only when that has changed. Without
+     * judicial child results the court order is left as it is, so the ones it holds are kept.
+     */
+    public Stream<Object> recalculateExpiryDate(final UUID courtOrderId, final List<JudicialChildResults> judicialChildResults, final boolean isUnpaidWorkCommunityOrd, final Collection<UUID> unpaidWorkJudicialTypeIds) {
+        final LocalDate endDate = nonNull(newEndDate) ? newEndDate : orderEndDate;
+        if (!isRequested || isRemoved || isNull(endDate) || judicialChildResults.isEmpty()) {
+            return Stream.empty();
+        }
+        final boolean isUnpaidWork = isUnpaidWorkCommunityOrd && hasUnpaidWorkJudicialResultType(judicialChildResults, unpaidWorkJudicialTypeIds);
+        final LocalDate expiryDate = calculateExpiryDate(endDate, isUnpaidWork);
+        if (nonNull(amendableFieldsDigest()) && Arrays.equals(amendableFieldsDigest(), CourtOrderDigest.of(amendableFields(judicialChildResults, isUnpaidWork, expiryDate)))) {
+            return Stream.empty();
+        }
+        return apply(Stream.of(CourtOrderAmended.courtOrderAmended()
+                .withCourtOrderId(courtOrderId)
+                .withJudicialChildResults(judicialChildResults)
+                .withIsUnpaidWork(Objects.equals(isUnpaidWorkOrder, isUnpaidWork) ? null : isUnpaidWork)
+                .withExpiryDate(expiryDate)
+                .build()));
+    }
+
+    public UUID getOrderingHearingId() {
+        return orderingHearingId;
+    }
+
+    public UUID getMasterDefendantId() {
+        return masterDefendantId;
     }
 
+    public UUID getJudicialResultTypeId() {
+        return judicialResultTypeId;
+    }
+
+    /**
+     * @return an aggregate in the same state, which commands can be decided against without
+     * changing this one. The court order and amendable fields not yet digested are shared rather
+     * than digested, as neither they nor the digests are changed in place.
+     */
+    public CourtOrderAggregate copy() {
+        final CourtOrderAggregate copy = new CourtOrderAggregate();
+        copy.isRequested = isRequested;
+        copy.orderingHearingId = orderingHearingId;
+        copy.masterDefendantId = masterDefendantId;
+        copy.judicialResultTypeId = judicialResultTypeId;
+        copy.isUnpaidWorkOrder = isUnpaidWorkOrder;
+        copy.courtOrderDigest = courtOrderDigest;
+        copy.amendableFieldsDigest = amendableFieldsDigest;
+        copy.undigestedCourtOrder = undigestedCourtOrder;
+        copy.undigestedAmendableFields = undigestedAmendableFields;
+        copy.isRemoved = isRemoved;
+        copy.orderEndDate = orderEndDate;
+        copy.newEndDate = newEndDate;
+        copy.isReset = isReset;
+        copy.mapApplicationIdOriginalEndDate.putAll(mapApplicationIdOriginalEndDate);
+        return copy;
+    }
+
+    /**
+     * Writes the state as a format version followed by each field in declaration order. Add new
+     * fields at the end under a new format version, and keep reading the older versions for as long
+     * as their snapshots may still be stored.
+     */
+    @Override
+    public void writeExternal(final ObjectOutput out) throws IOException {
+        out.writeByte(SNAPSHOT_FORMAT_VERSION);
+        out.writeBoolean(isRequested);
+        writeUuid(out, orderingHearingId);
+        writeUuid(out, masterDefendantId);
+        writeUuid(out, judicialResultTypeId);
+        writeBoolean(out, isUnpaidWorkOrder);
+        writeBytes(out, courtOrderDigest());
+        writeBytes(out, amendableFieldsDigest());
+        out.writeBoolean(isRemoved);
+        writeDate(out, orderEndDate);
+        writeDate(out, newEndDate);
+        writeBoolean(out, isReset);
+        out.writeInt(mapApplicationIdOriginalEndDate.size());
+        for (final Map.Entry<UUID, LocalDate> applicationOriginalEndDate : mapApplicationIdOriginalEndDate.entrySet()) {
+            writeUuid(out, applicationOriginalEndDate.getKey());
+            writeDate(out, applicationOriginalEndDate.getValue());
+        }
+    }
+
+    @Override
+    public void readExternal(final ObjectInput in) throws IOException {
+        final int formatVersion = in.readByte();
+        if (formatVersion < 1 || formatVersion > SNAPSHOT_FORMAT_VERSION) {
+            throw new InvalidClassException(CourtOrderAggregate.class.getName(), "Unknown snapshot format version " + formatVersion);
+        }
+        isRequested = in.readBoolean();
+        orderingHearingId = readUuid(in);
+        masterDefendantId = readUuid(in);
+        judicialResultTypeId = readUuid(in);
+        isUnpaidWorkOrder = readBoolean(in);
+        if (formatVersion == 2) {
+            readBytes(in);
+        }
+        courtOrderDigest = formatVersion >= 3 ? readBytes(in) : null;
+        amendableFieldsDigest = formatVersion >= 3 ? readBytes(in) : null;
+        undigestedCourtOrder = null;
+        undigestedAmendableFields = null;
+        isRemoved = in.readBoolean();
+        orderEndDate = readDate(in);
+        newEndDate = readDate(in);
+        isReset = readBoolean(in);
+        final int applicationCount = in.readInt();
+        for (int i = 0; i < applicationCount; i++) {
+            mapApplicationIdOriginalEndDate.put(readUuid(in), readDate(in));
+        }
+    }
+
+    private void applyAmendment(final CourtOrderAmended courtOrderAmended) {
+        if (nonNull(courtOrderAmended.getIsUnpaidWork())) {
+            isUnpaidWorkOrder = courtOrderAmended.getIsUnpaidWork();
+        }
+        amendableFieldsDigest = null;
+        undigestedAmendableFields = nonNull(courtOrderAmended.getJudicialChildResults()) && nonNull(courtOrderAmended.getExpiryDate())
+                ? amendableFields(courtOrderAmended.getJudicialChildResults(), isUnpaidWorkOrder, courtOrderAmended.getExpiryDate())
+                : null;
+    }
+
+    private byte[] courtOrderDigest() {
+        if (nonNull(undigestedCourtOrder)) {
+            courtOrderDigest = CourtOrderDigest.of(withoutAmendableFields(undigestedCourtOrder));
+            undigestedCourtOrder = null;
+        }
+        return courtOrderDigest;
+    }
+
+    private byte[] amendableFieldsDigest() {
+        if (nonNull(undigestedAmendableFields)) {
+            amendableFieldsDigest = CourtOrderDigest.of(undigestedAmendableFields);
+            undigestedAmendableFields = null;
+        }
+        return amendableFieldsDigest;
+    }
+
+    private static CreateCourtOrder withoutAmendableFields(final CreateCourtOrder courtOrder) {
+        return CreateCourtOrder.createCourtOrder()
+                .withValuesFrom(courtOrder)
+                .withJudicialChildResults(null)
+                .withIsUnpaidWork(null)
+                .withExpiryDate(null)
+                .build();
+    }
+
+    private static CreateCourtOrder amendableFields(final List<JudicialChildResults> judicialChildResults, final Boolean isUnpaidWork, final LocalDate expiryDate) {
+        return CreateCourtOrder.createCourtOrder()
+                .withJudicialChildResults(judicialChildResults)
+                .withIsUnpaidWork(isUnpaidWork)
+                .withExpiryDate(expiryDate)
+                .build();
+    }
 
     private LocalDate calculateExpiryDate(final LocalDate endDate, final Boolean isUnpaidWork) {
         if (nonNull(isUnpaidWork) && isUnpaidWork) {
@@ -179,7 +404,7 @@ public class CourtOrderAggregate implements Aggregate {
         return endDate;
     }
 
-    private boolean hasUnpaidWorkJudicialResultType(final List<JudicialChildResults> judicialChildResults, final List<UUID> unpaidWorkJudicialTypeIds) {
+    private boolean hasUnpaidWorkJudicialResultType(final List<JudicialChildResults> judicialChildResults, final Collection<UUID> unpaidWorkJudicialTypeIds) {
         return nonNull(judicialChildResults) && judicialChildResults.stream()
                 .anyMatch(judicialChildResult ->
                         unpaidWorkJudicialTypeIds.contains(judicialChildResult.getJudicialResultTypeId()));
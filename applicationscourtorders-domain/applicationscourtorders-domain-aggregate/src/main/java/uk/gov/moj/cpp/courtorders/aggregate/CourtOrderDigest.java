@@ -0,0 +1,20 @@
+package uk.gov.moj.cpp.courtorders.aggregate;
+
+import uk.gov.moj.cpp.courtorders.command.CreateCourtOrder;
+import uk.gov.moj.cpp.courtorders.common.digest.Sha256;
+
+/**
+ * SHA-256 digest of a court order, so the aggregate can tell whether a court order is the same as
+ * the one last requested without holding on to it. Two court orders with the same values always
+ * have the same digest, while the rare pair with equal values but differently built collections
+ * may not, in which case the court order is simply requested again.
+ */
+final class CourtOrderDigest {
+
+    private CourtOrderDigest() {
+    }
+
+    static byte[] of(final CreateCourtOrder courtOrder) {
+        return Sha256.ofSerialized(courtOrder);
+    }
+}
@@ -0,0 +1,114 @@
+package uk.gov.moj.cpp.courtorders.aggregate;
+
+import static java.lang.Math.min;
+import static java.util.Objects.nonNull;
+import static uk.gov.justice.domain.aggregate.matcher.EventSwitcher.match;
+import static uk.gov.justice.domain.aggregate.matcher.EventSwitcher.otherwiseDoNothing;
+import static uk.gov.justice.domain.aggregate.matcher.EventSwitcher.when;
+
+import uk.gov.justice.core.courts.PatchJobChunkCompleted;
+import uk.gov.justice.core.courts.PatchJobCompleted;
+import uk.gov.justice.core.courts.PatchJobStarted;
+import uk.gov.justice.domain.aggregate.Aggregate;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Tracks a patch command that is processed as a background job, one chunk of court orders at a
+ * time. Each completed chunk is recorded as an event, so the job can be resumed from the first
+ * chunk that has not been completed.
+ */
+public class PatchJobAggregate implements Aggregate {
+
+    private static final long serialVersionUID = 4352108772961524130L;
+
+    private UUID jobId;
+    private String commandName;
+    private final List<UUID> courtOrderIds = new ArrayList<>();
+    private int chunkSize;
+    private int nextChunkIndex;
+    private boolean completed;
+
+    @Override
+    public Object apply(final Object event) {
+        return match(event).with(
+                when(PatchJobStarted.class).apply(e -> {
+                    jobId = e.getJobId();
+                    commandName = e.getCommandName();
+                    courtOrderIds.addAll(e.getCourtOrderIds());
+                    chunkSize = e.getChunkSize();
+                }),
+                when(PatchJobChunkCompleted.class)
+                        .apply(e -> nextChunkIndex = e.getChunkIndex() + 1),
+                when(PatchJobCompleted.class)
+                        .apply(e -> completed = true),
+                otherwiseDoNothing()
+        );
+    }
+
+    public Stream<Object> startJob(final UUID jobId, final String commandName, final List<UUID> courtOrderIds, final int chunkSize, final ZonedDateTime startedAt) {
+        if (isStarted()) {
+            return Stream.empty();
+        }
+        return apply(Stream.of(PatchJobStarted.patchJobStarted()
+                .withJobId(jobId)
+                .withCommandName(commandName)
+                .withCourtOrderIds(courtOrderIds.stream().distinct().toList())
+                .withChunkSize(chunkSize)
+                .withStartedAt(startedAt)
+                .build()));
+    }
+
+    /**
+     * Records that the given chunk has been processed. Nothing is recorded unless the chunk is the
+     * one returned by {@link #nextChunk()}, so a chunk is never checkpointed twice.
+     */
+    public Stream<Object> completeChunk(final PatchJobChunk chunk, final ZonedDateTime completedAt) {
+        if (completed || chunk.chunkIndex() != nextChunkIndex) {
+            return Stream.empty();
+        }
+        final Stream.Builder<Object> builder = Stream.builder();
+        builder.add(PatchJobChunkCompleted.patchJobChunkCompleted()
+                .withJobId(jobId)
+                .withChunkIndex(chunk.chunkIndex())
+                .withProcessedCount(chunk.courtOrderIds().size())
+                .withCompletedAt(completedAt)
+                .build());
+        if (chunk.chunkIndex() + 1 >= getChunkCount()) {
+            builder.add(PatchJobCompleted.patchJobCompleted()
+                    .withJobId(jobId)
+                    .withCompletedAt(completedAt)
+                    .build());
+        }
+        return apply(builder.build());
+    }
+
+    public Optional<PatchJobChunk> nextChunk() {
+        if (!isStarted() || completed || nextChunkIndex >= getChunkCount()) {
+            return Optional.empty();
+        }
+        final int from = nextChunkIndex * chunkSize;
+        return Optional.of(new PatchJobChunk(nextChunkIndex, courtOrderIds.subList(from, min(from + chunkSize, courtOrderIds.size()))));
+    }
+
+    public boolean isStarted() {
+        return nonNull(jobId);
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public String getCommandName() {
+        return commandName;
+    }
+
+    public int getChunkCount() {
+        return isStarted() ? (courtOrderIds.size() + chunkSize - 1) / chunkSize : 0;
+    }
+}
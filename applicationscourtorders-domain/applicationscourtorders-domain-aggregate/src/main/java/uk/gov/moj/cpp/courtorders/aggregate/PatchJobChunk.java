@@ -0,0 +1,11 @@
+package uk.gov.moj.cpp.courtorders.aggregate;
+
+import java.util.List;
+import java.util.UUID;
+
+public record PatchJobChunk(int chunkIndex, List<UUID> courtOrderIds) {
+
+    public PatchJobChunk {
+        courtOrderIds = List.copyOf(courtOrderIds);
+    }
+}
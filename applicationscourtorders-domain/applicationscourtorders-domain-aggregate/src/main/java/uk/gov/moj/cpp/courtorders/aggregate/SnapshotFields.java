@@ -0,0 +1,90 @@
+package uk.gov.moj.cpp.courtorders.aggregate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Reads and writes the nullable values held by aggregates in their compact snapshot format. Every
+ * value is preceded by a single byte saying whether it is present.
+ */
+final class SnapshotFields {
+
+    private static final byte ABSENT = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte PRESENT = 1;
+
+    private SnapshotFields() {
+    }
+
+    static void writeBoolean(final DataOutput out, final Boolean value) throws IOException {
+        if (value == null) {
+            out.writeByte(ABSENT);
+        } else {
+            out.writeByte(value ? TRUE : FALSE);
+        }
+    }
+
+    static Boolean readBoolean(final DataInput in) throws IOException {
+        final byte value = in.readByte();
+        if (value == ABSENT) {
+            return null;
+        }
+        return value == TRUE;
+    }
+
+    static void writeBytes(final DataOutput out, final byte[] value) throws IOException {
+        if (value == null) {
+            out.writeByte(ABSENT);
+            return;
+        }
+        out.writeByte(PRESENT);
+        out.writeShort(value.length);
+        out.write(value);
+    }
+
+    static byte[] readBytes(final DataInput in) throws IOException {
+        if (in.readByte() == ABSENT) {
+            return null;
+        }
+        final byte[] value = new byte[in.readUnsignedShort()];
+        in.readFully(value);
+        return value;
+    }
+
+    static void writeUuid(final DataOutput out, final UUID value) throws IOException {
+        if (value == null) {
+            out.writeByte(ABSENT);
+            return;
+        }
+        out.writeByte(PRESENT);
+        out.writeLong(value.getMostSignificantBits());
+        out.writeLong(value.getLeastSignificantBits());
+    }
+
+    static UUID readUuid(final DataInput in) throws IOException {
+        if (in.readByte() == ABSENT) {
+            return null;
+        }
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    static void writeDate(final DataOutput out, final LocalDate value) throws IOException {
+        if (value == null) {
+            out.writeByte(ABSENT);
+            return;
+        }
+        out.writeByte(PRESENT);
+        out.writeInt((int) value.toEpochDay());
+    }
+
+    static LocalDate readDate(final DataInput in) throws IOException {
+        if (in.readByte() == ABSENT) {
+            return null;
+        }
+        return LocalDate.ofEpochDay(in.readInt());
+    }
+}
@@ -0,0 +1,150 @@
+package uk.gov.moj.cpp.courtorders.aggregate;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import uk.gov.justice.core.courts.CourtOrderRequested;
+import uk.gov.justice.core.courts.CourtOrderValidityUpdated;
+import uk.gov.justice.core.courts.JudicialChildResults;
+import uk.gov.justice.core.courts.JudicialChildResultsUpdated;
+import uk.gov.moj.cpp.courtorders.command.CreateCourtOrder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares rebuilding a CourtOrderAggregate by replaying its whole stream against restoring it from
+ * the latest snapshot and replaying only the events written after it. Events are held in memory, so
+ * the replay figures exclude the event store read and JSON conversion a real rehydration also pays
+ * for each event.
+ *
+ * Run with the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CourtOrderAggregateRehydrationBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    private int streamLength;
+
+    @Param({"25"})
+    private int snapshotThreshold;
+
+    private List<Object> events;
+    private byte[] snapshot;
+    private int snapshotVersion;
+
+    @Setup
+    public void setUp() throws IOException {
+        events = courtOrderStream(streamLength);
+        snapshotVersion = streamLength - streamLength % snapshotThreshold;
+
+        final CourtOrderAggregate aggregate = new CourtOrderAggregate();
+        events.subList(0, snapshotVersion).forEach(aggregate::apply);
+        snapshot = serialize(aggregate);
+    }
+
+    @Benchmark
+    public CourtOrderAggregate replayFullStream() {
+        final CourtOrderAggregate aggregate = new CourtOrderAggregate();
+        events.forEach(aggregate::apply);
+        return aggregate;
+    }
+
+    @Benchmark
+    public CourtOrderAggregate restoreFromSnapshot() throws IOException, ClassNotFoundException {
+        final CourtOrderAggregate aggregate = deserialize(snapshot);
+        events.subList(snapshotVersion, streamLength).forEach(aggregate::apply);
+        return aggregate;
+    }
+
+    static List<Object> courtOrderStream(final int streamLength) {
+        final UUID courtOrderId = UUID.randomUUID();
+        final UUID applicationId = UUID.randomUUID();
+        final LocalDate endDate = LocalDate.now().plusYears(1);
+        final List<Object> events = new ArrayList<>(streamLength);
+        events.add(CourtOrderRequested.courtOrderRequested()
+                .withCourtOrderId(courtOrderId)
+                .withCourtOrder(CreateCourtOrder.createCourtOrder()
+                        .withId(courtOrderId)
+                        .withLabel("Community order")
+                        .withOrderDate(LocalDate.now())
+                        .withStartDate(LocalDate.now())
+                        .withEndDate(endDate)
+                        .withMasterDefendantId(UUID.randomUUID())
+                        .withOrderingHearingId(UUID.randomUUID())
+                        .withJudicialResultTypeId(UUID.randomUUID())
+                        .withIsUnpaidWork(false)
+                        .build())
+                .build());
+        for (int i = 1; i < streamLength; i++) {
+            if (i % 2 == 0) {
+                events.add(JudicialChildResultsUpdated.judicialChildResultsUpdated()
+                        .withCourtOrderId(courtOrderId)
+                        .withJudicialChildResults(singletonList(JudicialChildResults.judicialChildResults()
+                                .withJudicialResultId(UUID.randomUUID())
+                                .withJudicialResultTypeId(UUID.randomUUID())
+                                .withLabel("Unpaid work")
+                                .build()))
+                        .withIsUnpaidWork(true)
+                        .withExpiryDate(endDate.plusYears(1))
+                        .build());
+            } else {
+                events.add(CourtOrderValidityUpdated.courtOrderValidityUpdated()
+                        .withCourtOrderId(courtOrderId)
+                        .withApplicationId(applicationId)
+                        .withOriginalEndDate(endDate)
+                        .withNewEndDate(endDate.plusDays(i))
+                        .build());
+            }
+        }
+        return events;
+    }
+
+    private static byte[] serialize(final CourtOrderAggregate aggregate) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes)) {
+            objectOutputStream.writeObject(aggregate);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static CourtOrderAggregate deserialize(final byte[] snapshot) throws IOException, ClassNotFoundException {
+        try (final ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(snapshot))) {
+            return (CourtOrderAggregate) objectInputStream.readObject();
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CourtOrderAggregateRehydrationBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
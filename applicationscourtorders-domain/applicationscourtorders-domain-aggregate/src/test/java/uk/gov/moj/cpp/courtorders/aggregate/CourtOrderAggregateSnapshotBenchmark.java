@@ -0,0 +1,159 @@
+package uk.gov.moj.cpp.courtorders.aggregate;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static uk.gov.moj.cpp.courtorders.aggregate.CourtOrderAggregateRehydrationBenchmark.courtOrderStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares writing and restoring a CourtOrderAggregate snapshot in its compact format against
+ * default serialisation of the same state. The number of applications controls how many entries
+ * the original end date map holds. The write benchmarks report the size of the snapshot they
+ * wrote as the bytes counter.
+ *
+ * Run with the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CourtOrderAggregateSnapshotBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int applications;
+
+    private CourtOrderAggregate aggregate;
+    private DefaultSerialisedCourtOrderState defaultSerialisedState;
+    private byte[] compactSnapshot;
+    private byte[] defaultSnapshot;
+
+    @Setup
+    public void setUp() throws Exception {
+        aggregate = new CourtOrderAggregate();
+        courtOrderStream(applications * 2).forEach(aggregate::apply);
+        for (int i = 0; i < applications; i++) {
+            aggregate.updateCourtOrder(UUID.randomUUID(), UUID.randomUUID(), LocalDate.now().plusDays(i)).count();
+        }
+        compactSnapshot = serialize(aggregate);
+        defaultSerialisedState = DefaultSerialisedCourtOrderState.from(aggregate);
+        defaultSnapshot = serialize(defaultSerialisedState);
+    }
+
+    @Benchmark
+    public byte[] writeCompactSnapshot(final SnapshotSize snapshotSize) throws IOException {
+        return snapshotSize.of(serialize(aggregate));
+    }
+
+    @Benchmark
+    public byte[] writeDefaultSerialisation(final SnapshotSize snapshotSize) throws IOException {
+        return snapshotSize.of(serialize(defaultSerialisedState));
+    }
+
+    @Benchmark
+    public Object restoreCompactSnapshot() throws IOException, ClassNotFoundException {
+        return deserialize(compactSnapshot);
+    }
+
+    @Benchmark
+    public Object restoreDefaultSerialisation() throws IOException, ClassNotFoundException {
+        return deserialize(defaultSnapshot);
+    }
+
+    private static byte[] serialize(final Object object) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes)) {
+            objectOutputStream.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(final byte[] snapshot) throws IOException, ClassNotFoundException {
+        try (final ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(snapshot))) {
+            return objectInputStream.readObject();
+        }
+    }
+
+    /**
+     * The size of the last snapshot written, reported by JMH next to the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SnapshotSize {
+
+        public long bytes;
+
+        byte[] of(final byte[] snapshot) {
+            bytes = snapshot.length;
+            return snapshot;
+        }
+    }
+
+    /**
+     * The state CourtOrderAggregate holds, written with default serialisation.
+     */
+    @SuppressWarnings("unused")
+    static class DefaultSerialisedCourtOrderState implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private boolean isRequested;
+        private UUID orderingHearingId;
+        private UUID masterDefendantId;
+        private UUID judicialResultTypeId;
+        private Boolean isUnpaidWorkOrder;
+        private byte[] courtOrderDigest;
+        private byte[] amendableFieldsDigest;
+        private boolean isRemoved;
+        private LocalDate orderEndDate;
+        private LocalDate newEndDate;
+        private Boolean isReset;
+        private Map<UUID, LocalDate> mapApplicationIdOriginalEndDate = new HashMap<>();
+
+        static DefaultSerialisedCourtOrderState from(final CourtOrderAggregate aggregate) throws ReflectiveOperationException {
+            final DefaultSerialisedCourtOrderState state = new DefaultSerialisedCourtOrderState();
+            for (final Field field : DefaultSerialisedCourtOrderState.class.getDeclaredFields()) {
+                if (!"serialVersionUID".equals(field.getName())) {
+                    final Field aggregateField = CourtOrderAggregate.class.getDeclaredField(field.getName());
+                    aggregateField.setAccessible(true);
+                    field.set(state, aggregateField.get(aggregate));
+                }
+            }
+            return state;
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CourtOrderAggregateSnapshotBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,230 @@
+package uk.gov.moj.cpp.courtorders.aggregate;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import uk.gov.justice.core.courts.CourtOrderRequested;
+import uk.gov.justice.core.courts.CourtOrderValidityUpdated;
+import uk.gov.justice.core.courts.JudicialChildResults;
+import uk.gov.justice.core.courts.JudicialChildResultsUpdated;
+import uk.gov.moj.cpp.courtorders.command.CreateCourtOrder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class CourtOrderAggregateSnapshotTest {
+
+    private static final UUID UNPAID_WORK_RESULT_TYPE_ID = UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d");
+
+    private final UUID courtOrderId = UUID.randomUUID();
+    private final UUID applicationId = UUID.randomUUID();
+    private final LocalDate endDate = LocalDate.now().plusMonths(6);
+    private final LocalDate newEndDate = endDate.plusMonths(3);
+
+    @Test
+    void shouldMakeSameDecisionsWhenRestoredFromSnapshot() throws Exception {
+        final CourtOrderAggregate replayed = replay();
+        final CourtOrderAggregate restored = deserialize(serialize(replay()));
+
+        assertThat(restored.getOrderingHearingId(), is(replayed.getOrderingHearingId()));
+        assertThat(restored.getMasterDefendantId(), is(replayed.getMasterDefendantId()));
+        assertThat(restored.getJudicialResultTypeId(), is(replayed.getJudicialResultTypeId()));
+        assertThat(restored.updateCourtOrder(courtOrderId, applicationId, newEndDate).count(), is(0L));
+        assertThat(restored.resetCourtOrder(courtOrderId, applicationId).toList(), is(replayed.resetCourtOrder(courtOrderId, applicationId).toList()));
+        assertThat(restored.removeCourtOrder(courtOrderId).toList(), is(replayed.removeCourtOrder(courtOrderId).toList()));
+    }
+
+    @Test
+    void shouldWriteSameSnapshotAfterRoundTrip() throws Exception {
+        final byte[] snapshot = serialize(replay());
+
+        assertThat(serialize(deserialize(snapshot)), is(snapshot));
+    }
+
+    @Test
+    void shouldRoundTripAggregateWithNoEventsApplied() throws Exception {
+        final CourtOrderAggregate restored = deserialize(serialize(new CourtOrderAggregate()));
+
+        assertThat(restored.getMasterDefendantId(), is(nullValue()));
+        assertThat(restored.resetCourtOrder(courtOrderId, applicationId).count(), is(0L));
+        assertThat(serialize(restored), is(serialize(new CourtOrderAggregate())));
+    }
+
+    @Test
+    void shouldRejectSnapshotWithUnknownFormatVersion() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes)) {
+            objectOutputStream.writeByte(CourtOrderAggregate.SNAPSHOT_FORMAT_VERSION + 1);
+        }
+
+        try (final ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertThrows(InvalidClassException.class, () -> new CourtOrderAggregate().readExternal(objectInputStream));
+        }
+    }
+
+    @Test
+    void shouldNotGrowSnapshotWithJudicialChildResults() throws Exception {
+        final CourtOrderAggregate aggregate = replay();
+        final int snapshotSize = serialize(aggregate).length;
+
+        aggregate.apply(JudicialChildResultsUpdated.judicialChildResultsUpdated()
+                .withCourtOrderId(courtOrderId)
+                .withJudicialChildResults(IntStream.range(0, 100)
+                        .mapToObj(i -> JudicialChildResults.judicialChildResults()
+                                .withJudicialResultId(UUID.randomUUID())
+                                .withJudicialResultTypeId(UNPAID_WORK_RESULT_TYPE_ID)
+                                .withLabel("Unpaid work")
+                                .build())
+                        .toList())
+                .withIsUnpaidWork(true)
+                .withExpiryDate(endDate.plusYears(1))
+                .build());
+
+        assertThat(serialize(aggregate).length, is(snapshotSize));
+    }
+
+    @Test
+    void shouldStillSkipUnchangedCourtOrderWhenRestoredFromSnapshot() throws Exception {
+        final CourtOrderAggregate aggregate = new CourtOrderAggregate();
+        final CreateCourtOrder createCourtOrder = CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(endDate)
+                .withMasterDefendantId(UUID.randomUUID())
+                .build();
+        aggregate.createCourtOrder(courtOrderId, createCourtOrder, false, List.of(UNPAID_WORK_RESULT_TYPE_ID));
+
+        final CourtOrderAggregate restored = deserialize(serialize(aggregate));
+
+        assertThat(restored.createCourtOrder(courtOrderId, createCourtOrder, false, List.of(UNPAID_WORK_RESULT_TYPE_ID)).count(), is(0L));
+    }
+
+    @Test
+    void shouldRequestCourtOrderAgainWhenRestoredFromVersionOneSnapshot() throws Exception {
+        assertCourtOrderRequestedAgainWhenRestoredFrom(versionedSnapshot(1));
+    }
+
+    @Test
+    void shouldRequestCourtOrderAgainWhenRestoredFromVersionTwoSnapshot() throws Exception {
+        assertCourtOrderRequestedAgainWhenRestoredFrom(versionedSnapshot(2));
+    }
+
+    @Test
+    void shouldRejectSnapshotWrittenWithDifferentSerialVersionUid() throws Exception {
+        final byte[] snapshot = serialize(replay());
+        final long serialVersionUID = ObjectStreamClass.lookup(CourtOrderAggregate.class).getSerialVersionUID();
+
+        final byte[] incompatibleSnapshot = replaceSerialVersionUid(snapshot, serialVersionUID, serialVersionUID + 1);
+
+        assertThrows(InvalidClassException.class, () -> deserialize(incompatibleSnapshot));
+    }
+
+    private void assertCourtOrderRequestedAgainWhenRestoredFrom(final byte[] snapshot) throws Exception {
+        final CourtOrderAggregate restored = new CourtOrderAggregate();
+        try (final ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(snapshot))) {
+            restored.readExternal(objectInputStream);
+        }
+
+        final List<Object> events = restored.createCourtOrder(courtOrderId, CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(endDate)
+                .build(), false, List.of(UNPAID_WORK_RESULT_TYPE_ID)).toList();
+
+        assertThat(events.size(), is(2));
+    }
+
+    private byte[] versionedSnapshot(final int formatVersion) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes)) {
+            objectOutputStream.writeByte(formatVersion);
+            objectOutputStream.writeBoolean(true);
+            SnapshotFields.writeUuid(objectOutputStream, null);
+            SnapshotFields.writeUuid(objectOutputStream, null);
+            SnapshotFields.writeUuid(objectOutputStream, null);
+            SnapshotFields.writeBoolean(objectOutputStream, false);
+            if (formatVersion == 2) {
+                SnapshotFields.writeBytes(objectOutputStream, new byte[32]);
+            }
+            objectOutputStream.writeBoolean(false);
+            SnapshotFields.writeDate(objectOutputStream, endDate);
+            SnapshotFields.writeDate(objectOutputStream, null);
+            SnapshotFields.writeBoolean(objectOutputStream, null);
+            objectOutputStream.writeInt(0);
+        }
+        return bytes.toByteArray();
+    }
+
+    private CourtOrderAggregate replay() {
+        final CourtOrderAggregate aggregate = new CourtOrderAggregate();
+        aggregate.apply(CourtOrderRequested.courtOrderRequested()
+                .withCourtOrderId(courtOrderId)
+                .withCourtOrder(CreateCourtOrder.createCourtOrder()
+                        .withId(courtOrderId)
+                        .withOrderDate(LocalDate.now())
+                        .withEndDate(endDate)
+                        .withMasterDefendantId(UUID.randomUUID())
+                        .withIsUnpaidWork(false)
+                        .build())
+                .build());
+        aggregate.apply(JudicialChildResultsUpdated.judicialChildResultsUpdated()
+                .withCourtOrderId(courtOrderId)
+                .withJudicialChildResults(singletonList(JudicialChildResults.judicialChildResults()
+                        .withJudicialResultId(UUID.randomUUID())
+                        .withJudicialResultTypeId(UNPAID_WORK_RESULT_TYPE_ID)
+                        .withLabel("Unpaid work")
+                        .build()))
+                .withIsUnpaidWork(true)
+                .withExpiryDate(endDate.plusYears(1))
+                .build());
+        aggregate.apply(CourtOrderValidityUpdated.courtOrderValidityUpdated()
+                .withCourtOrderId(courtOrderId)
+                .withApplicationId(applicationId)
+                .withOriginalEndDate(endDate)
+                .withNewEndDate(newEndDate)
+                .build());
+        return aggregate;
+    }
+
+    private static byte[] serialize(final CourtOrderAggregate aggregate) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes)) {
+            objectOutputStream.writeObject(aggregate);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static CourtOrderAggregate deserialize(final byte[] snapshot) throws IOException, ClassNotFoundException {
+        try (final ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(snapshot))) {
+            return (CourtOrderAggregate) objectInputStream.readObject();
+        }
+    }
+
+    private static byte[] replaceSerialVersionUid(final byte[] snapshot, final long from, final long to) {
+        final byte[] fromBytes = ByteBuffer.allocate(Long.BYTES).putLong(from).array();
+        final byte[] toBytes = ByteBuffer.allocate(Long.BYTES).putLong(to).array();
+        final byte[] result = snapshot.clone();
+        for (int i = 0; i <= result.length - Long.BYTES; i++) {
+            if (ByteBuffer.wrap(result, i, Long.BYTES).equals(ByteBuffer.wrap(fromBytes))) {
+                System.arraycopy(toBytes, 0, result, i, Long.BYTES);
+                return result;
+            }
+        }
+        throw new IllegalStateException("serialVersionUID not found in snapshot");
+    }
+}
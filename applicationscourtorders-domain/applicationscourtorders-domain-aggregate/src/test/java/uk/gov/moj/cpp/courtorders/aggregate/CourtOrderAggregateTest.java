@@ -2,6 +2,7 @@ package uk.gov.moj.cpp.courtorders.aggregate;
 
 import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 
+import uk.gov.justice.core.courts.CourtOrderAmended;
 import uk.gov.justice.core.courts.CourtOrderRemoved;
 import uk.gov.justice.core.courts.CourtOrderRequested;
 import uk.gov.justice.core.courts.CourtOrderValidityUpdated;
@@ -119,16 +121,160 @@ public class CourtOrderAggregateTest {
                 .withMasterDefendantId(UUID.randomUUID())
                 .build();
         aggregate.createCourtOrder(courtOrderId, createCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")));
-        final List<Object> eventStream = aggregate.createCourtOrder(courtOrderId, createCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).toList();;
+        final CreateCourtOrder changedCourtOrder = CreateCourtOrder.createCourtOrder()
+                .withValuesFrom(createCourtOrder)
+                .withOrderDate(LocalDate.now().minusDays(1))
+                .build();
+        final List<Object> eventStream = aggregate.createCourtOrder(courtOrderId, changedCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).toList();;
+        assertThat(eventStream.size(), is(2));
+        assertThat(eventStream.get(0).getClass(), is(CoreMatchers.equalTo(CourtOrderRemoved.class)));
+        assertThat(eventStream.get(1).getClass(), is(CoreMatchers.equalTo(CourtOrderRequested.class)));
+    }
+
+    @Test
+    void shouldNotRaiseEventsWhenUnchangedCourtOrderIsRequestedAgain() {
+        final CreateCourtOrder createCourtOrder = CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(originalOrderEndDate)
+                .withMasterDefendantId(UUID.randomUUID())
+                .withJudicialChildResults(singletonList(JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")).build()))
+                .build();
+        aggregate.createCourtOrder(courtOrderId, createCourtOrder, true, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")));
+
+        final List<Object> eventStream = aggregate.createCourtOrder(courtOrderId, createCourtOrder, true, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).toList();
+
+        assertThat(eventStream.size(), is(0));
+    }
+
+    @Test
+    void shouldAmendCourtOrderWhenUnpaidWorkClassificationChanges() {
+        final CreateCourtOrder createCourtOrder = CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(originalOrderEndDate)
+                .withMasterDefendantId(UUID.randomUUID())
+                .withJudicialChildResults(singletonList(JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")).build()))
+                .build();
+        aggregate.createCourtOrder(courtOrderId, createCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")));
+
+        final List<Object> eventStream = aggregate.createCourtOrder(courtOrderId, createCourtOrder, true, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).toList();
+
+        assertThat(eventStream.size(), is(1));
+        final CourtOrderAmended courtOrderAmended = (CourtOrderAmended) eventStream.get(0);
+        assertThat(courtOrderAmended.getIsUnpaidWork(), is(true));
+        assertThat(courtOrderAmended.getExpiryDate(), is(originalOrderEndDate.plusYears(1)));
+        assertThat(courtOrderAmended.getJudicialChildResults(), is(createCourtOrder.getJudicialChildResults()));
+    }
+
+    @Test
+    void shouldAmendOnlyJudicialChildResultsWhenTheyAreAllThatChanged() {
+        final CreateCourtOrder createCourtOrder = CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(originalOrderEndDate)
+                .withMasterDefendantId(UUID.randomUUID())
+                .withJudicialChildResults(singletonList(JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.randomUUID()).withLabel("Curfew").build()))
+                .build();
+        aggregate.createCourtOrder(courtOrderId, createCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")));
+        final CreateCourtOrder rerequestedCourtOrder = CreateCourtOrder.createCourtOrder()
+                .withValuesFrom(createCourtOrder)
+                .withJudicialChildResults(singletonList(JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.randomUUID()).withLabel("Exclusion").build()))
+                .build();
+
+        final List<Object> eventStream = aggregate.createCourtOrder(courtOrderId, rerequestedCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).toList();
+
+        assertThat(eventStream.size(), is(1));
+        final CourtOrderAmended courtOrderAmended = (CourtOrderAmended) eventStream.get(0);
+        assertThat(courtOrderAmended.getJudicialChildResults(), is(rerequestedCourtOrder.getJudicialChildResults()));
+        assertThat(courtOrderAmended.getIsUnpaidWork(), is(nullValue()));
+        assertThat(courtOrderAmended.getExpiryDate(), is(originalOrderEndDate));
+        assertThat(aggregate.createCourtOrder(courtOrderId, rerequestedCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).count(), is(0L));
+    }
+
+    @Test
+    void shouldReplaceCourtOrderWhenFieldsThatCannotBeAmendedChange() {
+        final CreateCourtOrder createCourtOrder = CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(originalOrderEndDate)
+                .withMasterDefendantId(UUID.randomUUID())
+                .withJudicialChildResults(singletonList(JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.randomUUID()).withLabel("Curfew").build()))
+                .build();
+        aggregate.createCourtOrder(courtOrderId, createCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")));
+        final CreateCourtOrder rerequestedCourtOrder = CreateCourtOrder.createCourtOrder()
+                .withValuesFrom(createCourtOrder)
+                .withEndDate(originalOrderEndDate.plusMonths(1))
+                .withJudicialChildResults(singletonList(JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.randomUUID()).withLabel("Exclusion").build()))
+                .build();
+
+        final List<Object> eventStream = aggregate.createCourtOrder(courtOrderId, rerequestedCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).toList();
+
         assertThat(eventStream.size(), is(2));
         assertThat(eventStream.get(0).getClass(), is(CoreMatchers.equalTo(CourtOrderRemoved.class)));
         assertThat(eventStream.get(1).getClass(), is(CoreMatchers.equalTo(CourtOrderRequested.class)));
     }
 
+    @Test
+    void shouldReplayJudicialChildResultsUpdatedWrittenBeforeCourtOrderAmended() {
+        applyCourtOrderRequested(CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(originalOrderEndDate)
+                .withIsUnpaidWork(false)
+                .build());
+        aggregate.apply(JudicialChildResultsUpdated.judicialChildResultsUpdated()
+                .withCourtOrderId(courtOrderId)
+                .withJudicialChildResults(singletonList(JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")).build()))
+                .withIsUnpaidWork(true)
+                .withExpiryDate(originalOrderEndDate.plusYears(1))
+                .build());
+
+        final CourtOrderValidityUpdated courtOrderValidityUpdated = aggregate.updateCourtOrder(courtOrderId, UUID.randomUUID(), originalOrderEndDate.plusMonths(1))
+                .map(CourtOrderValidityUpdated.class::cast)
+                .findFirst()
+                .orElseThrow();
+
+        assertThat(courtOrderValidityUpdated.getExpiryDate(), is(originalOrderEndDate.plusYears(1)));
+    }
+
+    @Test
+    void shouldRequestUnchangedCourtOrderAgainAfterItWasRemoved() {
+        final CreateCourtOrder createCourtOrder = CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withMasterDefendantId(UUID.randomUUID())
+                .build();
+        aggregate.createCourtOrder(courtOrderId, createCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")));
+        aggregate.removeCourtOrder(courtOrderId);
+
+        final List<Object> eventStream = aggregate.createCourtOrder(courtOrderId, createCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).toList();
+
+        assertThat(eventStream.size(), is(1));
+        assertThat(eventStream.get(0).getClass(), is(CoreMatchers.equalTo(CourtOrderRequested.class)));
+    }
+
+    @Test
+    void shouldRequestUnchangedCourtOrderAgainAfterJudicialChildResultsWereUpdated() {
+        final CreateCourtOrder createCourtOrder = CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(originalOrderEndDate)
+                .withMasterDefendantId(UUID.randomUUID())
+                .build();
+        aggregate.createCourtOrder(courtOrderId, createCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")));
+        aggregate.updateJudicialChildResult(courtOrderId, singletonList(
+                JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")).build()), true, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")));
+
+        final List<Object> eventStream = aggregate.createCourtOrder(courtOrderId, createCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).toList();
+
+        assertThat(eventStream.size(), is(2));
+    }
+
     @Test
     public void updateCourtRegisterRequested() throws Exception {
+        applyCourtOrderRequested(CreateCourtOrder.createCourtOrder().build());
         setField(aggregate, "orderEndDate", originalOrderEndDate);
-        setField(aggregate, "actualCourtOrder", CreateCourtOrder.createCourtOrder().build());
         final List<Object> eventStream = aggregate.updateCourtOrder(courtOrderId, applicationId, newEndDate).toList();
         assertThat(eventStream.size(), is(1));
         assertThat(eventStream.get(0).getClass(), is(CoreMatchers.equalTo(CourtOrderValidityUpdated.class)));
@@ -169,7 +315,7 @@ public class CourtOrderAggregateTest {
                 .withEndDate(originalOrderEndDate)
                 .withMasterDefendantId(UUID.randomUUID())
                 .build();
-        setField(aggregate, "actualCourtOrder", createCourtOrder);
+        applyCourtOrderRequested(createCourtOrder);
         setField(aggregate, "isRemoved", false);
         setField(aggregate, "newEndDate", newEndDate);
         final List<Object> eventStream = aggregate.createCourtOrder(courtOrderId, createCourtOrder, false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).toList();
@@ -187,11 +333,11 @@ public class CourtOrderAggregateTest {
                 .withEndDate(originalOrderEndDate)
                 .withMasterDefendantId(UUID.randomUUID())
                 .build();
-        setField(aggregate, "actualCourtOrder", createCourtOrder);
+        applyCourtOrderRequested(createCourtOrder);
         final UUID courtOrderId = UUID.randomUUID();
-        final List<JudicialChildResultsUpdated> eventStream = aggregate.updateJudicialChildResult(courtOrderId, singletonList(
+        final List<CourtOrderAmended> eventStream = aggregate.updateJudicialChildResult(courtOrderId, singletonList(
                         JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")).build()), false, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))
-                ).map(JudicialChildResultsUpdated.class::cast)
+                ).map(CourtOrderAmended.class::cast)
                 .toList();
         assertThat(eventStream.size(), is(1));
         assertThat(eventStream.get(0).getCourtOrderId(), is(courtOrderId));
@@ -208,11 +354,11 @@ public class CourtOrderAggregateTest {
                 .withEndDate(originalOrderEndDate)
                 .withMasterDefendantId(UUID.randomUUID())
                 .build();
-        setField(aggregate, "actualCourtOrder", createCourtOrder);
+        applyCourtOrderRequested(createCourtOrder);
         final UUID courtOrderId = UUID.randomUUID();
-        final List<JudicialChildResultsUpdated> eventStream = aggregate.updateJudicialChildResult(courtOrderId, singletonList(
+        final List<CourtOrderAmended> eventStream = aggregate.updateJudicialChildResult(courtOrderId, singletonList(
                 JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")).build()), true, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))
-        ).map(JudicialChildResultsUpdated.class::cast)
+        ).map(CourtOrderAmended.class::cast)
                 .toList();
         assertThat(eventStream.size(), is(1));
         assertThat(eventStream.get(0).getCourtOrderId(), is(courtOrderId));
@@ -229,12 +375,12 @@ public class CourtOrderAggregateTest {
                 .withEndDate(originalOrderEndDate)
                 .withMasterDefendantId(UUID.randomUUID())
                 .build();
-        setField(aggregate, "actualCourtOrder", createCourtOrder);
+        applyCourtOrderRequested(createCourtOrder);
         setField(aggregate, "newEndDate", newEndDate);
         final UUID courtOrderId = UUID.randomUUID();
-        final List<JudicialChildResultsUpdated> eventStream = aggregate.updateJudicialChildResult(courtOrderId, singletonList(
+        final List<CourtOrderAmended> eventStream = aggregate.updateJudicialChildResult(courtOrderId, singletonList(
                         JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")).build()), true, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))
-                ).map(JudicialChildResultsUpdated.class::cast)
+                ).map(CourtOrderAmended.class::cast)
                 .toList();
         assertThat(eventStream.size(), is(1));
         assertThat(eventStream.get(0).getCourtOrderId(), is(courtOrderId));
@@ -253,14 +399,14 @@ public class CourtOrderAggregateTest {
                 .withEndDate(originalOrderEndDate)
                 .withMasterDefendantId(UUID.randomUUID())
                 .build();
-        setField(aggregate, "actualCourtOrder", createCourtOrder);
+        applyCourtOrderRequested(createCourtOrder);
         setField(aggregate, "newEndDate", newEndDate);
         final UUID courtOrderId = UUID.randomUUID();
         final List<JudicialChildResults> judicialChildResults = singletonList(
                 JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")).build());
         final List<UUID> unpaidWorkJudicialTypeIds = List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"));
-        final List<JudicialChildResultsUpdated> eventStream = aggregate.updateJudicialChildResultV2(courtOrderId, judicialChildResults, true, unpaidWorkJudicialTypeIds, latestEndDate)
-                .map(JudicialChildResultsUpdated.class::cast)
+        final List<CourtOrderAmended> eventStream = aggregate.updateJudicialChildResultV2(courtOrderId, judicialChildResults, true, unpaidWorkJudicialTypeIds, latestEndDate)
+                .map(CourtOrderAmended.class::cast)
                 .toList();
         assertThat(eventStream.size(), is(1));
         assertThat(eventStream.get(0).getCourtOrderId(), is(courtOrderId));
@@ -278,14 +424,14 @@ public class CourtOrderAggregateTest {
                 .withEndDate(originalOrderEndDate)
                 .withMasterDefendantId(UUID.randomUUID())
                 .build();
-        setField(aggregate, "actualCourtOrder", createCourtOrder);
+        applyCourtOrderRequested(createCourtOrder);
         setField(aggregate, "newEndDate", newEndDate);
         final UUID courtOrderId = UUID.randomUUID();
         final List<JudicialChildResults> judicialChildResults = singletonList(
                 JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("3d964424-99f8-4345-a89b-3497ba118b25")).build());
         final List<UUID> unpaidWorkJudicialTypeIds = List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"));
-        final List<JudicialChildResultsUpdated> eventStream = aggregate.updateJudicialChildResultV2(courtOrderId, judicialChildResults, true, unpaidWorkJudicialTypeIds, latestEndDate)
-                .map(JudicialChildResultsUpdated.class::cast)
+        final List<CourtOrderAmended> eventStream = aggregate.updateJudicialChildResultV2(courtOrderId, judicialChildResults, true, unpaidWorkJudicialTypeIds, latestEndDate)
+                .map(CourtOrderAmended.class::cast)
                 .toList();
         assertThat(eventStream.size(), is(1));
         assertThat(eventStream.get(0).getCourtOrderId(), is(courtOrderId));
@@ -294,4 +440,100 @@ public class CourtOrderAggregateTest {
 
     }
 
+    @Test
+    void shouldNotAmendCourtOrderWhenRecalculatedExpiryDateIsUnchanged() {
+        final List<JudicialChildResults> judicialChildResults = singletonList(
+                JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")).build());
+        final List<UUID> unpaidWorkJudicialTypeIds = List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"));
+        aggregate.createCourtOrder(courtOrderId, CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(originalOrderEndDate)
+                .withMasterDefendantId(UUID.randomUUID())
+                .withJudicialChildResults(judicialChildResults)
+                .build(), true, unpaidWorkJudicialTypeIds).count();
+
+        assertThat(aggregate.recalculateExpiryDate(courtOrderId, judicialChildResults, true, unpaidWorkJudicialTypeIds).count(), is(0L));
+    }
+
+    @Test
+    void shouldAmendUnpaidWorkAndExpiryDateWhenRecalculatedUnderChangedRules() {
+        final List<JudicialChildResults> judicialChildResults = singletonList(
+                JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")).build());
+        aggregate.createCourtOrder(courtOrderId, CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(originalOrderEndDate)
+                .withMasterDefendantId(UUID.randomUUID())
+                .withJudicialChildResults(judicialChildResults)
+                .build(), true, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).count();
+
+        final List<CourtOrderAmended> eventStream = aggregate.recalculateExpiryDate(courtOrderId, judicialChildResults, true, List.of(UUID.randomUUID()))
+                .map(CourtOrderAmended.class::cast)
+                .toList();
+
+        assertThat(eventStream.size(), is(1));
+        assertThat(eventStream.get(0).getCourtOrderId(), is(courtOrderId));
+        assertThat(eventStream.get(0).getIsUnpaidWork(), is(false));
+        assertThat(eventStream.get(0).getExpiryDate(), is(originalOrderEndDate));
+        assertThat(aggregate.recalculateExpiryDate(courtOrderId, judicialChildResults, true, List.of(UUID.randomUUID())).count(), is(0L));
+    }
+
+    @Test
+    void shouldNotRecalculateExpiryDateOfRemovedCourtOrder() {
+        applyCourtOrderRequested(CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(originalOrderEndDate)
+                .withMasterDefendantId(UUID.randomUUID())
+                .build());
+        aggregate.removeCourtOrder(courtOrderId).count();
+
+        assertThat(aggregate.recalculateExpiryDate(courtOrderId, List.of(), true, List.of(UUID.randomUUID())).count(), is(0L));
+    }
+
+    @Test
+    void shouldNotRecalculateExpiryDateWithoutJudicialChildResults() {
+        final List<JudicialChildResults> judicialChildResults = singletonList(
+                JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")).build());
+        aggregate.createCourtOrder(courtOrderId, CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(originalOrderEndDate)
+                .withMasterDefendantId(UUID.randomUUID())
+                .withJudicialChildResults(judicialChildResults)
+                .build(), true, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).count();
+
+        assertThat(aggregate.recalculateExpiryDate(courtOrderId, List.of(), true, List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"))).count(), is(0L));
+    }
+
+    @Test
+    void shouldDecideAgainstCopyWithoutChangingAggregateItWasCopiedFrom() {
+        final List<JudicialChildResults> judicialChildResults = singletonList(
+                JudicialChildResults.judicialChildResults().withJudicialResultTypeId(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d")).build());
+        final List<UUID> unpaidWorkJudicialTypeIds = List.of(UUID.fromString("9bec5977-1796-4645-9b9e-687d4f23d37d"));
+        final CreateCourtOrder courtOrder = CreateCourtOrder.createCourtOrder()
+                .withId(courtOrderId)
+                .withOrderDate(LocalDate.now())
+                .withEndDate(originalOrderEndDate)
+                .withMasterDefendantId(UUID.randomUUID())
+                .withJudicialChildResults(judicialChildResults)
+                .build();
+        aggregate.createCourtOrder(courtOrderId, courtOrder, true, unpaidWorkJudicialTypeIds).count();
+
+        final CourtOrderAggregate copy = aggregate.copy();
+
+        assertThat(copy.createCourtOrder(courtOrderId, courtOrder, true, unpaidWorkJudicialTypeIds).count(), is(0L));
+        assertThat(copy.recalculateExpiryDate(courtOrderId, judicialChildResults, true, List.of(UUID.randomUUID())).count(), is(1L));
+        assertThat(copy.recalculateExpiryDate(courtOrderId, judicialChildResults, true, List.of(UUID.randomUUID())).count(), is(0L));
+        assertThat(aggregate.recalculateExpiryDate(courtOrderId, judicialChildResults, true, List.of(UUID.randomUUID())).count(), is(1L));
+    }
+
+    private void applyCourtOrderRequested(final CreateCourtOrder createCourtOrder) {
+        aggregate.apply(CourtOrderRequested.courtOrderRequested()
+                .withCourtOrderId(courtOrderId)
+                .withCourtOrder(createCourtOrder)
+                .build());
+    }
+
 }
@@ -0,0 +1,109 @@
+package uk.gov.moj.cpp.courtorders.aggregate;
+
+import static java.time.ZoneOffset.UTC;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import uk.gov.justice.core.courts.PatchJobChunkCompleted;
+import uk.gov.justice.core.courts.PatchJobCompleted;
+import uk.gov.justice.core.courts.PatchJobStarted;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PatchJobAggregateTest {
+
+    private static final String COMMAND_NAME = "courtorders.command.patch-update-judicial-child-results";
+
+    private final UUID jobId = randomUUID();
+    private final UUID courtOrderId1 = randomUUID();
+    private final UUID courtOrderId2 = randomUUID();
+    private final UUID courtOrderId3 = randomUUID();
+    private final ZonedDateTime now = ZonedDateTime.now(UTC);
+
+    private PatchJobAggregate aggregate;
+
+    @BeforeEach
+    void setUp() {
+        aggregate = new PatchJobAggregate();
+    }
+
+    @Test
+    void shouldStartJobWithDistinctCourtOrderIds() {
+        final List<Object> events = aggregate.startJob(jobId, COMMAND_NAME, List.of(courtOrderId1, courtOrderId2, courtOrderId1), 2, now).toList();
+
+        assertThat(events.size(), is(1));
+        final PatchJobStarted patchJobStarted = (PatchJobStarted) events.get(0);
+        assertThat(patchJobStarted.getJobId(), is(jobId));
+        assertThat(patchJobStarted.getCommandName(), is(COMMAND_NAME));
+        assertThat(patchJobStarted.getCourtOrderIds(), contains(courtOrderId1, courtOrderId2));
+        assertThat(aggregate.getChunkCount(), is(1));
+    }
+
+    @Test
+    void shouldNotStartJobTwice() {
+        aggregate.startJob(jobId, COMMAND_NAME, List.of(courtOrderId1), 2, now).toList();
+
+        assertThat(aggregate.startJob(jobId, COMMAND_NAME, List.of(courtOrderId2), 2, now).count(), is(0L));
+    }
+
+    @Test
+    void shouldHandOutChunksInOrderAndCompleteJobAfterLastChunk() {
+        aggregate.startJob(jobId, COMMAND_NAME, List.of(courtOrderId1, courtOrderId2, courtOrderId3), 2, now).toList();
+
+        final PatchJobChunk firstChunk = aggregate.nextChunk().orElseThrow();
+        assertThat(firstChunk.chunkIndex(), is(0));
+        assertThat(firstChunk.courtOrderIds(), contains(courtOrderId1, courtOrderId2));
+        final List<Object> firstChunkEvents = aggregate.completeChunk(firstChunk, now).toList();
+        assertThat(firstChunkEvents.size(), is(1));
+        assertThat(((PatchJobChunkCompleted) firstChunkEvents.get(0)).getProcessedCount(), is(2));
+
+        final PatchJobChunk lastChunk = aggregate.nextChunk().orElseThrow();
+        assertThat(lastChunk.chunkIndex(), is(1));
+        assertThat(lastChunk.courtOrderIds(), contains(courtOrderId3));
+        final List<Object> lastChunkEvents = aggregate.completeChunk(lastChunk, now).toList();
+        assertThat(lastChunkEvents.size(), is(2));
+        assertThat(lastChunkEvents.get(1), instanceOf(PatchJobCompleted.class));
+
+        assertThat(aggregate.isCompleted(), is(true));
+        assertThat(aggregate.nextChunk().isPresent(), is(false));
+    }
+
+    @Test
+    void shouldResumeFromFirstChunkNotCompleted() {
+        aggregate.apply(PatchJobStarted.patchJobStarted()
+                .withJobId(jobId)
+                .withCommandName(COMMAND_NAME)
+                .withCourtOrderIds(List.of(courtOrderId1, courtOrderId2, courtOrderId3))
+                .withChunkSize(1)
+                .withStartedAt(now)
+                .build());
+        aggregate.apply(PatchJobChunkCompleted.patchJobChunkCompleted()
+                .withJobId(jobId)
+                .withChunkIndex(0)
+                .withProcessedCount(1)
+                .withCompletedAt(now)
+                .build());
+
+        final PatchJobChunk chunk = aggregate.nextChunk().orElseThrow();
+
+        assertThat(chunk.chunkIndex(), is(1));
+        assertThat(chunk.courtOrderIds(), contains(courtOrderId2));
+    }
+
+    @Test
+    void shouldNotCheckpointChunkThatIsNotNext() {
+        aggregate.startJob(jobId, COMMAND_NAME, List.of(courtOrderId1, courtOrderId2), 1, now).toList();
+        final PatchJobChunk firstChunk = aggregate.nextChunk().orElseThrow();
+        aggregate.completeChunk(firstChunk, now).toList();
+
+        assertThat(aggregate.completeChunk(firstChunk, now).count(), is(0L));
+    }
+}
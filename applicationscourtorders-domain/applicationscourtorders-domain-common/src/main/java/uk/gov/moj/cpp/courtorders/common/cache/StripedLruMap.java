@@ -0,0 +1,94 @@
+package uk.gov.moj.cpp.courtorders.common.cache;
+
+import static java.lang.Math.max;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Size bounded map whose entries are spread over lock striped segments, each evicting its least
+ * recently used entry once full. The capacity is shared equally between the segments, so entries
+ * may be evicted a little before the map as a whole is full.
+ */
+public class StripedLruMap<K, V> {
+
+    private final Segment<K, V>[] segments;
+
+    @SuppressWarnings("unchecked")
+    public StripedLruMap(final int segmentCount, final int capacity) {
+        final int segmentCapacity = max(1, capacity / segmentCount);
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+    }
+
+    public boolean containsKey(final K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return the value of the key, or null if it has none
+     */
+    public V get(final K key) {
+        return segmentFor(key).locked(entries -> entries.get(key));
+    }
+
+    public void put(final K key, final V value) {
+        segmentFor(key).locked(entries -> entries.put(key, value));
+    }
+
+    /**
+     * Puts the value, or the result of the merge function if the key already has a value, as
+     * {@link Map#merge(Object, Object, java.util.function.BiFunction)} does.
+     */
+    public void merge(final K key, final V value, final BinaryOperator<V> mergeFunction) {
+        segmentFor(key).locked(entries -> entries.merge(key, value, mergeFunction));
+    }
+
+    /**
+     * @return the value removed, or null if the key had none
+     */
+    public V remove(final K key) {
+        return segmentFor(key).locked(entries -> entries.remove(key));
+    }
+
+    public int size() {
+        int size = 0;
+        for (final Segment<K, V> segment : segments) {
+            size += segment.locked(Map::size);
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentFor(final K key) {
+        return segments[(key.hashCode() & Integer.MAX_VALUE) % segments.length];
+    }
+
+    private static final class Segment<K, V> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<K, V> entries;
+
+        private Segment(final int capacity) {
+            this.entries = new LinkedHashMap<>(capacity, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        private <T> T locked(final Function<Map<K, V>, T> operation) {
+            lock.lock();
+            try {
+                return operation.apply(entries);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
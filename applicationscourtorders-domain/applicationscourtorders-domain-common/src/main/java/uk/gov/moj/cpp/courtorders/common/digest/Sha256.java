@@ -0,0 +1,44 @@
+package uk.gov.moj.cpp.courtorders.common.digest;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 digests of values, for telling whether two values are the same without holding on to
+ * either of them.
+ */
+public final class Sha256 {
+
+    private static final OutputStream DISCARD = OutputStream.nullOutputStream();
+
+    private Sha256() {
+    }
+
+    public static MessageDigest messageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @return the digest of the value written with Java serialisation. Equal values give the same
+     * digest as long as they are built the same way, as serialisation follows the classes that make
+     * up the value, such as the implementation of each collection.
+     */
+    public static byte[] ofSerialized(final Object value) {
+        final MessageDigest messageDigest = messageDigest();
+        try (final ObjectOutputStream objectOutputStream = new ObjectOutputStream(new DigestOutputStream(DISCARD, messageDigest))) {
+            objectOutputStream.writeObject(value);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Unable to digest " + value.getClass().getSimpleName(), e);
+        }
+        return messageDigest.digest();
+    }
+}
@@ -0,0 +1,66 @@
+package uk.gov.moj.cpp.courtorders.common.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The MBeans a bean has registered with the platform MBean server. An MBean registered under a
+ * name that is already taken replaces the one registered before it, and {@link #unregisterAll()}
+ * is called when the bean is destroyed, so that a redeployment does not leave the MBeans of the
+ * previous deployment, and with them its classloader, registered.
+ *
+ * <p>Registration is best effort: a failure is logged and the MBean is still returned.
+ */
+public class MBeanRegistrations {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MBeanRegistrations.class);
+
+    private final MBeanServer mBeanServer;
+    private final Set<ObjectName> objectNames = ConcurrentHashMap.newKeySet();
+
+    public MBeanRegistrations() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    MBeanRegistrations(final MBeanServer mBeanServer) {
+        this.mBeanServer = mBeanServer;
+    }
+
+    /**
+     * @return the MBean
+     */
+    public <T> T register(final String objectName, final T mBean) {
+        try {
+            final ObjectName name = new ObjectName(objectName);
+            if (mBeanServer.isRegistered(name)) {
+                mBeanServer.unregisterMBean(name);
+            }
+            mBeanServer.registerMBean(mBean, name);
+            objectNames.add(name);
+        } catch (final JMException e) {
+            LOGGER.warn("Unable to register MBean {}", objectName, e);
+        }
+        return mBean;
+    }
+
+    public void unregisterAll() {
+        for (final ObjectName objectName : objectNames) {
+            try {
+                if (mBeanServer.isRegistered(objectName)) {
+                    mBeanServer.unregisterMBean(objectName);
+                }
+            } catch (final JMException e) {
+                LOGGER.warn("Unable to unregister MBean {}", objectName, e);
+            }
+            objectNames.remove(objectName);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package uk.gov.moj.cpp.courtorders.common.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.junit.jupiter.api.Test;
+
+class StripedLruMapTest {
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntryOnceSegmentIsFull() {
+        final StripedLruMap<Integer, String> map = new StripedLruMap<>(1, 2);
+        map.put(1, "one");
+        map.put(2, "two");
+        assertThat(map.containsKey(1), is(true));
+
+        map.put(3, "three");
+
+        assertThat(map.containsKey(1), is(true));
+        assertThat(map.containsKey(2), is(false));
+        assertThat(map.containsKey(3), is(true));
+        assertThat(map.size(), is(2));
+    }
+
+    @Test
+    void shouldGetValueOfKey() {
+        final StripedLruMap<Integer, String> map = new StripedLruMap<>(4, 16);
+        map.put(1, "one");
+
+        assertThat(map.get(1), is("one"));
+        assertThat(map.get(2), is(nullValue()));
+    }
+
+    @Test
+    void shouldMergeValueWithExistingValue() {
+        final StripedLruMap<Integer, Integer> map = new StripedLruMap<>(4, 16);
+        map.merge(1, 5, Math::max);
+        map.merge(1, 3, Math::max);
+
+        assertThat(map.remove(1), is(5));
+        assertThat(map.remove(1), is(nullValue()));
+    }
+
+    @Test
+    void shouldKeepAtLeastOneEntryPerSegment() {
+        final StripedLruMap<Integer, String> map = new StripedLruMap<>(16, 1);
+        map.put(1, "one");
+
+        assertThat(map.containsKey(1), is(true));
+    }
+}
@@ -0,0 +1,75 @@
+package uk.gov.moj.cpp.courtorders.common.jmx;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class MBeanRegistrationsTest {
+
+    private static final String OBJECT_NAME = "uk.gov.moj.cpp.courtorders:type=Counter";
+
+    private final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+
+    @AfterEach
+    void tearDown() {
+        MBeanServerFactory.releaseMBeanServer(mBeanServer);
+    }
+
+    @Test
+    void shouldReplaceMBeanRegisteredUnderSameName() throws Exception {
+        final MBeanRegistrations previousDeployment = new MBeanRegistrations(mBeanServer);
+        final MBeanRegistrations mBeanRegistrations = new MBeanRegistrations(mBeanServer);
+        previousDeployment.register(OBJECT_NAME, new Counter());
+        final Counter counter = new Counter();
+
+        assertThat(mBeanRegistrations.register(OBJECT_NAME, counter), is(sameInstance(counter)));
+        counter.increment();
+
+        assertThat(mBeanServer.getAttribute(new ObjectName(OBJECT_NAME), "Count"), is(1L));
+    }
+
+    @Test
+    void shouldUnregisterEveryMBeanItRegistered() throws Exception {
+        final MBeanRegistrations mBeanRegistrations = new MBeanRegistrations(mBeanServer);
+        mBeanRegistrations.register(OBJECT_NAME, new Counter());
+        mBeanRegistrations.register(OBJECT_NAME + ",name=other", new Counter());
+
+        mBeanRegistrations.unregisterAll();
+
+        assertThat(mBeanServer.isRegistered(new ObjectName(OBJECT_NAME)), is(false));
+        assertThat(mBeanServer.isRegistered(new ObjectName(OBJECT_NAME + ",name=other")), is(false));
+    }
+
+    @Test
+    void shouldReturnMBeanWhoseNameIsNotValid() {
+        final Counter counter = new Counter();
+
+        assertThat(new MBeanRegistrations(mBeanServer).register("not a name", counter), is(sameInstance(counter)));
+    }
+
+    public interface CounterMBean {
+
+        long getCount();
+    }
+
+    public static class Counter implements CounterMBean {
+
+        private long count;
+
+        void increment() {
+            count++;
+        }
+
+        @Override
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package uk.gov.moj.cpp.courtorders.domain.event;
+
+import uk.gov.justice.core.courts.CourtOrderAmended;
+import uk.gov.justice.core.courts.JudicialChildResultsUpdated;
+
+/**
+ * Turns court order events that are no longer raised into the events that replaced them, so that
+ * streams written before the change still replay through the same code as new ones.
+ */
+public final class CourtOrderEventUpcaster {
+
+    private CourtOrderEventUpcaster() {
+    }
+
+    /**
+     * JudicialChildResultsUpdated was replaced by CourtOrderAmended, which carries the same fields
+     * but only those that changed.
+     */
+    public static CourtOrderAmended upcast(final JudicialChildResultsUpdated judicialChildResultsUpdated) {
+        return CourtOrderAmended.courtOrderAmended()
+                .withCourtOrderId(judicialChildResultsUpdated.getCourtOrderId())
+                .withJudicialChildResults(judicialChildResultsUpdated.getJudicialChildResults())
+                .withIsUnpaidWork(judicialChildResultsUpdated.getIsUnpaidWork())
+                .withExpiryDate(judicialChildResultsUpdated.getExpiryDate())
+                .build();
+    }
+}
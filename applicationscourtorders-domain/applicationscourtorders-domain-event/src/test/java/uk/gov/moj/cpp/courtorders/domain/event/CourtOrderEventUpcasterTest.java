@@ -0,0 +1,41 @@
+package uk.gov.moj.cpp.courtorders.domain.event;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import uk.gov.justice.core.courts.CourtOrderAmended;
+import uk.gov.justice.core.courts.JudicialChildResults;
+import uk.gov.justice.core.courts.JudicialChildResultsUpdated;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class CourtOrderEventUpcasterTest {
+
+    @Test
+    void shouldUpcastJudicialChildResultsUpdatedToCourtOrderAmended() {
+        final UUID courtOrderId = UUID.randomUUID();
+        final LocalDate expiryDate = LocalDate.now().plusYears(1);
+        final List<JudicialChildResults> judicialChildResults = singletonList(JudicialChildResults.judicialChildResults()
+                .withJudicialResultId(UUID.randomUUID())
+                .withJudicialResultTypeId(UUID.randomUUID())
+                .withLabel("Unpaid work")
+                .build());
+
+        final CourtOrderAmended courtOrderAmended = CourtOrderEventUpcaster.upcast(JudicialChildResultsUpdated.judicialChildResultsUpdated()
+                .withCourtOrderId(courtOrderId)
+                .withJudicialChildResults(judicialChildResults)
+                .withIsUnpaidWork(true)
+                .withExpiryDate(expiryDate)
+                .build());
+
+        assertThat(courtOrderAmended.getCourtOrderId(), is(courtOrderId));
+        assertThat(courtOrderAmended.getJudicialChildResults(), is(judicialChildResults));
+        assertThat(courtOrderAmended.getIsUnpaidWork(), is(true));
+        assertThat(courtOrderAmended.getExpiryDate(), is(expiryDate));
+    }
+}
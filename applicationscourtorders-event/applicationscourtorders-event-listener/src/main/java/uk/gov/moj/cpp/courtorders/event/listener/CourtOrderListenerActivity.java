@@ -0,0 +1,41 @@
+package uk.gov.moj.cpp.courtorders.event.listener;
+
+import static java.lang.Long.parseLong;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import uk.gov.justice.services.common.configuration.Value;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * When the event listener on this node last applied a court order event. The catch-up writes the
+ * same rows as the listener without moving its subscription, so it only runs once the listener has
+ * been quiet for {@code courtOrderCatchUpListenerQuietMillis}.
+ */
+@ApplicationScoped
+public class CourtOrderListenerActivity {
+
+    @Inject
+    @Value(key = "courtOrderCatchUpListenerQuietMillis", defaultValue = "30000")
+    private String quietMillis;
+
+    private volatile boolean eventApplied;
+    private volatile long lastEventAppliedAt;
+
+    public void eventApplied() {
+        lastEventAppliedAt = System.nanoTime();
+        eventApplied = true;
+    }
+
+    /**
+     * @return whether the event listener applied a court order event within the quiet period
+     */
+    public boolean isProcessing() {
+        return eventApplied && System.nanoTime() - lastEventAppliedAt < MILLISECONDS.toNanos(parseLong(quietMillis));
+    }
+
+    public long quietMillis() {
+        return parseLong(quietMillis);
+    }
+}
@@ -0,0 +1,155 @@
+package uk.gov.moj.cpp.courtorders.event.listener;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.UUID.fromString;
+import static java.util.stream.Collectors.toCollection;
+import static javax.json.Json.createObjectBuilder;
+
+import uk.gov.justice.core.courts.CourtOrderAmended;
+import uk.gov.justice.core.courts.CourtOrderOffence;
+import uk.gov.justice.core.courts.CourtOrderValidityUpdated;
+import uk.gov.justice.core.courts.JudicialChildResultsUpdated;
+import uk.gov.justice.services.common.converter.JsonObjectToObjectConverter;
+import uk.gov.justice.services.common.converter.ObjectToJsonObjectConverter;
+import uk.gov.justice.services.common.converter.StringToJsonObjectConverter;
+import uk.gov.moj.cpp.courtorders.command.CreateCourtOrder;
+import uk.gov.moj.cpp.courtorders.domain.event.CourtOrderEventUpcaster;
+import uk.gov.moj.cpp.courtorders.persistence.entity.CourtOrderEntity;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * How each court order event changes its court_order row. The event listener applies one event at
+ * a time, and the catch-up folds a batch of them in memory, through the same methods, so both
+ * leave the same rows behind.
+ */
+@ApplicationScoped
+public class CourtOrderProjection {
+
+    public static final String COURT_ORDER_REQUESTED = "applicationscourtorders.event.court-order-requested";
+    public static final String COURT_ORDER_REMOVED = "applicationscourtorders.event.court-order-removed";
+    public static final String COURT_ORDER_VALIDITY_UPDATED = "applicationscourtorders.event.court-order-validity-updated";
+    public static final String COURT_ORDER_AMENDED = "applicationscourtorders.event.court-order-amended";
+    public static final String JUDICIAL_CHILD_RESULTS_UPDATED = "applicationscourtorders.event.judicial-child-results-updated";
+
+    private static final String COURT_ORDER_ID = "courtOrderId";
+    private static final String END_DATE = "endDate";
+    private static final String EXPIRY_DATE = "expiryDate";
+
+    @Inject
+    private JsonObjectToObjectConverter jsonObjectToObjectConverter;
+
+    @Inject
+    private ObjectToJsonObjectConverter objectToJsonObjectConverter;
+
+    @Inject
+    private StringToJsonObjectConverter stringToJsonObjectConverter;
+
+    public UUID courtOrderId(final JsonObject payload) {
+        return fromString(payload.getString(COURT_ORDER_ID));
+    }
+
+    /**
+     * Sets the prosecution cases of the court order to those of its offences, as well as its
+     * payload, so that it is found by case.
+     *
+     * @param notRemoved the stored court order that is not removed, or null if there is none
+     * @return the court order to store, which is a new one if none was given
+     */
+    public CourtOrderEntity courtOrderRequested(final CourtOrderEntity notRemoved, final JsonObject payload) {
+        final JsonObject courtOrderJson = payload.getJsonObject("courtOrder");
+        final CreateCourtOrder courtOrder = jsonObjectToObjectConverter.convert(courtOrderJson, CreateCourtOrder.class);
+        final CourtOrderEntity courtOrderEntity = isNull(notRemoved) ? new CourtOrderEntity() : notRemoved;
+        if (isNull(notRemoved)) {
+            courtOrderEntity.setId(UUID.randomUUID());
+            courtOrderEntity.setCourtOrderId(courtOrder.getId());
+            courtOrderEntity.setHearingId(courtOrder.getOrderingHearingId());
+            courtOrderEntity.setSittingDate(courtOrder.getOrderDate());
+            courtOrderEntity.setDefendantId(courtOrder.getMasterDefendantId());
+            courtOrderEntity.setExpiryDate(nonNull(courtOrder.getExpiryDate()) ? courtOrder.getExpiryDate() : courtOrder.getEndDate());
+        }
+        courtOrderEntity.setPayload(courtOrderJson.toString());
+        courtOrderEntity.setProsecutionCaseIds(prosecutionCaseIds(courtOrder));
+        courtOrderEntity.setRemoved(false);
+        return courtOrderEntity;
+    }
+
+    /**
+     * A removed court order is no longer found by case, so its prosecution cases are dropped.
+     */
+    public void courtOrderRemoved(final CourtOrderEntity courtOrderEntity) {
+        courtOrderEntity.setRemoved(true);
+        courtOrderEntity.getProsecutionCaseIds().clear();
+    }
+
+    /**
+     * @return the fields of the stored court order that a CourtOrderValidityUpdated replaces
+     */
+    public JsonObject validityUpdatedFields(final JsonObject payload) {
+        final CourtOrderValidityUpdated courtOrderValidityUpdated = jsonObjectToObjectConverter.convert(payload, CourtOrderValidityUpdated.class);
+        final LocalDate expiryDate = nonNull(courtOrderValidityUpdated.getExpiryDate()) ? courtOrderValidityUpdated.getExpiryDate() : courtOrderValidityUpdated.getNewEndDate();
+        return createObjectBuilder()
+                .add(END_DATE, courtOrderValidityUpdated.getNewEndDate().toString())
+                .add(EXPIRY_DATE, expiryDate.toString())
+                .build();
+    }
+
+    /**
+     * @return the fields of the stored court order that a CourtOrderAmended replaces, which are
+     * those it carries other than the court order id
+     */
+    public JsonObject amendedFields(final JsonObject payload) {
+        return amendedFields(jsonObjectToObjectConverter.convert(payload, CourtOrderAmended.class));
+    }
+
+    /**
+     * JudicialChildResultsUpdated is no longer raised, but is still replayed from older streams.
+     */
+    public JsonObject judicialChildResultsUpdatedFields(final JsonObject payload) {
+        return amendedFields(CourtOrderEventUpcaster.upcast(jsonObjectToObjectConverter.convert(payload, JudicialChildResultsUpdated.class)));
+    }
+
+    /**
+     * Merges the fields into the payload of the court order in memory, as
+     * {@code CourtOrderRepository.mergePayload} does in the viewstore.
+     */
+    public void merge(final CourtOrderEntity courtOrderEntity, final JsonObject fields) {
+        final JsonObjectBuilder courtOrder = createObjectBuilder();
+        stringToJsonObjectConverter.convert(courtOrderEntity.getPayload()).forEach(courtOrder::add);
+        fields.forEach(courtOrder::add);
+        courtOrderEntity.setPayload(courtOrder.build().toString());
+        if (fields.containsKey(EXPIRY_DATE) && !fields.isNull(EXPIRY_DATE)) {
+            courtOrderEntity.setExpiryDate(LocalDate.parse(fields.getString(EXPIRY_DATE)));
+        }
+    }
+
+    private Set<UUID> prosecutionCaseIds(final CreateCourtOrder courtOrder) {
+        return Stream.ofNullable(courtOrder.getCourtOrderOffences())
+                .flatMap(List::stream)
+                .map(CourtOrderOffence::getProsecutionCaseId)
+                .filter(Objects::nonNull)
+                .collect(toCollection(HashSet::new));
+    }
+
+    private JsonObject amendedFields(final CourtOrderAmended courtOrderAmended) {
+        final JsonObjectBuilder amendedFields = createObjectBuilder();
+        objectToJsonObjectConverter.convert(courtOrderAmended).forEach((field, value) -> {
+            if (!COURT_ORDER_ID.equals(field)) {
+                amendedFields.add(field, value);
+            }
+        });
+        return amendedFields.build();
+    }
+}
@@ -0,0 +1,65 @@
+package uk.gov.moj.cpp.courtorders.event.listener;
+
+import static java.util.Objects.nonNull;
+import static uk.gov.justice.services.core.annotation.Component.EVENT_LISTENER;
+
+import uk.gov.justice.core.courts.PatchJobChunkCompleted;
+import uk.gov.justice.core.courts.PatchJobCompleted;
+import uk.gov.justice.core.courts.PatchJobStarted;
+import uk.gov.justice.services.common.converter.JsonObjectToObjectConverter;
+import uk.gov.justice.services.core.annotation.Handles;
+import uk.gov.justice.services.core.annotation.ServiceComponent;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+import uk.gov.moj.cpp.courtorders.persistence.entity.PatchJobEntity;
+import uk.gov.moj.cpp.courtorders.persistence.repository.PatchJobRepository;
+
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+
+@ServiceComponent(EVENT_LISTENER)
+public class PatchJobEventListener {
+
+    @Inject
+    private PatchJobRepository patchJobRepository;
+
+    @Inject
+    private JsonObjectToObjectConverter jsonObjectToObjectConverter;
+
+    @Transactional
+    @Handles("applicationscourtorders.event.patch-job-started")
+    public void patchJobStarted(final JsonEnvelope event) {
+        final PatchJobStarted patchJobStarted = jsonObjectToObjectConverter.convert(event.payloadAsJsonObject(), PatchJobStarted.class);
+        final int totalCount = patchJobStarted.getCourtOrderIds().size();
+        final PatchJobEntity patchJobEntity = new PatchJobEntity();
+        patchJobEntity.setJobId(patchJobStarted.getJobId());
+        patchJobEntity.setCommandName(patchJobStarted.getCommandName());
+        patchJobEntity.setTotalCount(totalCount);
+        patchJobEntity.setChunkCount((totalCount + patchJobStarted.getChunkSize() - 1) / patchJobStarted.getChunkSize());
+        patchJobEntity.setStartedAt(patchJobStarted.getStartedAt());
+        patchJobRepository.save(patchJobEntity);
+    }
+
+    @Transactional
+    @Handles("applicationscourtorders.event.patch-job-chunk-completed")
+    public void patchJobChunkCompleted(final JsonEnvelope event) {
+        final PatchJobChunkCompleted patchJobChunkCompleted = jsonObjectToObjectConverter.convert(event.payloadAsJsonObject(), PatchJobChunkCompleted.class);
+        final PatchJobEntity patchJobEntity = patchJobRepository.findBy(patchJobChunkCompleted.getJobId());
+        if (nonNull(patchJobEntity)) {
+            patchJobEntity.setProcessedCount(patchJobEntity.getProcessedCount() + patchJobChunkCompleted.getProcessedCount());
+            patchJobEntity.setCompletedChunkCount(patchJobChunkCompleted.getChunkIndex() + 1);
+            patchJobEntity.setLastCheckpointAt(patchJobChunkCompleted.getCompletedAt());
+            patchJobRepository.save(patchJobEntity);
+        }
+    }
+
+    @Transactional
+    @Handles("applicationscourtorders.event.patch-job-completed")
+    public void patchJobCompleted(final JsonEnvelope event) {
+        final PatchJobCompleted patchJobCompleted = jsonObjectToObjectConverter.convert(event.payloadAsJsonObject(), PatchJobCompleted.class);
+        final PatchJobEntity patchJobEntity = patchJobRepository.findBy(patchJobCompleted.getJobId());
+        if (nonNull(patchJobEntity)) {
+            patchJobEntity.setCompletedAt(patchJobCompleted.getCompletedAt());
+            patchJobRepository.save(patchJobEntity);
+        }
+    }
+}
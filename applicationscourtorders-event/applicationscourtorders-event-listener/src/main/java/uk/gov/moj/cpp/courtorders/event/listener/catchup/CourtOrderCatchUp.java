@@ -0,0 +1,140 @@
+package uk.gov.moj.cpp.courtorders.event.listener.catchup;
+
+import static java.lang.Integer.parseInt;
+
+import uk.gov.justice.services.common.configuration.Value;
+import uk.gov.moj.cpp.courtorders.common.jmx.MBeanRegistrations;
+import uk.gov.moj.cpp.courtorders.event.listener.CourtOrderListenerActivity;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Catches the court_order viewstore up with the event store in batches, for rebuilding it far
+ * faster than replaying the court order events through the event listener one transaction at a
+ * time.
+ *
+ * <p>Started through the MBean registered as {@code uk.gov.moj.cpp.courtorders:type=CourtOrderCatchUp}
+ * with the event number to start after, 0 to rebuild from the start. The published court order
+ * events are read {@code courtOrderCatchUpBatchSize} at a time and each batch is folded and written
+ * by {@link CourtOrderCatchUpBatch} in a transaction of its own. Only one catch-up runs at a time; a
+ * catch-up that stopped is carried on after the last event number it reported. The catch-up does
+ * not move the position of the event listener subscription, so it does not start, and stops before
+ * its next batch, while {@link CourtOrderListenerActivity} reports the event listener on this node
+ * as processing court order events.
+ */
+@ApplicationScoped
+public class CourtOrderCatchUp implements CourtOrderCatchUpMBean {
+
+    static final String OBJECT_NAME = "uk.gov.moj.cpp.courtorders:type=CourtOrderCatchUp";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CourtOrderCatchUp.class);
+
+    @Inject
+    @Value(key = "courtOrderCatchUpBatchSize", defaultValue = "1000")
+    private String batchSize;
+
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    @Inject
+    private PublishedCourtOrderEvents publishedCourtOrderEvents;
+
+    @Inject
+    private CourtOrderCatchUpBatch courtOrderCatchUpBatch;
+
+    @Inject
+    private CourtOrderListenerActivity courtOrderListenerActivity;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder projectedEvents = new LongAdder();
+    private final MBeanRegistrations mBeanRegistrations = new MBeanRegistrations();
+
+    private volatile long lastEventNumber;
+
+    @PostConstruct
+    public void initialise() {
+        mBeanRegistrations.register(OBJECT_NAME, this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        mBeanRegistrations.unregisterAll();
+    }
+
+    @Override
+    public void catchUp(final long afterEventNumber) {
+        if (!running.compareAndSet(false, true)) {
+            LOGGER.warn("Court order catch-up after event {} ignored as one is already running", afterEventNumber);
+            return;
+        }
+        if (courtOrderListenerActivity.isProcessing()) {
+            running.set(false);
+            LOGGER.warn("Court order catch-up after event {} ignored as the event listener applied a court order event in the last {} ms",
+                    afterEventNumber, courtOrderListenerActivity.quietMillis());
+            return;
+        }
+        projectedEvents.reset();
+        lastEventNumber = afterEventNumber;
+        try {
+            managedExecutorService.submit(() -> run(afterEventNumber));
+        } catch (final RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public long getProjectedEvents() {
+        return projectedEvents.sum();
+    }
+
+    @Override
+    public long getLastEventNumber() {
+        return lastEventNumber;
+    }
+
+    private void run(final long afterEventNumber) {
+        final int eventsPerBatch = parseInt(batchSize);
+        long eventNumber = afterEventNumber;
+        try {
+            List<PublishedCourtOrderEvent> events;
+            do {
+                if (courtOrderListenerActivity.isProcessing()) {
+                    LOGGER.warn("Court order catch-up stopped after event {} as the event listener is processing court order events, " +
+                            "start it again after that event once the listener is quiet", eventNumber);
+                    return;
+                }
+                events = publishedCourtOrderEvents.after(eventNumber, eventsPerBatch);
+                if (!events.isEmpty()) {
+                    courtOrderCatchUpBatch.project(events);
+                    eventNumber = events.get(events.size() - 1).eventNumber();
+                    projectedEvents.add(events.size());
+                    lastEventNumber = eventNumber;
+                    LOGGER.debug("Court order catch-up checkpointed at event {}, {} events projected", eventNumber, getProjectedEvents());
+                }
+            } while (events.size() == eventsPerBatch);
+            LOGGER.info("Court order catch-up completed at event {}, {} events projected", eventNumber, getProjectedEvents());
+        } catch (final Exception e) {
+            LOGGER.error("Court order catch-up stopped after event {}, start it again after that event to carry on", getLastEventNumber(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+}
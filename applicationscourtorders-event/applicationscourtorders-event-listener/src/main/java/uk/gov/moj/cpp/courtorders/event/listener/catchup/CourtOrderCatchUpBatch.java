@@ -0,0 +1,88 @@
+package uk.gov.moj.cpp.courtorders.event.listener.catchup;
+
+import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toCollection;
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_AMENDED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_REMOVED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_REQUESTED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_VALIDITY_UPDATED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.JUDICIAL_CHILD_RESULTS_UPDATED;
+
+import uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection;
+import uk.gov.moj.cpp.courtorders.persistence.entity.CourtOrderEntity;
+import uk.gov.moj.cpp.courtorders.persistence.repository.CourtOrderRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.json.JsonObject;
+import javax.transaction.Transactional;
+
+/**
+ * Folds a batch of court order events into the rows they leave behind and writes those rows in
+ * one transaction. The rows the batch touches are read with one query, every event is applied to
+ * them in memory in event number order, and the inserts and updates are flushed together as JDBC
+ * batches. The updates are flushed before the inserts, so a court order removed and requested again
+ * in the same batch is removed before the unique index on the court orders that are not removed
+ * sees it stored again.
+ */
+@ApplicationScoped
+public class CourtOrderCatchUpBatch {
+
+    @Inject
+    private CourtOrderRepository courtOrderRepository;
+
+    @Inject
+    private CourtOrderProjection courtOrderProjection;
+
+    @Transactional(value = REQUIRES_NEW, rollbackOn = Exception.class)
+    public void project(final List<PublishedCourtOrderEvent> events) {
+        final Set<UUID> courtOrderIds = events.stream()
+                .map(event -> courtOrderProjection.courtOrderId(event.payload()))
+                .collect(toCollection(LinkedHashSet::new));
+        final Map<UUID, CourtOrderEntity> notRemoved = new HashMap<>();
+        courtOrderRepository.findByCourtOrderIdsNotRemoved(courtOrderIds)
+                .forEach(courtOrderEntity -> notRemoved.putIfAbsent(courtOrderEntity.getCourtOrderId(), courtOrderEntity));
+        final List<CourtOrderEntity> requested = new ArrayList<>();
+        for (final PublishedCourtOrderEvent event : events) {
+            final UUID courtOrderId = courtOrderProjection.courtOrderId(event.payload());
+            final CourtOrderEntity courtOrderEntity = notRemoved.get(courtOrderId);
+            switch (event.name()) {
+                case COURT_ORDER_REQUESTED -> {
+                    final CourtOrderEntity requestedCourtOrder = courtOrderProjection.courtOrderRequested(courtOrderEntity, event.payload());
+                    if (requestedCourtOrder != courtOrderEntity) {
+                        requested.add(requestedCourtOrder);
+                        notRemoved.put(courtOrderId, requestedCourtOrder);
+                    }
+                }
+                case COURT_ORDER_REMOVED -> {
+                    if (nonNull(courtOrderEntity)) {
+                        courtOrderProjection.courtOrderRemoved(courtOrderEntity);
+                        notRemoved.remove(courtOrderId);
+                    }
+                }
+                case COURT_ORDER_VALIDITY_UPDATED -> merge(courtOrderEntity, courtOrderProjection.validityUpdatedFields(event.payload()));
+                case COURT_ORDER_AMENDED -> merge(courtOrderEntity, courtOrderProjection.amendedFields(event.payload()));
+                case JUDICIAL_CHILD_RESULTS_UPDATED -> merge(courtOrderEntity, courtOrderProjection.judicialChildResultsUpdatedFields(event.payload()));
+                default -> throw new IllegalArgumentException("Not a court order event: " + event.name());
+            }
+        }
+        courtOrderRepository.flush();
+        requested.forEach(courtOrderRepository::persist);
+        courtOrderRepository.flush();
+    }
+
+    private void merge(final CourtOrderEntity courtOrderEntity, final JsonObject fields) {
+        if (nonNull(courtOrderEntity)) {
+            courtOrderProjection.merge(courtOrderEntity, fields);
+        }
+    }
+}
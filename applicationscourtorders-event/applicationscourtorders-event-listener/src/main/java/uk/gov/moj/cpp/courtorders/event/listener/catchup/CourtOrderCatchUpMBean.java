@@ -0,0 +1,12 @@
+package uk.gov.moj.cpp.courtorders.event.listener.catchup;
+
+public interface CourtOrderCatchUpMBean {
+
+    void catchUp(long afterEventNumber);
+
+    boolean isRunning();
+
+    long getProjectedEvents();
+
+    long getLastEventNumber();
+}
@@ -0,0 +1,9 @@
+package uk.gov.moj.cpp.courtorders.event.listener.catchup;
+
+import javax.json.JsonObject;
+
+/**
+ * A court order event as published to the event store, in event number order.
+ */
+public record PublishedCourtOrderEvent(long eventNumber, String name, JsonObject payload) {
+}
@@ -0,0 +1,79 @@
+package uk.gov.moj.cpp.courtorders.event.listener.catchup;
+
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_AMENDED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_REMOVED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_REQUESTED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_VALIDITY_UPDATED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.JUDICIAL_CHILD_RESULTS_UPDATED;
+
+import uk.gov.justice.services.common.configuration.Value;
+import uk.gov.justice.services.common.converter.StringToJsonObjectConverter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+
+/**
+ * Reads the published court order events from the event store a page at a time, in event number
+ * order. The event store data source is looked up by the JNDI name configured as
+ * {@code courtOrderCatchUpEventStoreJndiName} the first time events are read.
+ */
+@ApplicationScoped
+public class PublishedCourtOrderEvents {
+
+    private static final String SELECT_EVENTS_AFTER = "SELECT event_number, name, payload FROM published_event " +
+            "WHERE event_number > ? AND name IN (?, ?, ?, ?, ?) ORDER BY event_number LIMIT ?";
+
+    @Inject
+    @Value(key = "courtOrderCatchUpEventStoreJndiName", defaultValue = "java:/app/applicationscourtorders-service/DS.eventstore")
+    private String eventStoreJndiName;
+
+    @Inject
+    private StringToJsonObjectConverter stringToJsonObjectConverter;
+
+    private DataSource eventStoreDataSource;
+
+    /**
+     * @return up to {@code maxEvents} court order events published after the given event number
+     */
+    public List<PublishedCourtOrderEvent> after(final long eventNumber, final int maxEvents) throws SQLException {
+        try (final Connection connection = eventStoreDataSource().getConnection();
+             final PreparedStatement statement = connection.prepareStatement(SELECT_EVENTS_AFTER)) {
+            statement.setLong(1, eventNumber);
+            statement.setString(2, COURT_ORDER_REQUESTED);
+            statement.setString(3, COURT_ORDER_REMOVED);
+            statement.setString(4, COURT_ORDER_VALIDITY_UPDATED);
+            statement.setString(5, COURT_ORDER_AMENDED);
+            statement.setString(6, JUDICIAL_CHILD_RESULTS_UPDATED);
+            statement.setInt(7, maxEvents);
+            try (final ResultSet resultSet = statement.executeQuery()) {
+                final List<PublishedCourtOrderEvent> events = new ArrayList<>();
+                while (resultSet.next()) {
+                    events.add(new PublishedCourtOrderEvent(resultSet.getLong("event_number"), resultSet.getString("name"),
+                            stringToJsonObjectConverter.convert(resultSet.getString("payload"))));
+                }
+                return events;
+            }
+        }
+    }
+
+    private synchronized DataSource eventStoreDataSource() throws SQLException {
+        if (eventStoreDataSource == null) {
+            try {
+                eventStoreDataSource = (DataSource) new InitialContext().lookup(eventStoreJndiName);
+            } catch (final NamingException e) {
+                throw new SQLException("No event store data source found at " + eventStoreJndiName, e);
+            }
+        }
+        return eventStoreDataSource;
+    }
+}
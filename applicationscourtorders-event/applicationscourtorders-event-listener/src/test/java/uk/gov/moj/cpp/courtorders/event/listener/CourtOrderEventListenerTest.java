@@ -1,13 +1,12 @@
 package uk.gov.moj.cpp.courtorders.event.listener;
 
-import static java.nio.charset.Charset.defaultCharset;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.never;
@@ -15,9 +14,6 @@ import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
 import static uk.gov.justice.services.test.utils.core.messaging.MetadataBuilderFactory.metadataWithRandomUUID;
 import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 
-import com.google.common.collect.Lists;
-import org.apache.commons.io.IOUtils;
-import org.hamcrest.core.IsNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,6 +22,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.justice.core.courts.CourtOrderAmended;
 import uk.gov.justice.core.courts.CourtOrderRemoved;
 import uk.gov.justice.core.courts.CourtOrderRequested;
 import uk.gov.justice.core.courts.CourtOrderValidityUpdated;
@@ -39,12 +36,13 @@ import uk.gov.moj.cpp.courtorders.command.CreateCourtOrder;
 import uk.gov.moj.cpp.courtorders.persistence.entity.CourtOrderEntity;
 import uk.gov.moj.cpp.courtorders.persistence.repository.CourtOrderRepository;
 
-import java.io.InputStream;
 import java.time.LocalDate;
-import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import javax.json.JsonObject;
+
 @ExtendWith(MockitoExtension.class)
 public class CourtOrderEventListenerTest {
 
@@ -60,6 +58,12 @@ public class CourtOrderEventListenerTest {
     @Mock
     private CourtOrderRepository courtOrderRepository;
 
+    @Spy
+    private CourtOrderProjection courtOrderProjection;
+
+    @Mock
+    private CourtOrderListenerActivity courtOrderListenerActivity;
+
     @InjectMocks
     private CourtOrderEventListener courtOrderEventListener;
 
@@ -67,6 +71,9 @@ public class CourtOrderEventListenerTest {
     public void setup() {
         setField(this.jsonObjectToObjectConverter, "objectMapper", new ObjectMapperProducer().objectMapper());
         setField(this.objectToJsonObjectConverter, "mapper", new ObjectMapperProducer().objectMapper());
+        setField(this.courtOrderProjection, "jsonObjectToObjectConverter", jsonObjectToObjectConverter);
+        setField(this.courtOrderProjection, "objectToJsonObjectConverter", objectToJsonObjectConverter);
+        setField(this.courtOrderProjection, "stringToJsonObjectConverter", stringToJsonObjectConverter);
     }
 
     @Test
@@ -76,18 +83,19 @@ public class CourtOrderEventListenerTest {
         final CourtOrderEntity courtOrderEntity = new CourtOrderEntity();
         courtOrderEntity.setCourtOrderId(courtOrderId);
         courtOrderEntity.setRemoved(false);
-        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Lists.newArrayList(courtOrderEntity));
+        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Optional.of(courtOrderEntity));
         courtOrderEventListener.removeCourtOrder(envelopeFrom(metadataWithRandomUUID("courtorders.event.court-order-removed"),
                 objectToJsonObjectConverter.convert(courtOrderRemoved)));
         assertTrue(courtOrderEntity.isRemoved());
         verify(courtOrderRepository).save(courtOrderEntity);
+        verify(courtOrderListenerActivity).eventApplied();
     }
 
     @Test
     public void removeCourtOrderWhenThereIsNoCourtOrderInDb() {
         final UUID courtOrderId = UUID.randomUUID();
         final CourtOrderRemoved courtOrderRemoved = CourtOrderRemoved.courtOrderRemoved().withCourtOrderId(courtOrderId).build();
-        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Collections.emptyList());
+        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Optional.empty());
         courtOrderEventListener.removeCourtOrder(envelopeFrom(metadataWithRandomUUID("courtorders.event.court-order-removed"),
                 objectToJsonObjectConverter.convert(courtOrderRemoved)));
 
@@ -107,7 +115,7 @@ public class CourtOrderEventListenerTest {
         final CourtOrderEntity courtOrderEntity = new CourtOrderEntity();
         courtOrderEntity.setCourtOrderId(courtOrderId);
         courtOrderEntity.setRemoved(false);
-        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Lists.newArrayList(courtOrderEntity));
+        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Optional.of(courtOrderEntity));
         courtOrderEventListener.saveCourtOrder(envelopeFrom(metadataWithRandomUUID("courtorders.event.court-order-requested"),
                 objectToJsonObjectConverter.convert(courtOrderRemoved)));
         assertFalse(courtOrderEntity.isRemoved());
@@ -127,7 +135,7 @@ public class CourtOrderEventListenerTest {
         final CourtOrderRequested courtOrderRemoved = CourtOrderRequested.courtOrderRequested().withCourtOrderId(courtOrderId)
                 .withCourtOrder(courtOrder).build();
         ArgumentCaptor<CourtOrderEntity> entityArgumentCaptor = ArgumentCaptor.forClass(CourtOrderEntity.class);
-        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Lists.newArrayList());
+        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Optional.empty());
         courtOrderEventListener.saveCourtOrder(envelopeFrom(metadataWithRandomUUID("courtorders.event.court-order-requested"),
                 objectToJsonObjectConverter.convert(courtOrderRemoved)));
         verify(courtOrderRepository).save(entityArgumentCaptor.capture());
@@ -152,7 +160,7 @@ public class CourtOrderEventListenerTest {
         final CourtOrderRequested courtOrderRemoved = CourtOrderRequested.courtOrderRequested().withCourtOrderId(courtOrderId)
                 .withCourtOrder(courtOrder).build();
         ArgumentCaptor<CourtOrderEntity> entityArgumentCaptor = ArgumentCaptor.forClass(CourtOrderEntity.class);
-        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Lists.newArrayList());
+        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Optional.empty());
         courtOrderEventListener.saveCourtOrder(envelopeFrom(metadataWithRandomUUID("courtorders.event.court-order-requested"),
                 objectToJsonObjectConverter.convert(courtOrderRemoved)));
         verify(courtOrderRepository).save(entityArgumentCaptor.capture());
@@ -175,19 +183,17 @@ public class CourtOrderEventListenerTest {
                 .withNewEndDate(newEndDate)
                 .withExpiryDate(expiryDate)
                 .build();
-        final CourtOrderEntity courtOrderEntity = new CourtOrderEntity();
-        courtOrderEntity.setCourtOrderId(courtOrderId);
-        courtOrderEntity.setRemoved(false);
-        courtOrderEntity.setPayload(getPayload("json/court-order-payload.json"));
-        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Lists.newArrayList(courtOrderEntity));
+
         courtOrderEventListener.updateCourtOrder(envelopeFrom(metadataWithRandomUUID("applicationscourtorders.event.court-order-validity-updated"),
                 objectToJsonObjectConverter.convert(courtOrderValidityUpdated)));
-        ArgumentCaptor<CourtOrderEntity> entityArgumentCaptor = ArgumentCaptor.forClass(CourtOrderEntity.class);
-        verify(courtOrderRepository).save(entityArgumentCaptor.capture());
-        final CourtOrderEntity updatedCourtOrderEntity = entityArgumentCaptor.getValue();
-        assertThat(updatedCourtOrderEntity.getExpiryDate(), is(expiryDate));
-        assertThat(stringToJsonObjectConverter.convert(updatedCourtOrderEntity.getPayload()).getString("endDate"), is(LocalDate.now().toString()));
-        assertThat(stringToJsonObjectConverter.convert(updatedCourtOrderEntity.getPayload()).getString("expiryDate"), is(expiryDate.toString()));
+
+        final JsonObject mergedFields = mergedFields(courtOrderId);
+        assertThat(mergedFields.size(), is(2));
+        assertThat(mergedFields.getString("endDate"), is(newEndDate.toString()));
+        assertThat(mergedFields.getString("expiryDate"), is(expiryDate.toString()));
+        verify(courtOrderRepository, never()).findByCourtOrderIdNotRemoved(any());
+        verify(courtOrderRepository, never()).save(any());
+        verify(courtOrderListenerActivity).eventApplied();
     }
 
     @Test
@@ -200,19 +206,13 @@ public class CourtOrderEventListenerTest {
                 .withApplicationId(applicationId)
                 .withNewEndDate(newEndDate)
                 .build();
-        final CourtOrderEntity courtOrderEntity = new CourtOrderEntity();
-        courtOrderEntity.setCourtOrderId(courtOrderId);
-        courtOrderEntity.setRemoved(false);
-        courtOrderEntity.setPayload(getPayload("json/court-order-payload.json"));
-        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Lists.newArrayList(courtOrderEntity));
+
         courtOrderEventListener.updateCourtOrder(envelopeFrom(metadataWithRandomUUID("applicationscourtorders.event.court-order-validity-updated"),
                 objectToJsonObjectConverter.convert(courtOrderValidityUpdated)));
-        ArgumentCaptor<CourtOrderEntity> entityArgumentCaptor = ArgumentCaptor.forClass(CourtOrderEntity.class);
-        verify(courtOrderRepository).save(entityArgumentCaptor.capture());
-        final CourtOrderEntity updatedCourtOrderEntity = entityArgumentCaptor.getValue();
-        assertThat(updatedCourtOrderEntity.getExpiryDate(), is(newEndDate));
-        assertThat(stringToJsonObjectConverter.convert(updatedCourtOrderEntity.getPayload()).getString("endDate"), is(newEndDate.toString()));
-        assertThat(stringToJsonObjectConverter.convert(updatedCourtOrderEntity.getPayload()).getString("expiryDate"), is(newEndDate.toString()));
+
+        final JsonObject mergedFields = mergedFields(courtOrderId);
+        assertThat(mergedFields.getString("endDate"), is(newEndDate.toString()));
+        assertThat(mergedFields.getString("expiryDate"), is(newEndDate.toString()));
     }
 
     @Test
@@ -225,17 +225,11 @@ public class CourtOrderEventListenerTest {
                 .withApplicationId(applicationId)
                 .withNewEndDate(newEndDate)
                 .build();
-        final CourtOrderEntity courtOrderEntity = new CourtOrderEntity();
-        courtOrderEntity.setCourtOrderId(courtOrderId);
-        courtOrderEntity.setRemoved(false);
-        courtOrderEntity.setPayload(getPayload("json/court-order-payload.json"));
-        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Lists.newArrayList(courtOrderEntity));
+
         courtOrderEventListener.updateCourtOrder(envelopeFrom(metadataWithRandomUUID("applicationscourtorders.event.court-order-validity-updated"),
                 objectToJsonObjectConverter.convert(courtOrderValidityUpdated)));
-        ArgumentCaptor<CourtOrderEntity> entityArgumentCaptor = ArgumentCaptor.forClass(CourtOrderEntity.class);
-        verify(courtOrderRepository).save(entityArgumentCaptor.capture());
-        final CourtOrderEntity updatedCourtOrderEntity = entityArgumentCaptor.getValue();
-        assertThat(stringToJsonObjectConverter.convert(updatedCourtOrderEntity.getPayload()).getString("endDate"), is(LocalDate.now().toString()));
+
+        assertThat(mergedFields(courtOrderId).getString("endDate"), is(LocalDate.now().toString()));
     }
 
     @Test
@@ -254,36 +248,63 @@ public class CourtOrderEventListenerTest {
                 .withExpiryDate(expiryDate)
                 .withIsUnpaidWork(true)
                 .build();
-        final CourtOrderEntity courtOrderEntity = new CourtOrderEntity();
-        courtOrderEntity.setCourtOrderId(courtOrderId);
-        courtOrderEntity.setRemoved(false);
-        courtOrderEntity.setPayload(getPayload("json/court-order-payload.json"));
-        when(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId)).thenReturn(Lists.newArrayList(courtOrderEntity));
 
         courtOrderEventListener.updateJudicialChildResults(envelopeFrom(metadataWithRandomUUID("applicationscourtorders.event.judicial-child-results-updated"),
                 objectToJsonObjectConverter.convert(judicialChildResultsUpdated)));
 
-        ArgumentCaptor<CourtOrderEntity> entityArgumentCaptor = ArgumentCaptor.forClass(CourtOrderEntity.class);
-        verify(courtOrderRepository).save(entityArgumentCaptor.capture());
+        final JsonObject mergedFields = mergedFields(courtOrderId);
+        assertThat(mergedFields.getString("expiryDate"), is(expiryDate.toString()));
+        assertThat(mergedFields.getBoolean("isUnpaidWork"), is(true));
+        assertThat(mergedFields.getJsonArray("judicialChildResults").size(), is(1));
+        assertThat(jsonObjectToObjectConverter.convert(mergedFields.getJsonArray("judicialChildResults").get(0).asJsonObject(), JudicialChildResults.class).getJudicialResultTypeId(), is(judicialResultTypeId));
+        assertThat(jsonObjectToObjectConverter.convert(mergedFields.getJsonArray("judicialChildResults").get(0).asJsonObject(), JudicialChildResults.class).getJudicialResultId(), is(judicialResultId));
+    }
+
+    @Test
+    void shouldAmendOnlyTheFieldsCarriedByCourtOrderAmended() {
+        final UUID courtOrderId = UUID.randomUUID();
+        final LocalDate expiryDate = LocalDate.now().plusYears(1);
+        final UUID judicialResultTypeId = UUID.randomUUID();
+        final CourtOrderAmended courtOrderAmended = CourtOrderAmended.courtOrderAmended()
+                .withCourtOrderId(courtOrderId)
+                .withJudicialChildResults(singletonList(JudicialChildResults.judicialChildResults()
+                        .withJudicialResultId(UUID.randomUUID())
+                        .withJudicialResultTypeId(judicialResultTypeId)
+                        .withLabel("Curfew")
+                        .build()))
+                .withExpiryDate(expiryDate)
+                .build();
+
+        courtOrderEventListener.amendCourtOrder(envelopeFrom(metadataWithRandomUUID("applicationscourtorders.event.court-order-amended"),
+                objectToJsonObjectConverter.convert(courtOrderAmended)));
+
+        final JsonObject mergedFields = mergedFields(courtOrderId);
+        assertThat(mergedFields.getString("expiryDate"), is(expiryDate.toString()));
+        assertThat(mergedFields.getJsonArray("judicialChildResults").getJsonObject(0).getString("judicialResultTypeId"), is(judicialResultTypeId.toString()));
+        assertThat(mergedFields.containsKey("courtOrderId"), is(false));
+        assertThat(mergedFields.containsKey("isUnpaidWork"), is(false));
+        assertThat(mergedFields.containsKey("courtOrderOffences"), is(false));
+        verify(courtOrderRepository, never()).findByCourtOrderIdNotRemoved(any());
+    }
+
+    @Test
+    void shouldNotStoreCourtOrderWhenAmendingOneThatIsNotStored() {
+        final UUID courtOrderId = UUID.randomUUID();
+        when(courtOrderRepository.mergePayload(any(), any())).thenReturn(0);
+
+        courtOrderEventListener.amendCourtOrder(envelopeFrom(metadataWithRandomUUID("applicationscourtorders.event.court-order-amended"),
+                objectToJsonObjectConverter.convert(CourtOrderAmended.courtOrderAmended()
+                        .withCourtOrderId(courtOrderId)
+                        .withIsUnpaidWork(true)
+                        .build())));
 
-        final CourtOrderEntity updatedCourtOrderEntity = entityArgumentCaptor.getValue();
-        assertThat(updatedCourtOrderEntity.getExpiryDate(), is(expiryDate));
-        assertThat(stringToJsonObjectConverter.convert(updatedCourtOrderEntity.getPayload()).getString("expiryDate"), is(expiryDate.toString()));
-        assertThat(stringToJsonObjectConverter.convert(updatedCourtOrderEntity.getPayload()).getBoolean("isUnpaidWork"), is(true));
-        assertThat(stringToJsonObjectConverter.convert(updatedCourtOrderEntity.getPayload()).getJsonArray("judicialChildResults").size(), is(1));
-        assertThat(jsonObjectToObjectConverter.convert(stringToJsonObjectConverter.convert(updatedCourtOrderEntity.getPayload()).getJsonArray("judicialChildResults").get(0).asJsonObject(), JudicialChildResults.class).getJudicialResultTypeId(), is(judicialResultTypeId));
-        assertThat(jsonObjectToObjectConverter.convert(stringToJsonObjectConverter.convert(updatedCourtOrderEntity.getPayload()).getJsonArray("judicialChildResults").get(0).asJsonObject(), JudicialChildResults.class).getJudicialResultId(), is(judicialResultId));
+        assertThat(mergedFields(courtOrderId).getBoolean("isUnpaidWork"), is(true));
+        verify(courtOrderRepository, never()).save(any());
     }
 
-    private static String getPayload(final String path) {
-        String request = null;
-        try {
-            final InputStream inputStream = CourtOrderEventListenerTest.class.getClassLoader().getResourceAsStream(path);
-            assertThat(inputStream, IsNull.notNullValue());
-            request = IOUtils.toString(inputStream, defaultCharset());
-        } catch (final Exception e) {
-            fail("Error consuming file from location " + path);
-        }
-        return request;
+    private JsonObject mergedFields(final UUID courtOrderId) {
+        final ArgumentCaptor<String> fieldsCaptor = ArgumentCaptor.forClass(String.class);
+        verify(courtOrderRepository).mergePayload(eq(courtOrderId), fieldsCaptor.capture());
+        return stringToJsonObjectConverter.convert(fieldsCaptor.getValue());
     }
 }
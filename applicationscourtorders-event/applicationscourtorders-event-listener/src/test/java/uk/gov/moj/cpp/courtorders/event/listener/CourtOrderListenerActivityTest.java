@@ -0,0 +1,38 @@
+package uk.gov.moj.cpp.courtorders.event.listener;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import org.junit.jupiter.api.Test;
+
+class CourtOrderListenerActivityTest {
+
+    private final CourtOrderListenerActivity courtOrderListenerActivity = new CourtOrderListenerActivity();
+
+    @Test
+    void shouldNotBeProcessingBeforeAnyEventIsApplied() {
+        setField(courtOrderListenerActivity, "quietMillis", "30000");
+
+        assertThat(courtOrderListenerActivity.isProcessing(), is(false));
+    }
+
+    @Test
+    void shouldBeProcessingWithinQuietPeriodOfLastEventApplied() {
+        setField(courtOrderListenerActivity, "quietMillis", "30000");
+
+        courtOrderListenerActivity.eventApplied();
+
+        assertThat(courtOrderListenerActivity.isProcessing(), is(true));
+    }
+
+    @Test
+    void shouldNotBeProcessingOnceQuietPeriodHasPassed() throws InterruptedException {
+        setField(courtOrderListenerActivity, "quietMillis", "1");
+
+        courtOrderListenerActivity.eventApplied();
+        Thread.sleep(5);
+
+        assertThat(courtOrderListenerActivity.isProcessing(), is(false));
+    }
+}
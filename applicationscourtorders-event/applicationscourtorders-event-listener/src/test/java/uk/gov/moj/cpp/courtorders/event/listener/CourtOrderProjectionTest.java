@@ -0,0 +1,132 @@
+package uk.gov.moj.cpp.courtorders.event.listener;
+
+import static java.util.UUID.randomUUID;
+import static javax.json.Json.createObjectBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.core.courts.CourtOrderOffence;
+import uk.gov.justice.core.courts.CourtOrderRequested;
+import uk.gov.justice.services.common.converter.JsonObjectToObjectConverter;
+import uk.gov.justice.services.common.converter.ObjectToJsonObjectConverter;
+import uk.gov.justice.services.common.converter.StringToJsonObjectConverter;
+import uk.gov.justice.services.common.converter.jackson.ObjectMapperProducer;
+import uk.gov.moj.cpp.courtorders.command.CreateCourtOrder;
+import uk.gov.moj.cpp.courtorders.persistence.entity.CourtOrderEntity;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.json.JsonObject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CourtOrderProjectionTest {
+
+    private final JsonObjectToObjectConverter jsonObjectToObjectConverter = new JsonObjectToObjectConverter();
+    private final ObjectToJsonObjectConverter objectToJsonObjectConverter = new ObjectToJsonObjectConverter();
+    private final StringToJsonObjectConverter stringToJsonObjectConverter = new StringToJsonObjectConverter();
+    private final CourtOrderProjection courtOrderProjection = new CourtOrderProjection();
+
+    @BeforeEach
+    void setUp() {
+        setField(jsonObjectToObjectConverter, "objectMapper", new ObjectMapperProducer().objectMapper());
+        setField(objectToJsonObjectConverter, "mapper", new ObjectMapperProducer().objectMapper());
+        setField(courtOrderProjection, "jsonObjectToObjectConverter", jsonObjectToObjectConverter);
+        setField(courtOrderProjection, "objectToJsonObjectConverter", objectToJsonObjectConverter);
+        setField(courtOrderProjection, "stringToJsonObjectConverter", stringToJsonObjectConverter);
+    }
+
+    @Test
+    void shouldCreateCourtOrderRequestedForFirstTime() {
+        final UUID courtOrderId = randomUUID();
+        final LocalDate endDate = LocalDate.now().plusYears(1);
+
+        final CourtOrderEntity courtOrderEntity = courtOrderProjection.courtOrderRequested(null, courtOrderRequested(courtOrderId, endDate));
+
+        assertThat(courtOrderEntity.getCourtOrderId(), is(courtOrderId));
+        assertThat(courtOrderEntity.getExpiryDate(), is(endDate));
+        assertThat(courtOrderEntity.isRemoved(), is(false));
+        assertThat(stringToJsonObjectConverter.convert(courtOrderEntity.getPayload()).getString("endDate"), is(endDate.toString()));
+    }
+
+    @Test
+    void shouldReplacePayloadOfCourtOrderRequestedAgain() {
+        final UUID courtOrderId = randomUUID();
+        final CourtOrderEntity stored = courtOrderProjection.courtOrderRequested(null, courtOrderRequested(courtOrderId, LocalDate.now()));
+        final UUID id = stored.getId();
+        final LocalDate endDate = LocalDate.now().plusDays(1);
+
+        final CourtOrderEntity courtOrderEntity = courtOrderProjection.courtOrderRequested(stored, courtOrderRequested(courtOrderId, endDate));
+
+        assertThat(courtOrderEntity, is(sameInstance(stored)));
+        assertThat(courtOrderEntity.getId(), is(id));
+        assertThat(stringToJsonObjectConverter.convert(courtOrderEntity.getPayload()).getString("endDate"), is(endDate.toString()));
+    }
+
+    @Test
+    void shouldSetProsecutionCasesOfCourtOrderOffencesAndDropThemWhenRemoved() {
+        final UUID courtOrderId = randomUUID();
+        final UUID prosecutionCaseId1 = randomUUID();
+        final UUID prosecutionCaseId2 = randomUUID();
+        final CourtOrderEntity stored = courtOrderProjection.courtOrderRequested(null, courtOrderRequested(courtOrderId, LocalDate.now(), prosecutionCaseId1));
+
+        final CourtOrderEntity courtOrderEntity = courtOrderProjection.courtOrderRequested(stored,
+                courtOrderRequested(courtOrderId, LocalDate.now(), prosecutionCaseId2, prosecutionCaseId2));
+
+        assertThat(courtOrderEntity.getProsecutionCaseIds(), is(Set.of(prosecutionCaseId2)));
+
+        courtOrderProjection.courtOrderRemoved(courtOrderEntity);
+
+        assertThat(courtOrderEntity.isRemoved(), is(true));
+        assertThat(courtOrderEntity.getProsecutionCaseIds(), is(empty()));
+    }
+
+    @Test
+    void shouldMergeFieldsIntoPayloadAndExpiryDate() {
+        final CourtOrderEntity courtOrderEntity = courtOrderProjection.courtOrderRequested(null, courtOrderRequested(randomUUID(), LocalDate.now()));
+        final JsonObject stored = stringToJsonObjectConverter.convert(courtOrderEntity.getPayload());
+        final LocalDate expiryDate = LocalDate.now().plusYears(2);
+
+        courtOrderProjection.merge(courtOrderEntity, createObjectBuilder().add("expiryDate", expiryDate.toString()).add("isUnpaidWork", true).build());
+
+        final JsonObject merged = stringToJsonObjectConverter.convert(courtOrderEntity.getPayload());
+        assertThat(courtOrderEntity.getExpiryDate(), is(expiryDate));
+        assertThat(merged.getString("expiryDate"), is(expiryDate.toString()));
+        assertThat(merged.getBoolean("isUnpaidWork"), is(true));
+        assertThat(merged.getString("id"), is(stored.getString("id")));
+        assertThat(merged.getString("endDate"), is(stored.getString("endDate")));
+    }
+
+    @Test
+    void shouldKeepExpiryDateWhenMergedFieldsDoNotCarryOne() {
+        final LocalDate endDate = LocalDate.now();
+        final CourtOrderEntity courtOrderEntity = courtOrderProjection.courtOrderRequested(null, courtOrderRequested(randomUUID(), endDate));
+
+        courtOrderProjection.merge(courtOrderEntity, createObjectBuilder().add("isUnpaidWork", false).build());
+
+        assertThat(courtOrderEntity.getExpiryDate(), is(endDate));
+    }
+
+    private JsonObject courtOrderRequested(final UUID courtOrderId, final LocalDate endDate, final UUID... prosecutionCaseIds) {
+        return objectToJsonObjectConverter.convert(CourtOrderRequested.courtOrderRequested()
+                .withCourtOrderId(courtOrderId)
+                .withCourtOrder(CreateCourtOrder.createCourtOrder()
+                        .withId(courtOrderId)
+                        .withOrderingHearingId(randomUUID())
+                        .withMasterDefendantId(randomUUID())
+                        .withOrderDate(LocalDate.now())
+                        .withEndDate(endDate)
+                        .withCourtOrderOffences(Stream.of(prosecutionCaseIds)
+                                .map(prosecutionCaseId -> CourtOrderOffence.courtOrderOffence().withProsecutionCaseId(prosecutionCaseId).build())
+                                .toList())
+                        .build())
+                .build());
+    }
+}
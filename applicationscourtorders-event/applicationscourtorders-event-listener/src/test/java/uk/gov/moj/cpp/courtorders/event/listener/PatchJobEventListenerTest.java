@@ -0,0 +1,124 @@
+package uk.gov.moj.cpp.courtorders.event.listener;
+
+import static java.time.ZoneOffset.UTC;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
+import static uk.gov.justice.services.test.utils.core.messaging.MetadataBuilderFactory.metadataWithRandomUUID;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.core.courts.PatchJobChunkCompleted;
+import uk.gov.justice.core.courts.PatchJobCompleted;
+import uk.gov.justice.core.courts.PatchJobStarted;
+import uk.gov.justice.services.common.converter.JsonObjectToObjectConverter;
+import uk.gov.justice.services.common.converter.ObjectToJsonObjectConverter;
+import uk.gov.justice.services.common.converter.jackson.ObjectMapperProducer;
+import uk.gov.moj.cpp.courtorders.persistence.entity.PatchJobEntity;
+import uk.gov.moj.cpp.courtorders.persistence.repository.PatchJobRepository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PatchJobEventListenerTest {
+
+    @Spy
+    private JsonObjectToObjectConverter jsonObjectToObjectConverter;
+
+    @Spy
+    private ObjectToJsonObjectConverter objectToJsonObjectConverter;
+
+    @Mock
+    private PatchJobRepository patchJobRepository;
+
+    @InjectMocks
+    private PatchJobEventListener patchJobEventListener;
+
+    private final UUID jobId = randomUUID();
+    private final ZonedDateTime now = ZonedDateTime.now(UTC);
+
+    @BeforeEach
+    void setup() {
+        setField(this.jsonObjectToObjectConverter, "objectMapper", new ObjectMapperProducer().objectMapper());
+        setField(this.objectToJsonObjectConverter, "mapper", new ObjectMapperProducer().objectMapper());
+    }
+
+    @Test
+    void shouldSavePatchJobWhenStarted() {
+        final PatchJobStarted patchJobStarted = PatchJobStarted.patchJobStarted()
+                .withJobId(jobId)
+                .withCommandName("courtorders.command.patch-update-judicial-child-results")
+                .withCourtOrderIds(List.of(randomUUID(), randomUUID(), randomUUID()))
+                .withChunkSize(2)
+                .withStartedAt(now)
+                .build();
+
+        patchJobEventListener.patchJobStarted(envelopeFrom(metadataWithRandomUUID("applicationscourtorders.event.patch-job-started"),
+                objectToJsonObjectConverter.convert(patchJobStarted)));
+
+        final ArgumentCaptor<PatchJobEntity> patchJobCaptor = ArgumentCaptor.forClass(PatchJobEntity.class);
+        verify(patchJobRepository).save(patchJobCaptor.capture());
+        assertThat(patchJobCaptor.getValue().getJobId(), is(jobId));
+        assertThat(patchJobCaptor.getValue().getTotalCount(), is(3));
+        assertThat(patchJobCaptor.getValue().getChunkCount(), is(2));
+        assertThat(patchJobCaptor.getValue().getProcessedCount(), is(0));
+    }
+
+    @Test
+    void shouldRecordProgressWhenChunkCompleted() {
+        final PatchJobEntity patchJobEntity = new PatchJobEntity();
+        patchJobEntity.setJobId(jobId);
+        patchJobEntity.setProcessedCount(2);
+        when(patchJobRepository.findBy(jobId)).thenReturn(patchJobEntity);
+
+        patchJobEventListener.patchJobChunkCompleted(envelopeFrom(metadataWithRandomUUID("applicationscourtorders.event.patch-job-chunk-completed"),
+                objectToJsonObjectConverter.convert(PatchJobChunkCompleted.patchJobChunkCompleted()
+                        .withJobId(jobId)
+                        .withChunkIndex(1)
+                        .withProcessedCount(1)
+                        .withCompletedAt(now)
+                        .build())));
+
+        verify(patchJobRepository).save(patchJobEntity);
+        assertThat(patchJobEntity.getProcessedCount(), is(3));
+        assertThat(patchJobEntity.getCompletedChunkCount(), is(2));
+        assertThat(patchJobEntity.getLastCheckpointAt().toInstant(), is(now.toInstant()));
+    }
+
+    @Test
+    void shouldRecordCompletion() {
+        final PatchJobEntity patchJobEntity = new PatchJobEntity();
+        when(patchJobRepository.findBy(jobId)).thenReturn(patchJobEntity);
+
+        patchJobEventListener.patchJobCompleted(envelopeFrom(metadataWithRandomUUID("applicationscourtorders.event.patch-job-completed"),
+                objectToJsonObjectConverter.convert(PatchJobCompleted.patchJobCompleted().withJobId(jobId).withCompletedAt(now).build())));
+
+        verify(patchJobRepository).save(patchJobEntity);
+        assertThat(patchJobEntity.getCompletedAt().toInstant(), is(now.toInstant()));
+    }
+
+    @Test
+    void shouldIgnoreProgressForUnknownJob() {
+        when(patchJobRepository.findBy(jobId)).thenReturn(null);
+
+        patchJobEventListener.patchJobCompleted(envelopeFrom(metadataWithRandomUUID("applicationscourtorders.event.patch-job-completed"),
+                objectToJsonObjectConverter.convert(PatchJobCompleted.patchJobCompleted().withJobId(jobId).withCompletedAt(now).build())));
+
+        verify(patchJobRepository, never()).save(any());
+    }
+}
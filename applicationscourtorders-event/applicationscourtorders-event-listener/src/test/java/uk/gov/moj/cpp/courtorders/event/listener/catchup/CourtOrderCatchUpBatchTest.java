@@ -0,0 +1,164 @@
+package uk.gov.moj.cpp.courtorders.event.listener.catchup;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_AMENDED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_REMOVED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_REQUESTED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_VALIDITY_UPDATED;
+
+import uk.gov.justice.core.courts.CourtOrderAmended;
+import uk.gov.justice.core.courts.CourtOrderRemoved;
+import uk.gov.justice.core.courts.CourtOrderRequested;
+import uk.gov.justice.core.courts.CourtOrderValidityUpdated;
+import uk.gov.justice.services.common.converter.JsonObjectToObjectConverter;
+import uk.gov.justice.services.common.converter.ObjectToJsonObjectConverter;
+import uk.gov.justice.services.common.converter.StringToJsonObjectConverter;
+import uk.gov.justice.services.common.converter.jackson.ObjectMapperProducer;
+import uk.gov.moj.cpp.courtorders.command.CreateCourtOrder;
+import uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection;
+import uk.gov.moj.cpp.courtorders.persistence.entity.CourtOrderEntity;
+import uk.gov.moj.cpp.courtorders.persistence.repository.CourtOrderRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.json.JsonObject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CourtOrderCatchUpBatchTest {
+
+    @Mock
+    private CourtOrderRepository courtOrderRepository;
+
+    @Spy
+    private CourtOrderProjection courtOrderProjection;
+
+    @InjectMocks
+    private CourtOrderCatchUpBatch courtOrderCatchUpBatch;
+
+    private final JsonObjectToObjectConverter jsonObjectToObjectConverter = new JsonObjectToObjectConverter();
+    private final ObjectToJsonObjectConverter objectToJsonObjectConverter = new ObjectToJsonObjectConverter();
+    private final StringToJsonObjectConverter stringToJsonObjectConverter = new StringToJsonObjectConverter();
+
+    private long eventNumber;
+
+    @BeforeEach
+    void setUp() {
+        setField(jsonObjectToObjectConverter, "objectMapper", new ObjectMapperProducer().objectMapper());
+        setField(objectToJsonObjectConverter, "mapper", new ObjectMapperProducer().objectMapper());
+        setField(courtOrderProjection, "jsonObjectToObjectConverter", jsonObjectToObjectConverter);
+        setField(courtOrderProjection, "objectToJsonObjectConverter", objectToJsonObjectConverter);
+        setField(courtOrderProjection, "stringToJsonObjectConverter", stringToJsonObjectConverter);
+    }
+
+    @Test
+    void shouldFoldEveryEventOfBatchIntoRowsReadWithOneQuery() {
+        final UUID storedCourtOrderId = randomUUID();
+        final UUID requestedCourtOrderId = randomUUID();
+        final UUID unknownCourtOrderId = randomUUID();
+        final LocalDate newEndDate = LocalDate.now().plusMonths(6);
+        final LocalDate expiryDate = LocalDate.now().plusYears(2);
+        final CourtOrderEntity stored = courtOrderProjection.courtOrderRequested(null, courtOrderRequested(storedCourtOrderId).payload());
+        when(courtOrderRepository.findByCourtOrderIdsNotRemoved(any())).thenReturn(List.of(stored));
+
+        courtOrderCatchUpBatch.project(List.of(
+                validityUpdated(storedCourtOrderId, newEndDate),
+                courtOrderRequested(requestedCourtOrderId),
+                event(COURT_ORDER_AMENDED, CourtOrderAmended.courtOrderAmended().withCourtOrderId(requestedCourtOrderId).withIsUnpaidWork(true).withExpiryDate(expiryDate).build()),
+                event(COURT_ORDER_REMOVED, CourtOrderRemoved.courtOrderRemoved().withCourtOrderId(storedCourtOrderId).build()),
+                validityUpdated(unknownCourtOrderId, newEndDate)));
+
+        verify(courtOrderRepository).findByCourtOrderIdsNotRemoved(Set.of(storedCourtOrderId, requestedCourtOrderId, unknownCourtOrderId));
+        assertThat(stored.isRemoved(), is(true));
+        assertThat(stored.getExpiryDate(), is(newEndDate));
+        assertThat(stringToJsonObjectConverter.convert(stored.getPayload()).getString("endDate"), is(newEndDate.toString()));
+
+        final ArgumentCaptor<CourtOrderEntity> persisted = ArgumentCaptor.forClass(CourtOrderEntity.class);
+        verify(courtOrderRepository).persist(persisted.capture());
+        assertThat(persisted.getAllValues().stream().map(CourtOrderEntity::getCourtOrderId).toList(), contains(requestedCourtOrderId));
+        assertThat(persisted.getValue().isRemoved(), is(false));
+        assertThat(persisted.getValue().getExpiryDate(), is(expiryDate));
+        assertThat(stringToJsonObjectConverter.convert(persisted.getValue().getPayload()).getBoolean("isUnpaidWork"), is(true));
+        verify(courtOrderRepository, times(2)).flush();
+        verify(courtOrderRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldStoreCourtOrderRequestedAgainAfterItWasRemovedInSameBatchAsNewRow() {
+        final UUID courtOrderId = randomUUID();
+        when(courtOrderRepository.findByCourtOrderIdsNotRemoved(any())).thenReturn(List.of());
+
+        courtOrderCatchUpBatch.project(List.of(
+                courtOrderRequested(courtOrderId),
+                event(COURT_ORDER_REMOVED, CourtOrderRemoved.courtOrderRemoved().withCourtOrderId(courtOrderId).build()),
+                courtOrderRequested(courtOrderId)));
+
+        final ArgumentCaptor<CourtOrderEntity> persisted = ArgumentCaptor.forClass(CourtOrderEntity.class);
+        verify(courtOrderRepository, times(2)).persist(persisted.capture());
+        assertThat(persisted.getAllValues().stream().map(CourtOrderEntity::isRemoved).toList(), contains(true, false));
+    }
+
+    @Test
+    void shouldRemoveStoredCourtOrderBeforeStoringItAgain() {
+        final UUID courtOrderId = randomUUID();
+        final CourtOrderEntity stored = courtOrderProjection.courtOrderRequested(null, courtOrderRequested(courtOrderId).payload());
+        when(courtOrderRepository.findByCourtOrderIdsNotRemoved(any())).thenReturn(List.of(stored));
+
+        courtOrderCatchUpBatch.project(List.of(
+                event(COURT_ORDER_REMOVED, CourtOrderRemoved.courtOrderRemoved().withCourtOrderId(courtOrderId).build()),
+                courtOrderRequested(courtOrderId)));
+
+        assertThat(stored.isRemoved(), is(true));
+        final InOrder inOrder = inOrder(courtOrderRepository);
+        inOrder.verify(courtOrderRepository).flush();
+        inOrder.verify(courtOrderRepository).persist(any());
+        inOrder.verify(courtOrderRepository).flush();
+    }
+
+    private PublishedCourtOrderEvent courtOrderRequested(final UUID courtOrderId) {
+        return event(COURT_ORDER_REQUESTED, CourtOrderRequested.courtOrderRequested()
+                .withCourtOrderId(courtOrderId)
+                .withCourtOrder(CreateCourtOrder.createCourtOrder()
+                        .withId(courtOrderId)
+                        .withMasterDefendantId(randomUUID())
+                        .withOrderDate(LocalDate.now())
+                        .withEndDate(LocalDate.now().plusYears(1))
+                        .build())
+                .build());
+    }
+
+    private PublishedCourtOrderEvent validityUpdated(final UUID courtOrderId, final LocalDate newEndDate) {
+        return event(COURT_ORDER_VALIDITY_UPDATED, CourtOrderValidityUpdated.courtOrderValidityUpdated()
+                .withCourtOrderId(courtOrderId)
+                .withApplicationId(randomUUID())
+                .withNewEndDate(newEndDate)
+                .build());
+    }
+
+    private PublishedCourtOrderEvent event(final String name, final Object event) {
+        final JsonObject payload = objectToJsonObjectConverter.convert(event);
+        return new PublishedCourtOrderEvent(++eventNumber, name, payload);
+    }
+}
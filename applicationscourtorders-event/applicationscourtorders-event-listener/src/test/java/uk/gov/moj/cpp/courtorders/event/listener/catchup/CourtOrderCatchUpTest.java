@@ -0,0 +1,132 @@
+package uk.gov.moj.cpp.courtorders.event.listener.catchup;
+
+import static javax.json.Json.createObjectBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_REMOVED;
+
+import uk.gov.moj.cpp.courtorders.event.listener.CourtOrderListenerActivity;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CourtOrderCatchUpTest {
+
+    @Mock
+    private ManagedExecutorService managedExecutorService;
+
+    @Mock
+    private PublishedCourtOrderEvents publishedCourtOrderEvents;
+
+    @Mock
+    private CourtOrderCatchUpBatch courtOrderCatchUpBatch;
+
+    @Mock
+    private CourtOrderListenerActivity courtOrderListenerActivity;
+
+    @InjectMocks
+    private CourtOrderCatchUp courtOrderCatchUp;
+
+    @BeforeEach
+    void setUp() {
+        setField(courtOrderCatchUp, "batchSize", "2");
+    }
+
+    @Test
+    void shouldProjectBatchesUntilEventStoreIsCaughtUp() throws SQLException {
+        runSubmittedTasksOnCallingThread();
+        final List<PublishedCourtOrderEvent> firstBatch = List.of(event(11), event(12));
+        final List<PublishedCourtOrderEvent> lastBatch = List.of(event(15));
+        when(publishedCourtOrderEvents.after(10, 2)).thenReturn(firstBatch);
+        when(publishedCourtOrderEvents.after(12, 2)).thenReturn(lastBatch);
+
+        courtOrderCatchUp.catchUp(10);
+
+        verify(courtOrderCatchUpBatch).project(firstBatch);
+        verify(courtOrderCatchUpBatch).project(lastBatch);
+        verify(publishedCourtOrderEvents, never()).after(15, 2);
+        assertThat(courtOrderCatchUp.isRunning(), is(false));
+        assertThat(courtOrderCatchUp.getProjectedEvents(), is(3L));
+        assertThat(courtOrderCatchUp.getLastEventNumber(), is(15L));
+    }
+
+    @Test
+    void shouldStopAtFailedBatchAndReportLastEventProjected() throws SQLException {
+        runSubmittedTasksOnCallingThread();
+        final List<PublishedCourtOrderEvent> firstBatch = List.of(event(1), event(2));
+        final List<PublishedCourtOrderEvent> failedBatch = List.of(event(3), event(4));
+        when(publishedCourtOrderEvents.after(0, 2)).thenReturn(firstBatch);
+        when(publishedCourtOrderEvents.after(2, 2)).thenReturn(failedBatch);
+        doThrow(new IllegalStateException("flush failed")).when(courtOrderCatchUpBatch).project(failedBatch);
+
+        courtOrderCatchUp.catchUp(0);
+
+        assertThat(courtOrderCatchUp.isRunning(), is(false));
+        assertThat(courtOrderCatchUp.getProjectedEvents(), is(2L));
+        assertThat(courtOrderCatchUp.getLastEventNumber(), is(2L));
+    }
+
+    @Test
+    void shouldNotRunTwoCatchUpsAtOnce() {
+        courtOrderCatchUp.catchUp(0);
+        courtOrderCatchUp.catchUp(0);
+
+        verify(managedExecutorService, times(1)).submit(any(Runnable.class));
+        assertThat(courtOrderCatchUp.isRunning(), is(true));
+    }
+
+    @Test
+    void shouldNotStartWhileEventListenerIsProcessing() {
+        when(courtOrderListenerActivity.isProcessing()).thenReturn(true);
+
+        courtOrderCatchUp.catchUp(0);
+
+        verify(managedExecutorService, never()).submit(any(Runnable.class));
+        assertThat(courtOrderCatchUp.isRunning(), is(false));
+    }
+
+    @Test
+    void shouldStopBeforeNextBatchWhenEventListenerStartsProcessing() throws SQLException {
+        runSubmittedTasksOnCallingThread();
+        final List<PublishedCourtOrderEvent> firstBatch = List.of(event(11), event(12));
+        when(courtOrderListenerActivity.isProcessing()).thenReturn(false, false, true);
+        when(publishedCourtOrderEvents.after(10, 2)).thenReturn(firstBatch);
+
+        courtOrderCatchUp.catchUp(10);
+
+        verify(courtOrderCatchUpBatch).project(firstBatch);
+        verify(publishedCourtOrderEvents, never()).after(12, 2);
+        assertThat(courtOrderCatchUp.isRunning(), is(false));
+        assertThat(courtOrderCatchUp.getProjectedEvents(), is(2L));
+        assertThat(courtOrderCatchUp.getLastEventNumber(), is(12L));
+    }
+
+    private void runSubmittedTasksOnCallingThread() {
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(managedExecutorService).submit(any(Runnable.class));
+    }
+
+    private static PublishedCourtOrderEvent event(final long eventNumber) {
+        return new PublishedCourtOrderEvent(eventNumber, COURT_ORDER_REMOVED, createObjectBuilder().build());
+    }
+}
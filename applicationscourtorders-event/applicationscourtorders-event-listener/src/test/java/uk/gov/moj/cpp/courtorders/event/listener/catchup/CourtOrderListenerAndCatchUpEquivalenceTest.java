@@ -0,0 +1,240 @@
+package uk.gov.moj.cpp.courtorders.event.listener.catchup;
+
+import static java.util.Comparator.comparing;
+import static java.util.UUID.randomUUID;
+import static javax.json.Json.createObjectBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
+import static uk.gov.justice.services.test.utils.core.messaging.MetadataBuilderFactory.metadataWithRandomUUID;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_AMENDED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_REMOVED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_REQUESTED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_VALIDITY_UPDATED;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.JUDICIAL_CHILD_RESULTS_UPDATED;
+
+import uk.gov.justice.core.courts.CourtOrderAmended;
+import uk.gov.justice.core.courts.CourtOrderOffence;
+import uk.gov.justice.core.courts.CourtOrderRemoved;
+import uk.gov.justice.core.courts.CourtOrderRequested;
+import uk.gov.justice.core.courts.CourtOrderValidityUpdated;
+import uk.gov.justice.core.courts.JudicialChildResults;
+import uk.gov.justice.core.courts.JudicialChildResultsUpdated;
+import uk.gov.justice.services.common.converter.JsonObjectToObjectConverter;
+import uk.gov.justice.services.common.converter.ObjectToJsonObjectConverter;
+import uk.gov.justice.services.common.converter.StringToJsonObjectConverter;
+import uk.gov.justice.services.common.converter.jackson.ObjectMapperProducer;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+import uk.gov.moj.cpp.courtorders.command.CreateCourtOrder;
+import uk.gov.moj.cpp.courtorders.event.listener.CourtOrderEventListener;
+import uk.gov.moj.cpp.courtorders.event.listener.CourtOrderListenerActivity;
+import uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection;
+import uk.gov.moj.cpp.courtorders.persistence.entity.CourtOrderEntity;
+import uk.gov.moj.cpp.courtorders.persistence.repository.CourtOrderRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the same court order events through the event listener and through the catch-up batches,
+ * each against a viewstore held in memory, and checks both leave the same rows. The in memory
+ * viewstore merges payloads as the {@code CourtOrderRepository.mergePayload} statement does,
+ * rather than through {@link CourtOrderProjection#merge}.
+ */
+class CourtOrderListenerAndCatchUpEquivalenceTest {
+
+    private final JsonObjectToObjectConverter jsonObjectToObjectConverter = new JsonObjectToObjectConverter();
+    private final ObjectToJsonObjectConverter objectToJsonObjectConverter = new ObjectToJsonObjectConverter();
+    private final StringToJsonObjectConverter stringToJsonObjectConverter = new StringToJsonObjectConverter();
+    private final CourtOrderProjection courtOrderProjection = new CourtOrderProjection();
+
+    private long eventNumber;
+
+    @BeforeEach
+    void setUp() {
+        setField(jsonObjectToObjectConverter, "objectMapper", new ObjectMapperProducer().objectMapper());
+        setField(objectToJsonObjectConverter, "mapper", new ObjectMapperProducer().objectMapper());
+        setField(courtOrderProjection, "jsonObjectToObjectConverter", jsonObjectToObjectConverter);
+        setField(courtOrderProjection, "objectToJsonObjectConverter", objectToJsonObjectConverter);
+        setField(courtOrderProjection, "stringToJsonObjectConverter", stringToJsonObjectConverter);
+    }
+
+    @Test
+    void shouldLeaveSameRowsAsEventListenerWhenOneBatchHoldsAllEvents() {
+        final List<PublishedCourtOrderEvent> events = events();
+
+        assertThat(catchUpRows(events, events.size()), is(listenerRows(events)));
+    }
+
+    @Test
+    void shouldLeaveSameRowsAsEventListenerWhenEventsAreSplitAcrossBatches() {
+        final List<PublishedCourtOrderEvent> events = events();
+
+        final List<Row> listenerRows = listenerRows(events);
+
+        assertThat(listenerRows, hasSize(3));
+        assertThat(catchUpRows(events, 3), is(listenerRows));
+        assertThat(catchUpRows(events, 1), is(listenerRows));
+    }
+
+    private List<PublishedCourtOrderEvent> events() {
+        final UUID amendedCourtOrderId = randomUUID();
+        final UUID requestedAgainCourtOrderId = randomUUID();
+        return List.of(
+                courtOrderRequested(amendedCourtOrderId),
+                event(COURT_ORDER_VALIDITY_UPDATED, CourtOrderValidityUpdated.courtOrderValidityUpdated()
+                        .withCourtOrderId(amendedCourtOrderId)
+                        .withApplicationId(randomUUID())
+                        .withNewEndDate(LocalDate.of(2027, 3, 1))
+                        .build()),
+                event(COURT_ORDER_AMENDED, CourtOrderAmended.courtOrderAmended()
+                        .withCourtOrderId(amendedCourtOrderId)
+                        .withIsUnpaidWork(true)
+                        .withExpiryDate(LocalDate.of(2028, 3, 1))
+                        .build()),
+                courtOrderRequested(requestedAgainCourtOrderId),
+                event(COURT_ORDER_REMOVED, CourtOrderRemoved.courtOrderRemoved().withCourtOrderId(requestedAgainCourtOrderId).build()),
+                courtOrderRequested(requestedAgainCourtOrderId),
+                event(JUDICIAL_CHILD_RESULTS_UPDATED, JudicialChildResultsUpdated.judicialChildResultsUpdated()
+                        .withCourtOrderId(requestedAgainCourtOrderId)
+                        .withJudicialChildResults(List.of(JudicialChildResults.judicialChildResults()
+                                .withJudicialResultId(randomUUID())
+                                .withJudicialResultTypeId(randomUUID())
+                                .build()))
+                        .withExpiryDate(LocalDate.of(2029, 3, 1))
+                        .withIsUnpaidWork(false)
+                        .build()),
+                event(COURT_ORDER_VALIDITY_UPDATED, CourtOrderValidityUpdated.courtOrderValidityUpdated()
+                        .withCourtOrderId(randomUUID())
+                        .withApplicationId(randomUUID())
+                        .withNewEndDate(LocalDate.of(2027, 3, 1))
+                        .build()));
+    }
+
+    private List<Row> listenerRows(final List<PublishedCourtOrderEvent> events) {
+        final List<CourtOrderEntity> viewstore = new ArrayList<>();
+        final CourtOrderEventListener courtOrderEventListener = new CourtOrderEventListener();
+        setField(courtOrderEventListener, "courtOrderRepository", courtOrderRepository(viewstore));
+        setField(courtOrderEventListener, "courtOrderProjection", courtOrderProjection);
+        setField(courtOrderEventListener, "courtOrderListenerActivity", new CourtOrderListenerActivity());
+
+        for (final PublishedCourtOrderEvent event : events) {
+            final JsonEnvelope envelope = envelopeFrom(metadataWithRandomUUID(event.name()), event.payload());
+            switch (event.name()) {
+                case COURT_ORDER_REQUESTED -> courtOrderEventListener.saveCourtOrder(envelope);
+                case COURT_ORDER_REMOVED -> courtOrderEventListener.removeCourtOrder(envelope);
+                case COURT_ORDER_VALIDITY_UPDATED -> courtOrderEventListener.updateCourtOrder(envelope);
+                case COURT_ORDER_AMENDED -> courtOrderEventListener.amendCourtOrder(envelope);
+                case JUDICIAL_CHILD_RESULTS_UPDATED -> courtOrderEventListener.updateJudicialChildResults(envelope);
+                default -> throw new IllegalArgumentException("Not a court order event: " + event.name());
+            }
+        }
+        return rows(viewstore);
+    }
+
+    private List<Row> catchUpRows(final List<PublishedCourtOrderEvent> events, final int eventsPerBatch) {
+        final List<CourtOrderEntity> viewstore = new ArrayList<>();
+        final CourtOrderCatchUpBatch courtOrderCatchUpBatch = new CourtOrderCatchUpBatch();
+        setField(courtOrderCatchUpBatch, "courtOrderRepository", courtOrderRepository(viewstore));
+        setField(courtOrderCatchUpBatch, "courtOrderProjection", courtOrderProjection);
+
+        for (int from = 0; from < events.size(); from += eventsPerBatch) {
+            courtOrderCatchUpBatch.project(events.subList(from, Math.min(from + eventsPerBatch, events.size())));
+        }
+        return rows(viewstore);
+    }
+
+    /**
+     * @return a repository over the given rows, which are changed in place as managed entities are
+     */
+    private CourtOrderRepository courtOrderRepository(final List<CourtOrderEntity> viewstore) {
+        final CourtOrderRepository courtOrderRepository = mock(CourtOrderRepository.class);
+        when(courtOrderRepository.findByCourtOrderIdNotRemoved(any())).thenAnswer(invocation -> notRemoved(viewstore, invocation.getArgument(0)));
+        when(courtOrderRepository.findByCourtOrderIdsNotRemoved(any())).thenAnswer(invocation -> viewstore.stream()
+                .filter(courtOrderEntity -> !courtOrderEntity.isRemoved())
+                .filter(courtOrderEntity -> invocation.<Collection<UUID>>getArgument(0).contains(courtOrderEntity.getCourtOrderId()))
+                .toList());
+        when(courtOrderRepository.save(any())).thenAnswer(invocation -> {
+            final CourtOrderEntity courtOrderEntity = invocation.getArgument(0);
+            if (viewstore.stream().noneMatch(stored -> stored == courtOrderEntity)) {
+                viewstore.add(courtOrderEntity);
+            }
+            return courtOrderEntity;
+        });
+        doAnswer(invocation -> viewstore.add(invocation.getArgument(0))).when(courtOrderRepository).persist(any());
+        when(courtOrderRepository.mergePayload(any(), any())).thenAnswer(invocation ->
+                notRemoved(viewstore, invocation.getArgument(0))
+                        .map(courtOrderEntity -> mergePayload(courtOrderEntity, stringToJsonObjectConverter.convert(invocation.getArgument(1))))
+                        .orElse(0));
+        return courtOrderRepository;
+    }
+
+    private static Optional<CourtOrderEntity> notRemoved(final List<CourtOrderEntity> viewstore, final UUID courtOrderId) {
+        return viewstore.stream()
+                .filter(courtOrderEntity -> !courtOrderEntity.isRemoved() && courtOrderEntity.getCourtOrderId().equals(courtOrderId))
+                .findFirst();
+    }
+
+    /**
+     * {@code payload = payload || fields, expiry_date = coalesce(fields ->> 'expiryDate', expiry_date)}
+     */
+    private int mergePayload(final CourtOrderEntity courtOrderEntity, final JsonObject fields) {
+        final JsonObjectBuilder payload = createObjectBuilder();
+        stringToJsonObjectConverter.convert(courtOrderEntity.getPayload()).forEach(payload::add);
+        fields.forEach(payload::add);
+        courtOrderEntity.setPayload(payload.build().toString());
+        if (fields.containsKey("expiryDate") && !fields.isNull("expiryDate")) {
+            courtOrderEntity.setExpiryDate(LocalDate.parse(fields.getString("expiryDate")));
+        }
+        return 1;
+    }
+
+    private List<Row> rows(final List<CourtOrderEntity> viewstore) {
+        return viewstore.stream()
+                .map(courtOrderEntity -> new Row(courtOrderEntity.getCourtOrderId(), courtOrderEntity.isRemoved(), courtOrderEntity.getExpiryDate(),
+                        stringToJsonObjectConverter.convert(courtOrderEntity.getPayload()), courtOrderEntity.getHearingId(),
+                        courtOrderEntity.getSittingDate(), courtOrderEntity.getDefendantId(), new HashSet<>(courtOrderEntity.getProsecutionCaseIds())))
+                .sorted(comparing(Row::courtOrderId).thenComparing(Row::removed))
+                .toList();
+    }
+
+    private PublishedCourtOrderEvent courtOrderRequested(final UUID courtOrderId) {
+        return event(COURT_ORDER_REQUESTED, CourtOrderRequested.courtOrderRequested()
+                .withCourtOrderId(courtOrderId)
+                .withCourtOrder(CreateCourtOrder.createCourtOrder()
+                        .withId(courtOrderId)
+                        .withOrderingHearingId(randomUUID())
+                        .withMasterDefendantId(randomUUID())
+                        .withOrderDate(LocalDate.of(2026, 3, 1))
+                        .withEndDate(LocalDate.of(2027, 1, 1))
+                        .withCourtOrderOffences(List.of(CourtOrderOffence.courtOrderOffence().withProsecutionCaseId(randomUUID()).build()))
+                        .build())
+                .build());
+    }
+
+    private PublishedCourtOrderEvent event(final String name, final Object event) {
+        return new PublishedCourtOrderEvent(++eventNumber, name, objectToJsonObjectConverter.convert(event));
+    }
+
+    private record Row(UUID courtOrderId, boolean removed, LocalDate expiryDate, JsonObject payload, UUID hearingId,
+                       LocalDate sittingDate, UUID defendantId, Set<UUID> prosecutionCaseIds) {
+    }
+}
@@ -0,0 +1,83 @@
+package uk.gov.moj.cpp.courtorders.event.listener.catchup;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+import static uk.gov.moj.cpp.courtorders.event.listener.CourtOrderProjection.COURT_ORDER_AMENDED;
+
+import uk.gov.justice.services.common.converter.StringToJsonObjectConverter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PublishedCourtOrderEventsTest {
+
+    @Mock
+    private DataSource eventStoreDataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Spy
+    private StringToJsonObjectConverter stringToJsonObjectConverter;
+
+    @InjectMocks
+    private PublishedCourtOrderEvents publishedCourtOrderEvents;
+
+    @Test
+    void shouldReadCourtOrderEventsAfterEventNumber() throws SQLException {
+        when(eventStoreDataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getLong("event_number")).thenReturn(43L);
+        when(resultSet.getString("name")).thenReturn(COURT_ORDER_AMENDED);
+        when(resultSet.getString("payload")).thenReturn("{\"courtOrderId\":\"c7fb5fd9-0d8d-4b8f-9a4b-5f1d3c1e2a10\"}");
+
+        final List<PublishedCourtOrderEvent> events = publishedCourtOrderEvents.after(42, 100);
+
+        assertThat(events.size(), is(1));
+        assertThat(events.get(0).eventNumber(), is(43L));
+        assertThat(events.get(0).name(), is(COURT_ORDER_AMENDED));
+        assertThat(events.get(0).payload().getString("courtOrderId"), is("c7fb5fd9-0d8d-4b8f-9a4b-5f1d3c1e2a10"));
+        verify(statement).setLong(1, 42);
+        verify(statement).setInt(7, 100);
+        verify(resultSet).close();
+        verify(statement).close();
+        verify(connection).close();
+    }
+
+    @Test
+    void shouldFailToReadEventsWhenNoDataSourceIsBoundToConfiguredJndiName() {
+        final PublishedCourtOrderEvents unboundPublishedCourtOrderEvents = new PublishedCourtOrderEvents();
+        setField(unboundPublishedCourtOrderEvents, "eventStoreJndiName", "java:/app/unknown/DS.eventstore");
+
+        final SQLException exception = assertThrows(SQLException.class, () -> unboundPublishedCourtOrderEvents.after(42, 100));
+
+        assertThat(exception.getMessage(), containsString("java:/app/unknown/DS.eventstore"));
+    }
+}
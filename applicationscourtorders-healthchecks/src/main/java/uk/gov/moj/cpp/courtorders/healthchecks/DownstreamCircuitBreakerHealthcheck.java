@@ -0,0 +1,66 @@
+package uk.gov.moj.cpp.courtorders.healthchecks;
+
+import static java.lang.String.format;
+import static uk.gov.justice.services.healthcheck.api.HealthcheckResult.failure;
+import static uk.gov.justice.services.healthcheck.api.HealthcheckResult.success;
+
+import uk.gov.justice.services.healthcheck.api.Healthcheck;
+import uk.gov.justice.services.healthcheck.api.HealthcheckResult;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Fails while the circuit breaker for any downstream context the command handler queries is open.
+ * The breakers are read from the platform MBean server, where the command handler registers them.
+ */
+@ApplicationScoped
+public class DownstreamCircuitBreakerHealthcheck implements Healthcheck {
+
+    public static final String DOWNSTREAM_CIRCUIT_BREAKER_HEALTHCHECK_NAME = "downstream-circuit-breaker-healthcheck";
+
+    static final String DOWNSTREAM_GUARD_OBJECT_NAMES = "uk.gov.moj.cpp.courtorders:type=DownstreamGuard,*";
+
+    private static final String OPEN = "OPEN";
+
+    @Override
+    public String getHealthcheckName() {
+        return DOWNSTREAM_CIRCUIT_BREAKER_HEALTHCHECK_NAME;
+    }
+
+    @Override
+    public String healthcheckDescription() {
+        return "Checks that no circuit breaker on requests to referencedata or progression is open";
+    }
+
+    @Override
+    public HealthcheckResult runHealthcheck() {
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final List<String> openBreakers = mBeanServer.queryNames(new ObjectName(DOWNSTREAM_GUARD_OBJECT_NAMES), null).stream()
+                    .filter(objectName -> OPEN.equals(stateOf(mBeanServer, objectName)))
+                    .map(objectName -> objectName.getKeyProperty("name"))
+                    .sorted()
+                    .toList();
+            if (openBreakers.isEmpty()) {
+                return success();
+            }
+            return failure(format("Circuit breaker open for: %s", String.join(", ", openBreakers)));
+        } catch (final JMException e) {
+            return failure(format("Unable to read downstream circuit breakers: %s", e.getMessage()));
+        }
+    }
+
+    private static String stateOf(final MBeanServer mBeanServer, final ObjectName objectName) {
+        try {
+            return String.valueOf(mBeanServer.getAttribute(objectName, "State"));
+        } catch (final JMException e) {
+            return null;
+        }
+    }
+}
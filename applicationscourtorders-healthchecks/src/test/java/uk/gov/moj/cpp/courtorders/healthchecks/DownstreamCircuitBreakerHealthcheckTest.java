@@ -0,0 +1,70 @@
+package uk.gov.moj.cpp.courtorders.healthchecks;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static uk.gov.moj.cpp.courtorders.healthchecks.DownstreamCircuitBreakerHealthcheck.DOWNSTREAM_CIRCUIT_BREAKER_HEALTHCHECK_NAME;
+
+import uk.gov.justice.services.healthcheck.api.HealthcheckResult;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class DownstreamCircuitBreakerHealthcheckTest {
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    private final DownstreamCircuitBreakerHealthcheck downstreamCircuitBreakerHealthcheck = new DownstreamCircuitBreakerHealthcheck();
+
+    @AfterEach
+    public void unregister() throws Exception {
+        for (final ObjectName objectName : registered) {
+            mBeanServer.unregisterMBean(objectName);
+        }
+    }
+
+    @Test
+    public void shouldHaveHealthcheckName() {
+        assertThat(downstreamCircuitBreakerHealthcheck.getHealthcheckName(), is(DOWNSTREAM_CIRCUIT_BREAKER_HEALTHCHECK_NAME));
+    }
+
+    @Test
+    public void shouldPassWhenNoCircuitBreakerIsOpen() throws Exception {
+        register("referencedata", "CLOSED");
+        register("progression", "HALF_OPEN");
+
+        final HealthcheckResult healthcheckResult = downstreamCircuitBreakerHealthcheck.runHealthcheck();
+
+        assertThat(healthcheckResult.isPassed(), is(true));
+    }
+
+    @Test
+    public void shouldFailNamingEveryOpenCircuitBreaker() throws Exception {
+        register("referencedata", "OPEN");
+        register("progression", "OPEN");
+
+        final HealthcheckResult healthcheckResult = downstreamCircuitBreakerHealthcheck.runHealthcheck();
+
+        assertThat(healthcheckResult.isPassed(), is(false));
+        assertThat(healthcheckResult.getErrorMessage(), is(Optional.of("Circuit breaker open for: progression, referencedata")));
+    }
+
+    private void register(final String name, final String state) throws Exception {
+        final ObjectName objectName = new ObjectName("uk.gov.moj.cpp.courtorders:type=DownstreamGuard,name=" + name);
+        mBeanServer.registerMBean(new StandardMBean(() -> state, StateMBean.class), objectName);
+        registered.add(objectName);
+    }
+
+    public interface StateMBean {
+        String getState();
+    }
+}
@@ -1,5 +1,6 @@
 package uk.gov.moj.cpp.applications;
 
+import static com.jayway.jsonpath.matchers.JsonPathMatchers.isJson;
 import static com.jayway.jsonpath.matchers.JsonPathMatchers.withJsonPath;
 import static java.lang.String.format;
 import static java.lang.String.join;
@@ -21,11 +22,19 @@ import static uk.gov.moj.cpp.applications.util.FileUtil.getPayload;
 import static uk.gov.moj.cpp.applications.util.RestHelper.postCommand;
 import static uk.gov.moj.cpp.applications.util.WireMockStubUtils.setupResultDefinition;
 
+import uk.gov.justice.services.test.utils.persistence.TestJdbcConnectionProvider;
+
 import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
+import com.jayway.jsonpath.JsonPath;
 import org.apache.http.HttpStatus;
 import org.hamcrest.Matcher;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,6 +42,8 @@ import org.junit.jupiter.api.Test;
 
 public class CourtOrderIT extends AbstractIT {
 
+    private static final String CONTEXT_NAME = "applicationscourtorders";
+
     private String courtOrderId;
     private String defendantId;
     private String hearingId;
@@ -101,6 +112,37 @@ public class CourtOrderIT extends AbstractIT {
 
     }
 
+    /**
+     * The new end date is merged into the stored court order by CourtOrderRepository.mergePayload,
+     * whose jsonb concatenation only runs against Postgres, so the stored row is read back directly.
+     */
+    @Test
+    public void shouldMergeNewEndDateIntoStoredCourtOrder() throws IOException, SQLException {
+        courtOrderId = randomUUID().toString();
+        assertThat(submitCourtOrder().getStatus(), equalTo(HttpStatus.SC_ACCEPTED));
+        assertCourtOrderForCaseId(caseId, defendantId, withJsonPath("$.courtOrders[0].id", equalTo(courtOrderId)));
+
+        final LocalDate newEndDate = endDate.plusMonths(1);
+        assertThat(updateCourtOrderWithNewEndDate(newEndDate).getStatus(), equalTo(HttpStatus.SC_ACCEPTED));
+        assertCourtOrderForCaseId(caseId, defendantId, withJsonPath("$.courtOrders[0].endDate", is(newEndDate.toString())));
+
+        try (final Connection connection = new TestJdbcConnectionProvider().getViewStoreConnection(CONTEXT_NAME);
+             final PreparedStatement statement = connection.prepareStatement("select payload, expiry_date from court_order where court_order_id = ? and is_removed = false")) {
+            statement.setObject(1, UUID.fromString(courtOrderId));
+            try (final ResultSet resultSet = statement.executeQuery()) {
+                assertThat(resultSet.next(), is(true));
+                final String payload = resultSet.getString("payload");
+                assertThat(payload, isJson(allOf(
+                        withJsonPath("$.id", equalTo(courtOrderId)),
+                        withJsonPath("$.endDate", equalTo(newEndDate.toString())),
+                        withJsonPath("$.orderDate", equalTo(sittingDate.toString())),
+                        withJsonPath("$.courtOrderOffences[0].offence.offenceCode", equalTo("TTH105HY")))));
+                assertThat(resultSet.getObject("expiry_date", LocalDate.class), is(LocalDate.parse(JsonPath.read(payload, "$.expiryDate"))));
+                assertThat(resultSet.next(), is(false));
+            }
+        }
+    }
+
     private javax.ws.rs.core.Response removeCourtOrder() throws IOException {
         String removeCourtOrderPayload = getPayload("progression.remove-court-order.json")
                 .replace("%COURT_ORDER_ID%", courtOrderId);
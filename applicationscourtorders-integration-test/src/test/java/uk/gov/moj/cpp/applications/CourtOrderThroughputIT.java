@@ -0,0 +1,205 @@
+package uk.gov.moj.cpp.applications;
+
+import static com.jayway.jsonpath.matchers.JsonPathMatchers.withJsonPath;
+import static java.lang.String.join;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static javax.ws.rs.core.Response.Status.OK;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static uk.gov.justice.services.common.http.HeaderConstants.USER_ID;
+import static uk.gov.justice.services.messaging.JsonObjects.createArrayBuilder;
+import static uk.gov.justice.services.messaging.JsonObjects.createObjectBuilder;
+import static uk.gov.justice.services.test.utils.core.http.RequestParamsBuilder.requestParams;
+import static uk.gov.justice.services.test.utils.core.http.RestPoller.poll;
+import static uk.gov.justice.services.test.utils.core.matchers.ResponsePayloadMatcher.payload;
+import static uk.gov.justice.services.test.utils.core.matchers.ResponseStatusMatcher.status;
+import static uk.gov.moj.cpp.applications.util.AbstractTestHelper.getReadUrl;
+import static uk.gov.moj.cpp.applications.util.AbstractTestHelper.getWriteUrl;
+import static uk.gov.moj.cpp.applications.util.FileUtil.getPayload;
+import static uk.gov.moj.cpp.applications.util.RestHelper.postCommand;
+
+import uk.gov.moj.cpp.applications.util.DownstreamLatency;
+import uk.gov.moj.cpp.applications.util.DownstreamStandIn;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import javax.json.JsonArrayBuilder;
+
+import com.jayway.jsonpath.ReadContext;
+import org.apache.http.HttpStatus;
+import org.hamcrest.Matcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Throughput harness for the create court order and patch judicial child results v2 commands
+ * against slow downstream contexts. It is skipped unless run with {@code -DcourtOrderThroughput=true}
+ * and is tuned with:
+ * <ul>
+ *     <li>{@code courtOrderThroughput.commands} - number of court orders, default 200</li>
+ *     <li>{@code courtOrderThroughput.concurrency} - number of clients creating them, default 8</li>
+ *     <li>{@code courtOrderThroughput.latency} - downstream latency, see {@link DownstreamLatency#parse(String)}, default {@code longtail:40,0.9}</li>
+ *     <li>{@code courtOrderThroughput.errorRate} - fraction of downstream requests that fail, default 0</li>
+ *     <li>{@code courtOrderThroughput.paddingBytes} - extra bytes in each downstream response, default 0</li>
+ * </ul>
+ * Throughput is measured end to end, until each court order can be queried in its new state. The
+ * per-stage latencies inside the handler are on its CommandLatency MBeans.
+ */
+@EnabledIfSystemProperty(named = "courtOrderThroughput", matches = "true")
+public class CourtOrderThroughputIT extends AbstractIT {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CourtOrderThroughputIT.class);
+
+    private static final int COMMANDS = Integer.getInteger("courtOrderThroughput.commands", 200);
+    private static final int CONCURRENCY = Integer.getInteger("courtOrderThroughput.concurrency", 8);
+    private static final DownstreamLatency LATENCY = DownstreamLatency.parse(System.getProperty("courtOrderThroughput.latency", "longtail:40,0.9"));
+    private static final double ERROR_RATE = Double.parseDouble(System.getProperty("courtOrderThroughput.errorRate", "0"));
+    private static final int PADDING_BYTES = Integer.getInteger("courtOrderThroughput.paddingBytes", 0);
+    private static final long PROCESSING_TIMEOUT_SECONDS = 300;
+
+    private final LocalDate orderDate = LocalDate.now();
+    private final LocalDate endDate = LocalDate.now().plusMonths(6);
+
+    @Test
+    public void shouldMeasureCreateCourtOrderThroughputAgainstSlowDownstreams() throws Exception {
+        installDownstreamStandIns();
+        final Map<String, UUID> courtOrderIdsByDefendant = courtOrderIdsByDefendant();
+
+        final long startedAt = System.nanoTime();
+        submitCourtOrders(courtOrderIdsByDefendant);
+        final long acceptedAt = System.nanoTime();
+        final int notProcessed = awaitCourtOrders(courtOrderIdsByDefendant.keySet(), acceptedAt, withJsonPath("$.courtOrders.length()", equalTo(1)));
+
+        logThroughput("create court order", startedAt, acceptedAt, notProcessed);
+    }
+
+    /**
+     * Patches the judicial child results of every court order with one v2 command, which looks up
+     * each court order's child results and latest end date from progression.
+     */
+    @Test
+    public void shouldMeasurePatchJudicialChildResultsV2ThroughputAgainstSlowDownstreams() throws Exception {
+        installDownstreamStandIns();
+        final Map<String, UUID> courtOrderIdsByDefendant = courtOrderIdsByDefendant();
+        submitCourtOrders(courtOrderIdsByDefendant);
+        final int notCreated = awaitCourtOrders(courtOrderIdsByDefendant.keySet(), System.nanoTime(), withJsonPath("$.courtOrders.length()", equalTo(1)));
+        assertThat(notCreated, is(0));
+
+        final long startedAt = System.nanoTime();
+        assertThat(submitPatchJudicialChildResultsV2(courtOrderIdsByDefendant.values()), is(HttpStatus.SC_ACCEPTED));
+        final long acceptedAt = System.nanoTime();
+        final int notProcessed = awaitCourtOrders(courtOrderIdsByDefendant.keySet(), acceptedAt,
+                withJsonPath("$.courtOrders[0].judicialChildResults.length()", equalTo(1)));
+
+        logThroughput("patch judicial child results v2", startedAt, acceptedAt, notProcessed);
+    }
+
+    private static void installDownstreamStandIns() {
+        final DownstreamStandIn referenceData = DownstreamStandIn.referenceData()
+                .withLatency(LATENCY)
+                .withErrorRate(ERROR_RATE)
+                .withPaddingBytes(PADDING_BYTES);
+        final DownstreamStandIn progression = DownstreamStandIn.progression()
+                .withLatency(LATENCY)
+                .withErrorRate(ERROR_RATE)
+                .withPaddingBytes(PADDING_BYTES);
+        referenceData.install();
+        progression.install();
+        LOGGER.info("Running {} court orders from {} clients against {} and {}", COMMANDS, CONCURRENCY, referenceData, progression);
+    }
+
+    private static Map<String, UUID> courtOrderIdsByDefendant() {
+        final Map<String, UUID> courtOrderIdsByDefendant = new LinkedHashMap<>();
+        IntStream.range(0, COMMANDS).forEach(i -> courtOrderIdsByDefendant.put(randomUUID().toString(), randomUUID()));
+        return courtOrderIdsByDefendant;
+    }
+
+    private void submitCourtOrders(final Map<String, UUID> courtOrderIdsByDefendant) throws Exception {
+        final ExecutorService clients = newFixedThreadPool(CONCURRENCY);
+        try {
+            final List<Future<Integer>> responses = new ArrayList<>();
+            courtOrderIdsByDefendant.forEach((defendantId, courtOrderId) -> responses.add(clients.submit(() -> submitCourtOrder(defendantId, courtOrderId))));
+            for (final Future<Integer> response : responses) {
+                assertThat(response.get(), is(HttpStatus.SC_ACCEPTED));
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    private int submitCourtOrder(final String defendantId, final UUID courtOrderId) throws IOException {
+        final String createCourtOrderPayload = getPayload("progression.create-court-order.json")
+                .replace("%COURT_ORDER_ID%", courtOrderId.toString())
+                .replace("%HEARING_ID%", randomUUID().toString())
+                .replace("%ORDER_DATE%", orderDate.toString())
+                .replace("%CASE_ID%", randomUUID().toString())
+                .replace("%END_DATE%", endDate.toString())
+                .replace("%DEFENDANT_ID%", defendantId);
+        return postCommand(getWriteUrl("/court-order"),
+                "application/vnd.courtorders.create-court-order+json",
+                createCourtOrderPayload).getStatus();
+    }
+
+    private static int submitPatchJudicialChildResultsV2(final Collection<UUID> courtOrderIds) throws IOException {
+        final JsonArrayBuilder courtOrderIdsBuilder = createArrayBuilder();
+        courtOrderIds.forEach(courtOrderId -> courtOrderIdsBuilder.add(courtOrderId.toString()));
+        return postCommand(getWriteUrl("/court-order/patch"),
+                "application/vnd.courtorders.patch-update-judicial-child-results-v2+json",
+                createObjectBuilder().add("courtOrderIds", courtOrderIdsBuilder).build().toString()).getStatus();
+    }
+
+    /**
+     * @return the number of defendants whose court order did not match before the timeout
+     */
+    private static int awaitCourtOrders(final Collection<String> defendantIds, final long from, final Matcher<? super ReadContext> courtOrders) {
+        final long deadline = from + TimeUnit.SECONDS.toNanos(PROCESSING_TIMEOUT_SECONDS);
+        int notProcessed = 0;
+        for (final String defendantId : defendantIds) {
+            if (!awaitCourtOrderForDefendant(defendantId, deadline, courtOrders)) {
+                notProcessed++;
+            }
+        }
+        return notProcessed;
+    }
+
+    private static boolean awaitCourtOrderForDefendant(final String defendantId, final long deadline, final Matcher<? super ReadContext> courtOrders) {
+        final long remainingMillis = Math.max(NANOSECONDS.toMillis(deadline - System.nanoTime()), 1);
+        try {
+            poll(requestParams(getReadUrl(join("", "/court-order/defendant/", defendantId)),
+                    "application/vnd.courtorders.query.court-order-by-defendant-id+json")
+                    .withHeader(USER_ID, randomUUID()))
+                    .timeout(remainingMillis, TimeUnit.MILLISECONDS)
+                    .until(status().is(OK), payload().isJson(courtOrders));
+            return true;
+        } catch (final AssertionError e) {
+            return false;
+        }
+    }
+
+    private static void logThroughput(final String commandName, final long startedAt, final long acceptedAt, final int notProcessed) {
+        final long elapsedMillis = NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        LOGGER.info("{} court orders for {} accepted in {} ms and processed in {} ms: {} court orders per second, {} not processed",
+                COMMANDS,
+                commandName,
+                NANOSECONDS.toMillis(acceptedAt - startedAt),
+                elapsedMillis,
+                String.format("%.1f", (COMMANDS - notProcessed) * 1000.0 / Math.max(elapsedMillis, 1)),
+                notProcessed);
+    }
+}
@@ -0,0 +1,82 @@
+package uk.gov.moj.cpp.applications.util;
+
+import static java.lang.Double.parseDouble;
+import static java.lang.Integer.parseInt;
+
+import java.util.function.UnaryOperator;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+
+/**
+ * How long a downstream stand-in takes to respond, applied by WireMock to every stubbed response.
+ *
+ * <p>Can be given as a spec, e.g. in a system property:
+ * <ul>
+ *     <li>{@code none}</li>
+ *     <li>{@code fixed:50} - always 50 ms</li>
+ *     <li>{@code uniform:20-200} - anywhere between 20 and 200 ms</li>
+ *     <li>{@code longtail:40,0.9} - log-normal with a 40 ms median and a sigma of 0.9, so most
+ *     responses are quick and a few are very slow</li>
+ * </ul>
+ */
+public class DownstreamLatency {
+
+    private final String description;
+    private final UnaryOperator<ResponseDefinitionBuilder> delay;
+
+    private DownstreamLatency(final String description, final UnaryOperator<ResponseDefinitionBuilder> delay) {
+        this.description = description;
+        this.delay = delay;
+    }
+
+    public static DownstreamLatency none() {
+        return new DownstreamLatency("none", response -> response);
+    }
+
+    public static DownstreamLatency fixed(final int millis) {
+        return new DownstreamLatency("fixed " + millis + " ms", response -> response.withFixedDelay(millis));
+    }
+
+    public static DownstreamLatency uniform(final int lowerMillis, final int upperMillis) {
+        return new DownstreamLatency("uniform " + lowerMillis + "-" + upperMillis + " ms",
+                response -> response.withUniformRandomDelay(lowerMillis, upperMillis));
+    }
+
+    public static DownstreamLatency longTail(final double medianMillis, final double sigma) {
+        return new DownstreamLatency("long tail, median " + medianMillis + " ms, sigma " + sigma,
+                response -> response.withLogNormalRandomDelay(medianMillis, sigma));
+    }
+
+    public static DownstreamLatency parse(final String spec) {
+        final String[] typeAndArguments = spec.trim().split(":", 2);
+        final String type = typeAndArguments[0];
+        if ("none".equals(type)) {
+            return none();
+        }
+        if (typeAndArguments.length < 2) {
+            throw new IllegalArgumentException("Missing arguments in latency spec: " + spec);
+        }
+        final String arguments = typeAndArguments[1];
+        switch (type) {
+            case "fixed":
+                return fixed(parseInt(arguments));
+            case "uniform":
+                final String[] bounds = arguments.split("-");
+                return uniform(parseInt(bounds[0]), parseInt(bounds[1]));
+            case "longtail":
+                final String[] medianAndSigma = arguments.split(",");
+                return longTail(parseDouble(medianAndSigma[0]), parseDouble(medianAndSigma[1]));
+            default:
+                throw new IllegalArgumentException("Unknown latency spec: " + spec);
+        }
+    }
+
+    public ResponseDefinitionBuilder applyTo(final ResponseDefinitionBuilder response) {
+        return delay.apply(response);
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
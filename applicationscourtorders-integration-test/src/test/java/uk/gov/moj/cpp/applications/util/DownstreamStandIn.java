@@ -0,0 +1,150 @@
+package uk.gov.moj.cpp.applications.util;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.resetAllScenarios;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static java.lang.String.format;
+import static java.util.UUID.randomUUID;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.Response.Status.OK;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
+import static org.apache.http.HttpHeaders.ACCEPT;
+import static org.apache.http.HttpHeaders.CONTENT_TYPE;
+import static uk.gov.justice.service.wiremock.testutil.InternalEndpointMockUtils.stubPingFor;
+import static uk.gov.justice.services.common.http.HeaderConstants.ID;
+import static uk.gov.moj.cpp.applications.util.FileUtil.getPayload;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+
+/**
+ * Offline stand-in for a context the command handler queries, with configurable latency, error
+ * rate and payload size. Unlike the functional stubs in {@link WireMockStubUtils} it answers any
+ * id, so it can sit behind a load test.
+ *
+ * <p>The WireMock server runs outside the test JVM, so the error rate is applied as a cycle rather
+ * than at random: with an error rate of 0.1 every tenth request to each query fails with a 503.
+ */
+public class DownstreamStandIn {
+
+    private static final String PROGRESSION_QUERY_URL = "/progression-service/query/api/rest/progression/.*";
+
+    private final String serviceName;
+    private final List<Endpoint> endpoints;
+
+    private DownstreamLatency latency = DownstreamLatency.none();
+    private double errorRate;
+    private int paddingBytes;
+
+    private DownstreamStandIn(final String serviceName, final List<Endpoint> endpoints) {
+        this.serviceName = serviceName;
+        this.endpoints = endpoints;
+    }
+
+    public static DownstreamStandIn referenceData() {
+        return new DownstreamStandIn("referencedata-service", List.of(
+                new Endpoint("referencedata.get-result-definition",
+                        () -> get(urlPathMatching("/referencedata-service/query/api/rest/referencedata/result-definitions/.*")),
+                        "stub-data/referencedata.get-result-definition.json")));
+    }
+
+    public static DownstreamStandIn progression() {
+        return new DownstreamStandIn("progression-service", List.of(
+                progressionQuery("progression.query.judicial-child-results", "stub-data/progression.query.judicial-child-results.json"),
+                progressionQuery("progression.query.judicial-child-results-v2", "stub-data/progression.query.judicial-child-results-v2.json"),
+                progressionQuery("progression.query.judicial-child-results-batch", "stub-data/progression.query.judicial-child-results-batch.json"),
+                progressionQuery("progression.query.judicial-child-results-v2-batch", "stub-data/progression.query.judicial-child-results-v2-batch.json")));
+    }
+
+    public DownstreamStandIn withLatency(final DownstreamLatency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * @param errorRate the fraction of requests, between 0 and 1, that fail with a 503
+     */
+    public DownstreamStandIn withErrorRate(final double errorRate) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1 but was " + errorRate);
+        }
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Pads every response with a field of the given size, to see how payload size affects the
+     * handler.
+     */
+    public DownstreamStandIn withPaddingBytes(final int paddingBytes) {
+        this.paddingBytes = paddingBytes;
+        return this;
+    }
+
+    public void install() {
+        stubPingFor(serviceName);
+        resetAllScenarios();
+
+        for (final Endpoint endpoint : endpoints) {
+            final String body = pad(getPayload(endpoint.resource()));
+            if (errorRate == 0) {
+                stubFor(endpoint.request().get().willReturn(success(body)));
+                continue;
+            }
+            final int cycleLength = (int) Math.round(1 / errorRate);
+            for (int position = 0; position < cycleLength; position++) {
+                final boolean last = position == cycleLength - 1;
+                stubFor(endpoint.request().get()
+                        .inScenario(endpoint.name())
+                        .whenScenarioStateIs(state(position))
+                        .willReturn(last ? failure() : success(body))
+                        .willSetStateTo(last ? STARTED : state(position + 1)));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return format("%s (latency %s, error rate %s, padding %d bytes)", serviceName, latency, errorRate, paddingBytes);
+    }
+
+    private ResponseDefinitionBuilder success(final String body) {
+        return latency.applyTo(aResponse().withStatus(OK.getStatusCode())
+                .withHeader(ID, randomUUID().toString())
+                .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                .withBody(body));
+    }
+
+    private ResponseDefinitionBuilder failure() {
+        return latency.applyTo(aResponse().withStatus(SERVICE_UNAVAILABLE.getStatusCode()));
+    }
+
+    private String pad(final String payload) {
+        if (paddingBytes == 0) {
+            return payload;
+        }
+        final int start = payload.indexOf('{') + 1;
+        return payload.substring(0, start) + "\"padding\": \"" + "x".repeat(paddingBytes) + "\"," + payload.substring(start);
+    }
+
+    private static String state(final int position) {
+        return position == 0 ? STARTED : "request-" + position;
+    }
+
+    private static Endpoint progressionQuery(final String queryName, final String resource) {
+        return new Endpoint(queryName,
+                () -> any(urlPathMatching(PROGRESSION_QUERY_URL)).withHeader(ACCEPT, containing(format("application/vnd.%s+json", queryName))),
+                resource);
+    }
+
+    private record Endpoint(String name, Supplier<MappingBuilder> request, String resource) {
+    }
+}
@@ -6,6 +6,7 @@ import uk.gov.justice.services.core.annotation.ServiceComponent;
 import uk.gov.justice.services.core.enveloper.Enveloper;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 import uk.gov.moj.cpp.courtorders.query.CourtOrderQueryView;
+import uk.gov.moj.cpp.courtorders.query.PatchJobQueryView;
 
 import javax.inject.Inject;
 
@@ -18,6 +19,9 @@ public class CourtOrderQueryApi {
     @Inject
     private CourtOrderQueryView courtOrderQueryView;
 
+    @Inject
+    private PatchJobQueryView patchJobQueryView;
+
     @Handles("applicationscourtorders.query.court-order-by-defendant-id")
     public JsonEnvelope getCourtOrdersByDefendant(final JsonEnvelope envelope) {
         return courtOrderQueryView.getCourtOrdersByDefendant(envelope);
@@ -37,4 +41,14 @@ public class CourtOrderQueryApi {
     public JsonEnvelope getCourtOrdersByCaseId(final JsonEnvelope envelope) {
         return courtOrderQueryView.getCourtOrdersByCase(envelope);
     }
+
+    @Handles("applicationscourtorders.query.court-order-ids")
+    public JsonEnvelope getCourtOrderIds(final JsonEnvelope envelope) {
+        return courtOrderQueryView.getCourtOrderIds(envelope);
+    }
+
+    @Handles("applicationscourtorders.query.patch-job")
+    public JsonEnvelope getPatchJob(final JsonEnvelope envelope) {
+        return patchJobQueryView.getPatchJob(envelope);
+    }
 }
@@ -6,6 +6,7 @@ import static org.mockito.Mockito.when;
 
 import uk.gov.justice.services.messaging.JsonEnvelope;
 import uk.gov.moj.cpp.courtorders.query.CourtOrderQueryView;
+import uk.gov.moj.cpp.courtorders.query.PatchJobQueryView;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,6 +24,9 @@ public class CourtOrderQueryApiTest {
     @Mock
     private CourtOrderQueryView courtOrderQueryView;
 
+    @Mock
+    private PatchJobQueryView patchJobQueryView;
+
     @Mock
     private JsonEnvelope response;
 
@@ -54,4 +58,16 @@ public class CourtOrderQueryApiTest {
         when(courtOrderQueryView.getCourtOrdersByHearingAndDefendant(envelope)).thenReturn(response);
         assertThat(courtOrderQueryApi.getCourtOrdersByHearingAndDefendant(envelope), equalTo(response));
     }
+
+    @Test
+    public void getCourtOrderIds() {
+        when(courtOrderQueryView.getCourtOrderIds(envelope)).thenReturn(response);
+        assertThat(courtOrderQueryApi.getCourtOrderIds(envelope), equalTo(response));
+    }
+
+    @Test
+    public void getPatchJob() {
+        when(patchJobQueryView.getPatchJob(envelope)).thenReturn(response);
+        assertThat(courtOrderQueryApi.getPatchJob(envelope), equalTo(response));
+    }
 }
@@ -81,7 +81,7 @@ public class CourtOrderQueryView {
         final JsonObject payloadAsJsonObject = query.payloadAsJsonObject();
         final UUID caseId = UUID.fromString(payloadAsJsonObject.getString("caseId"));
         final UUID defendantId = UUID.fromString(payloadAsJsonObject.getString("defendantId"));
-        final List<CourtOrderEntity> courtOrders = courtOrderRepository.findByCaseAndDefendantId(caseId.toString(), defendantId);
+        final List<CourtOrderEntity> courtOrders = courtOrderRepository.findByCaseAndDefendantId(caseId, defendantId);
         courtOrders.forEach(courtOrderEntity ->
                 jsonArrayBuilder.add(stringToJsonObjectConverter.convert(courtOrderEntity.getPayload()))
         );
@@ -106,6 +106,19 @@ public class CourtOrderQueryView {
         return envelopeFrom(query.metadata(), jsonObjectBuilder.build());
     }
 
+    /**
+     * Returns a keyset paginated page of the ids of the court orders that are not removed, for
+     * system users that work through every court order.
+     */
+    public JsonEnvelope getCourtOrderIds(final JsonEnvelope query) {
+        final JsonObject payloadAsJsonObject = query.payloadAsJsonObject();
+        final UUID afterCourtOrderId = UUID.fromString(payloadAsJsonObject.getString("afterCourtOrderId"));
+        final JsonArrayBuilder jsonArrayBuilder = createArrayBuilder();
+        courtOrderRepository.findCourtOrderIdsNotRemovedAfter(afterCourtOrderId, payloadAsJsonObject.getInt("limit"))
+                .forEach(courtOrderId -> jsonArrayBuilder.add(courtOrderId.toString()));
+        return envelopeFrom(query.metadata(), createObjectBuilder().add("courtOrderIds", jsonArrayBuilder.build()).build());
+    }
+
     private JsonObject convertToQueryCourtOrder(final String payload, final LocalDate hearingDate) {
         final CreateCourtOrder courtOrder = jsonObjectToObjectConverter.convert(stringToJsonObjectConverter.convert(payload), CreateCourtOrder.class);
         return objectToJsonObjectConverter.convert(CourtOrder.courtOrder()
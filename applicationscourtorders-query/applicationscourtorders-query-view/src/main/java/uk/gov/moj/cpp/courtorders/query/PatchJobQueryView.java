@@ -0,0 +1,64 @@
+package uk.gov.moj.cpp.courtorders.query;
+
+import static java.time.Duration.between;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static javax.json.JsonValue.NULL;
+import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
+import static uk.gov.justice.services.messaging.JsonObjects.createObjectBuilder;
+
+import uk.gov.justice.services.common.converter.ZonedDateTimes;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+import uk.gov.moj.cpp.courtorders.persistence.entity.PatchJobEntity;
+import uk.gov.moj.cpp.courtorders.persistence.repository.PatchJobRepository;
+
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.json.JsonObjectBuilder;
+
+public class PatchJobQueryView {
+
+    private static final String STATUS_IN_PROGRESS = "IN_PROGRESS";
+    private static final String STATUS_COMPLETED = "COMPLETED";
+
+    @Inject
+    private PatchJobRepository patchJobRepository;
+
+    public JsonEnvelope getPatchJob(final JsonEnvelope query) {
+        final UUID jobId = UUID.fromString(query.payloadAsJsonObject().getString("jobId"));
+        final PatchJobEntity patchJob = patchJobRepository.findBy(jobId);
+        if (isNull(patchJob)) {
+            return envelopeFrom(query.metadata(), NULL);
+        }
+
+        final JsonObjectBuilder jsonObjectBuilder = createObjectBuilder()
+                .add("jobId", patchJob.getJobId().toString())
+                .add("commandName", patchJob.getCommandName())
+                .add("status", nonNull(patchJob.getCompletedAt()) ? STATUS_COMPLETED : STATUS_IN_PROGRESS)
+                .add("totalCount", patchJob.getTotalCount())
+                .add("processedCount", patchJob.getProcessedCount())
+                .add("chunkCount", patchJob.getChunkCount())
+                .add("completedChunkCount", patchJob.getCompletedChunkCount())
+                .add("startedAt", ZonedDateTimes.toString(patchJob.getStartedAt()))
+                .add("throughputPerSecond", throughputPerSecond(patchJob));
+        if (nonNull(patchJob.getLastCheckpointAt())) {
+            jsonObjectBuilder.add("lastCheckpointAt", ZonedDateTimes.toString(patchJob.getLastCheckpointAt()));
+        }
+        if (nonNull(patchJob.getCompletedAt())) {
+            jsonObjectBuilder.add("completedAt", ZonedDateTimes.toString(patchJob.getCompletedAt()));
+        }
+        return envelopeFrom(query.metadata(), jsonObjectBuilder.build());
+    }
+
+    /**
+     * Court orders processed per second between the start of the job and its last checkpoint.
+     */
+    private double throughputPerSecond(final PatchJobEntity patchJob) {
+        if (isNull(patchJob.getLastCheckpointAt())) {
+            return 0;
+        }
+        final long elapsedMillis = between(patchJob.getStartedAt(), patchJob.getLastCheckpointAt()).toMillis();
+        return elapsedMillis > 0 ? patchJob.getProcessedCount() * 1000.0 / elapsedMillis : 0;
+    }
+}
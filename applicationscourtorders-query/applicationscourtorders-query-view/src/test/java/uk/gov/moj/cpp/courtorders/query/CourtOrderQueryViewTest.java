@@ -220,7 +220,7 @@ public class CourtOrderQueryViewTest {
         final UUID courtOrderId = randomUUID();
         final JsonObject courtOrderPayload = createObjectBuilder().add("id", courtOrderId.toString()).build();
         courtOrderEntity.setPayload(courtOrderPayload.toString());
-        Mockito.when(courtOrderRepository.findByCaseAndDefendantId(caseId.toString(), defendantId)).thenReturn(Lists.newArrayList(courtOrderEntity));
+        Mockito.when(courtOrderRepository.findByCaseAndDefendantId(caseId, defendantId)).thenReturn(Lists.newArrayList(courtOrderEntity));
         final JsonEnvelope envelope = courtOrderQueryView.getCourtOrdersByCase(jsonEnvelope);
         final JsonArray payloadAsJsonObject = envelope.payloadAsJsonObject().getJsonArray("courtOrders");
 
@@ -253,4 +253,25 @@ public class CourtOrderQueryViewTest {
         assertThat(payloadAsJsonObject.getValuesAs(JsonObject.class).size(), is(1));
         assertThat(payloadAsJsonObject.getJsonObject(0).getString("id"), is(courtOrderId.toString()));
     }
+
+    @Test
+    public void getCourtOrderIds() {
+        final UUID afterCourtOrderId = randomUUID();
+        final UUID courtOrderId1 = randomUUID();
+        final UUID courtOrderId2 = randomUUID();
+        final JsonEnvelope jsonEnvelope = JsonEnvelope.envelopeFrom(
+                JsonEnvelope.metadataBuilder().withId(randomUUID())
+                        .withName("applicationscourtorders.query.court-order-ids").build(),
+                createObjectBuilder()
+                        .add("afterCourtOrderId", afterCourtOrderId.toString())
+                        .add("limit", 2)
+                        .build());
+        Mockito.when(courtOrderRepository.findCourtOrderIdsNotRemovedAfter(afterCourtOrderId, 2)).thenReturn(List.of(courtOrderId1, courtOrderId2));
+
+        final JsonArray courtOrderIds = courtOrderQueryView.getCourtOrderIds(jsonEnvelope).payloadAsJsonObject().getJsonArray("courtOrderIds");
+
+        assertThat(courtOrderIds.getString(0), is(courtOrderId1.toString()));
+        assertThat(courtOrderIds.getString(1), is(courtOrderId2.toString()));
+        assertThat(courtOrderIds.size(), is(2));
+    }
 }
@@ -0,0 +1,108 @@
+package uk.gov.moj.cpp.courtorders.query;
+
+import static java.time.ZoneOffset.UTC;
+import static java.util.UUID.randomUUID;
+import static javax.json.JsonValue.NULL;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonObjects.createObjectBuilder;
+
+import uk.gov.justice.services.messaging.JsonEnvelope;
+import uk.gov.moj.cpp.courtorders.persistence.entity.PatchJobEntity;
+import uk.gov.moj.cpp.courtorders.persistence.repository.PatchJobRepository;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+import javax.json.JsonObject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PatchJobQueryViewTest {
+
+    @Mock
+    private PatchJobRepository patchJobRepository;
+
+    @InjectMocks
+    private PatchJobQueryView patchJobQueryView;
+
+    private final UUID jobId = randomUUID();
+    private final ZonedDateTime startedAt = ZonedDateTime.of(2025, 5, 3, 10, 0, 0, 0, UTC);
+
+    @Test
+    public void shouldReturnProgressAndThroughputOfRunningJob() {
+        final PatchJobEntity patchJob = patchJob();
+        patchJob.setProcessedCount(200);
+        patchJob.setCompletedChunkCount(2);
+        patchJob.setLastCheckpointAt(startedAt.plusSeconds(4));
+        when(patchJobRepository.findBy(jobId)).thenReturn(patchJob);
+
+        final JsonObject response = patchJobQueryView.getPatchJob(query()).payloadAsJsonObject();
+
+        assertThat(response.getString("jobId"), is(jobId.toString()));
+        assertThat(response.getString("status"), is("IN_PROGRESS"));
+        assertThat(response.getInt("totalCount"), is(1000));
+        assertThat(response.getInt("processedCount"), is(200));
+        assertThat(response.getInt("chunkCount"), is(10));
+        assertThat(response.getInt("completedChunkCount"), is(2));
+        assertThat(response.getJsonNumber("throughputPerSecond").doubleValue(), is(50.0));
+        assertThat(response.containsKey("lastCheckpointAt"), is(true));
+        assertThat(response.containsKey("completedAt"), is(false));
+    }
+
+    @Test
+    public void shouldReturnCompletedJob() {
+        final PatchJobEntity patchJob = patchJob();
+        patchJob.setProcessedCount(1000);
+        patchJob.setCompletedChunkCount(10);
+        patchJob.setLastCheckpointAt(startedAt.plusSeconds(10));
+        patchJob.setCompletedAt(startedAt.plusSeconds(10));
+        when(patchJobRepository.findBy(jobId)).thenReturn(patchJob);
+
+        final JsonObject response = patchJobQueryView.getPatchJob(query()).payloadAsJsonObject();
+
+        assertThat(response.getString("status"), is("COMPLETED"));
+        assertThat(response.getJsonNumber("throughputPerSecond").doubleValue(), is(100.0));
+        assertThat(response.containsKey("completedAt"), is(true));
+    }
+
+    @Test
+    public void shouldReturnZeroThroughputBeforeFirstCheckpoint() {
+        when(patchJobRepository.findBy(jobId)).thenReturn(patchJob());
+
+        final JsonObject response = patchJobQueryView.getPatchJob(query()).payloadAsJsonObject();
+
+        assertThat(response.getJsonNumber("throughputPerSecond").doubleValue(), is(0.0));
+        assertThat(response.containsKey("lastCheckpointAt"), is(false));
+    }
+
+    @Test
+    public void shouldReturnNullPayloadForUnknownJob() {
+        when(patchJobRepository.findBy(jobId)).thenReturn(null);
+
+        assertThat(patchJobQueryView.getPatchJob(query()).payload(), is(NULL));
+    }
+
+    private PatchJobEntity patchJob() {
+        final PatchJobEntity patchJob = new PatchJobEntity();
+        patchJob.setJobId(jobId);
+        patchJob.setCommandName("courtorders.command.patch-update-judicial-child-results");
+        patchJob.setTotalCount(1000);
+        patchJob.setChunkCount(10);
+        patchJob.setStartedAt(startedAt);
+        return patchJob;
+    }
+
+    private JsonEnvelope query() {
+        return JsonEnvelope.envelopeFrom(
+                JsonEnvelope.metadataBuilder().withId(randomUUID())
+                        .withName("applicationscourtorders.query.patch-job").build(),
+                createObjectBuilder().add("jobId", jobId.toString()).build());
+    }
+}
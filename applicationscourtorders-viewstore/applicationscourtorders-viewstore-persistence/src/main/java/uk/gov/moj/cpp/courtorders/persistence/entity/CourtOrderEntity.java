@@ -1,11 +1,18 @@
 package uk.gov.moj.cpp.courtorders.persistence.entity;
 
+import org.hibernate.annotations.ColumnTransformer;
+
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
 import javax.persistence.Table;
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 @Entity
@@ -32,6 +39,7 @@ public class CourtOrderEntity implements Serializable {
     private LocalDate sittingDate;
 
     @Column(name = "payload")
+    @ColumnTransformer(write = "cast(? as jsonb)")
     private String payload;
 
     @Column(name = "is_removed")
@@ -40,6 +48,15 @@ public class CourtOrderEntity implements Serializable {
     @Column(name = "expiry_date")
     private LocalDate expiryDate;
 
+    /**
+     * The prosecution cases of the offences of the court order, held in court_order_case so that
+     * court orders are found by case without reading their payloads.
+     */
+    @ElementCollection
+    @CollectionTable(name = "court_order_case", joinColumns = @JoinColumn(name = "court_order_row_id"))
+    @Column(name = "prosecution_case_id")
+    private Set<UUID> prosecutionCaseIds = new HashSet<>();
+
     public UUID getId() {
         return id;
     }
@@ -104,5 +121,13 @@ public class CourtOrderEntity implements Serializable {
         this.expiryDate = expiryDate;
     }
 
+    public Set<UUID> getProsecutionCaseIds() {
+        return prosecutionCaseIds;
+    }
+
+    public void setProsecutionCaseIds(final Set<UUID> prosecutionCaseIds) {
+        this.prosecutionCaseIds = prosecutionCaseIds;
+    }
+
 
 }
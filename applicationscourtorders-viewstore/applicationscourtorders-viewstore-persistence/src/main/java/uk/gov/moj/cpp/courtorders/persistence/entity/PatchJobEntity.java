@@ -0,0 +1,116 @@
+package uk.gov.moj.cpp.courtorders.persistence.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "patch_job")
+public class PatchJobEntity implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "job_id")
+    private UUID jobId;
+
+    @Column(name = "command_name")
+    private String commandName;
+
+    @Column(name = "total_count")
+    private int totalCount;
+
+    @Column(name = "processed_count")
+    private int processedCount;
+
+    @Column(name = "chunk_count")
+    private int chunkCount;
+
+    @Column(name = "completed_chunk_count")
+    private int completedChunkCount;
+
+    @Column(name = "started_at")
+    private ZonedDateTime startedAt;
+
+    @Column(name = "last_checkpoint_at")
+    private ZonedDateTime lastCheckpointAt;
+
+    @Column(name = "completed_at")
+    private ZonedDateTime completedAt;
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(final UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getCommandName() {
+        return commandName;
+    }
+
+    public void setCommandName(final String commandName) {
+        this.commandName = commandName;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(final int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public int getProcessedCount() {
+        return processedCount;
+    }
+
+    public void setProcessedCount(final int processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(final int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public int getCompletedChunkCount() {
+        return completedChunkCount;
+    }
+
+    public void setCompletedChunkCount(final int completedChunkCount) {
+        this.completedChunkCount = completedChunkCount;
+    }
+
+    public ZonedDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(final ZonedDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public ZonedDateTime getLastCheckpointAt() {
+        return lastCheckpointAt;
+    }
+
+    public void setLastCheckpointAt(final ZonedDateTime lastCheckpointAt) {
+        this.lastCheckpointAt = lastCheckpointAt;
+    }
+
+    public ZonedDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(final ZonedDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -1,18 +1,28 @@
 package uk.gov.moj.cpp.courtorders.persistence.repository;
 
+import org.apache.deltaspike.data.api.EntityManagerDelegate;
 import org.apache.deltaspike.data.api.EntityRepository;
+import org.apache.deltaspike.data.api.MaxResults;
+import org.apache.deltaspike.data.api.Modifying;
 import org.apache.deltaspike.data.api.Query;
 import org.apache.deltaspike.data.api.QueryParam;
 import org.apache.deltaspike.data.api.Repository;
+import org.apache.deltaspike.data.api.SingleResultType;
 import uk.gov.moj.cpp.courtorders.persistence.entity.CourtOrderEntity;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface CourtOrderRepository extends EntityRepository<CourtOrderEntity, UUID> {
+public interface CourtOrderRepository extends EntityRepository<CourtOrderEntity, UUID>, EntityManagerDelegate<CourtOrderEntity> {
 
+    /**
+     * Served by the partial index court_order_not_removed_defendant_id_expiry_date_idx, which only
+     * holds the court orders that are not removed, so the query has to keep to those.
+     */
     @Query("FROM CourtOrderEntity where defendantId=:defendantId and isRemoved is false and expiryDate > :expiryDate ")
     List<CourtOrderEntity> findByDefendantIdAndExpiryDate(@QueryParam("defendantId") final UUID defendantId, @QueryParam("expiryDate") final LocalDate expiryDate);
 
@@ -22,10 +32,42 @@ public interface CourtOrderRepository extends EntityRepository<CourtOrderEntity,
                                                                   @QueryParam("hearingId") final UUID hearingId,
                                                                   @QueryParam("sittingDate") final LocalDate sittingDate);
 
-    @Query("FROM CourtOrderEntity where courtOrderId=:courtOrderId and isRemoved is false")
-    List<CourtOrderEntity> findByCourtOrderIdNotRemoved(@QueryParam("courtOrderId") final UUID courtOrderId);
+    /**
+     * At most one court order with a given id is not removed, which a unique partial index on
+     * court_order_id enforces, so this is a single index lookup.
+     */
+    @Query(value = "FROM CourtOrderEntity where courtOrderId=:courtOrderId and isRemoved is false", singleResult = SingleResultType.OPTIONAL)
+    Optional<CourtOrderEntity> findByCourtOrderIdNotRemoved(@QueryParam("courtOrderId") final UUID courtOrderId);
 
-    @Query(value = "select * from court_order c, json_array_elements(payload\\:\\:json ->'courtOrderOffences') courtOffence where courtOffence ->>'prosecutionCaseId' = :caseId " +
-            "and defendant_id = :defendantId and is_removed is false", isNative = true)
-    List<CourtOrderEntity> findByCaseAndDefendantId(@QueryParam("caseId") final String caseId, @QueryParam("defendantId") final UUID defendantId);
+    @Query("FROM CourtOrderEntity where courtOrderId in (:courtOrderIds) and isRemoved is false")
+    List<CourtOrderEntity> findByCourtOrderIdsNotRemoved(@QueryParam("courtOrderIds") final Collection<UUID> courtOrderIds);
+
+    /**
+     * Keyset paginated read of the ids of the court orders that are not removed, in court order id
+     * order, answered from the unique partial index on court_order_id. Pass the last court order id
+     * of the previous page to read the next one.
+     */
+    @Query("select c.courtOrderId FROM CourtOrderEntity c where c.isRemoved is false and c.courtOrderId > :afterCourtOrderId order by c.courtOrderId")
+    List<UUID> findCourtOrderIdsNotRemovedAfter(@QueryParam("afterCourtOrderId") final UUID afterCourtOrderId, @MaxResults final int maxResults);
+
+    /**
+     * Merges the given JSON object into the payload of the court order that is not removed, replacing
+     * the top level fields it carries, and sets the expiry date to the one it carries, if any. The
+     * stored payload is updated in place rather than read and written back whole.
+     *
+     * @return the number of court orders updated
+     */
+    @Modifying
+    @Query(value = "update court_order set payload = payload || cast(:fields as jsonb), " +
+            "expiry_date = coalesce(cast(cast(:fields as jsonb) ->> 'expiryDate' as date), expiry_date) " +
+            "where court_order_id = :courtOrderId and is_removed is false", isNative = true)
+    int mergePayload(@QueryParam("courtOrderId") final UUID courtOrderId, @QueryParam("fields") final String fields);
+
+    /**
+     * Finds the court orders by case through the court_order_case table, whose primary key leads
+     * with the prosecution case id, so the payloads are not read to match the case.
+     */
+    @Query("select c FROM CourtOrderEntity c join c.prosecutionCaseIds prosecutionCaseId " +
+            "where prosecutionCaseId = :caseId and c.defendantId = :defendantId and c.isRemoved is false")
+    List<CourtOrderEntity> findByCaseAndDefendantId(@QueryParam("caseId") final UUID caseId, @QueryParam("defendantId") final UUID defendantId);
 }
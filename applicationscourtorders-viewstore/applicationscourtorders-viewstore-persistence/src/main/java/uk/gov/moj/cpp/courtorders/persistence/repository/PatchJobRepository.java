@@ -0,0 +1,11 @@
+package uk.gov.moj.cpp.courtorders.persistence.repository;
+
+import org.apache.deltaspike.data.api.EntityRepository;
+import org.apache.deltaspike.data.api.Repository;
+import uk.gov.moj.cpp.courtorders.persistence.entity.PatchJobEntity;
+
+import java.util.UUID;
+
+@Repository
+public interface PatchJobRepository extends EntityRepository<PatchJobEntity, UUID> {
+}
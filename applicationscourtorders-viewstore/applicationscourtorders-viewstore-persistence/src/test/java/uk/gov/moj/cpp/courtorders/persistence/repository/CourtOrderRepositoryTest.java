@@ -1,13 +1,17 @@
 
 package uk.gov.moj.cpp.courtorders.persistence.repository;
 
+import static java.util.stream.Collectors.toSet;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 
 import uk.gov.moj.cpp.courtorders.persistence.entity.CourtOrderEntity;
 
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.inject.Inject;
@@ -73,4 +77,104 @@ public class CourtOrderRepositoryTest {
 
     }
 
+    @Test
+    public void shouldNotFindRemovedCourtOrdersByDefendantIdAndExpiryDate() {
+        final UUID defendantId = UUID.randomUUID();
+        final UUID courtOrderId = UUID.randomUUID();
+        saveCourtOrder(courtOrderId, defendantId, LocalDate.now().plusDays(1), false);
+        saveCourtOrder(UUID.randomUUID(), defendantId, LocalDate.now().plusDays(1), true);
+        saveCourtOrder(UUID.randomUUID(), UUID.randomUUID(), LocalDate.now().plusDays(1), false);
+
+        final List<CourtOrderEntity> result = courtOrderRepository.findByDefendantIdAndExpiryDate(defendantId, LocalDate.now());
+
+        assertThat(result.stream().map(CourtOrderEntity::getCourtOrderId).toList(), is(List.of(courtOrderId)));
+    }
+
+    @Test
+    public void shouldFindIdsOfCourtOrdersNotRemovedAfterCourtOrderIdInCourtOrderIdOrder() {
+        final long mostSignificantBits = UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE;
+        final UUID firstCourtOrderId = new UUID(mostSignificantBits, 1);
+        final UUID removedCourtOrderId = new UUID(mostSignificantBits, 2);
+        final UUID lastCourtOrderId = new UUID(mostSignificantBits, 3);
+        saveCourtOrder(lastCourtOrderId, false);
+        saveCourtOrder(removedCourtOrderId, true);
+        saveCourtOrder(firstCourtOrderId, false);
+
+        final List<UUID> firstPage = courtOrderRepository.findCourtOrderIdsNotRemovedAfter(new UUID(mostSignificantBits, 0), 1);
+        final List<UUID> nextPage = courtOrderRepository.findCourtOrderIdsNotRemovedAfter(firstPage.get(0), 1);
+        final List<UUID> lastPage = courtOrderRepository.findCourtOrderIdsNotRemovedAfter(nextPage.get(0), 10);
+
+        assertThat(firstPage, is(List.of(firstCourtOrderId)));
+        assertThat(nextPage, is(List.of(lastCourtOrderId)));
+        assertThat(lastPage.stream().noneMatch(courtOrderId -> courtOrderId.getMostSignificantBits() == mostSignificantBits), is(true));
+    }
+
+    @Test
+    public void shouldFindCourtOrdersNotRemovedByCourtOrderIds() {
+        final UUID courtOrderId1 = UUID.randomUUID();
+        final UUID courtOrderId2 = UUID.randomUUID();
+        final UUID removedCourtOrderId = UUID.randomUUID();
+        saveCourtOrder(courtOrderId1, false);
+        saveCourtOrder(courtOrderId2, false);
+        saveCourtOrder(removedCourtOrderId, true);
+        saveCourtOrder(UUID.randomUUID(), false);
+
+        final List<CourtOrderEntity> result = courtOrderRepository.findByCourtOrderIdsNotRemoved(List.of(courtOrderId1, courtOrderId2, removedCourtOrderId));
+
+        assertThat(result.stream().map(CourtOrderEntity::getCourtOrderId).collect(toSet()), is(Set.of(courtOrderId1, courtOrderId2)));
+    }
+
+    @Test
+    public void shouldFindCourtOrderNotRemovedByCourtOrderId() {
+        final UUID courtOrderId = UUID.randomUUID();
+        final UUID removedCourtOrderId = UUID.randomUUID();
+        saveCourtOrder(courtOrderId, true);
+        saveCourtOrder(courtOrderId, false);
+        saveCourtOrder(removedCourtOrderId, true);
+
+        assertThat(courtOrderRepository.findByCourtOrderIdNotRemoved(courtOrderId).map(CourtOrderEntity::isRemoved), is(Optional.of(false)));
+        assertThat(courtOrderRepository.findByCourtOrderIdNotRemoved(removedCourtOrderId), is(Optional.empty()));
+    }
+
+    @Test
+    public void shouldFindCourtOrdersNotRemovedByCaseAndDefendantId() {
+        final UUID caseId = UUID.randomUUID();
+        final UUID defendantId = UUID.randomUUID();
+        final UUID courtOrderId = UUID.randomUUID();
+        saveCourtOrder(courtOrderId, defendantId, false, caseId, UUID.randomUUID());
+        saveCourtOrder(UUID.randomUUID(), defendantId, true, caseId);
+        saveCourtOrder(UUID.randomUUID(), defendantId, false, UUID.randomUUID());
+        saveCourtOrder(UUID.randomUUID(), UUID.randomUUID(), false, caseId);
+
+        final List<CourtOrderEntity> result = courtOrderRepository.findByCaseAndDefendantId(caseId, defendantId);
+
+        assertThat(result.stream().map(CourtOrderEntity::getCourtOrderId).toList(), is(List.of(courtOrderId)));
+    }
+
+    private void saveCourtOrder(final UUID courtOrderId, final boolean isRemoved) {
+        saveCourtOrder(courtOrderId, UUID.randomUUID(), LocalDate.now(), isRemoved);
+    }
+
+    private void saveCourtOrder(final UUID courtOrderId, final UUID defendantId, final LocalDate expiryDate, final boolean isRemoved) {
+        final CourtOrderEntity courtOrderEntity = new CourtOrderEntity();
+        courtOrderEntity.setId(UUID.randomUUID());
+        courtOrderEntity.setCourtOrderId(courtOrderId);
+        courtOrderEntity.setDefendantId(defendantId);
+        courtOrderEntity.setExpiryDate(expiryDate);
+        courtOrderEntity.setPayload("{}");
+        courtOrderEntity.setRemoved(isRemoved);
+        courtOrderRepository.save(courtOrderEntity);
+    }
+
+    private void saveCourtOrder(final UUID courtOrderId, final UUID defendantId, final boolean isRemoved, final UUID... prosecutionCaseIds) {
+        final CourtOrderEntity courtOrderEntity = new CourtOrderEntity();
+        courtOrderEntity.setId(UUID.randomUUID());
+        courtOrderEntity.setCourtOrderId(courtOrderId);
+        courtOrderEntity.setDefendantId(defendantId);
+        courtOrderEntity.setExpiryDate(LocalDate.now());
+        courtOrderEntity.setPayload("{}");
+        courtOrderEntity.setRemoved(isRemoved);
+        courtOrderEntity.setProsecutionCaseIds(new HashSet<>(List.of(prosecutionCaseIds)));
+        courtOrderRepository.save(courtOrderEntity);
+    }
 }